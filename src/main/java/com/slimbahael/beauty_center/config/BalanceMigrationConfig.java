@@ -0,0 +1,28 @@
+package com.slimbahael.beauty_center.config;
+
+import com.slimbahael.beauty_center.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BalanceMigrationConfig implements CommandLineRunner {
+
+    private final UserRepository userRepository;
+
+    @Override
+    public void run(String... args) {
+        // Balances are updated with $inc, which only works on numeric fields
+        try {
+            long converted = userRepository.convertStringBalancesToDecimal();
+            if (converted > 0) {
+                log.info("Converted {} user balances from string to Decimal128", converted);
+            }
+        } catch (Exception e) {
+            log.error("User balance migration failed: {}", e.getMessage(), e);
+        }
+    }
+}
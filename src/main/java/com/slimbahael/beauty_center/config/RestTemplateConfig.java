@@ -1,5 +1,6 @@
 package com.slimbahael.beauty_center.config;
 
+import com.slimbahael.beauty_center.service.OutboundHttpClients;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.client.RestTemplate;
@@ -7,8 +8,9 @@ import org.springframework.web.client.RestTemplate;
 @Configuration
 public class RestTemplateConfig {
 
+    // Pooled client for callers without a dedicated integration; see OutboundHttpClients
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(OutboundHttpClients outboundHttpClients) {
+        return outboundHttpClients.forIntegration(OutboundHttpClients.DEFAULT);
     }
 }
\ No newline at end of file
@@ -12,8 +12,16 @@ public class StripeConfig {
     @Value("${stripe.secret.key}")
     private String stripeSecretKey;
 
+    @Value("${stripe.connect-timeout-ms:5000}")
+    private int connectTimeoutMs;
+
+    @Value("${stripe.read-timeout-ms:20000}")
+    private int readTimeoutMs;
+
     @PostConstruct
     public void initSecretKey() {
         Stripe.apiKey = stripeSecretKey;
+        Stripe.setConnectTimeout(connectTimeoutMs);
+        Stripe.setReadTimeout(readTimeoutMs);
     }
 }
\ No newline at end of file
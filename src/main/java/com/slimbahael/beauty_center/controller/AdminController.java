@@ -1,9 +1,23 @@
 package com.slimbahael.beauty_center.controller;
 
+import com.slimbahael.beauty_center.dto.CursorPage;
 import com.slimbahael.beauty_center.dto.CreateUserRequest;
+import com.slimbahael.beauty_center.dto.IndexReportResponse;
 import com.slimbahael.beauty_center.dto.UpdateUserRequest;
 import com.slimbahael.beauty_center.dto.UserResponse;
+import com.slimbahael.beauty_center.security.BoundedPasswordEncoder;
+import com.slimbahael.beauty_center.security.RateLimitingFilter;
+import com.slimbahael.beauty_center.security.TokenBlacklistService;
 import com.slimbahael.beauty_center.service.EmailService;
+import com.slimbahael.beauty_center.service.IntegrationGuard;
+import com.slimbahael.beauty_center.service.MongoIndexService;
+import com.slimbahael.beauty_center.service.NotificationDispatcher;
+import com.slimbahael.beauty_center.service.NotificationOutboxService;
+import com.slimbahael.beauty_center.service.OutboundHttpClients;
+import com.slimbahael.beauty_center.service.ProductCatalogCache;
+import com.slimbahael.beauty_center.service.RateLimiterService;
+import com.slimbahael.beauty_center.service.SharedStateStore;
+import com.slimbahael.beauty_center.service.StripeWebhookService;
 import com.slimbahael.beauty_center.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -12,6 +26,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -23,11 +38,25 @@ public class AdminController {
 
     private final UserService userService;
     private final EmailService emailService;
+    private final MongoIndexService mongoIndexService;
+    private final ProductCatalogCache productCatalogCache;
+    private final NotificationDispatcher notificationDispatcher;
+    private final NotificationOutboxService notificationOutboxService;
+    private final OutboundHttpClients outboundHttpClients;
+    private final IntegrationGuard integrationGuard;
+    private final StripeWebhookService stripeWebhookService;
+    private final RateLimitingFilter rateLimitingFilter;
+    private final RateLimiterService rateLimiterService;
+    private final SharedStateStore sharedStateStore;
+    private final TokenBlacklistService tokenBlacklistService;
+    private final BoundedPasswordEncoder boundedPasswordEncoder;
 
     @GetMapping("/users")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<UserResponse>> getAllUsers() {
-        return ResponseEntity.ok(userService.getAllUsers());
+    public ResponseEntity<CursorPage<UserResponse>> getAllUsers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(userService.getAllUsers(cursor, limit));
     }
 
     @GetMapping("/users/{role}")
@@ -63,12 +92,82 @@ public class AdminController {
         return ResponseEntity.noContent().build();
     }
 
+    @GetMapping("/indexes")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<IndexReportResponse>> getIndexReport() {
+        return ResponseEntity.ok(mongoIndexService.getIndexReport());
+    }
+
+    @GetMapping("/cache/catalog")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getCatalogCacheStats() {
+        return ResponseEntity.ok(productCatalogCache.getStats());
+    }
+
+    @GetMapping("/notifications/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getNotificationStats() {
+        Map<String, Object> stats = new LinkedHashMap<>(notificationDispatcher.getStats());
+        stats.put("outbox", notificationOutboxService.getStats());
+        return ResponseEntity.ok(stats);
+    }
+
+    @GetMapping("/http-clients/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getOutboundHttpStats() {
+        return ResponseEntity.ok(outboundHttpClients.getStats());
+    }
+
+    @GetMapping("/integrations/health")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getIntegrationHealth() {
+        return ResponseEntity.ok(integrationGuard.getStats());
+    }
+
+    @GetMapping("/stripe/webhooks/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getStripeWebhookStats() {
+        return ResponseEntity.ok(stripeWebhookService.getStats());
+    }
+
+    @GetMapping("/rate-limits/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getRateLimitStats() {
+        return ResponseEntity.ok(rateLimitingFilter.getStats());
+    }
+
+    @GetMapping("/rate-limiter/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getRateLimiterStats(@RequestParam(defaultValue = "10") int top) {
+        Map<String, Object> stats = new LinkedHashMap<>(rateLimiterService.getStats());
+        stats.put("hottestKeys", rateLimiterService.getHottestKeys(Math.min(Math.max(top, 1), 100)));
+        return ResponseEntity.ok(stats);
+    }
+
+    @GetMapping("/shared-state/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getSharedStateStats() {
+        return ResponseEntity.ok(sharedStateStore.getStats());
+    }
+
+    @GetMapping("/token-revocations/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getTokenRevocationStats() {
+        return ResponseEntity.ok(tokenBlacklistService.getStats());
+    }
+
+    @GetMapping("/password-hashing/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getPasswordHashingStats() {
+        return ResponseEntity.ok(boundedPasswordEncoder.getStats());
+    }
+
     @PostMapping("/test-email")
     public ResponseEntity<Map<String, String>> sendTestEmail(@RequestParam String email) {
         try {
             emailService.sendWelcomeEmail(email, "Test User");
             return ResponseEntity.ok(Map.of(
-                "message", "Test email sent successfully to " + email,
+                "message", "Test email queued for " + email,
                 "status", "success"
             ));
         } catch (Exception e) {
@@ -1,5 +1,6 @@
 package com.slimbahael.beauty_center.controller;
 
+import com.slimbahael.beauty_center.dto.CursorPage;
 import com.slimbahael.beauty_center.dto.PaymentIntentRequest;
 import com.slimbahael.beauty_center.dto.PaymentIntentResponse;
 import com.slimbahael.beauty_center.exception.BadRequestException;
@@ -59,7 +60,7 @@ public class BalanceController {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
         BigDecimal balance = balanceService.getUserBalance(userId);
-        List<BalanceTransaction> recentTransactions = balanceService.getUserTransactionHistory(userId);
+        List<BalanceTransaction> recentTransactions = balanceService.getUserTransactionHistory(userId, null, 5).getItems();
 
         return ResponseEntity.ok(Map.of(
                 "userId", userId,
@@ -67,7 +68,7 @@ public class BalanceController {
                 "balance", balance,
                 "formatted", String.format("€%.2f", balance),
                 "lastUpdated", user.getLastBalanceUpdate(),
-                "recentTransactions", recentTransactions.stream().limit(5).toList()
+                "recentTransactions", recentTransactions
         ));
     }
 
@@ -101,9 +102,11 @@ public class BalanceController {
 
     @GetMapping("/admin/users/{userId}/balance/transactions")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<BalanceTransaction>> getUserTransactionHistory(@PathVariable String userId) {
-        List<BalanceTransaction> transactions = balanceService.getUserTransactionHistory(userId);
-        return ResponseEntity.ok(transactions);
+    public ResponseEntity<CursorPage<BalanceTransaction>> getUserTransactionHistory(
+            @PathVariable String userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(balanceService.getUserTransactionHistory(userId, cursor, limit));
     }
 
 
@@ -1,5 +1,6 @@
 package com.slimbahael.beauty_center.controller;
 
+import com.slimbahael.beauty_center.dto.CursorPage;
 import com.slimbahael.beauty_center.dto.CheckoutSessionResponse;
 import com.slimbahael.beauty_center.dto.GiftCardPurchaseRequest;
 import com.slimbahael.beauty_center.dto.GiftCardRedemptionRequest;
@@ -7,6 +8,7 @@ import com.slimbahael.beauty_center.model.GiftCard;
 import com.slimbahael.beauty_center.model.User;
 import com.slimbahael.beauty_center.repository.UserRepository;
 import com.slimbahael.beauty_center.service.GiftCardService;
+import com.slimbahael.beauty_center.service.PaymentStateService;
 import com.slimbahael.beauty_center.service.StripeService;
 import com.slimbahael.beauty_center.exception.ResourceNotFoundException;
 import com.slimbahael.beauty_center.exception.BadRequestException;
@@ -32,6 +34,7 @@ public class GiftCardController {
 
     private final GiftCardService giftCardService;
     private final StripeService stripeService;
+    private final PaymentStateService paymentStateService;
     private final UserRepository userRepository;
 
     // PUBLIC GIFT CARD PURCHASE - No account required
@@ -184,8 +187,10 @@ public class GiftCardController {
 
     @GetMapping("/admin/gift-cards")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<GiftCard>> getAllGiftCards() {
-        return ResponseEntity.ok(giftCardService.getAllGiftCards());
+    public ResponseEntity<CursorPage<GiftCard>> getAllGiftCards(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(giftCardService.getAllGiftCards(cursor, limit));
     }
 
     @PostMapping("/admin/gift-cards/verify-code")
@@ -240,11 +245,17 @@ public class GiftCardController {
         return ResponseEntity.ok(Map.of("message", "Cartes expirées traitées avec succès"));
     }
 
+    @PostMapping("/admin/gift-cards/backfill-lookup-keys")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> backfillGiftCardLookupKeys() {
+        return ResponseEntity.ok(giftCardService.backfillLookupKeys());
+    }
+
     @GetMapping("/admin/gift-cards/payment-intent/{paymentIntentId}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<Map<String, Object>> getGiftCardByPaymentIntent(@PathVariable String paymentIntentId) {
         try {
-            String paymentStatus = stripeService.getPaymentStatus(paymentIntentId);
+            String paymentStatus = paymentStateService.getPaymentStatus(paymentIntentId);
             GiftCard giftCard = giftCardService.getGiftCardByPaymentIntent(paymentIntentId);
 
             Map<String, Object> response = new HashMap<>();
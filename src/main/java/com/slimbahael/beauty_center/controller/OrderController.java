@@ -1,5 +1,6 @@
 package com.slimbahael.beauty_center.controller;
 
+import com.slimbahael.beauty_center.dto.CursorPage;
 import com.slimbahael.beauty_center.dto.CheckoutRequest;
 import com.slimbahael.beauty_center.dto.OrderResponse;
 import com.slimbahael.beauty_center.exception.BadRequestException;
@@ -11,7 +12,6 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
-import java.util.List;
 
 @RestController
 @CrossOrigin
@@ -23,8 +23,10 @@ public class OrderController {
     // Admin endpoints
     @GetMapping("/api/admin/orders")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<OrderResponse>> getAllOrders() {
-        return ResponseEntity.ok(orderService.getAllOrders());
+    public ResponseEntity<CursorPage<OrderResponse>> getAllOrders(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(orderService.getAllOrders(cursor, limit));
     }
 
     @PatchMapping("/api/admin/orders/{id}/status")
@@ -38,7 +40,9 @@ public class OrderController {
     // Customer endpoints - DISABLED (Products available in store only)
     @GetMapping("/api/customer/orders")
     @PreAuthorize("hasRole('CUSTOMER')")
-    public ResponseEntity<List<OrderResponse>> getCustomerOrders() {
+    public ResponseEntity<CursorPage<OrderResponse>> getCustomerOrders(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
         throw new BadRequestException("Les achats en ligne sont temporairement désactivés. Nos produits sont disponibles en magasin.");
     }
 
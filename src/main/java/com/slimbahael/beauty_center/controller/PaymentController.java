@@ -4,6 +4,7 @@ import com.slimbahael.beauty_center.dto.PaymentIntentRequest;
 import com.slimbahael.beauty_center.dto.PaymentIntentResponse;
 import com.slimbahael.beauty_center.model.User;
 import com.slimbahael.beauty_center.repository.UserRepository;
+import com.slimbahael.beauty_center.service.PaymentStateService;
 import com.slimbahael.beauty_center.service.StripeService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -20,6 +21,7 @@ import java.security.Principal;
 public class PaymentController {
 
     private final StripeService stripeService;
+    private final PaymentStateService paymentStateService;
     private final UserRepository userRepository;
 
     @PostMapping("/create-payment-intent")
@@ -42,7 +44,7 @@ public class PaymentController {
     @GetMapping("/payment-status/{paymentIntentId}")
     @PreAuthorize("hasAnyRole('CUSTOMER', 'ADMIN')")
     public ResponseEntity<String> getPaymentStatus(@PathVariable String paymentIntentId) {
-        String status = stripeService.getPaymentStatus(paymentIntentId);
+        String status = paymentStateService.getPaymentStatus(paymentIntentId);
         return ResponseEntity.ok(status);
     }
 
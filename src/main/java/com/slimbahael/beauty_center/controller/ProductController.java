@@ -1,5 +1,6 @@
 package com.slimbahael.beauty_center.controller;
 
+import com.slimbahael.beauty_center.dto.CursorPage;
 import com.slimbahael.beauty_center.dto.ProductRequest;
 import com.slimbahael.beauty_center.dto.ProductResponse;
 import com.slimbahael.beauty_center.service.ProductService;
@@ -48,8 +49,10 @@ public class ProductController {
     // Admin endpoints for product management
     @GetMapping("/api/admin/products")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<ProductResponse>> getAllProducts() {
-        return ResponseEntity.ok(productService.getAllProducts());
+    public ResponseEntity<CursorPage<ProductResponse>> getAllProducts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(productService.getAllProducts(cursor, limit));
     }
 
     @PostMapping("/api/admin/products")
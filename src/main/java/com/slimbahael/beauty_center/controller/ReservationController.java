@@ -17,7 +17,6 @@ import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
 import java.security.Principal;
-import java.util.List;
 
 @RestController
 @CrossOrigin
@@ -32,22 +31,28 @@ public class ReservationController {
     // Admin endpoints
     @GetMapping("/api/admin/reservations")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<ReservationResponse>> getAllReservations() {
-        return ResponseEntity.ok(reservationService.getAllReservations());
+    public ResponseEntity<CursorPage<ReservationResponse>> getAllReservations(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(reservationService.getAllReservations(cursor, limit));
     }
 
     // Staff endpoints
     @GetMapping("/api/staff/reservations")
     @PreAuthorize("hasRole('STAFF')")
-    public ResponseEntity<List<ReservationResponse>> getStaffReservations() {
-        return ResponseEntity.ok(reservationService.getReservationsByStaff());
+    public ResponseEntity<CursorPage<ReservationResponse>> getStaffReservations(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(reservationService.getReservationsByStaff(cursor, limit));
     }
 
     // Customer endpoints
     @GetMapping("/api/customer/reservations")
     @PreAuthorize("hasRole('CUSTOMER')")
-    public ResponseEntity<List<ReservationResponse>> getCustomerReservations() {
-        return ResponseEntity.ok(reservationService.getReservationsByCustomer());
+    public ResponseEntity<CursorPage<ReservationResponse>> getCustomerReservations(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(reservationService.getReservationsByCustomer(cursor, limit));
     }
 
     @PostMapping("/api/customer/reservations")
@@ -112,4 +117,11 @@ public class ReservationController {
     public ResponseEntity<AvailabilityResponse> checkAvailability(@Valid @RequestBody AvailabilityRequest request) {
         return ResponseEntity.ok(reservationService.checkAvailability(request));
     }
+
+    // Public endpoint for a whole range at once (e.g. a month of the booking calendar)
+    @PostMapping("/api/public/services/availability/range")
+    public ResponseEntity<AvailabilityRangeResponse> checkAvailabilityRange(
+            @Valid @RequestBody AvailabilityRangeRequest request) {
+        return ResponseEntity.ok(reservationService.checkAvailabilityRange(request));
+    }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.slimbahael.beauty_center.controller;
 
+import com.slimbahael.beauty_center.service.StripeWebhookService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -13,15 +14,15 @@ import org.springframework.web.bind.annotation.*;
 @ConditionalOnProperty(name = "stripe.webhook.enabled", havingValue = "true", matchIfMissing = false)
 public class StripeWebhookController {
 
+    private final StripeWebhookService stripeWebhookService;
+
     @PostMapping("/stripe")
     public ResponseEntity<String> handleStripeWebhook(
             @RequestBody String payload,
             @RequestHeader(value = "Stripe-Signature", required = false) String sigHeader) {
 
-        log.info("Received Stripe webhook (placeholder implementation)");
-
-        // Placeholder implementation - will be activated when webhook is enabled
-        // For now, just acknowledge receipt
-        return ResponseEntity.ok("Webhook received");
+        // Invalid signatures are rejected with 400; processing errors return 500 so Stripe redelivers
+        boolean processed = stripeWebhookService.handle(payload, sigHeader);
+        return ResponseEntity.ok(processed ? "Webhook processed" : "Webhook already processed");
     }
 }
\ No newline at end of file
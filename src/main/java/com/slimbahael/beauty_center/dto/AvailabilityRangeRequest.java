@@ -0,0 +1,21 @@
+package com.slimbahael.beauty_center.dto;
+
+import lombok.Data;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import java.time.LocalDate;
+
+@Data
+public class AvailabilityRangeRequest {
+
+    @NotBlank(message = "Service ID is required")
+    private String serviceId;
+
+    @NotNull(message = "Start date is required")
+    private LocalDate startDate;
+
+    // Inclusive
+    @NotNull(message = "End date is required")
+    private LocalDate endDate;
+}
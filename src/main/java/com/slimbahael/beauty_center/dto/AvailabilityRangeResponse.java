@@ -0,0 +1,53 @@
+package com.slimbahael.beauty_center.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilityRangeResponse {
+    private String serviceId;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    // Every staff member referenced in the days below, listed once
+    private List<StaffInfo> staff;
+    private List<DayAvailability> days;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class StaffInfo {
+        private String staffId;
+        private String staffName;
+        private String staffImage;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DayAvailability {
+        private LocalDate date;
+        private boolean morningAvailable;
+        private boolean eveningAvailable;
+        private List<StaffSlots> availableStaff;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class StaffSlots {
+        private String staffId;
+        private boolean availableMorning;
+        private boolean availableEvening;
+    }
+}
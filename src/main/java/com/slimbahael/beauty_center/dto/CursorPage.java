@@ -0,0 +1,30 @@
+package com.slimbahael.beauty_center.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+
+    private List<T> items;
+    private String nextCursor; // pass back as ?cursor= to get the next page, null on the last page
+    private boolean hasMore;
+    private int limit;
+
+    public <R> CursorPage<R> map(Function<List<T>, List<R>> mapper) {
+        return new CursorPage<>(mapper.apply(items), nextCursor, hasMore, limit);
+    }
+
+    public <R> CursorPage<R> mapItems(Function<T, R> mapper) {
+        return map(list -> list.stream().map(mapper).collect(Collectors.toList()));
+    }
+}
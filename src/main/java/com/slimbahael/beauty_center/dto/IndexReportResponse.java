@@ -0,0 +1,23 @@
+package com.slimbahael.beauty_center.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IndexReportResponse {
+    private String collection;
+    private String indexName;
+    private String keys;
+    private boolean declared;
+    private boolean unique;
+    private Long sizeBytes;
+    private Long accessCount;
+    private Date accessesSince;
+}
@@ -63,6 +63,18 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(apiError, HttpStatus.BAD_REQUEST);       
     }
 
+    @ExceptionHandler(IntegrationUnavailableException.class)
+    public ResponseEntity<ApiError> handleIntegrationUnavailableException(IntegrationUnavailableException ex) {
+        ApiError apiError = new ApiError(HttpStatus.SERVICE_UNAVAILABLE.value(), ex.getMessage());
+        return new ResponseEntity<>(apiError, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<ApiError> handleServiceOverloadedException(ServiceOverloadedException ex) {
+        ApiError apiError = new ApiError(HttpStatus.SERVICE_UNAVAILABLE.value(), ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "1").body(apiError);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ApiError> handleGenericException(Exception ex) {
         ex.printStackTrace();
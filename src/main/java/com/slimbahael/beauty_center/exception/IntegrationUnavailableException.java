@@ -0,0 +1,11 @@
+package com.slimbahael.beauty_center.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class IntegrationUnavailableException extends RuntimeException {
+    public IntegrationUnavailableException(String message) {
+        super(message);
+    }
+}
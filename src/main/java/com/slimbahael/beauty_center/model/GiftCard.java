@@ -32,6 +32,9 @@ public class GiftCard {
     @NotBlank
     private String codeHash; // BCrypt hashed code
 
+    @Indexed(unique = true, sparse = true)
+    private String codeLookupKey; // HMAC of the code, used to find the card before the BCrypt check
+
     // Temporary storage for raw code - will be cleared after emails are sent
     private String pendingCode;
 
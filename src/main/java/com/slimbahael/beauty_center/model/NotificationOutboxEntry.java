@@ -0,0 +1,44 @@
+package com.slimbahael.beauty_center.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "notification_outbox")
+public class NotificationOutboxEntry {
+
+    @Id
+    private String id;
+
+    private String type; // e.g. "ORDER_CONFIRMATION", "GIFT_CARD_RECEIVED"
+
+    private String recipient;
+
+    private String aggregateId; // Order, reservation or gift card the notification is about
+
+    private String payload; // JSON arguments of the notification, removed once sent
+
+    private String status; // "PENDING", "SENT", "FAILED"
+
+    private int attempts;
+
+    // When a PENDING entry may next be claimed; while an instance holds the lease this is the lease expiry
+    private Date nextAttemptAt;
+
+    private String leaseOwner;
+
+    private String lastError;
+
+    private Date createdAt;
+
+    private Date sentAt;
+}
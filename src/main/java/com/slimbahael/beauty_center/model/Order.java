@@ -41,8 +41,10 @@ public class Order {
     private String orderStatus; // "PENDING", "PROCESSING", "SHIPPED", "DELIVERED", "CANCELLED"
 
     // Stripe payment fields
+    @Indexed(unique = true, sparse = true)
     private String stripePaymentIntentId;
     private String stripePaymentMethodId;
+    @Indexed(unique = true, sparse = true)
     private String stripeChargeId;
 
     private Date createdAt;
@@ -61,6 +63,8 @@ public class Order {
         private Integer quantity;
         private BigDecimal unitPrice;
         private BigDecimal totalPrice;
+        // First product image at checkout time, so order history needs no product lookup
+        private String imageUrl;
     }
 
     @Data
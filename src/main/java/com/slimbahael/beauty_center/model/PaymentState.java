@@ -0,0 +1,47 @@
+package com.slimbahael.beauty_center.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "payment_states")
+public class PaymentState {
+
+    public static final String PAYMENT_INTENT = "payment_intent";
+    public static final String CHECKOUT_SESSION = "checkout.session";
+
+    @Id
+    private String id; // Stripe PaymentIntent ID (pi_...) or Checkout Session ID (cs_...)
+
+    private String objectType; // PAYMENT_INTENT or CHECKOUT_SESSION
+
+    // PaymentIntent status ("succeeded", "processing"...) or Checkout Session payment_status ("paid", "unpaid"...)
+    private String status;
+
+    private Long amount; // In cents
+
+    private Long amountReceived; // In cents, PaymentIntents only
+
+    private String currency;
+
+    private String paymentIntentId; // Checkout Sessions only
+
+    private Map<String, String> metadata;
+
+    private String sourceEventId; // Null when the state was fetched from Stripe directly
+
+    // Creation time of the event (or time of the fetch) this state reflects; older updates are ignored
+    private Date stateAsOf;
+
+    private Date updatedAt;
+}
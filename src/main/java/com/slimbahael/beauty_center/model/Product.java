@@ -12,6 +12,7 @@ import lombok.Builder;
 import java.math.BigDecimal;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 @Data
 @NoArgsConstructor
@@ -59,6 +60,9 @@ public class Product {
     private Date discountStartDate;
     private Date discountEndDate;
 
+    // Denormalized from the ratings collection; maintained by RatingService with $inc
+    private RatingSummary ratingSummary;
+
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
@@ -67,4 +71,23 @@ public class Product {
         private String name;
         private String value;
     }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class RatingSummary {
+        private long count;
+        private long sum;
+        // Star value ("1".."5") -> number of ratings with that value
+        private Map<String, Long> histogram;
+
+        // Average rounded to 1 decimal place, 0.0 when there are no ratings
+        public double average() {
+            if (count <= 0) {
+                return 0.0;
+            }
+            return Math.round((double) sum / count * 10.0) / 10.0;
+        }
+    }
 }
\ No newline at end of file
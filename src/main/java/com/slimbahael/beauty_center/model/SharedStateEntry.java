@@ -0,0 +1,26 @@
+package com.slimbahael.beauty_center.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "shared_state")
+public class SharedStateEntry {
+
+    @Id
+    private String id; // e.g. "failed-logins:jane@example.com", "revoked-token:<sha-256>"
+
+    private long value; // Counter value; 1 for flags
+
+    // Entries past this instant are treated as absent and removed by the TTL monitor
+    private Date expiresAt;
+}
@@ -0,0 +1,39 @@
+package com.slimbahael.beauty_center.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "stripe_events")
+public class StripeEventRecord {
+
+    @Id
+    private String id; // Stripe event ID, so a redelivered event cannot be stored twice
+
+    private String type; // e.g. "payment_intent.succeeded", "checkout.session.completed"
+
+    private String objectId; // PaymentIntent or Checkout Session the event is about
+
+    private Date eventCreatedAt;
+
+    private String payload; // Raw signed JSON as received, kept for replay
+
+    private String status; // "RECEIVED", "PROCESSED", "FAILED"
+
+    private int attempts;
+
+    private String lastError;
+
+    private Date receivedAt;
+
+    private Date processedAt;
+}
@@ -3,6 +3,8 @@ package com.slimbahael.beauty_center.model;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
 
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -46,6 +48,7 @@ public class User {
 
     // NEW: Balance system fields
     @Builder.Default
+    @Field(targetType = FieldType.DECIMAL128) // numeric so it can be updated with $inc
     private BigDecimal balance = BigDecimal.ZERO;
 
     @Builder.Default
@@ -14,6 +14,8 @@ public interface GiftCardRepository extends MongoRepository<GiftCard, String> {
 
     Optional<GiftCard> findByCodeHash(String codeHash);
 
+    Optional<GiftCard> findByCodeLookupKey(String codeLookupKey);
+
     List<GiftCard> findByPurchaserEmailOrderByCreatedAtDesc(String purchaserEmail);
 
     List<GiftCard> findByRecipientEmailOrderByCreatedAtDesc(String recipientEmail);
@@ -39,4 +41,15 @@ public interface GiftCardRepository extends MongoRepository<GiftCard, String> {
 
     @Query("{'status': 'ACTIVE', 'isLocked': false}")
     List<GiftCard> findActiveUnlockedGiftCards();
+
+    // Cards created before codeLookupKey existed; they are backfilled the first time their code is used
+    @Query("{'status': 'ACTIVE', 'isLocked': false, 'codeLookupKey': null}")
+    List<GiftCard> findActiveUnlockedGiftCardsWithoutLookupKey();
+
+    @Query(value = "{'status': 'ACTIVE', 'isLocked': false, 'codeLookupKey': null}", count = true)
+    long countActiveUnlockedGiftCardsWithoutLookupKey();
+
+    // Cards whose raw code is still stored, so their lookup key can be computed without the customer
+    @Query("{'codeLookupKey': null, 'pendingCode': {'$ne': null}}")
+    List<GiftCard> findGiftCardsWithPendingCodeWithoutLookupKey();
 }
\ No newline at end of file
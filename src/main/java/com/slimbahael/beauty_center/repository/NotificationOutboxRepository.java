@@ -0,0 +1,11 @@
+package com.slimbahael.beauty_center.repository;
+
+import com.slimbahael.beauty_center.model.NotificationOutboxEntry;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface NotificationOutboxRepository extends MongoRepository<NotificationOutboxEntry, String>, NotificationOutboxRepositoryCustom {
+
+    long countByStatus(String status);
+}
@@ -0,0 +1,37 @@
+package com.slimbahael.beauty_center.repository;
+
+import com.slimbahael.beauty_center.model.NotificationOutboxEntry;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+public interface NotificationOutboxRepositoryCustom {
+
+    /**
+     * Leases up to {@code batchSize} due PENDING entries, oldest first, one {@code findAndModify}
+     * each: the lease owner is recorded, attempts is incremented and nextAttemptAt is pushed to
+     * {@code leaseUntil}, so an entry whose owner dies is claimable again once the lease runs out.
+     */
+    List<NotificationOutboxEntry> claimDue(String owner, Date now, Date leaseUntil, int batchSize);
+
+    /**
+     * Leases a single entry if it is still PENDING and due. Used to send right after enqueueing.
+     */
+    Optional<NotificationOutboxEntry> claimById(String id, String owner, Date now, Date leaseUntil);
+
+    /**
+     * Marks a leased entry SENT and drops its payload. Returns false if the lease was lost.
+     */
+    boolean markSent(String id, String owner, Date sentAt);
+
+    /**
+     * Releases a leased entry for another attempt at {@code nextAttemptAt}.
+     */
+    boolean markRetry(String id, String owner, Date nextAttemptAt, String error);
+
+    /**
+     * Marks a leased entry FAILED; it is no longer claimed and its payload is dropped.
+     */
+    boolean markFailed(String id, String owner, String error);
+}
@@ -0,0 +1,93 @@
+package com.slimbahael.beauty_center.repository;
+
+import com.slimbahael.beauty_center.model.NotificationOutboxEntry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+@RequiredArgsConstructor
+public class NotificationOutboxRepositoryImpl implements NotificationOutboxRepositoryCustom {
+
+    private static final String PENDING = "PENDING";
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public List<NotificationOutboxEntry> claimDue(String owner, Date now, Date leaseUntil, int batchSize) {
+        // Served by the (status, nextAttemptAt) index
+        Query query = new Query(Criteria.where("status").is(PENDING).and("nextAttemptAt").lte(now))
+                .with(Sort.by(Sort.Direction.ASC, "nextAttemptAt"));
+
+        List<NotificationOutboxEntry> claimed = new ArrayList<>();
+        while (claimed.size() < batchSize) {
+            NotificationOutboxEntry entry = mongoTemplate.findAndModify(
+                    query, lease(owner, leaseUntil), FindAndModifyOptions.options().returnNew(true),
+                    NotificationOutboxEntry.class);
+            if (entry == null) {
+                break;
+            }
+            claimed.add(entry);
+        }
+        return claimed;
+    }
+
+    @Override
+    public Optional<NotificationOutboxEntry> claimById(String id, String owner, Date now, Date leaseUntil) {
+        Query query = new Query(Criteria.where("_id").is(id).and("status").is(PENDING).and("nextAttemptAt").lte(now));
+        return Optional.ofNullable(mongoTemplate.findAndModify(
+                query, lease(owner, leaseUntil), FindAndModifyOptions.options().returnNew(true),
+                NotificationOutboxEntry.class));
+    }
+
+    @Override
+    public boolean markSent(String id, String owner, Date sentAt) {
+        Update update = new Update()
+                .set("status", "SENT")
+                .set("sentAt", sentAt)
+                .unset("payload")
+                .unset("leaseOwner")
+                .unset("lastError");
+        return updateLeased(id, owner, update);
+    }
+
+    @Override
+    public boolean markRetry(String id, String owner, Date nextAttemptAt, String error) {
+        Update update = new Update()
+                .set("nextAttemptAt", nextAttemptAt)
+                .set("lastError", error)
+                .unset("leaseOwner");
+        return updateLeased(id, owner, update);
+    }
+
+    @Override
+    public boolean markFailed(String id, String owner, String error) {
+        Update update = new Update()
+                .set("status", "FAILED")
+                .set("lastError", error)
+                .unset("payload")
+                .unset("leaseOwner");
+        return updateLeased(id, owner, update);
+    }
+
+    private Update lease(String owner, Date leaseUntil) {
+        return new Update()
+                .set("leaseOwner", owner)
+                .set("nextAttemptAt", leaseUntil)
+                .inc("attempts", 1);
+    }
+
+    // Only the current lease holder may complete an entry
+    private boolean updateLeased(String id, String owner, Update update) {
+        Query query = new Query(Criteria.where("_id").is(id).and("status").is(PENDING).and("leaseOwner").is(owner));
+        return mongoTemplate.updateFirst(query, update, NotificationOutboxEntry.class).getModifiedCount() > 0;
+    }
+}
@@ -1,12 +1,15 @@
 package com.slimbahael.beauty_center.repository;
 
 import com.slimbahael.beauty_center.model.Order;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface OrderRepository extends MongoRepository<Order, String> {
@@ -19,22 +22,16 @@ public interface OrderRepository extends MongoRepository<Order, String> {
 
     List<Order> findByCreatedAtBetween(Date startDate, Date endDate);
 
-    // Stripe-specific methods
-    default Optional<Order> findByStripePaymentIntentId(String stripePaymentIntentId) {
-        return findAll().stream()
-                .filter(order -> stripePaymentIntentId.equals(order.getStripePaymentIntentId()))
-                .findFirst();
-    }
-
-    default List<Order> findByStripePaymentIntentIdIsNotNull() {
-        return findAll().stream()
-                .filter(order -> order.getStripePaymentIntentId() != null)
-                .toList();
-    }
-
-    default Optional<Order> findByStripeChargeId(String stripeChargeId) {
-        return findAll().stream()
-                .filter(order -> stripeChargeId.equals(order.getStripeChargeId()))
-                .findFirst();
-    }
-}
\ No newline at end of file
+    // Stripe-specific methods (backed by sparse unique indexes on the Order document)
+    Optional<Order> findByStripePaymentIntentId(String stripePaymentIntentId);
+
+    Optional<Order> findByStripeChargeId(String stripeChargeId);
+
+    List<Order> findByStripePaymentIntentIdIsNotNull();
+
+    // Paged variant for reconciliation jobs; a Slice avoids the extra count query
+    Slice<Order> findByStripePaymentIntentIdIsNotNull(Pageable pageable);
+
+    // Cursor-backed variant; callers must close the stream
+    Stream<Order> streamByStripePaymentIntentIdIsNotNull();
+}
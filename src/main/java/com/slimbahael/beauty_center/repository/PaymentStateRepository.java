@@ -0,0 +1,9 @@
+package com.slimbahael.beauty_center.repository;
+
+import com.slimbahael.beauty_center.model.PaymentState;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface PaymentStateRepository extends MongoRepository<PaymentState, String>, PaymentStateRepositoryCustom {
+}
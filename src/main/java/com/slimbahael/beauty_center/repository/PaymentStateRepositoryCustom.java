@@ -0,0 +1,16 @@
+package com.slimbahael.beauty_center.repository;
+
+import com.slimbahael.beauty_center.model.PaymentState;
+
+import java.util.Collection;
+
+public interface PaymentStateRepositoryCustom {
+
+    /**
+     * Upserts the state unless the stored one is newer. On an equal {@code stateAsOf} the update
+     * only applies while the stored status is not one of {@code finalStatuses}, so events created
+     * in the same second cannot move a payment back out of a final state. Returns false when the
+     * update was ignored as stale.
+     */
+    boolean saveIfNewer(PaymentState state, Collection<String> finalStatuses);
+}
@@ -0,0 +1,45 @@
+package com.slimbahael.beauty_center.repository;
+
+import com.slimbahael.beauty_center.model.PaymentState;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Collection;
+
+@RequiredArgsConstructor
+public class PaymentStateRepositoryImpl implements PaymentStateRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public boolean saveIfNewer(PaymentState state, Collection<String> finalStatuses) {
+        Query query = new Query(Criteria.where("_id").is(state.getId()).orOperator(
+                Criteria.where("stateAsOf").exists(false),
+                Criteria.where("stateAsOf").lt(state.getStateAsOf()),
+                Criteria.where("stateAsOf").is(state.getStateAsOf()).and("status").nin(finalStatuses)));
+
+        Update update = new Update()
+                .set("objectType", state.getObjectType())
+                .set("status", state.getStatus())
+                .set("amount", state.getAmount())
+                .set("amountReceived", state.getAmountReceived())
+                .set("currency", state.getCurrency())
+                .set("paymentIntentId", state.getPaymentIntentId())
+                .set("metadata", state.getMetadata())
+                .set("sourceEventId", state.getSourceEventId())
+                .set("stateAsOf", state.getStateAsOf())
+                .set("updatedAt", state.getUpdatedAt());
+
+        try {
+            mongoTemplate.upsert(query, update, PaymentState.class);
+            return true;
+        } catch (DuplicateKeyException e) {
+            // A newer state is stored: the filter missed it and the upsert collided on _id
+            return false;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.slimbahael.beauty_center.repository;
+
+import com.slimbahael.beauty_center.model.Product;
+
+import java.util.Map;
+import java.util.Optional;
+
+public interface ProductRepositoryCustom {
+
+    /**
+     * Atomically decrements the stock of a product if at least {@code quantity} units are available.
+     * Returns the updated product, or empty if the product does not exist or has not enough stock.
+     */
+    Optional<Product> decrementStockIfAvailable(String productId, int quantity);
+
+    /**
+     * Atomically increments the stock of a product. Returns false if the product does not exist.
+     */
+    boolean incrementStock(String productId, int quantity);
+
+    /**
+     * Atomically moves a product's rating summary from {@code removedStars} to {@code addedStars}.
+     * Either may be null: a new rating only adds, a deleted rating only removes.
+     */
+    void applyRatingChange(String productId, Integer removedStars, Integer addedStars);
+
+    /**
+     * Overwrites the rating summaries with freshly computed ones and resets the summary of every
+     * other product that still has one. Returns the number of products updated.
+     */
+    long replaceRatingSummaries(Map<String, Product.RatingSummary> summariesByProductId);
+
+    /**
+     * Writes the admin-editable fields of {@code details} to a product with {@code $set}, and its
+     * stock only when {@code includeStock} is true. The rating summary is never written, so
+     * concurrent rating and stock updates are preserved. Returns the updated product, or empty if
+     * it does not exist.
+     */
+    Optional<Product> updateDetails(String productId, Product details, boolean includeStock);
+}
@@ -0,0 +1,122 @@
+package com.slimbahael.beauty_center.repository;
+
+import com.slimbahael.beauty_center.model.Product;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+@RequiredArgsConstructor
+public class ProductRepositoryImpl implements ProductRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public Optional<Product> decrementStockIfAvailable(String productId, int quantity) {
+        Query query = new Query(Criteria.where("_id").is(productId)
+                .and("stockQuantity").gte(quantity));
+        Update update = new Update().inc("stockQuantity", -quantity);
+
+        return Optional.ofNullable(mongoTemplate.findAndModify(
+                query, update, FindAndModifyOptions.options().returnNew(true), Product.class));
+    }
+
+    @Override
+    public boolean incrementStock(String productId, int quantity) {
+        Query query = new Query(Criteria.where("_id").is(productId));
+        Update update = new Update().inc("stockQuantity", quantity);
+
+        return mongoTemplate.updateFirst(query, update, Product.class).getMatchedCount() > 0;
+    }
+
+    @Override
+    public Optional<Product> updateDetails(String productId, Product details, boolean includeStock) {
+        Update update = new Update()
+                .set("name", details.getName())
+                .set("description", details.getDescription())
+                .set("category", details.getCategory())
+                .set("price", details.getPrice())
+                .set("imageUrls", details.getImageUrls())
+                .set("tags", details.getTags())
+                .set("brand", details.getBrand())
+                .set("sku", details.getSku())
+                .set("featured", details.isFeatured())
+                .set("active", details.isActive())
+                .set("updatedAt", details.getUpdatedAt())
+                .set("specifications", details.getSpecifications())
+                .set("discountPercentage", details.getDiscountPercentage())
+                .set("discountStartDate", details.getDiscountStartDate())
+                .set("discountEndDate", details.getDiscountEndDate());
+        if (includeStock) {
+            update.set("stockQuantity", details.getStockQuantity());
+        }
+
+        return Optional.ofNullable(mongoTemplate.findAndModify(
+                new Query(Criteria.where("_id").is(productId)), update,
+                FindAndModifyOptions.options().returnNew(true), Product.class));
+    }
+
+    @Override
+    public void applyRatingChange(String productId, Integer removedStars, Integer addedStars) {
+        // Deltas are merged first: an unchanged star value must cancel out, not set the same key twice
+        Map<String, Long> deltas = new HashMap<>();
+        if (removedStars != null) {
+            deltas.merge("ratingSummary.count", -1L, Long::sum);
+            deltas.merge("ratingSummary.sum", (long) -removedStars, Long::sum);
+            deltas.merge("ratingSummary.histogram." + removedStars, -1L, Long::sum);
+        }
+        if (addedStars != null) {
+            deltas.merge("ratingSummary.count", 1L, Long::sum);
+            deltas.merge("ratingSummary.sum", (long) addedStars, Long::sum);
+            deltas.merge("ratingSummary.histogram." + addedStars, 1L, Long::sum);
+        }
+
+        Update update = new Update();
+        deltas.forEach((field, delta) -> {
+            if (delta != 0) {
+                update.inc(field, delta);
+            }
+        });
+        if (update.getUpdateObject().isEmpty()) {
+            return;
+        }
+
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(productId)), update, Product.class);
+    }
+
+    @Override
+    public long replaceRatingSummaries(Map<String, Product.RatingSummary> summariesByProductId) {
+        long updated = 0;
+        if (!summariesByProductId.isEmpty()) {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class);
+            summariesByProductId.forEach((productId, summary) -> bulk.updateOne(
+                    new Query(Criteria.where("_id").is(productId)),
+                    new Update().set("ratingSummary", summary)));
+            updated += bulk.execute().getModifiedCount();
+        }
+
+        // Products whose ratings were all deleted
+        Query stale = new Query(Criteria.where("_id").nin(summariesByProductId.keySet())
+                .and("ratingSummary.count").ne(0)
+                .and("ratingSummary").exists(true));
+        updated += mongoTemplate.updateMulti(stale,
+                new Update().set("ratingSummary", emptyRatingSummary()), Product.class).getModifiedCount();
+
+        return updated;
+    }
+
+    private Product.RatingSummary emptyRatingSummary() {
+        return Product.RatingSummary.builder()
+                .count(0)
+                .sum(0)
+                .histogram(new HashMap<>())
+                .build();
+    }
+}
@@ -8,7 +8,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface RatingRepository extends MongoRepository<Rating, String> {
+public interface RatingRepository extends MongoRepository<Rating, String>, RatingRepositoryCustom {
 
     List<Rating> findByProductId(String productId);
 
@@ -0,0 +1,14 @@
+package com.slimbahael.beauty_center.repository;
+
+import com.slimbahael.beauty_center.model.Product;
+
+import java.util.Map;
+
+public interface RatingRepositoryCustom {
+
+    /**
+     * Recomputes the rating summary of every rated product from the ratings collection,
+     * keyed by product id. Products without ratings are absent from the result.
+     */
+    Map<String, Product.RatingSummary> summarizeRatingsByProduct();
+}
@@ -0,0 +1,42 @@
+package com.slimbahael.beauty_center.repository;
+
+import com.slimbahael.beauty_center.model.Product;
+import com.slimbahael.beauty_center.model.Rating;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class RatingRepositoryImpl implements RatingRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public Map<String, Product.RatingSummary> summarizeRatingsByProduct() {
+        // One group per (product, star value); folded into per-product summaries below
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("rating").gte(1).lte(5)),
+                Aggregation.group("productId", "rating").count().as("count"));
+
+        Map<String, Product.RatingSummary> summaries = new HashMap<>();
+        for (Document group : mongoTemplate.aggregate(aggregation, Rating.class, Document.class)) {
+            Document key = group.get("_id", Document.class);
+            String productId = key.getString("productId");
+            int stars = ((Number) key.get("rating")).intValue();
+            long count = ((Number) group.get("count")).longValue();
+
+            Product.RatingSummary summary = summaries.computeIfAbsent(productId, id -> Product.RatingSummary.builder()
+                    .histogram(new HashMap<>())
+                    .build());
+            summary.setCount(summary.getCount() + count);
+            summary.setSum(summary.getSum() + stars * count);
+            summary.getHistogram().put(String.valueOf(stars), count);
+        }
+        return summaries;
+    }
+}
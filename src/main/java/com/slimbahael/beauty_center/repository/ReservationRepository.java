@@ -3,8 +3,10 @@ package com.slimbahael.beauty_center.repository;
 import com.slimbahael.beauty_center.model.Reservation;
 import jakarta.validation.constraints.NotNull;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 
@@ -26,4 +28,9 @@ public interface ReservationRepository extends MongoRepository<Reservation, Stri
     List<Reservation> findByStaffIdAndReservationDateBetween(String staffId, Date startDate, Date endDate);
 
     List<Reservation> findByReservationDate(@NotNull(message = "Date is required") Date date);
+
+    // Active bookings of the given staff in [from, to); only the fields availability needs
+    @Query(value = "{'staffId': {'$in': ?0}, 'reservationDate': {'$gte': ?1, '$lt': ?2}, 'status': {'$ne': 'CANCELLED'}}",
+            fields = "{'staffId': 1, 'reservationDate': 1, 'timeSlot': 1}")
+    List<Reservation> findActiveSlotsForStaffBetween(Collection<String> staffIds, Date from, Date to);
 }
\ No newline at end of file
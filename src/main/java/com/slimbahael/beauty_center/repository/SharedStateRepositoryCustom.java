@@ -0,0 +1,23 @@
+package com.slimbahael.beauty_center.repository;
+
+import java.util.Date;
+import java.util.Optional;
+
+public interface SharedStateRepositoryCustom {
+
+    /**
+     * Atomically adds {@code delta} to a live counter ({@code $inc}) and moves its expiry to
+     * {@code expiresAt}, creating or restarting it if it is missing or expired. Returns the new value.
+     */
+    long increment(String key, long delta, Date now, Date expiresAt);
+
+    /**
+     * Value of the counter if it has not expired.
+     */
+    Optional<Long> findLiveValue(String key, Date now);
+
+    /**
+     * Creates or refreshes a flag that lives until {@code expiresAt}.
+     */
+    void putFlag(String key, Date expiresAt);
+}
@@ -0,0 +1,63 @@
+package com.slimbahael.beauty_center.repository;
+
+import com.slimbahael.beauty_center.model.SharedStateEntry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Date;
+import java.util.Optional;
+
+@RequiredArgsConstructor
+public class SharedStateRepositoryImpl implements SharedStateRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public long increment(String key, long delta, Date now, Date expiresAt) {
+        while (true) {
+            SharedStateEntry live = mongoTemplate.findAndModify(
+                    new Query(Criteria.where("_id").is(key).and("expiresAt").gt(now)),
+                    new Update().inc("value", delta).set("expiresAt", expiresAt),
+                    FindAndModifyOptions.options().returnNew(true),
+                    SharedStateEntry.class);
+            if (live != null) {
+                return live.getValue();
+            }
+
+            try {
+                mongoTemplate.insert(new SharedStateEntry(key, delta, expiresAt));
+                return delta;
+            } catch (DuplicateKeyException e) {
+                // Either created concurrently (retry the $inc) or expired but not yet removed by the TTL monitor
+            }
+
+            SharedStateEntry restarted = mongoTemplate.findAndModify(
+                    new Query(Criteria.where("_id").is(key).and("expiresAt").lte(now)),
+                    new Update().set("value", delta).set("expiresAt", expiresAt),
+                    FindAndModifyOptions.options().returnNew(true),
+                    SharedStateEntry.class);
+            if (restarted != null) {
+                return restarted.getValue();
+            }
+        }
+    }
+
+    @Override
+    public Optional<Long> findLiveValue(String key, Date now) {
+        Query query = new Query(Criteria.where("_id").is(key).and("expiresAt").gt(now));
+        query.fields().include("value");
+        return Optional.ofNullable(mongoTemplate.findOne(query, SharedStateEntry.class)).map(SharedStateEntry::getValue);
+    }
+
+    @Override
+    public void putFlag(String key, Date expiresAt) {
+        mongoTemplate.upsert(new Query(Criteria.where("_id").is(key)),
+                new Update().set("value", 1L).set("expiresAt", expiresAt),
+                SharedStateEntry.class);
+    }
+}
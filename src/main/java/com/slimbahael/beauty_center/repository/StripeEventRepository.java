@@ -0,0 +1,11 @@
+package com.slimbahael.beauty_center.repository;
+
+import com.slimbahael.beauty_center.model.StripeEventRecord;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface StripeEventRepository extends MongoRepository<StripeEventRecord, String> {
+
+    long countByStatus(String status);
+}
@@ -0,0 +1,48 @@
+package com.slimbahael.beauty_center.repository;
+
+import com.slimbahael.beauty_center.model.User;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+public interface UserRepositoryCustom {
+
+    /**
+     * Atomically adds {@code amount} to the balance of a user. Returns the user with only the
+     * updated balance populated, or empty if the user does not exist.
+     */
+    Optional<User> incrementBalance(String userId, BigDecimal amount);
+
+    /**
+     * Atomically subtracts {@code amount} from the balance of a user if the balance covers it.
+     * Returns the user with only the updated balance populated, or empty if the user does not
+     * exist or the balance is insufficient.
+     */
+    Optional<User> decrementBalanceIfSufficient(String userId, BigDecimal amount);
+
+    /**
+     * Converts balances stored as strings by earlier versions to Decimal128 so they can be
+     * updated with {@code $inc}. Returns the number of users converted.
+     */
+    long convertStringBalancesToDecimal();
+
+    /**
+     * Replaces only the stored password hash of the user with {@code email}, leaving the balance
+     * and every other field untouched. Returns false if no such user exists.
+     */
+    boolean updatePasswordByEmail(String email, String encodedPassword);
+
+    /**
+     * Sets the enabled flag of the user with {@code email} without rewriting the rest of the
+     * document. Returns false if no such user exists.
+     */
+    boolean setEnabledByEmail(String email, boolean enabled);
+
+    /**
+     * Writes the profile, role, staff availability and enabled fields of {@code profile} (and its
+     * password when non-null) to the user with {@code userId}. The balance fields are never
+     * written, so concurrent balance updates are preserved. Returns the updated user, or empty if
+     * the user does not exist.
+     */
+    Optional<User> updateProfile(String userId, User profile);
+}
@@ -0,0 +1,93 @@
+package com.slimbahael.beauty_center.repository;
+
+import com.slimbahael.beauty_center.model.User;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+@RequiredArgsConstructor
+public class UserRepositoryImpl implements UserRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public Optional<User> incrementBalance(String userId, BigDecimal amount) {
+        return updateBalance(new Query(Criteria.where("_id").is(userId)), amount);
+    }
+
+    @Override
+    public Optional<User> decrementBalanceIfSufficient(String userId, BigDecimal amount) {
+        Query query = new Query(Criteria.where("_id").is(userId)
+                .and("balance").gte(new Decimal128(amount)));
+        return updateBalance(query, amount.negate());
+    }
+
+    @Override
+    public long convertStringBalancesToDecimal() {
+        Document filter = new Document("balance", new Document("$type", "string"));
+        List<Document> pipeline = List.of(new Document("$set",
+                new Document("balance", new Document("$toDecimal", "$balance"))));
+
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(User.class))
+                .updateMany(filter, pipeline)
+                .getModifiedCount();
+    }
+
+    @Override
+    public boolean updatePasswordByEmail(String email, String encodedPassword) {
+        Query query = new Query(Criteria.where("email").is(email));
+        return mongoTemplate.updateFirst(query, Update.update("password", encodedPassword), User.class)
+                .getMatchedCount() > 0;
+    }
+
+    @Override
+    public boolean setEnabledByEmail(String email, boolean enabled) {
+        Query query = new Query(Criteria.where("email").is(email));
+        return mongoTemplate.updateFirst(query, Update.update("enabled", enabled), User.class)
+                .getMatchedCount() > 0;
+    }
+
+    @Override
+    public Optional<User> updateProfile(String userId, User profile) {
+        Update update = new Update()
+                .set("firstName", profile.getFirstName())
+                .set("lastName", profile.getLastName())
+                .set("email", profile.getEmail())
+                .set("phoneNumber", profile.getPhoneNumber())
+                .set("role", profile.getRole())
+                .set("profileImage", profile.getProfileImage())
+                .set("specialties", profile.getSpecialties())
+                .set("workDays", profile.getWorkDays())
+                .set("morningShift", profile.getMorningShift())
+                .set("eveningShift", profile.getEveningShift())
+                .set("enabled", profile.isEnabled());
+        if (profile.getPassword() != null) {
+            update.set("password", profile.getPassword());
+        }
+
+        return Optional.ofNullable(mongoTemplate.findAndModify(
+                new Query(Criteria.where("_id").is(userId)), update,
+                FindAndModifyOptions.options().returnNew(true), User.class));
+    }
+
+    private Optional<User> updateBalance(Query query, BigDecimal delta) {
+        // Only the balance is read back; the rest of the user document is never rewritten
+        query.fields().include("balance");
+        Update update = new Update()
+                .inc("balance", new Decimal128(delta))
+                .set("lastBalanceUpdate", new Date());
+
+        return Optional.ofNullable(mongoTemplate.findAndModify(
+                query, update, FindAndModifyOptions.options().returnNew(true), User.class));
+    }
+}
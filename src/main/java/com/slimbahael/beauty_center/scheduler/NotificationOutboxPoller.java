@@ -0,0 +1,42 @@
+package com.slimbahael.beauty_center.scheduler;
+
+import com.slimbahael.beauty_center.service.NotificationOutboxService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "scheduler.notification-outbox.enabled", havingValue = "true", matchIfMissing = true)
+public class NotificationOutboxPoller {
+
+    private final NotificationOutboxService notificationOutboxService;
+
+    // Resumes deliveries left pending when the previous machine stopped
+    @EventListener(ApplicationReadyEvent.class)
+    public void drainOnStartup() {
+        poll("startup");
+    }
+
+    // Run every 15 seconds
+    @Scheduled(fixedDelayString = "${scheduler.notification-outbox.poll-ms:15000}")
+    public void drainPeriodically() {
+        poll("scheduled");
+    }
+
+    private void poll(String trigger) {
+        try {
+            int processed = notificationOutboxService.processDueEntries();
+            if (processed > 0) {
+                log.info("Processed {} outbox notifications ({})", processed, trigger);
+            }
+        } catch (Exception e) {
+            log.error("Notification outbox poll failed: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.slimbahael.beauty_center.scheduler;
+
+import com.slimbahael.beauty_center.service.RatingService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "scheduler.rating-summary.enabled", havingValue = "true", matchIfMissing = true)
+public class RatingSummaryScheduler {
+
+    private final RatingService ratingService;
+
+    // Backfills summaries for products rated before they were denormalized
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        rebuild("startup");
+    }
+
+    // Run every day at 3:30 AM
+    @Scheduled(cron = "${scheduler.rating-summary.cron:0 30 3 * * *}")
+    public void rebuildNightly() {
+        rebuild("nightly");
+    }
+
+    private void rebuild(String trigger) {
+        log.info("Starting {} rating summary rebuild...", trigger);
+
+        try {
+            ratingService.rebuildRatingSummaries();
+        } catch (Exception e) {
+            log.error("Rating summary rebuild failed: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.slimbahael.beauty_center.security;
+
+import com.slimbahael.beauty_center.exception.ServiceOverloadedException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt on a small dedicated pool, so a burst of hashing (a login storm, bulk registrations)
+ * cannot take the CPU from request threads serving everything else. At most
+ * {@code password-hashing.threads} hashes run at once and {@code password-hashing.queue-capacity}
+ * wait; beyond that callers fail fast with a {@link ServiceOverloadedException} (503) instead of
+ * piling up. Callers still wait for their own hash, but parked rather than competing for the CPU.
+ * <p>
+ * The cost is {@code password-hashing.bcrypt-strength}. Hashes made with another cost report
+ * {@link #upgradeEncoding}, so the authentication provider re-hashes them on the next successful
+ * login through {@link CustomUserDetailsService#updatePassword}.
+ */
+@Component
+@Slf4j
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[aby]?\\$(\\d\\d)\\$");
+
+    private final BCryptPasswordEncoder delegate;
+    private final int strength;
+    private final int queueCapacity;
+    private final ThreadPoolExecutor hashers;
+
+    private final OperationMetrics encodeMetrics = new OperationMetrics();
+    private final OperationMetrics matchMetrics = new OperationMetrics();
+    private final LongAdder rejected = new LongAdder();
+
+    public BoundedPasswordEncoder(@Value("${password-hashing.bcrypt-strength:10}") int strength,
+                                  @Value("${password-hashing.threads:1}") int threads,
+                                  @Value("${password-hashing.queue-capacity:16}") int queueCapacity) {
+        this.delegate = new BCryptPasswordEncoder(strength);
+        this.strength = strength;
+        this.queueCapacity = queueCapacity;
+        this.hashers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), daemonThreads("password-hash-"));
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(encodeMetrics, () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(matchMetrics, () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * True for BCrypt hashes whose cost differs from the configured one, raised or lowered.
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        return matcher.find() && Integer.parseInt(matcher.group(1)) != strength;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("bcryptStrength", strength);
+        stats.put("threads", hashers.getMaximumPoolSize());
+        stats.put("activeHashers", hashers.getActiveCount());
+        stats.put("queueDepth", hashers.getQueue().size());
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("rejected", rejected.sum());
+        stats.put("encode", encodeMetrics.snapshot());
+        stats.put("matches", matchMetrics.snapshot());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashers.shutdownNow();
+    }
+
+    private <T> T run(OperationMetrics metrics, Callable<T> operation) {
+        long submittedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = hashers.submit(() -> {
+                long startedAt = System.nanoTime();
+                try {
+                    return operation.call();
+                } finally {
+                    metrics.record(startedAt - submittedAt, System.nanoTime() - startedAt);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            log.warn("Password hashing queue full ({} waiting), rejecting request", queueCapacity);
+            throw new ServiceOverloadedException("The server is busy. Please try again in a moment.");
+        }
+
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static final class OperationMetrics {
+        private final LongAdder operations = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAdder totalQueueNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0);
+        private final LongAccumulator maxQueueNanos = new LongAccumulator(Long::max, 0);
+
+        void record(long queuedNanos, long elapsedNanos) {
+            operations.increment();
+            totalNanos.add(elapsedNanos);
+            totalQueueNanos.add(queuedNanos);
+            maxNanos.accumulate(elapsedNanos);
+            maxQueueNanos.accumulate(queuedNanos);
+        }
+
+        Map<String, Object> snapshot() {
+            long count = operations.sum();
+            Map<String, Object> snapshot = new LinkedHashMap<>();
+            snapshot.put("operations", count);
+            snapshot.put("avgLatencyMs", count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalNanos.sum() / count));
+            snapshot.put("maxLatencyMs", TimeUnit.NANOSECONDS.toMillis(maxNanos.get()));
+            snapshot.put("avgQueueWaitMs", count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalQueueNanos.sum() / count));
+            snapshot.put("maxQueueWaitMs", TimeUnit.NANOSECONDS.toMillis(maxQueueNanos.get()));
+            return snapshot;
+        }
+    }
+}
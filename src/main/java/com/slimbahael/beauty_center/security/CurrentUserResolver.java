@@ -0,0 +1,47 @@
+package com.slimbahael.beauty_center.security;
+
+import com.slimbahael.beauty_center.exception.ResourceNotFoundException;
+import com.slimbahael.beauty_center.model.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Resolves the authenticated {@link User} at most once per request. The user is memoized in the
+ * request attributes and otherwise loaded through {@link UserCache}, which the JWT filter has
+ * usually already populated.
+ */
+@Component
+@RequiredArgsConstructor
+public class CurrentUserResolver {
+
+    private static final String CURRENT_USER_ATTRIBUTE = CurrentUserResolver.class.getName() + ".currentUser";
+
+    private final UserCache userCache;
+
+    public User getCurrentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null) {
+            throw new ResourceNotFoundException("User not found");
+        }
+        String email = authentication.getName();
+
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null
+                && attributes.getAttribute(CURRENT_USER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof User user
+                && email.equals(user.getEmail())) {
+            return user;
+        }
+
+        User user = userCache.findByEmail(email)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+
+        if (attributes != null) {
+            attributes.setAttribute(CURRENT_USER_ATTRIBUTE, user, RequestAttributes.SCOPE_REQUEST);
+        }
+        return user;
+    }
+}
@@ -5,6 +5,7 @@ import com.slimbahael.beauty_center.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -14,10 +15,15 @@ import java.util.Collections;
 
 @Service
 @RequiredArgsConstructor
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
+    private final UserCache userCache;
 
+    /**
+     * Used by the login path, so it reads the database: {@link UserCache} evictions are local to one
+     * instance and a changed password or disabled account must take effect on every node at once.
+     */
     @Override
     @Transactional
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
@@ -25,14 +31,32 @@ public class CustomUserDetailsService implements UserDetailsService {
                 .orElseThrow(() ->
                         new UsernameNotFoundException("User not found with email : " + email));
 
-        return org.springframework.security.core.userdetails.User.builder()
-                .username(user.getEmail())
-                .password(user.getPassword())
-                .authorities(Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + user.getRole())))
-                .disabled(!user.isEnabled())
-                .accountExpired(false)
-                .credentialsExpired(false)
-                .accountLocked(false)
+        return toUserDetails(user);
+    }
+
+    /**
+     * Per-request lookup for already issued JWTs, served from {@link UserCache}.
+     */
+    public UserDetails loadCachedUserByUsername(String email) throws UsernameNotFoundException {
+        User user = userCache.findByEmail(email)
+                .orElseThrow(() ->
+                        new UsernameNotFoundException("User not found with email : " + email));
+
+        return toUserDetails(user);
+    }
+
+    /**
+     * Stores a re-hashed password after a successful login, when the stored hash used another
+     * BCrypt cost (see {@link BoundedPasswordEncoder#upgradeEncoding}).
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        // Targeted update: a full save would write back a balance read before a concurrent $inc
+        if (userRepository.updatePasswordByEmail(userDetails.getUsername(), newPassword)) {
+            userCache.evict(userDetails.getUsername());
+        }
+        return org.springframework.security.core.userdetails.User.withUserDetails(userDetails)
+                .password(newPassword)
                 .build();
     }
 
@@ -42,6 +66,10 @@ public class CustomUserDetailsService implements UserDetailsService {
                 .orElseThrow(() ->
                         new UsernameNotFoundException("User not found with id : " + id));
 
+        return toUserDetails(user);
+    }
+
+    private UserDetails toUserDetails(User user) {
         return org.springframework.security.core.userdetails.User.builder()
                 .username(user.getEmail())
                 .password(user.getPassword())
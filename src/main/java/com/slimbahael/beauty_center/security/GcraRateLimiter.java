@@ -0,0 +1,153 @@
+package com.slimbahael.beauty_center.security;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free GCRA (generic cell rate algorithm) limiter over a fixed-size table. Each tracked key
+ * takes one {@code long} slot holding a 24-bit key fingerprint and the key's 40-bit theoretical
+ * arrival time in milliseconds, updated with a single CAS, so memory is fixed at construction and
+ * no objects are allocated per request. A key may use {@code limit} requests at once and then one
+ * every {@code periodMs / limit}: a sliding limit, without the double burst at the edges of fixed
+ * windows.
+ * <p>
+ * A key lives in one of {@value #PROBE_WINDOW} neighbouring slots. When they are all taken, a new
+ * key replaces an expired one (its bucket is full again, so nothing is lost) or else the one with
+ * the least outstanding use, which keeps the heaviest clients tracked under a flood of new keys.
+ * Keys whose fingerprints collide within a window share a bucket; with 24-bit fingerprints that is
+ * negligible at the table sizes used here.
+ */
+public class GcraRateLimiter {
+
+    private static final int PROBE_WINDOW = 8;
+    private static final int TAT_BITS = 40;
+    private static final long TAT_MASK = (1L << TAT_BITS) - 1;
+    private static final long FINGERPRINT_MASK = (1L << (64 - TAT_BITS)) - 1;
+
+    private final AtomicLongArray slots;
+    private final int mask;
+    private final LongSupplier clock;
+    private final long epochMs;
+
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public GcraRateLimiter(int maxTrackedKeys) {
+        this(maxTrackedKeys, System::currentTimeMillis);
+    }
+
+    GcraRateLimiter(int maxTrackedKeys, LongSupplier clock) {
+        int capacity = Integer.highestOneBit(Math.max(PROBE_WINDOW, maxTrackedKeys - 1)) << 1;
+        this.slots = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        this.clock = clock;
+        this.epochMs = clock.getAsLong();
+    }
+
+    /**
+     * Counts one request for {@code key}. Returns 0 if it is allowed, otherwise the number of
+     * milliseconds until the key may send again.
+     */
+    public long tryAcquire(String key, int limit, long periodMs) {
+        long emissionMs = Math.max(1, periodMs / limit);
+        long toleranceMs = periodMs - emissionMs;
+        long hash = mix(key);
+        long fingerprint = Math.max(1, hash >>> TAT_BITS & FINGERPRINT_MASK);
+        int home = (int) hash & mask;
+
+        while (true) {
+            long now = Math.max(0, clock.getAsLong() - epochMs);
+            int victim = -1;
+            long victimValue = 0;
+            long victimTat = Long.MAX_VALUE;
+
+            for (int i = 0; i < PROBE_WINDOW; i++) {
+                int slot = (home + i) & mask;
+                long value = slots.get(slot);
+                if (value != 0 && value >>> TAT_BITS == fingerprint) {
+                    long tat = Math.max(value & TAT_MASK, now);
+                    if (tat - now > toleranceMs) {
+                        rejected.increment();
+                        return tat - now - toleranceMs;
+                    }
+                    if (slots.compareAndSet(slot, value, pack(fingerprint, tat + emissionMs))) {
+                        allowed.increment();
+                        return 0;
+                    }
+                    victim = -2; // Lost a race on our own slot; re-read the window
+                    break;
+                }
+                // Empty slots sort first, then by outstanding use
+                long tat = value == 0 ? -1 : value & TAT_MASK;
+                if (tat < victimTat) {
+                    victim = slot;
+                    victimValue = value;
+                    victimTat = tat;
+                }
+            }
+            if (victim == -2) {
+                continue;
+            }
+
+            if (slots.compareAndSet(victim, victimValue, pack(fingerprint, now + emissionMs))) {
+                if (victimTat > now) {
+                    evictions.increment();
+                }
+                allowed.increment();
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Keys still holding outstanding use. Scans the table, so meant for stats and tests.
+     */
+    public int trackedKeys() {
+        long now = clock.getAsLong() - epochMs;
+        int count = 0;
+        for (int i = 0; i < slots.length(); i++) {
+            long value = slots.get(i);
+            if (value != 0 && (value & TAT_MASK) > now) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public int capacity() {
+        return slots.length();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("capacity", capacity());
+        stats.put("trackedKeys", trackedKeys());
+        stats.put("allowed", allowed.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("evictions", evictions.sum());
+        return stats;
+    }
+
+    private static long pack(long fingerprint, long tat) {
+        return fingerprint << TAT_BITS | tat & TAT_MASK;
+    }
+
+    // 64-bit FNV-1a over the chars, finished with a murmur3 mixer; allocation-free
+    static long mix(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb3f64f5ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,49 @@
+package com.slimbahael.beauty_center.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.HexFormat;
+
+/**
+ * Derives a deterministic, keyed lookup value for gift card codes.
+ * The HMAC lets us find the candidate card with one indexed query while the code itself
+ * stays unrecoverable from the database; the BCrypt {@code codeHash} is still verified afterwards.
+ */
+@Component
+public class GiftCardCodeHasher {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final SecretKeySpec keySpec;
+
+    public GiftCardCodeHasher(@Value("${giftcard.code.lookup-secret:}") String lookupSecret,
+                              @Value("${jwt.secret:}") String jwtSecret) {
+        // A dedicated secret: rotating the JWT key must not orphan every lookup key, and vice versa
+        if (lookupSecret == null || lookupSecret.isBlank()) {
+            throw new IllegalStateException("GIFTCARD_LOOKUP_SECRET must be set (giftcard.code.lookup-secret)");
+        }
+        if (lookupSecret.length() < 32) {
+            throw new IllegalArgumentException("Gift card lookup secret must be at least 32 characters long");
+        }
+        if (lookupSecret.equals(jwtSecret)) {
+            throw new IllegalStateException("Gift card lookup secret must differ from the JWT secret");
+        }
+        this.keySpec = new SecretKeySpec(lookupSecret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+    }
+
+    public String lookupKey(String code) {
+        try {
+            // Mac instances are not thread-safe, so build one per call
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(keySpec);
+            return HexFormat.of().formatHex(mac.doFinal(code.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to compute gift card lookup key", e);
+        }
+    }
+}
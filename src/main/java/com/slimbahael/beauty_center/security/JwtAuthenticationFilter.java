@@ -1,6 +1,7 @@
 // src/main/java/com/slimbahael/beauty_center/security/JwtAuthenticationFilter.java
 package com.slimbahael.beauty_center.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -34,33 +35,26 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             String jwt = getJwtFromRequest(request);
 
             if (StringUtils.hasText(jwt)) {
-                // First validate token structure and signature
-                if (!tokenProvider.validateToken(jwt)) {
-                    log.debug("Invalid JWT token");
+                // Verify signature, issuer and expiry once and reuse the claims
+                Claims claims = tokenProvider.getVerifiedClaims(jwt);
+                if (claims == null) {
+                    log.debug("Invalid or expired JWT token");
                     filterChain.doFilter(request, response);
                     return;
                 }
 
-                // Check if token is blacklisted
-                if (tokenBlacklistService.isTokenBlacklisted(jwt)) {
+                // Check if token has been revoked (logout)
+                if (tokenBlacklistService.isRevoked(claims.getId())) {
                     log.warn("Attempted use of blacklisted token from IP: {}", getClientIpAddress(request));
                     response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
                     response.getWriter().write("{\"error\":\"Token is invalid\"}");
                     return;
                 }
 
-                // Check if token is expired
-                if (tokenProvider.isTokenExpired(jwt)) {
-                    log.debug("JWT token is expired");
-                    tokenBlacklistService.blacklistToken(jwt); // Blacklist expired token
-                    filterChain.doFilter(request, response);
-                    return;
-                }
-
-                String username = tokenProvider.getUsernameFromToken(jwt);
+                String username = claims.getSubject();
 
                 if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                    UserDetails userDetails = customUserDetailsService.loadUserByUsername(username);
+                    UserDetails userDetails = customUserDetailsService.loadCachedUserByUsername(username);
 
                     // Verify user is still enabled
                     if (!userDetails.isEnabled()) {
@@ -7,12 +7,19 @@ import io.jsonwebtoken.security.SignatureException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
+import java.util.HexFormat;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @Component
@@ -22,11 +29,15 @@ public class JwtTokenProvider {
     private final Key key;
     private final long jwtExpirationInMs;
     private final String issuer;
+    private final JwtParser jwtParser;
+    private final int claimsCacheMaxSize;
+    private final Map<String, Claims> verifiedClaims = new ConcurrentHashMap<>();
 
     public JwtTokenProvider(
             @Value("${jwt.secret}") String jwtSecret,
             @Value("${jwt.expiration}") long jwtExpirationInMs,
-            @Value("${app.name:beauty-center}") String issuer) {
+            @Value("${app.name:beauty-center}") String issuer,
+            @Value("${jwt.claims-cache.max-size:10000}") int claimsCacheMaxSize) {
 
         // Ensure the secret is strong enough
         if (jwtSecret.length() < 32) {
@@ -36,6 +47,11 @@ public class JwtTokenProvider {
         this.key = Keys.hmacShaKeyFor(jwtSecret.getBytes());
         this.jwtExpirationInMs = jwtExpirationInMs;
         this.issuer = issuer;
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKey(key)
+                .requireIssuer(issuer)
+                .build();
+        this.claimsCacheMaxSize = claimsCacheMaxSize;
     }
 
     public String generateToken(Authentication authentication) {
@@ -59,72 +75,72 @@ public class JwtTokenProvider {
     }
 
     public String getUsernameFromToken(String token) {
-        try {
-            Claims claims = Jwts.parserBuilder()
-                    .setSigningKey(key)
-                    .requireIssuer(issuer)
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
-
-            return claims.getSubject();
-        } catch (Exception e) {
-            log.error("Error extracting username from token", e);
-            return null;
-        }
+        Claims claims = getVerifiedClaims(token);
+        return claims != null ? claims.getSubject() : null;
     }
 
     public Date getExpirationDateFromToken(String token) {
-        try {
-            Claims claims = Jwts.parserBuilder()
-                    .setSigningKey(key)
-                    .requireIssuer(issuer)
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
-
-            return claims.getExpiration();
-        } catch (Exception e) {
-            log.error("Error extracting expiration date from token", e);
-            return null;
-        }
+        Claims claims = getVerifiedClaims(token);
+        return claims != null ? claims.getExpiration() : null;
     }
 
     public String getTokenIdFromToken(String token) {
-        try {
-            Claims claims = Jwts.parserBuilder()
-                    .setSigningKey(key)
-                    .requireIssuer(issuer)
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
-
-            return claims.getId();
-        } catch (Exception e) {
-            log.error("Error extracting token ID from token", e);
-            return null;
-        }
+        Claims claims = getVerifiedClaims(token);
+        return claims != null ? claims.getId() : null;
     }
 
     public boolean isTokenExpired(String token) {
-        try {
-            Date expiration = getExpirationDateFromToken(token);
-            return expiration != null && expiration.before(new Date());
-        } catch (Exception e) {
-            log.error("Error checking token expiration", e);
-            return true; // Treat as expired if we can't determine
-        }
+        Date expiration = getExpirationDateFromToken(token);
+        return expiration == null || expiration.before(new Date());
     }
 
     public boolean validateToken(String authToken) {
-        try {
-            Jwts.parserBuilder()
-                    .setSigningKey(key)
-                    .requireIssuer(issuer)
-                    .build()
-                    .parseClaimsJws(authToken);
+        return getVerifiedClaims(authToken) != null;
+    }
+
+    /**
+     * Verifies the signature, issuer and expiry of the token once and returns its claims,
+     * or {@code null} if the token is not valid. Recently verified tokens are served from
+     * a bounded cache until they expire, so repeated requests with the same token skip the
+     * signature check.
+     */
+    public Claims getVerifiedClaims(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+
+        String cacheKey = digest(token);
+        Claims cached = verifiedClaims.get(cacheKey);
+        if (cached != null) {
+            if (cached.getExpiration() != null && cached.getExpiration().after(new Date())) {
+                return cached;
+            }
+            verifiedClaims.remove(cacheKey);
+            return null;
+        }
 
-            return true;
+        Claims claims = parseClaims(token);
+        if (claims != null && claims.getExpiration() != null) {
+            if (verifiedClaims.size() >= claimsCacheMaxSize) {
+                evictExpiredClaims();
+            }
+            if (verifiedClaims.size() < claimsCacheMaxSize) {
+                verifiedClaims.put(cacheKey, claims);
+            }
+        }
+        return claims;
+    }
+
+    // Remove cached claims of expired tokens every 5 minutes
+    @Scheduled(fixedRate = 300000)
+    public void evictExpiredClaims() {
+        Date now = new Date();
+        verifiedClaims.values().removeIf(claims -> claims.getExpiration().before(now));
+    }
+
+    private Claims parseClaims(String token) {
+        try {
+            return jwtParser.parseClaimsJws(token).getBody();
         } catch (SignatureException ex) {
             log.error("Invalid JWT signature: {}", ex.getMessage());
         } catch (MalformedJwtException ex) {
@@ -138,7 +154,17 @@ public class JwtTokenProvider {
         } catch (Exception ex) {
             log.error("JWT token validation error: {}", ex.getMessage());
         }
-        return false;
+        return null;
+    }
+
+    // Cache by digest so raw tokens are not kept in memory
+    private String digest(String token) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(messageDigest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 
     public long getExpirationTime() {
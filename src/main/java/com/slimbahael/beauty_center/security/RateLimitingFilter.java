@@ -1,6 +1,7 @@
 // src/main/java/com/slimbahael/beauty_center/security/RateLimitingFilter.java
 package com.slimbahael.beauty_center.security;
 
+import com.slimbahael.beauty_center.service.RateLimiterService;
 import jakarta.servlet.Filter;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -9,25 +10,45 @@ import jakarta.servlet.ServletResponse;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.PathContainer;
 import org.springframework.stereotype.Component;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
 
 import java.io.IOException;
-import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 @Component
 @Slf4j
 public class RateLimitingFilter implements Filter {
 
-    private final ConcurrentHashMap<String, RequestTracker> requestTrackers = new ConcurrentHashMap<>();
-
-    // Rate limits per endpoint type
+    // Rate limits per endpoint type; limit and period-seconds can be overridden with rate-limit.<policy>.*
     private static final int LOGIN_REQUESTS_PER_MINUTE = 5;
     private static final int GENERAL_REQUESTS_PER_MINUTE = 100;
     private static final int UPLOAD_REQUESTS_PER_MINUTE = 10;
 
+    private final Environment environment;
+    private final RateLimiterService rateLimiterService;
+    private final List<Policy> policies;
+
+    public RateLimitingFilter(Environment environment, RateLimiterService rateLimiterService) {
+        this.environment = environment;
+        this.rateLimiterService = rateLimiterService;
+        // First matching policy wins; each has its own limiter, so general traffic never uses up the login budget
+        this.policies = List.of(
+                policy("login", LOGIN_REQUESTS_PER_MINUTE, Set.of(HttpMethod.POST), "/api/auth/login", "/api/auth/login/"),
+                policy("upload", UPLOAD_REQUESTS_PER_MINUTE, Set.of(HttpMethod.POST), "/api/files/upload/**"),
+                policy("general", GENERAL_REQUESTS_PER_MINUTE, Set.of(), "/**"));
+    }
+
     @Override
     public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
             throws IOException, ServletException {
@@ -39,12 +60,19 @@ public class RateLimitingFilter implements Filter {
         String endpoint = httpRequest.getRequestURI();
 
         // Determine rate limit based on endpoint
-        int allowedRequests = determineRateLimit(endpoint);
+        Policy policy = determinePolicy(httpRequest);
+        long retryAfterMs = policy.limiter().tryAcquire(clientId, policy.limit(), policy.periodMs());
+        if (retryAfterMs == 0 && rateLimiterService.isShared()) {
+            // The local limiter only sees this instance's share; near-cached counts add the others'
+            retryAfterMs = rateLimiterService.tryAcquire(
+                    policy.name() + ":" + clientId, policy.limit(), policy.periodMs(), true);
+        }
 
-        if (isRateLimited(clientId, allowedRequests)) {
-            log.warn("Rate limit exceeded for client: {} on endpoint: {}", clientId, endpoint);
+        if (retryAfterMs > 0) {
+            log.warn("Rate limit '{}' exceeded for client: {} on endpoint: {}", policy.name(), clientId, endpoint);
 
             httpResponse.setStatus(429); // Too Many Requests
+            httpResponse.setHeader("Retry-After", String.valueOf(TimeUnit.MILLISECONDS.toSeconds(retryAfterMs + 999)));
             httpResponse.setContentType("application/json");
             httpResponse.getWriter().write(
                     "{\"error\":\"Rate limit exceeded\",\"message\":\"Too many requests. Please try again later.\"}"
@@ -55,6 +83,18 @@ public class RateLimitingFilter implements Filter {
         chain.doFilter(request, response);
     }
 
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        for (Policy policy : policies) {
+            Map<String, Object> policyStats = new LinkedHashMap<>();
+            policyStats.put("limit", policy.limit());
+            policyStats.put("periodMs", policy.periodMs());
+            policyStats.putAll(policy.limiter().getStats());
+            stats.put(policy.name(), policyStats);
+        }
+        return stats;
+    }
+
     private String getClientIdentifier(HttpServletRequest request) {
         // Try to get real IP address (considering proxies)
         String xForwardedFor = request.getHeader("X-Forwarded-For");
@@ -73,48 +113,42 @@ public class RateLimitingFilter implements Filter {
         return remoteAddr;
     }
 
-    private int determineRateLimit(String endpoint) {
-        if (endpoint.contains("/api/auth/login")) {
-            return LOGIN_REQUESTS_PER_MINUTE;
-        } else if (endpoint.contains("/api/files/upload")) {
-            return UPLOAD_REQUESTS_PER_MINUTE;
-        } else {
-            return GENERAL_REQUESTS_PER_MINUTE;
-        }
-    }
-
-    private boolean isRateLimited(String clientId, int allowedRequests) {
-        LocalDateTime now = LocalDateTime.now();
-
-        requestTrackers.compute(clientId, (key, tracker) -> {
-            if (tracker == null || ChronoUnit.MINUTES.between(tracker.windowStart, now) >= 1) {
-                // Create new tracker or reset if window expired
-                return new RequestTracker(now, new AtomicInteger(1));
-            } else {
-                // Increment counter in current window
-                tracker.requestCount.incrementAndGet();
-                return tracker;
+    Policy determinePolicy(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        PathContainer pathContainer = PathContainer.parsePath(path);
+        HttpMethod method = HttpMethod.valueOf(request.getMethod());
+        for (Policy policy : policies) {
+            if (policy.matches(method, pathContainer)) {
+                return policy;
             }
-        });
-
-        RequestTracker tracker = requestTrackers.get(clientId);
-        return tracker.requestCount.get() > allowedRequests;
+        }
+        return policies.get(policies.size() - 1);
     }
 
-    // Cleanup old entries periodically
-    public void cleanup() {
-        LocalDateTime cutoff = LocalDateTime.now().minus(2, ChronoUnit.MINUTES);
-        requestTrackers.entrySet().removeIf(entry ->
-                entry.getValue().windowStart.isBefore(cutoff));
+    private Policy policy(String name, int defaultLimit, Set<HttpMethod> methods, String... patterns) {
+        int limit = environment.getProperty("rate-limit." + name + ".limit", Integer.class, defaultLimit);
+        long periodSeconds = environment.getProperty("rate-limit." + name + ".period-seconds", Long.class, 60L);
+        int maxTrackedKeys = environment.getProperty("rate-limit.max-tracked-keys", Integer.class, 65536);
+        List<PathPattern> pathPatterns = Arrays.stream(patterns)
+                .map(PathPatternParser.defaultInstance::parse)
+                .collect(Collectors.toList());
+        return new Policy(name, methods, pathPatterns, limit, TimeUnit.SECONDS.toMillis(periodSeconds),
+                new GcraRateLimiter(maxTrackedKeys));
     }
 
-    private static class RequestTracker {
-        final LocalDateTime windowStart;
-        final AtomicInteger requestCount;
+    record Policy(String name, Set<HttpMethod> methods, List<PathPattern> patterns, int limit, long periodMs,
+                  GcraRateLimiter limiter) {
 
-        RequestTracker(LocalDateTime windowStart, AtomicInteger requestCount) {
-            this.windowStart = windowStart;
-            this.requestCount = requestCount;
+        boolean matches(HttpMethod method, PathContainer path) {
+            if (!methods.isEmpty() && !methods.contains(method)) {
+                return false;
+            }
+            for (PathPattern pattern : patterns) {
+                if (pattern.matches(path)) {
+                    return true;
+                }
+            }
+            return false;
         }
     }
 }
\ No newline at end of file
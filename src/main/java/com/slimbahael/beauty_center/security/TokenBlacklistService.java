@@ -1,50 +1,164 @@
 package com.slimbahael.beauty_center.security;
 
+import com.slimbahael.beauty_center.service.SharedStateStore;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDateTime;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
 
+/**
+ * Revoked access tokens, keyed by their {@code jti} and kept exactly until their {@code exp}:
+ * after that the signature check rejects them anyway, so tokens that are already expired are never
+ * stored.
+ * <p>
+ * With a shared {@link SharedStateStore} revocations are flags in the store, so every instance sees
+ * them. Otherwise they are kept here: a map of jti to expiry, drained in expiry order, behind a
+ * Bloom filter of {@code jwt.revocation.bloom-bits} bits so the usual "not revoked" answer touches
+ * no map and allocates nothing. The filter is rebuilt when revocations expire, since it cannot
+ * forget entries.
+ */
 @Service
 @Slf4j
 public class TokenBlacklistService {
 
-    private final ConcurrentHashMap<String, LocalDateTime> blacklistedTokens = new ConcurrentHashMap<>();
+    private static final String REVOKED_TOKEN_PREFIX = "revoked-jti:";
+    private static final int BLOOM_HASHES = 4;
 
-    public void blacklistToken(String token) {
-        if (token != null && !token.trim().isEmpty()) {
-            blacklistedTokens.put(token, LocalDateTime.now());
-            log.info("Token blacklisted successfully");
+    private final SharedStateStore sharedStateStore;
+    private final int bloomBits;
+    private final LongSupplier clock;
+
+    private final Map<String, Long> revokedUntil = new ConcurrentHashMap<>();
+    // Guarded by this; revocations are rare (logout), lookups never lock
+    private final PriorityQueue<Revocation> expiryQueue =
+            new PriorityQueue<>(Comparator.comparingLong(Revocation::expiresAt));
+    private volatile AtomicLongArray bloom;
+
+    private final LongAdder bloomNegatives = new LongAdder();
+    private final LongAdder purged = new LongAdder();
+
+    @Autowired
+    public TokenBlacklistService(SharedStateStore sharedStateStore,
+                                 @Value("${jwt.revocation.bloom-bits:131072}") int bloomBits) {
+        this(sharedStateStore, bloomBits, System::currentTimeMillis);
+    }
+
+    TokenBlacklistService(SharedStateStore sharedStateStore, int bloomBits, LongSupplier clock) {
+        this.sharedStateStore = sharedStateStore;
+        this.bloomBits = Integer.highestOneBit(Math.max(64, bloomBits - 1)) << 1;
+        this.clock = clock;
+        this.bloom = new AtomicLongArray(this.bloomBits / 64);
+    }
+
+    /**
+     * Revokes the token with the given ID until it expires. Expired tokens are ignored.
+     */
+    public void revoke(String tokenId, Date expiresAt) {
+        if (tokenId == null || expiresAt == null) {
+            return;
+        }
+        long now = clock.getAsLong();
+        long expiresAtMs = expiresAt.getTime();
+        if (expiresAtMs <= now) {
+            log.debug("Token already expired, not revoked");
+            return;
+        }
+
+        if (sharedStateStore.isShared()) {
+            sharedStateStore.putFlag(REVOKED_TOKEN_PREFIX + tokenId, Duration.ofMillis(expiresAtMs - now));
+        } else {
+            synchronized (this) {
+                revokedUntil.merge(tokenId, expiresAtMs, Math::max);
+                expiryQueue.add(new Revocation(tokenId, expiresAtMs));
+                addToBloom(bloom, tokenId);
+            }
         }
+        log.info("Token revoked until it expires");
     }
 
-    public boolean isTokenBlacklisted(String token) {
-        return token != null && blacklistedTokens.containsKey(token);
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null) {
+            return false;
+        }
+        if (sharedStateStore.isShared()) {
+            return sharedStateStore.hasFlag(REVOKED_TOKEN_PREFIX + tokenId);
+        }
+        if (!mightContain(bloom, tokenId)) {
+            bloomNegatives.increment();
+            return false;
+        }
+        Long expiresAt = revokedUntil.get(tokenId);
+        return expiresAt != null && expiresAt > clock.getAsLong();
     }
 
-    public void removeToken(String token) {
-        if (token != null) {
-            blacklistedTokens.remove(token);
+    // Drop revocations of tokens that have expired every minute
+    @Scheduled(fixedDelayString = "${jwt.revocation.purge-ms:60000}")
+    public synchronized void purgeExpired() {
+        long now = clock.getAsLong();
+        int removed = 0;
+        Revocation head;
+        while ((head = expiryQueue.peek()) != null && head.expiresAt() <= now) {
+            expiryQueue.poll();
+            if (revokedUntil.remove(head.tokenId(), head.expiresAt())) {
+                removed++;
+            }
+        }
+
+        if (removed > 0) {
+            AtomicLongArray rebuilt = new AtomicLongArray(bloomBits / 64);
+            revokedUntil.keySet().forEach(tokenId -> addToBloom(rebuilt, tokenId));
+            bloom = rebuilt;
+            purged.add(removed);
+            log.info("Cleaned up {} expired token revocations", removed);
         }
     }
 
-    // Clean up expired tokens every hour
-    @Scheduled(fixedRate = 3600000) // 1 hour in milliseconds
-    public void cleanupExpiredTokens() {
-        LocalDateTime cutoff = LocalDateTime.now().minusHours(24); // Remove tokens older than 24 hours
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("shared", sharedStateStore.isShared());
+        stats.put("revokedTokens", revokedUntil.size());
+        stats.put("bloomBits", bloomBits);
+        stats.put("bloomNegatives", bloomNegatives.sum());
+        stats.put("purged", purged.sum());
+        return stats;
+    }
 
-        int beforeSize = blacklistedTokens.size();
-        blacklistedTokens.entrySet().removeIf(entry -> entry.getValue().isBefore(cutoff));
-        int afterSize = blacklistedTokens.size();
+    // Single writer under the lock; AtomicLongArray makes the bits visible to lock-free readers
+    private void addToBloom(AtomicLongArray bits, String tokenId) {
+        long hash = GcraRateLimiter.mix(tokenId);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int i = 0; i < BLOOM_HASHES; i++) {
+            int bit = (h1 + i * h2) & (bloomBits - 1);
+            bits.set(bit >>> 6, bits.get(bit >>> 6) | 1L << bit);
+        }
+    }
 
-        if (beforeSize != afterSize) {
-            log.info("Cleaned up {} expired blacklisted tokens", beforeSize - afterSize);
+    private boolean mightContain(AtomicLongArray bits, String tokenId) {
+        long hash = GcraRateLimiter.mix(tokenId);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int i = 0; i < BLOOM_HASHES; i++) {
+            int bit = (h1 + i * h2) & (bloomBits - 1);
+            if ((bits.get(bit >>> 6) & 1L << bit) == 0) {
+                return false;
+            }
         }
+        return true;
     }
 
-    public int getBlacklistedTokenCount() {
-        return blacklistedTokens.size();
+    private record Revocation(String tokenId, long expiresAt) {
     }
 }
\ No newline at end of file
@@ -0,0 +1,84 @@
+package com.slimbahael.beauty_center.security;
+
+import com.slimbahael.beauty_center.model.User;
+import com.slimbahael.beauty_center.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Short-lived, size-bounded cache of users by email, shared by the JWT filter and the services
+ * that resolve the authenticated user. Entries are evicted whenever a user is updated; cached users
+ * are only meant for identity and role checks, balances must still be read through BalanceService.
+ * Evictions only reach this instance, so login reads passwords and the enabled flag from the database.
+ */
+@Component
+@Slf4j
+public class UserCache {
+
+    private final UserRepository userRepository;
+    private final Duration ttl;
+    private final int maxSize;
+    private final Map<String, CachedUser> usersByEmail = new ConcurrentHashMap<>();
+
+    public UserCache(UserRepository userRepository,
+                     @Value("${user.cache.ttl-seconds:60}") long ttlSeconds,
+                     @Value("${user.cache.max-size:5000}") int maxSize) {
+        this.userRepository = userRepository;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        this.maxSize = maxSize;
+    }
+
+    public Optional<User> findByEmail(String email) {
+        if (email == null) {
+            return Optional.empty();
+        }
+
+        CachedUser cached = usersByEmail.get(email);
+        if (cached != null && cached.expiresAt().isAfter(Instant.now())) {
+            return Optional.of(cached.user());
+        }
+
+        Optional<User> user = userRepository.findByEmail(email);
+        if (user.isPresent()) {
+            if (usersByEmail.size() >= maxSize) {
+                evictExpired();
+            }
+            if (usersByEmail.size() < maxSize) {
+                usersByEmail.put(email, new CachedUser(user.get(), Instant.now().plus(ttl)));
+            }
+        } else {
+            usersByEmail.remove(email);
+        }
+        return user;
+    }
+
+    public void evict(String email) {
+        if (email != null) {
+            usersByEmail.remove(email);
+        }
+    }
+
+    public void evictById(String userId) {
+        if (userId != null) {
+            usersByEmail.values().removeIf(cached -> userId.equals(cached.user().getId()));
+        }
+    }
+
+    // Clean up expired entries every minute
+    @Scheduled(fixedRate = 60000)
+    public void evictExpired() {
+        Instant now = Instant.now();
+        usersByEmail.values().removeIf(cached -> !cached.expiresAt().isAfter(now));
+    }
+
+    private record CachedUser(User user, Instant expiresAt) {
+    }
+}
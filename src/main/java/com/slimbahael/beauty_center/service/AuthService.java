@@ -9,6 +9,8 @@ import com.slimbahael.beauty_center.model.User;
 import com.slimbahael.beauty_center.repository.UserRepository;
 import com.slimbahael.beauty_center.security.JwtTokenProvider;
 import com.slimbahael.beauty_center.security.TokenBlacklistService;
+import com.slimbahael.beauty_center.security.UserCache;
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -23,9 +25,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
-import java.time.LocalDateTime;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 @RequiredArgsConstructor
@@ -43,12 +43,14 @@ public class AuthService {
     private final EmailVerificationTokenService tokenService;
     private final RecaptchaService recaptchaService;
     private final RateLimiterService rateLimiterService;
+    private final UserCache userCache;
 
-    // Track failed login attempts per email (or IP if you prefer)
-    private final ConcurrentHashMap<String, FailedLoginAttempt> failedAttempts = new ConcurrentHashMap<>();
+    private final SharedStateStore sharedStateStore;
 
     private static final int MAX_LOGIN_ATTEMPTS = 5;
     private static final int LOCKOUT_DURATION_MINUTES = 15;
+    // Failed login attempts per email, counted in the shared store so a lockout holds on every instance
+    private static final String FAILED_LOGINS_PREFIX = "failed-logins:";
 
     /* ===========================
        AUTH: LOGIN
@@ -146,7 +148,7 @@ public class AuthService {
                     .enabled(false) // enabled after email verification
                     .build();
 
-            userRepository.save(user);
+            userRepository.insert(user);
 
             String verificationToken = tokenService.createEmailVerificationToken(email);
             emailService.sendEmailVerification(email, verificationToken, firstName);
@@ -169,8 +171,8 @@ public class AuthService {
                 User user = userRepository.findByEmail(verificationToken.getEmail())
                         .orElseThrow(() -> new RuntimeException("User not found"));
 
-                user.setEnabled(true);
-                userRepository.save(user);
+                userRepository.setEnabledByEmail(user.getEmail(), true);
+                userCache.evict(user.getEmail());
 
                 tokenService.markTokenAsUsed(token);
                 emailService.sendWelcomeEmail(user.getEmail(), user.getFirstName());
@@ -205,11 +207,9 @@ public class AuthService {
         email = inputSanitizationService.sanitizeEmail(email);
 
         // Rate limit first
-        String rateKey = "pwd-reset:" + email.toLowerCase();
         rateLimiterService.ensureAllowed(
-                rateKey,
-                3,
-                Duration.ofMinutes(15),
+                "password-reset",
+                email.toLowerCase(),
                 "Too many password reset requests. Please wait before trying again."
         );
 
@@ -251,8 +251,8 @@ public class AuthService {
                 User user = userRepository.findByEmail(resetToken.getEmail())
                         .orElseThrow(() -> new RuntimeException("User not found"));
 
-                user.setPassword(passwordEncoder.encode(newPassword));
-                userRepository.save(user);
+                userRepository.updatePasswordByEmail(user.getEmail(), passwordEncoder.encode(newPassword));
+                userCache.evict(user.getEmail());
 
                 tokenService.markTokenAsUsed(token);
                 log.info("Password reset successfully for user: {}", user.getEmail());
@@ -270,7 +270,11 @@ public class AuthService {
             if (token.startsWith("Bearer ")) {
                 token = token.substring(7);
             }
-            tokenBlacklistService.blacklistToken(token);
+            // Expired or invalid tokens are already rejected, so only live ones are revoked
+            Claims claims = tokenProvider.getVerifiedClaims(token);
+            if (claims != null) {
+                tokenBlacklistService.revoke(claims.getId(), claims.getExpiration());
+            }
             SecurityContextHolder.clearContext();
             log.info("User logged out successfully");
         }
@@ -303,8 +307,8 @@ public class AuthService {
             throw new IllegalArgumentException("New password must be different from current password");
         }
 
-        user.setPassword(passwordEncoder.encode(newPassword));
-        userRepository.save(user);
+        userRepository.updatePasswordByEmail(user.getEmail(), passwordEncoder.encode(newPassword));
+        userCache.evict(user.getEmail());
         log.info("Password changed successfully for user: {}", email);
     }
 
@@ -319,36 +323,17 @@ public class AuthService {
     /* ===========================
        INTERNAL HELPERS
        =========================== */
+    // Failures are counted for all instances; each one restarts the lockout period
     private boolean isAccountLocked(String attemptKey) {
-        FailedLoginAttempt attempt = failedAttempts.get(attemptKey);
-        if (attempt == null) return false;
-
-        if (attempt.getAttemptCount() >= MAX_LOGIN_ATTEMPTS) {
-            LocalDateTime lockoutExpiry = attempt.getLastAttempt().plusMinutes(LOCKOUT_DURATION_MINUTES);
-            if (LocalDateTime.now().isBefore(lockoutExpiry)) {
-                return true;
-            } else {
-                failedAttempts.remove(attemptKey);
-                return false;
-            }
-        }
-        return false;
+        return sharedStateStore.get(FAILED_LOGINS_PREFIX + attemptKey) >= MAX_LOGIN_ATTEMPTS;
     }
 
     private void recordFailedAttempt(String attemptKey) {
-        failedAttempts.compute(attemptKey, (key, attempt) ->
-                attempt == null
-                        ? new FailedLoginAttempt(1, LocalDateTime.now())
-                        : new FailedLoginAttempt(attempt.getAttemptCount() + 1, LocalDateTime.now()));
+        sharedStateStore.increment(FAILED_LOGINS_PREFIX + attemptKey, 1, Duration.ofMinutes(LOCKOUT_DURATION_MINUTES));
     }
 
     private void clearFailedAttempts(String attemptKey) {
-        failedAttempts.remove(attemptKey);
-    }
-
-    public void cleanupFailedAttempts() {
-        LocalDateTime cutoff = LocalDateTime.now().minusHours(1);
-        failedAttempts.entrySet().removeIf(e -> e.getValue().getLastAttempt().isBefore(cutoff));
+        sharedStateStore.delete(FAILED_LOGINS_PREFIX + attemptKey);
     }
 
     private void validateRecaptchaOrThrow(String recaptchaToken) {
@@ -356,15 +341,4 @@ public class AuthService {
             throw new RuntimeException("reCAPTCHA verification failed. Please try again.");
         }
     }
-
-    private static class FailedLoginAttempt {
-        private final int attemptCount;
-        private final LocalDateTime lastAttempt;
-        public FailedLoginAttempt(int attemptCount, LocalDateTime lastAttempt) {
-            this.attemptCount = attemptCount;
-            this.lastAttempt = lastAttempt;
-        }
-        public int getAttemptCount() { return attemptCount; }
-        public LocalDateTime getLastAttempt() { return lastAttempt; }
-    }
 }
@@ -0,0 +1,211 @@
+package com.slimbahael.beauty_center.service;
+
+import com.slimbahael.beauty_center.dto.AvailabilityRangeRequest;
+import com.slimbahael.beauty_center.dto.AvailabilityRangeResponse;
+import com.slimbahael.beauty_center.dto.AvailabilityRequest;
+import com.slimbahael.beauty_center.dto.AvailabilityResponse;
+import com.slimbahael.beauty_center.exception.BadRequestException;
+import com.slimbahael.beauty_center.exception.ResourceNotFoundException;
+import com.slimbahael.beauty_center.model.Reservation;
+import com.slimbahael.beauty_center.model.Service;
+import com.slimbahael.beauty_center.model.User;
+import com.slimbahael.beauty_center.repository.ReservationRepository;
+import com.slimbahael.beauty_center.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-day, per-slot, per-staff availability of a service over a date range. Staff work days and
+ * shifts are compiled into bitmasks once per call, and the whole range is answered from a single
+ * reservation query on (staffId $in, reservationDate range).
+ */
+@org.springframework.stereotype.Service
+@RequiredArgsConstructor
+public class AvailabilityService {
+
+    public static final int MAX_RANGE_DAYS = 62;
+
+    static final int MORNING = 1;
+    static final int EVENING = 1 << 1;
+    private static final int BOTH_SLOTS = MORNING | EVENING;
+
+    private final ReservationRepository reservationRepository;
+    private final UserRepository userRepository;
+    private final ServiceCatalogCache serviceCatalogCache;
+
+    public AvailabilityRangeResponse getAvailability(AvailabilityRangeRequest request) {
+        LocalDate start = request.getStartDate();
+        LocalDate end = request.getEndDate();
+        if (end.isBefore(start)) {
+            throw new BadRequestException("End date must not be before start date");
+        }
+        int dayCount = (int) ChronoUnit.DAYS.between(start, end) + 1;
+        if (dayCount > MAX_RANGE_DAYS) {
+            throw new BadRequestException("Date range cannot exceed " + MAX_RANGE_DAYS + " days");
+        }
+
+        Service service = serviceCatalogCache.snapshot().findService(request.getServiceId())
+                .orElseThrow(() -> new ResourceNotFoundException("Service not found"));
+        List<String> assignedStaffIds = service.getAssignedStaffIds();
+        if (assignedStaffIds == null || assignedStaffIds.isEmpty()) {
+            throw new BadRequestException("No staff assigned to this service");
+        }
+
+        int serviceSlots = (service.isAvailableMorning() ? MORNING : 0) | (service.isAvailableEvening() ? EVENING : 0);
+        List<StaffSchedule> schedules = userRepository.findAllById(assignedStaffIds).stream()
+                .map(StaffSchedule::compile)
+                .toList();
+
+        // booked[staff][day] holds the slots already taken
+        Map<String, Integer> staffIndex = new HashMap<>();
+        for (int i = 0; i < schedules.size(); i++) {
+            staffIndex.put(schedules.get(i).staff().getId(), i);
+        }
+        int[][] booked = new int[schedules.size()][dayCount];
+
+        ZoneId zone = ZoneId.systemDefault();
+        Date from = Date.from(start.atStartOfDay(zone).toInstant());
+        Date to = Date.from(end.plusDays(1).atStartOfDay(zone).toInstant());
+        if (!schedules.isEmpty()) {
+            for (Reservation reservation : reservationRepository.findActiveSlotsForStaffBetween(staffIndex.keySet(), from, to)) {
+                Integer staff = staffIndex.get(reservation.getStaffId());
+                int day = (int) ChronoUnit.DAYS.between(start, reservation.getReservationDate().toInstant().atZone(zone).toLocalDate());
+                if (staff != null && day >= 0 && day < dayCount) {
+                    booked[staff][day] |= slotBit(reservation.getTimeSlot());
+                }
+            }
+        }
+
+        List<AvailabilityRangeResponse.DayAvailability> days = new ArrayList<>(dayCount);
+        boolean[] referenced = new boolean[schedules.size()];
+        for (int day = 0; day < dayCount; day++) {
+            LocalDate date = start.plusDays(day);
+            int dayBit = dayBit(date.getDayOfWeek());
+            int daySlots = 0;
+            List<AvailabilityRangeResponse.StaffSlots> staffSlots = new ArrayList<>();
+
+            for (int staff = 0; staff < schedules.size(); staff++) {
+                StaffSchedule schedule = schedules.get(staff);
+                if ((schedule.workDays() & dayBit) == 0) {
+                    continue;
+                }
+                int free = serviceSlots & schedule.shifts() & ~booked[staff][day] & BOTH_SLOTS;
+                if (free == 0) {
+                    continue;
+                }
+                daySlots |= free;
+                referenced[staff] = true;
+                staffSlots.add(AvailabilityRangeResponse.StaffSlots.builder()
+                        .staffId(schedule.staff().getId())
+                        .availableMorning((free & MORNING) != 0)
+                        .availableEvening((free & EVENING) != 0)
+                        .build());
+            }
+
+            days.add(AvailabilityRangeResponse.DayAvailability.builder()
+                    .date(date)
+                    .morningAvailable((daySlots & MORNING) != 0)
+                    .eveningAvailable((daySlots & EVENING) != 0)
+                    .availableStaff(staffSlots)
+                    .build());
+        }
+
+        List<AvailabilityRangeResponse.StaffInfo> staffInfo = new ArrayList<>();
+        for (int staff = 0; staff < schedules.size(); staff++) {
+            if (referenced[staff]) {
+                User user = schedules.get(staff).staff();
+                staffInfo.add(AvailabilityRangeResponse.StaffInfo.builder()
+                        .staffId(user.getId())
+                        .staffName(user.getFirstName() + " " + user.getLastName())
+                        .staffImage(user.getProfileImage())
+                        .build());
+            }
+        }
+
+        return AvailabilityRangeResponse.builder()
+                .serviceId(service.getId())
+                .startDate(start)
+                .endDate(end)
+                .staff(staffInfo)
+                .days(days)
+                .build();
+    }
+
+    /**
+     * Single-day availability, answered as a one-day range.
+     */
+    public AvailabilityResponse getAvailability(AvailabilityRequest request) {
+        LocalDate date = request.getDate().toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+        AvailabilityRangeRequest rangeRequest = new AvailabilityRangeRequest();
+        rangeRequest.setServiceId(request.getServiceId());
+        rangeRequest.setStartDate(date);
+        rangeRequest.setEndDate(date);
+
+        AvailabilityRangeResponse range = getAvailability(rangeRequest);
+        AvailabilityRangeResponse.DayAvailability day = range.getDays().get(0);
+        Map<String, AvailabilityRangeResponse.StaffInfo> staffById = new HashMap<>();
+        range.getStaff().forEach(staff -> staffById.put(staff.getStaffId(), staff));
+
+        return AvailabilityResponse.builder()
+                .date(request.getDate())
+                .morningAvailable(day.isMorningAvailable())
+                .eveningAvailable(day.isEveningAvailable())
+                .availableStaff(day.getAvailableStaff().stream()
+                        .map(slots -> {
+                            AvailabilityRangeResponse.StaffInfo staff = staffById.get(slots.getStaffId());
+                            return AvailabilityResponse.StaffAvailability.builder()
+                                    .staffId(staff.getStaffId())
+                                    .staffName(staff.getStaffName())
+                                    .staffImage(staff.getStaffImage())
+                                    .availableMorning(slots.isAvailableMorning())
+                                    .availableEvening(slots.isAvailableEvening())
+                                    .build();
+                        })
+                        .toList())
+                .build();
+    }
+
+    static int dayBit(DayOfWeek day) {
+        return 1 << (day.getValue() - 1);
+    }
+
+    static int slotBit(String timeSlot) {
+        if ("MORNING".equals(timeSlot)) {
+            return MORNING;
+        }
+        return "EVENING".equals(timeSlot) ? EVENING : 0;
+    }
+
+    // Work days as one bit per DayOfWeek (Monday = bit 0) and shifts as MORNING/EVENING bits
+    private record StaffSchedule(User staff, int workDays, int shifts) {
+
+        static StaffSchedule compile(User staff) {
+            int workDays = 0;
+            if (staff.getWorkDays() != null) {
+                for (String day : staff.getWorkDays()) {
+                    if (day == null) {
+                        continue;
+                    }
+                    try {
+                        // Exact names only, as ReservationService checks them when booking
+                        workDays |= dayBit(DayOfWeek.valueOf(day));
+                    } catch (IllegalArgumentException e) {
+                        // Anything else ("monday", " MONDAY ") never matches there either
+                    }
+                }
+            }
+            int shifts = ("YES".equals(staff.getMorningShift()) ? MORNING : 0)
+                    | ("YES".equals(staff.getEveningShift()) ? EVENING : 0);
+            return new StaffSchedule(staff, workDays, shifts);
+        }
+    }
+}
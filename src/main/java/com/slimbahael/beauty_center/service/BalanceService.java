@@ -1,6 +1,7 @@
 package com.slimbahael.beauty_center.service;
 
 import com.slimbahael.beauty_center.model.BalanceTransaction;
+import com.slimbahael.beauty_center.dto.CursorPage;
 import com.slimbahael.beauty_center.model.User;
 import com.slimbahael.beauty_center.repository.BalanceTransactionRepository;
 import com.slimbahael.beauty_center.repository.UserRepository;
@@ -9,6 +10,8 @@ import com.slimbahael.beauty_center.exception.BadRequestException;
 import com.stripe.model.PaymentIntent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,6 +28,7 @@ public class BalanceService {
     private final UserRepository userRepository;
     private final BalanceTransactionRepository balanceTransactionRepository;
     private final StripeService stripeService;
+    private final CursorPaginationService cursorPaginationService;
 
 
 
@@ -34,8 +38,10 @@ public class BalanceService {
         return user.getBalance() != null ? user.getBalance() : BigDecimal.ZERO;
     }
 
-    public List<BalanceTransaction> getUserTransactionHistory(String userId) {
-        return balanceTransactionRepository.findByUserIdOrderByCreatedAtDesc(userId);
+    public CursorPage<BalanceTransaction> getUserTransactionHistory(String userId, String cursor, int limit) {
+        return cursorPaginationService.findPage(Criteria.where("userId").is(userId), BalanceTransaction.class,
+                "createdAt", Sort.Direction.DESC, BalanceTransaction::getCreatedAt, BalanceTransaction::getId,
+                cursor, limit);
     }
 
     @Transactional
@@ -92,16 +98,12 @@ public class BalanceService {
             throw new BadRequestException("Credit amount must be positive");
         }
 
-        User user = userRepository.findById(userId)
+        // Atomic server-side increment; concurrent credits and debits cannot overwrite each other
+        User updated = userRepository.incrementBalance(userId, amount)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found: " + userId));
 
-        BigDecimal balanceBefore = user.getBalance() != null ? user.getBalance() : BigDecimal.ZERO;
-        BigDecimal balanceAfter = balanceBefore.add(amount);
-
-        // Update user balance
-        user.setBalance(balanceAfter);
-        user.setLastBalanceUpdate(new Date());
-        userRepository.save(user);
+        BigDecimal balanceAfter = updated.getBalance();
+        BigDecimal balanceBefore = balanceAfter.subtract(amount);
 
         // Create transaction record
         BalanceTransaction transaction = BalanceTransaction.builder()
@@ -127,21 +129,15 @@ public class BalanceService {
             throw new BadRequestException("Debit amount must be positive");
         }
 
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found: " + userId));
-
-        BigDecimal balanceBefore = user.getBalance() != null ? user.getBalance() : BigDecimal.ZERO;
-
-        if (balanceBefore.compareTo(amount) < 0) {
-            throw new BadRequestException("Insufficient balance. Available: " + balanceBefore + ", Required: " + amount);
-        }
-
-        BigDecimal balanceAfter = balanceBefore.subtract(amount);
+        // Atomic guarded decrement: only applied while the balance covers the amount
+        User updated = userRepository.decrementBalanceIfSufficient(userId, amount)
+                .orElseThrow(() -> {
+                    BigDecimal available = getUserBalance(userId);
+                    return new BadRequestException("Insufficient balance. Available: " + available + ", Required: " + amount);
+                });
 
-        // Update user balance
-        user.setBalance(balanceAfter);
-        user.setLastBalanceUpdate(new Date());
-        userRepository.save(user);
+        BigDecimal balanceAfter = updated.getBalance();
+        BigDecimal balanceBefore = balanceAfter.add(amount);
 
         // Create transaction record
         BalanceTransaction transaction = BalanceTransaction.builder()
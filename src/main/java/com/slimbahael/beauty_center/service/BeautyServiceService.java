@@ -13,8 +13,13 @@ import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
+/**
+ * Services catalog. Reads are served from the in-memory {@link ServiceCatalogCache} snapshot;
+ * writes go to the repository and then refresh it.
+ */
 @org.springframework.stereotype.Service
 @RequiredArgsConstructor
 @Slf4j
@@ -23,37 +28,41 @@ public class BeautyServiceService {
     private final ServiceRepository serviceRepository;
     private final UserRepository userRepository;
     private final CloudinaryService cloudinaryService;
+    private final ServiceCatalogCache serviceCatalogCache;
 
     public List<ServiceResponse> getAllServices() {
-        return serviceRepository.findAll()
+        return serviceCatalogCache.snapshot().getServices()
                 .stream()
                 .map(this::mapServiceToResponse)
                 .collect(Collectors.toList());
     }
 
     public List<ServiceResponse> getActiveServices() {
-        return serviceRepository.findByActiveIsTrue()
+        return serviceCatalogCache.snapshot().getServices()
                 .stream()
+                .filter(Service::isActive)
                 .map(this::mapServiceToResponse)
                 .collect(Collectors.toList());
     }
 
     public List<ServiceResponse> getFeaturedServices() {
-        return serviceRepository.findByFeaturedIsTrue()
+        return serviceCatalogCache.snapshot().getServices()
                 .stream()
+                .filter(Service::isFeatured)
                 .map(this::mapServiceToResponse)
                 .collect(Collectors.toList());
     }
 
     public List<ServiceResponse> getServicesByCategory(String category) {
-        return serviceRepository.findByCategory(category)
+        return serviceCatalogCache.snapshot().getServices()
                 .stream()
+                .filter(service -> Objects.equals(category, service.getCategory()))
                 .map(this::mapServiceToResponse)
                 .collect(Collectors.toList());
     }
 
     public ServiceResponse getServiceById(String id) {
-        Service service = serviceRepository.findById(id)
+        Service service = serviceCatalogCache.snapshot().findService(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Service not found with id: " + id));
         return mapServiceToResponse(service);
     }
@@ -82,6 +91,7 @@ public class BeautyServiceService {
                 .build();
 
         Service savedService = serviceRepository.save(service);
+        serviceCatalogCache.refresh();
         return mapServiceToResponse(savedService);
     }
 
@@ -137,6 +147,7 @@ public class BeautyServiceService {
         existingService.setDiscountEndDate(serviceRequest.getDiscountEndDate());
 
         Service updatedService = serviceRepository.save(existingService);
+        serviceCatalogCache.refresh();
         return mapServiceToResponse(updatedService);
     }
 
@@ -161,6 +172,7 @@ public class BeautyServiceService {
         }
 
         serviceRepository.deleteById(id);
+        serviceCatalogCache.refresh();
         log.info("Successfully deleted service: {}", service.getName());
     }
 
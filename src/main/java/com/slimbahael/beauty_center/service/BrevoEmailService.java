@@ -5,7 +5,6 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
 import java.util.HashMap;
 import java.util.List;
@@ -16,7 +15,8 @@ import java.util.Map;
 @Slf4j
 public class BrevoEmailService {
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final OutboundHttpClients outboundHttpClients;
+    private final IntegrationGuard integrationGuard;
 
     @Value("${brevo.api.key}")
     private String brevoApiKey;
@@ -43,12 +43,13 @@ public class BrevoEmailService {
 
             HttpEntity<Map<String, Object>> request = new HttpEntity<>(emailData, headers);
 
-            ResponseEntity<String> response = restTemplate.exchange(
-                url,
-                HttpMethod.POST,
-                request,
-                String.class
-            );
+            ResponseEntity<String> response = integrationGuard.execute(IntegrationGuard.BREVO, () ->
+                outboundHttpClients.forIntegration(OutboundHttpClients.BREVO).exchange(
+                    url,
+                    HttpMethod.POST,
+                    request,
+                    String.class
+                ), IntegrationGuard::isServerOrIoError);
 
             if (response.getStatusCode().is2xxSuccessful()) {
                 log.info("Email sent successfully via Brevo API to: {}", toEmail);
@@ -10,17 +10,18 @@ import com.slimbahael.beauty_center.model.Product;
 import com.slimbahael.beauty_center.model.User;
 import com.slimbahael.beauty_center.repository.CartRepository;
 import com.slimbahael.beauty_center.repository.ProductRepository;
-import com.slimbahael.beauty_center.repository.UserRepository;
+import com.slimbahael.beauty_center.security.CurrentUserResolver;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -29,15 +30,10 @@ public class CartService {
 
     private final CartRepository cartRepository;
     private final ProductRepository productRepository;
-    private final UserRepository userRepository;
+    private final CurrentUserResolver currentUserResolver;
 
     public CartResponse getCart() {
-        // Get current authenticated user
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-
-        User customer = userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        User customer = currentUserResolver.getCurrentUser();
 
         // Find or create cart for user
         Cart cart = cartRepository.findByCustomerId(customer.getId())
@@ -53,12 +49,7 @@ public class CartService {
     }
 
     public CartResponse addToCart(AddToCartRequest request) {
-        // Get current authenticated user
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-
-        User customer = userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        User customer = currentUserResolver.getCurrentUser();
 
         // Validate product
         Product product = productRepository.findById(request.getProductId())
@@ -123,12 +114,7 @@ public class CartService {
     }
 
     public CartResponse updateCartItem(String productId, UpdateCartItemRequest request) {
-        // Get current authenticated user
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-
-        User customer = userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        User customer = currentUserResolver.getCurrentUser();
 
         // Get cart
         Cart cart = cartRepository.findByCustomerId(customer.getId())
@@ -172,12 +158,7 @@ public class CartService {
     }
 
     public void removeCartItem(String productId) {
-        // Get current authenticated user
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-
-        User customer = userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        User customer = currentUserResolver.getCurrentUser();
 
         // Get cart
         Cart cart = cartRepository.findByCustomerId(customer.getId())
@@ -198,12 +179,7 @@ public class CartService {
     }
 
     public void clearCart() {
-        // Get current authenticated user
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-
-        User customer = userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        User customer = currentUserResolver.getCurrentUser();
 
         // Delete cart
         cartRepository.deleteByCustomerId(customer.getId());
@@ -220,11 +196,21 @@ public class CartService {
 
     // Helper method to map Cart entity to CartResponse DTO
     private CartResponse mapCartToResponse(Cart cart) {
+        // Load all cart products in one query for updated info like image and latest price
+        Set<String> productIds = cart.getItems().stream()
+                .map(Cart.CartItem::getProductId)
+                .collect(Collectors.toSet());
+        Map<String, Product> productsById = productIds.isEmpty()
+                ? Collections.emptyMap()
+                : productRepository.findAllById(productIds).stream()
+                        .collect(Collectors.toMap(Product::getId, product -> product));
+
         List<CartResponse.CartItemDto> itemDtos = cart.getItems().stream()
                 .map(item -> {
-                    // Get product to get updated info like image and latest price
-                    Product product = productRepository.findById(item.getProductId())
-                            .orElseThrow(() -> new ResourceNotFoundException("Product not found"));
+                    Product product = productsById.get(item.getProductId());
+                    if (product == null) {
+                        throw new ResourceNotFoundException("Product not found");
+                    }
                     BigDecimal unitPrice = getCurrentPrice(product);
 
                     return CartResponse.CartItemDto.builder()
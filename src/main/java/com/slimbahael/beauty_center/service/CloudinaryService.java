@@ -5,6 +5,7 @@ import com.cloudinary.utils.ObjectUtils;
 import com.slimbahael.beauty_center.exception.BadRequestException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -17,6 +18,11 @@ import java.util.Map;
 public class CloudinaryService {
 
     private final Cloudinary cloudinary;
+    private final IntegrationGuard integrationGuard;
+
+    // Socket timeout in seconds for upload and destroy calls
+    @Value("${cloudinary.timeout-seconds:30}")
+    private int timeoutSeconds;
 
     /**
      * Upload image to Cloudinary
@@ -30,13 +36,17 @@ public class CloudinaryService {
                     file.getOriginalFilename(), folder);
 
             // Upload the file to Cloudinary with transformation options
-            Map uploadResult = cloudinary.uploader().upload(file.getBytes(),
-                    ObjectUtils.asMap(
-                            "folder", folder,
-                            "resource_type", "image",
-                            "quality", "auto:good",
-                            "fetch_format", "auto"
-                    ));
+            byte[] bytes = file.getBytes();
+            Map uploadResult = callCloudinary(() ->
+                    cloudinary.uploader().upload(bytes,
+                            ObjectUtils.asMap(
+                                    "folder", folder,
+                                    "resource_type", "image",
+                                    "quality", "auto:good",
+                                    "fetch_format", "auto",
+                                    "timeout", timeoutSeconds,
+                                    "return_error", true
+                            )));
 
             String imageUrl = (String) uploadResult.get("secure_url");
             String publicId = (String) uploadResult.get("public_id");
@@ -101,7 +111,8 @@ public class CloudinaryService {
 
             log.info("Deleting image from Cloudinary. Public ID: {}", publicId);
 
-            Map result = cloudinary.uploader().destroy(publicId, ObjectUtils.emptyMap());
+            Map result = callCloudinary(() ->
+                    cloudinary.uploader().destroy(publicId, ObjectUtils.asMap("timeout", timeoutSeconds, "return_error", true)));
             String resultStatus = (String) result.get("result");
 
             if ("ok".equals(resultStatus)) {
@@ -116,6 +127,27 @@ public class CloudinaryService {
         }
     }
 
+    /**
+     * Runs a call with {@code return_error} set, so Cloudinary hands back its error instead of a bare
+     * RuntimeException. Rejected input (4xx other than the 420 rate limit) becomes a
+     * BadRequestException that does not count against the circuit; server errors, rate limiting
+     * and I/O failures do.
+     */
+    private Map callCloudinary(IntegrationGuard.GuardedCall<Map, IOException> call) throws IOException {
+        return integrationGuard.execute(IntegrationGuard.CLOUDINARY, () -> {
+            Map result = call.call();
+            if (result != null && result.get("error") instanceof Map error) {
+                Object httpCode = error.get("http_code");
+                String message = String.valueOf(error.get("message"));
+                if (httpCode instanceof Integer status && status >= 400 && status < 500 && status != 420) {
+                    throw new BadRequestException("Image rejected by cloud storage: " + message);
+                }
+                throw new IllegalStateException("Cloud storage error " + httpCode + ": " + message);
+            }
+            return result;
+        }, e -> !(e instanceof BadRequestException));
+    }
+
     /**
      * Extract Cloudinary public ID from image URL
      * @param imageUrl The Cloudinary image URL
@@ -0,0 +1,121 @@
+package com.slimbahael.beauty_center.service;
+
+import com.slimbahael.beauty_center.dto.CursorPage;
+import com.slimbahael.beauty_center.exception.BadRequestException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Keyset pagination over MongoDB. Pages are ordered by an indexed date field with {@code _id} as the
+ * tie-breaker, and the cursor encodes the sort key of the last returned document, so every page is a
+ * bounded index range scan regardless of how deep the client pages.
+ */
+@Service
+@RequiredArgsConstructor
+public class CursorPaginationService {
+
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 200;
+
+    private static final String ID_FIELD = "_id";
+    private static final String CURSOR_SEPARATOR = "|";
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Page ordered by {@code _id} only, for collections without a reliable creation date.
+     */
+    public <T> CursorPage<T> findPage(Criteria filter, Class<T> type, Sort.Direction direction,
+                                      Function<T, String> idValue, String cursor, int limit) {
+        return findPage(filter, type, null, direction, item -> null, idValue, cursor, limit);
+    }
+
+    /**
+     * Page ordered by {@code sortField} then {@code _id}, both in {@code direction}.
+     */
+    public <T> CursorPage<T> findPage(Criteria filter, Class<T> type, String sortField, Sort.Direction direction,
+                                      Function<T, Date> sortValue, Function<T, String> idValue,
+                                      String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_LIMIT));
+
+        Query query = new Query();
+        if (filter != null) {
+            query.addCriteria(filter);
+        }
+        if (cursor != null && !cursor.isBlank()) {
+            query.addCriteria(afterCursor(decode(cursor), sortField, direction));
+        }
+        query.with(sortField != null
+                ? Sort.by(direction, sortField, ID_FIELD)
+                : Sort.by(direction, ID_FIELD));
+        query.limit(pageSize + 1);
+
+        List<T> items = mongoTemplate.find(query, type);
+        boolean hasMore = items.size() > pageSize;
+        if (hasMore) {
+            items = items.subList(0, pageSize);
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            T last = items.get(items.size() - 1);
+            Date lastSortValue = sortValue.apply(last);
+            nextCursor = encode(lastSortValue != null ? String.valueOf(lastSortValue.getTime()) : "", idValue.apply(last));
+        }
+
+        return CursorPage.<T>builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .limit(pageSize)
+                .build();
+    }
+
+    private Criteria afterCursor(String[] position, String sortField, Sort.Direction direction) {
+        boolean ascending = direction.isAscending();
+        String id = position[1];
+        Criteria idAfter = ascending ? Criteria.where(ID_FIELD).gt(id) : Criteria.where(ID_FIELD).lt(id);
+        if (sortField == null || position[0].isEmpty()) {
+            return idAfter;
+        }
+
+        Date sortAfter = new Date(Long.parseLong(position[0]));
+        Criteria sortStrictlyAfter = ascending
+                ? Criteria.where(sortField).gt(sortAfter)
+                : Criteria.where(sortField).lt(sortAfter);
+        Criteria sameSortNextId = new Criteria().andOperator(Criteria.where(sortField).is(sortAfter), idAfter);
+        return new Criteria().orOperator(sortStrictlyAfter, sameSortNextId);
+    }
+
+    private String encode(String sortValue, String id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((sortValue + CURSOR_SEPARATOR + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String[] decode(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf(CURSOR_SEPARATOR);
+            if (separator < 0 || separator == decoded.length() - 1) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            String sortValue = decoded.substring(0, separator);
+            if (!sortValue.isEmpty()) {
+                Long.parseLong(sortValue);
+            }
+            return new String[]{sortValue, decoded.substring(separator + 1)};
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
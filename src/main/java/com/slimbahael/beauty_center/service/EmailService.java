@@ -5,6 +5,7 @@ import com.slimbahael.beauty_center.dto.ProductResponse;
 import com.slimbahael.beauty_center.dto.ReservationResponse;
 import com.slimbahael.beauty_center.dto.UserResponse;
 import com.slimbahael.beauty_center.model.GiftCard;
+import jakarta.annotation.PostConstruct;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
@@ -29,6 +30,8 @@ public class EmailService {
     private final JavaMailSender mailSender;
     private final TemplateEngine templateEngine;
     private final BrevoEmailService brevoEmailService;
+    private final NotificationDispatcher notificationDispatcher;
+    private final NotificationOutboxService notificationOutboxService;
 
     @Value("${app.business.email}")
     private String fromEmail;
@@ -45,14 +48,58 @@ public class EmailService {
     @Value("${app.frontend.url:http://localhost:3000}")
     private String frontendUrl;
 
-    // Date formatters
-    private final SimpleDateFormat dateFormat = new SimpleDateFormat("dd/MM/yyyy à HH:mm", Locale.FRANCE);
-    private final SimpleDateFormat simpleDateFormat = new SimpleDateFormat("MMMM dd, yyyy 'at' HH:mm");
+    // Date formatters, one per thread since emails are rendered on the notification workers
+    private final ThreadLocal<SimpleDateFormat> dateFormat =
+            ThreadLocal.withInitial(() -> new SimpleDateFormat("dd/MM/yyyy à HH:mm", Locale.FRANCE));
+    private final ThreadLocal<SimpleDateFormat> simpleDateFormat =
+            ThreadLocal.withInitial(() -> new SimpleDateFormat("MMMM dd, yyyy 'at' HH:mm"));
+
+    // Gift card emails carry the raw code, which is only stored hashed on the gift card itself
+    record GiftCardCode(GiftCard giftCard, String code) {}
+
+    // Only what the gift card templates render; hashes, lookup keys and pending codes stay out of the outbox
+    private static GiftCard displayFields(GiftCard giftCard) {
+        return GiftCard.builder()
+                .id(giftCard.getId())
+                .type(giftCard.getType())
+                .amount(giftCard.getAmount())
+                .purchaserName(giftCard.getPurchaserName())
+                .purchaserEmail(giftCard.getPurchaserEmail())
+                .recipientName(giftCard.getRecipientName())
+                .recipientEmail(giftCard.getRecipientEmail())
+                .message(giftCard.getMessage())
+                .createdAt(giftCard.getCreatedAt())
+                .expirationDate(giftCard.getExpirationDate())
+                .build();
+    }
+
+    // Order, reservation and gift card emails go through the durable outbox; these send them
+    @PostConstruct
+    void registerOutboxHandlers() {
+        notificationOutboxService.registerHandler(NotificationOutboxService.ORDER_CONFIRMATION, entry ->
+                deliverOrderConfirmationEmail(entry.getRecipient(), notificationOutboxService.readPayload(entry, OrderResponse.class)));
+        notificationOutboxService.registerHandler(NotificationOutboxService.ADMIN_NEW_ORDER, entry ->
+                deliverNewOrderNotificationToAdmin(notificationOutboxService.readPayload(entry, OrderResponse.class)));
+        notificationOutboxService.registerHandler(NotificationOutboxService.RESERVATION_CONFIRMATION, entry ->
+                deliverReservationConfirmationEmail(entry.getRecipient(), notificationOutboxService.readPayload(entry, ReservationResponse.class)));
+        notificationOutboxService.registerHandler(NotificationOutboxService.ADMIN_NEW_RESERVATION, entry ->
+                deliverNewReservationNotificationToAdmin(notificationOutboxService.readPayload(entry, ReservationResponse.class)));
+        notificationOutboxService.registerHandler(NotificationOutboxService.GIFT_CARD_PURCHASE_CONFIRMATION, entry -> {
+            GiftCardCode payload = notificationOutboxService.readPayload(entry, GiftCardCode.class);
+            deliverGiftCardPurchaseConfirmation(entry.getRecipient(), payload.giftCard(), payload.code());
+        });
+        notificationOutboxService.registerHandler(NotificationOutboxService.GIFT_CARD_RECEIVED, entry -> {
+            GiftCardCode payload = notificationOutboxService.readPayload(entry, GiftCardCode.class);
+            deliverGiftCardReceived(entry.getRecipient(), payload.giftCard(), payload.code());
+        });
+        notificationOutboxService.registerHandler(NotificationOutboxService.ADMIN_SERVICE_GIFT_CARD, entry ->
+                deliverAdminServiceGiftCardNotification(notificationOutboxService.readPayload(entry, GiftCard.class)));
+    }
 
     // =================== EXISTING EMAIL METHODS ===================
 
     public void sendEmailVerification(String toEmail, String verificationToken, String firstName) {
-        try {
+        notificationDispatcher.dispatch("email verification to " + toEmail, () -> {
             Context context = new Context();
             context.setVariable("firstName", firstName);
             context.setVariable("verificationUrl", frontendUrl + "/verify-email?token=" + verificationToken);
@@ -60,15 +107,11 @@ public class EmailService {
 
             sendTemplatedEmail(toEmail, "Verify Your Email - " + businessName, "email-verification", context);
             log.info("Email verification sent to: {}", toEmail);
-
-        } catch (Exception e) {
-            log.error("Failed to send email verification to: {}", toEmail, e);
-            throw new RuntimeException("Failed to send verification email");
-        }
+        });
     }
 
     public void sendPasswordReset(String toEmail, String resetToken, String firstName) {
-        try {
+        notificationDispatcher.dispatch("password reset to " + toEmail, () -> {
             Context context = new Context();
             context.setVariable("firstName", firstName);
             context.setVariable("resetUrl", frontendUrl + "/reset-password?token=" + resetToken);
@@ -76,30 +119,22 @@ public class EmailService {
 
             sendTemplatedEmail(toEmail, "Password Reset - " + businessName, "password-reset", context);
             log.info("Password reset email sent to: {}", toEmail);
-
-        } catch (Exception e) {
-            log.error("Failed to send password reset email to: {}", toEmail, e);
-            throw new RuntimeException("Failed to send password reset email");
-        }
+        });
     }
 
     public void sendWelcomeEmail(String toEmail, String firstName) {
-        try {
+        notificationDispatcher.dispatch("welcome email to " + toEmail, () -> {
             Context context = new Context();
             context.setVariable("firstName", firstName);
             context.setVariable("businessName", businessName);
 
             sendTemplatedEmail(toEmail, "Welcome to " + businessName + "! 🎉", "welcome", context);
             log.info("Welcome email sent to: {}", toEmail);
-
-        } catch (Exception e) {
-            log.error("Failed to send welcome email to: {}", toEmail, e);
-            throw new RuntimeException("Failed to send welcome email");
-        }
+        });
     }
 
     public void sendOrderStatusUpdateEmail(String toEmail, OrderResponse order, String status) {
-        try {
+        notificationDispatcher.dispatch("order status update to " + toEmail, () -> {
             Context context = new Context();
             context.setVariable("order", order);
             context.setVariable("businessName", businessName);
@@ -110,30 +145,26 @@ public class EmailService {
             sendHtmlEmail(toEmail, "Order Status Update - " + businessName, emailContent);
 
             log.info("Order status update email sent to: {}", toEmail);
-        } catch (Exception e) {
-            log.error("Failed to send order status update email to {}: {}", toEmail, e.getMessage());
-        }
+        });
     }
 
     public void sendReservationReminderEmail(String toEmail, ReservationResponse reservation) {
-        try {
+        notificationDispatcher.dispatch("reservation reminder to " + toEmail, () -> {
             Context context = new Context();
             context.setVariable("reservation", reservation);
             context.setVariable("businessName", businessName);
             context.setVariable("reservationDateFormatted",
-                    simpleDateFormat.format(reservation.getReservationDate()));
+                    simpleDateFormat.get().format(reservation.getReservationDate()));
 
             String emailContent = templateEngine.process("reservation-reminder", context);
             sendHtmlEmail(toEmail, "Appointment Reminder - " + businessName, emailContent);
 
             log.info("Reservation reminder email sent to: {}", toEmail);
-        } catch (Exception e) {
-            log.error("Failed to send reservation reminder email to {}: {}", toEmail, e.getMessage());
-        }
+        });
     }
 
     public void sendDailySummaryToAdmin(DailySummaryData summaryData) {
-        try {
+        notificationDispatcher.dispatch("daily summary to admin", () -> {
             Context context = new Context();
             context.setVariable("summary", summaryData);
             context.setVariable("businessName", businessName);
@@ -147,13 +178,11 @@ public class EmailService {
                     emailContent);
 
             log.info("Daily summary email sent to admin for date: {}", summaryData.getDate());
-        } catch (Exception e) {
-            log.error("Failed to send daily summary email to admin: {}", e.getMessage());
-        }
+        });
     }
 
     public void sendNewUserRegistrationNotificationToAdmin(UserResponse user) {
-        try {
+        notificationDispatcher.dispatch("new user notification to admin for " + user.getEmail(), () -> {
             Context context = new Context();
             context.setVariable("user", user);
             context.setVariable("businessName", businessName);
@@ -164,91 +193,86 @@ public class EmailService {
                     emailContent);
 
             log.info("New user registration notification sent to admin for user: {}", user.getEmail());
-        } catch (Exception e) {
-            log.error("Failed to send new user registration notification to admin for user {}: {}",
-                    user.getEmail(), e.getMessage());
-        }
+        });
     }
 
     // =================== CUSTOMER NOTIFICATIONS ===================
 
     public void sendOrderConfirmationEmail(String to, OrderResponse order) {
-        try {
-            Context context = new Context();
-            context.setVariable("order", order);
-            context.setVariable("businessName", businessName);
+        notificationOutboxService.enqueue(NotificationOutboxService.ORDER_CONFIRMATION, to, order.getId(), order);
+    }
 
-            String emailContent = templateEngine.process("order-confirmation", context);
-            sendHtmlEmail(to, "Order Confirmed! 🎉 - " + businessName, emailContent);
+    private void deliverOrderConfirmationEmail(String to, OrderResponse order) {
+        Context context = new Context();
+        context.setVariable("order", order);
+        context.setVariable("businessName", businessName);
 
-            log.info("Order confirmation email sent to customer: {}", to);
-        } catch (Exception e) {
-            log.error("Failed to send order confirmation email to {}: {}", to, e.getMessage());
-        }
+        String emailContent = templateEngine.process("order-confirmation", context);
+        sendHtmlEmail(to, "Order Confirmed! 🎉 - " + businessName, emailContent);
+
+        log.info("Order confirmation email sent to customer: {}", to);
     }
 
     public void sendReservationConfirmationEmail(String to, ReservationResponse reservation) {
-        try {
-            Context context = new Context();
-            context.setVariable("reservation", reservation);
-            context.setVariable("businessName", businessName);
-            context.setVariable("reservationDateFormatted",
-                    new SimpleDateFormat("MMMM dd, yyyy").format(reservation.getReservationDate()));
+        notificationOutboxService.enqueue(NotificationOutboxService.RESERVATION_CONFIRMATION, to, reservation.getId(), reservation);
+    }
 
-            String emailContent = templateEngine.process("reservation-confirmation", context);
-            sendHtmlEmail(to, "Reservation Confirmed! 🎉 - " + businessName, emailContent);
+    private void deliverReservationConfirmationEmail(String to, ReservationResponse reservation) {
+        Context context = new Context();
+        context.setVariable("reservation", reservation);
+        context.setVariable("businessName", businessName);
+        context.setVariable("reservationDateFormatted",
+                new SimpleDateFormat("MMMM dd, yyyy").format(reservation.getReservationDate()));
 
-            log.info("Reservation confirmation email sent to customer: {}", to);
-        } catch (Exception e) {
-            log.error("Failed to send reservation confirmation email to {}: {}", to, e.getMessage());
-        }
+        String emailContent = templateEngine.process("reservation-confirmation", context);
+        sendHtmlEmail(to, "Reservation Confirmed! 🎉 - " + businessName, emailContent);
+
+        log.info("Reservation confirmation email sent to customer: {}", to);
     }
 
     // =================== ADMIN NOTIFICATIONS ===================
 
     public void sendNewOrderNotificationToAdmin(OrderResponse order) {
-        try {
-            Context context = new Context();
-            context.setVariable("order", order);
-            context.setVariable("businessName", businessName);
-            context.setVariable("orderTotal", formatCurrency(order.getTotal()));
-            context.setVariable("itemCount", order.getItems().size());
+        notificationOutboxService.enqueue(NotificationOutboxService.ADMIN_NEW_ORDER, adminEmail, order.getId(), order);
+    }
 
-            String emailContent = templateEngine.process("admin-nouvelle-commande", context);
-            sendHtmlEmail(adminEmail,
-                    "🛍️ Nouvelle Commande - " + formatCurrency(order.getTotal()) + " - " + businessName,
-                    emailContent);
+    private void deliverNewOrderNotificationToAdmin(OrderResponse order) {
+        Context context = new Context();
+        context.setVariable("order", order);
+        context.setVariable("businessName", businessName);
+        context.setVariable("orderTotal", formatCurrency(order.getTotal()));
+        context.setVariable("itemCount", order.getItems().size());
 
-            log.info("Notification de nouvelle commande envoyée à l'admin pour la commande: {}", order.getId());
-        } catch (Exception e) {
-            log.error("Échec de l'envoi de la notification de nouvelle commande à l'admin pour la commande {}: {}",
-                    order.getId(), e.getMessage());
-        }
+        String emailContent = templateEngine.process("admin-nouvelle-commande", context);
+        sendHtmlEmail(adminEmail,
+                "🛍️ Nouvelle Commande - " + formatCurrency(order.getTotal()) + " - " + businessName,
+                emailContent);
+
+        log.info("Notification de nouvelle commande envoyée à l'admin pour la commande: {}", order.getId());
     }
 
     public void sendNewReservationNotificationToAdmin(ReservationResponse reservation) {
-        try {
-            Context context = new Context();
-            context.setVariable("reservation", reservation);
-            context.setVariable("businessName", businessName);
-            context.setVariable("reservationDateFormatted",
-                    new SimpleDateFormat("d MMMM yyyy", Locale.FRENCH).format(reservation.getReservationDate()));
-            context.setVariable("reservationTotal", formatCurrencyEuro(reservation.getTotalAmount()));
+        notificationOutboxService.enqueue(NotificationOutboxService.ADMIN_NEW_RESERVATION, adminEmail, reservation.getId(), reservation);
+    }
 
-            String emailContent = templateEngine.process("admin-nouvelle-reservation", context);
-            sendHtmlEmail(adminEmail,
-                    "📅 Nouvelle Réservation - " + reservation.getServiceName() + " - " + businessName,
-                    emailContent);
+    private void deliverNewReservationNotificationToAdmin(ReservationResponse reservation) {
+        Context context = new Context();
+        context.setVariable("reservation", reservation);
+        context.setVariable("businessName", businessName);
+        context.setVariable("reservationDateFormatted",
+                new SimpleDateFormat("d MMMM yyyy", Locale.FRENCH).format(reservation.getReservationDate()));
+        context.setVariable("reservationTotal", formatCurrencyEuro(reservation.getTotalAmount()));
 
-            log.info("Notification de nouvelle réservation envoyée à l'admin pour la réservation: {}", reservation.getId());
-        } catch (Exception e) {
-            log.error("Échec de l'envoi de la notification de nouvelle réservation à l'admin pour la réservation {}: {}",
-                    reservation.getId(), e.getMessage());
-        }
+        String emailContent = templateEngine.process("admin-nouvelle-reservation", context);
+        sendHtmlEmail(adminEmail,
+                "📅 Nouvelle Réservation - " + reservation.getServiceName() + " - " + businessName,
+                emailContent);
+
+        log.info("Notification de nouvelle réservation envoyée à l'admin pour la réservation: {}", reservation.getId());
     }
 
     public void sendProductAddedNotificationToAdmin(ProductResponse product, String addedByUser) {
-        try {
+        notificationDispatcher.dispatch("product added notification to admin for " + product.getName(), () -> {
             Context context = new Context();
             context.setVariable("product", product);
             context.setVariable("businessName", businessName);
@@ -261,14 +285,11 @@ public class EmailService {
                     emailContent);
 
             log.info("Notification de produit ajouté envoyée à l'admin pour le produit: {}", product.getName());
-        } catch (Exception e) {
-            log.error("Échec de l'envoi de la notification de produit ajouté à l'admin pour le produit {}: {}",
-                    product.getName(), e.getMessage());
-        }
+        });
     }
 
     public void sendLowStockNotificationToAdmin(ProductResponse product) {
-        try {
+        notificationDispatcher.dispatch("low stock notification to admin for " + product.getName(), () -> {
             Context context = new Context();
             context.setVariable("product", product);
             context.setVariable("businessName", businessName);
@@ -279,14 +300,11 @@ public class EmailService {
                     emailContent);
 
             log.info("Notification de stock faible envoyée à l'admin pour le produit: {}", product.getName());
-        } catch (Exception e) {
-            log.error("Échec de l'envoi de la notification de stock faible à l'admin pour le produit {}: {}",
-                    product.getName(), e.getMessage());
-        }
+        });
     }
 
     public void sendCancelledOrderNotificationToAdmin(OrderResponse order, String reason) {
-        try {
+        notificationDispatcher.dispatch("cancelled order notification to admin for order " + order.getId(), () -> {
             Context context = new Context();
             context.setVariable("order", order);
             context.setVariable("businessName", businessName);
@@ -299,174 +317,155 @@ public class EmailService {
                     emailContent);
 
             log.info("Notification de commande annulée envoyée à l'admin pour la commande: {}", order.getId());
-        } catch (Exception e) {
-            log.error("Échec de l'envoi de la notification de commande annulée à l'admin pour la commande {}: {}",
-                    order.getId(), e.getMessage());
-        }
+        });
     }
 
     // =================== GIFT CARD EMAIL METHODS ===================
 
     public void sendGiftCardPurchaseConfirmation(String recipientEmail, GiftCard giftCard, String code) {
-        try {
-            Context context = new Context(Locale.FRANCE);
-            context.setVariable("giftCard", giftCard);
-            context.setVariable("token", code);
-            context.setVariable("businessName", businessName);
-            context.setVariable("frontendUrl", frontendUrl);
-            context.setVariable("expirationDate", dateFormat.format(giftCard.getExpirationDate()));
-            context.setVariable("amount", String.format("%.2f€", giftCard.getAmount()));
+        notificationOutboxService.enqueue(NotificationOutboxService.GIFT_CARD_PURCHASE_CONFIRMATION, recipientEmail, giftCard.getId(), new GiftCardCode(displayFields(giftCard), code));
+    }
 
-            String htmlContent = templateEngine.process("gift-card-purchase-confirmation", context);
-            String subject = "Confirmation d'achat - Carte cadeau " + businessName;
+    private void deliverGiftCardPurchaseConfirmation(String recipientEmail, GiftCard giftCard, String code) {
+        Context context = new Context(Locale.FRANCE);
+        context.setVariable("giftCard", giftCard);
+        context.setVariable("token", code);
+        context.setVariable("businessName", businessName);
+        context.setVariable("frontendUrl", frontendUrl);
+        context.setVariable("expirationDate", dateFormat.get().format(giftCard.getExpirationDate()));
+        context.setVariable("amount", String.format("%.2f€", giftCard.getAmount()));
 
-            sendHtmlEmail(recipientEmail, subject, htmlContent);
-            log.info("Gift card purchase confirmation sent to: {}", recipientEmail);
+        String htmlContent = templateEngine.process("gift-card-purchase-confirmation", context);
+        String subject = "Confirmation d'achat - Carte cadeau " + businessName;
 
-        } catch (Exception e) {
-            log.error("Failed to send gift card purchase confirmation to: {}", recipientEmail, e);
-        }
+        sendHtmlEmail(recipientEmail, subject, htmlContent);
+        log.info("Gift card purchase confirmation sent to: {}", recipientEmail);
     }
 
     public void sendGiftCardReceived(String recipientEmail, GiftCard giftCard, String code) {
-        try {
-            Context context = new Context(Locale.FRANCE);
-            context.setVariable("giftCard", giftCard);
-            context.setVariable("businessName", businessName);
-            context.setVariable("frontendUrl", frontendUrl);
-            context.setVariable("expirationDate", dateFormat.format(giftCard.getExpirationDate()));
-            context.setVariable("amount", String.format("%.2f€", giftCard.getAmount()));
-            context.setVariable("isBalanceType", "BALANCE".equals(giftCard.getType()));
-            context.setVariable("isServiceType", "SERVICE".equals(giftCard.getType()));
+        notificationOutboxService.enqueue(NotificationOutboxService.GIFT_CARD_RECEIVED, recipientEmail, giftCard.getId(), new GiftCardCode(displayFields(giftCard), code));
+    }
 
-            // Set token for both BALANCE and SERVICE types
-            context.setVariable("token", code);
+    private void deliverGiftCardReceived(String recipientEmail, GiftCard giftCard, String code) {
+        Context context = new Context(Locale.FRANCE);
+        context.setVariable("giftCard", giftCard);
+        context.setVariable("businessName", businessName);
+        context.setVariable("frontendUrl", frontendUrl);
+        context.setVariable("expirationDate", dateFormat.get().format(giftCard.getExpirationDate()));
+        context.setVariable("amount", String.format("%.2f€", giftCard.getAmount()));
+        context.setVariable("isBalanceType", "BALANCE".equals(giftCard.getType()));
+        context.setVariable("isServiceType", "SERVICE".equals(giftCard.getType()));
 
-            String htmlContent = templateEngine.process("gift-card-received", context);
-            String subject = "🎁 Vous avez reçu une carte cadeau " + businessName;
+        // Set token for both BALANCE and SERVICE types
+        context.setVariable("token", code);
 
-            sendHtmlEmail(recipientEmail, subject, htmlContent);
-            log.info("Gift card received notification sent to: {}", recipientEmail);
+        String htmlContent = templateEngine.process("gift-card-received", context);
+        String subject = "🎁 Vous avez reçu une carte cadeau " + businessName;
 
-        } catch (Exception e) {
-            log.error("Failed to send gift card received notification to: {}", recipientEmail, e);
-        }
+        sendHtmlEmail(recipientEmail, subject, htmlContent);
+        log.info("Gift card received notification sent to: {}", recipientEmail);
     }
 
     public void sendGiftCardRedemptionConfirmation(String recipientEmail, GiftCard giftCard) {
-        try {
+        notificationDispatcher.dispatch("gift card redemption confirmation to " + recipientEmail, () -> {
             Context context = new Context(Locale.FRANCE);
             context.setVariable("giftCard", giftCard);
             context.setVariable("businessName", businessName);
             context.setVariable("amount", String.format("%.2f€", giftCard.getAmount()));
-            context.setVariable("redemptionDate", dateFormat.format(giftCard.getRedeemedAt()));
+            context.setVariable("redemptionDate", dateFormat.get().format(giftCard.getRedeemedAt()));
 
             String htmlContent = templateEngine.process("gift-card-redemption-confirmation", context);
             String subject = "Carte cadeau utilisée avec succès - " + businessName;
 
             sendHtmlEmail(recipientEmail, subject, htmlContent);
             log.info("Gift card redemption confirmation sent to: {}", recipientEmail);
-
-        } catch (Exception e) {
-            log.error("Failed to send gift card redemption confirmation to: {}", recipientEmail, e);
-        }
+        });
     }
 
     public void sendGiftCardRedeemedNotification(String purchaserEmail, GiftCard giftCard) {
-        try {
+        notificationDispatcher.dispatch("gift card redeemed notification to " + purchaserEmail, () -> {
             Context context = new Context(Locale.FRANCE);
             context.setVariable("giftCard", giftCard);
             context.setVariable("businessName", businessName);
             context.setVariable("amount", String.format("%.2f€", giftCard.getAmount()));
-            context.setVariable("redemptionDate", dateFormat.format(giftCard.getRedeemedAt()));
+            context.setVariable("redemptionDate", dateFormat.get().format(giftCard.getRedeemedAt()));
 
             String htmlContent = templateEngine.process("gift-card-redeemed-notification", context);
             String subject = "Votre carte cadeau a été utilisée - " + businessName;
 
             sendHtmlEmail(purchaserEmail, subject, htmlContent);
             log.info("Gift card redeemed notification sent to purchaser: {}", purchaserEmail);
-
-        } catch (Exception e) {
-            log.error("Failed to send gift card redeemed notification to: {}", purchaserEmail, e);
-        }
+        });
     }
 
     public void sendServiceGiftCardUsedConfirmation(String recipientEmail, GiftCard giftCard) {
-        try {
+        notificationDispatcher.dispatch("service gift card used confirmation to " + recipientEmail, () -> {
             Context context = new Context(Locale.FRANCE);
             context.setVariable("giftCard", giftCard);
             context.setVariable("businessName", businessName);
             context.setVariable("amount", String.format("%.2f€", giftCard.getAmount()));
-            context.setVariable("usedDate", dateFormat.format(giftCard.getRedeemedAt()));
+            context.setVariable("usedDate", dateFormat.get().format(giftCard.getRedeemedAt()));
 
             String htmlContent = templateEngine.process("service-gift-card-used-confirmation", context);
             String subject = "Service utilisé avec votre carte cadeau - " + businessName;
 
             sendHtmlEmail(recipientEmail, subject, htmlContent);
             log.info("Service gift card used confirmation sent to: {}", recipientEmail);
-
-        } catch (Exception e) {
-            log.error("Failed to send service gift card used confirmation to: {}", recipientEmail, e);
-        }
+        });
     }
 
     public void sendServiceGiftCardUsedNotification(String purchaserEmail, GiftCard giftCard) {
-        try {
+        notificationDispatcher.dispatch("service gift card used notification to " + purchaserEmail, () -> {
             Context context = new Context(Locale.FRANCE);
             context.setVariable("giftCard", giftCard);
             context.setVariable("businessName", businessName);
             context.setVariable("amount", String.format("%.2f€", giftCard.getAmount()));
-            context.setVariable("usedDate", dateFormat.format(giftCard.getRedeemedAt()));
+            context.setVariable("usedDate", dateFormat.get().format(giftCard.getRedeemedAt()));
 
             String htmlContent = templateEngine.process("service-gift-card-used-notification", context);
             String subject = "Carte cadeau service utilisée - " + businessName;
 
             sendHtmlEmail(purchaserEmail, subject, htmlContent);
             log.info("Service gift card used notification sent to purchaser: {}", purchaserEmail);
-
-        } catch (Exception e) {
-            log.error("Failed to send service gift card used notification to: {}", purchaserEmail, e);
-        }
+        });
     }
 
     public void sendGiftCardExpiredNotification(String email, GiftCard giftCard) {
-        try {
+        notificationDispatcher.dispatch("gift card expired notification to " + email, () -> {
             Context context = new Context(Locale.FRANCE);
             context.setVariable("giftCard", giftCard);
             context.setVariable("businessName", businessName);
             context.setVariable("amount", String.format("%.2f€", giftCard.getAmount()));
-            context.setVariable("expirationDate", dateFormat.format(giftCard.getExpirationDate()));
+            context.setVariable("expirationDate", dateFormat.get().format(giftCard.getExpirationDate()));
 
             String htmlContent = templateEngine.process("gift-card-expired-notification", context);
             String subject = "Carte cadeau expirée - " + businessName;
 
             sendHtmlEmail(email, subject, htmlContent);
             log.info("Gift card expired notification sent to: {}", email);
-
-        } catch (Exception e) {
-            log.error("Failed to send gift card expired notification to: {}", email, e);
-        }
+        });
     }
 
     public void sendAdminServiceGiftCardNotification(GiftCard giftCard) {
-        try {
-            Context context = new Context(Locale.FRANCE);
-            context.setVariable("giftCard", giftCard);
-            context.setVariable("businessName", businessName);
-            context.setVariable("amount", String.format("%.2f€", giftCard.getAmount()));
-            context.setVariable("purchaseDate", dateFormat.format(giftCard.getCreatedAt()));
-            context.setVariable("expirationDate", dateFormat.format(giftCard.getExpirationDate()));
-            context.setVariable("verificationToken", giftCard.getVerificationToken());
+        GiftCard payload = displayFields(giftCard);
+        payload.setVerificationToken(giftCard.getVerificationToken());
+        notificationOutboxService.enqueue(NotificationOutboxService.ADMIN_SERVICE_GIFT_CARD, adminEmail, giftCard.getId(), payload);
+    }
 
-            String htmlContent = templateEngine.process("admin-service-gift-card-notification", context);
-            String subject = "🎁 Nouvelle carte cadeau service - " + businessName;
+    private void deliverAdminServiceGiftCardNotification(GiftCard giftCard) {
+        Context context = new Context(Locale.FRANCE);
+        context.setVariable("giftCard", giftCard);
+        context.setVariable("businessName", businessName);
+        context.setVariable("amount", String.format("%.2f€", giftCard.getAmount()));
+        context.setVariable("purchaseDate", dateFormat.get().format(giftCard.getCreatedAt()));
+        context.setVariable("expirationDate", dateFormat.get().format(giftCard.getExpirationDate()));
+        context.setVariable("verificationToken", giftCard.getVerificationToken());
 
-            sendHtmlEmail(adminEmail, subject, htmlContent);
-            log.info("Admin service gift card notification sent");
+        String htmlContent = templateEngine.process("admin-service-gift-card-notification", context);
+        String subject = "🎁 Nouvelle carte cadeau service - " + businessName;
 
-        } catch (Exception e) {
-            log.error("Failed to send admin service gift card notification", e);
-        }
+        sendHtmlEmail(adminEmail, subject, htmlContent);
+        log.info("Admin service gift card notification sent");
     }
 
     // =================== HELPER METHODS ===================
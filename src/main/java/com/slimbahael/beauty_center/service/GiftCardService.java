@@ -1,6 +1,7 @@
 package com.slimbahael.beauty_center.service;
 
 import com.slimbahael.beauty_center.model.GiftCard;
+import com.slimbahael.beauty_center.model.PaymentState;
 import com.slimbahael.beauty_center.model.BalanceTransaction;
 import com.slimbahael.beauty_center.model.User;
 import com.slimbahael.beauty_center.repository.GiftCardRepository;
@@ -9,9 +10,13 @@ import com.slimbahael.beauty_center.exception.ResourceNotFoundException;
 import com.slimbahael.beauty_center.exception.BadRequestException;
 import com.slimbahael.beauty_center.dto.GiftCardPurchaseRequest;
 import com.slimbahael.beauty_center.dto.GiftCardRedemptionRequest;
+import com.slimbahael.beauty_center.dto.CursorPage;
+import com.slimbahael.beauty_center.security.GiftCardCodeHasher;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -24,6 +29,9 @@ import java.util.List;
 import java.util.Optional;
 import java.util.Calendar;
 import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 @RequiredArgsConstructor
@@ -34,10 +42,19 @@ public class GiftCardService {
     private final UserRepository userRepository;
     private final BalanceService balanceService;
     private final EmailService emailService;
-    private final StripeService stripeService;
+    private final PaymentStateService paymentStateService;
     private final PasswordEncoder passwordEncoder;
+    private final GiftCardCodeHasher giftCardCodeHasher;
+    private final CursorPaginationService cursorPaginationService;
     private final SecureRandom secureRandom = new SecureRandom();
 
+    @Value("${giftcard.legacy-lookup.enabled:true}")
+    private boolean legacyLookupEnabled = true;
+
+    // Active cards still without a lookup key as of the last scan or backfill; -1 until first checked.
+    // No new card is created without a key, so once this reaches 0 the BCrypt scan is skipped for good.
+    private final AtomicLong legacyCardsWithoutLookupKey = new AtomicLong(-1);
+
     private static final int CODE_LENGTH = 32;
     private static final int MAX_REDEMPTION_ATTEMPTS = 5;
     private static final int MAX_VERIFICATION_ATTEMPTS = 10;
@@ -50,9 +67,10 @@ public class GiftCardService {
             throw new BadRequestException("Payment intent ID is required");
         }
 
-        if (!stripeService.isPaymentSucceeded(request.getPaymentIntentId())) {
-            String paymentStatus = stripeService.getPaymentStatus(request.getPaymentIntentId());
-            throw new BadRequestException("Payment not confirmed. Current status: " + paymentStatus + ". Please complete payment first.");
+        // One lookup serves both the status and the amount check; Stripe is only asked if no webhook has settled it
+        PaymentState payment = paymentStateService.getPaymentIntent(request.getPaymentIntentId());
+        if (!PaymentStateService.SUCCEEDED.equals(payment.getStatus())) {
+            throw new BadRequestException("Payment not confirmed. Current status: " + payment.getStatus() + ". Please complete payment first.");
         }
 
         // 2. Check if gift card was already created for this payment
@@ -64,8 +82,7 @@ public class GiftCardService {
 
         // 3. Validate payment amount matches request amount
         try {
-            com.stripe.model.PaymentIntent paymentIntent = stripeService.getPaymentIntent(request.getPaymentIntentId());
-            BigDecimal paidAmount = BigDecimal.valueOf(paymentIntent.getAmount()).divide(BigDecimal.valueOf(100)); // Convert from cents
+            BigDecimal paidAmount = BigDecimal.valueOf(payment.getAmount()).divide(BigDecimal.valueOf(100)); // Convert from cents
 
             if (paidAmount.compareTo(request.getAmount()) != 0) {
                 throw new BadRequestException("Payment amount (" + paidAmount + "€) does not match gift card amount (" + request.getAmount() + "€)");
@@ -90,6 +107,7 @@ public class GiftCardService {
         // 7. Create gift card
         GiftCard giftCard = GiftCard.builder()
                 .codeHash(codeHash)
+                .codeLookupKey(giftCardCodeHasher.lookupKey(rawCode))
                 .type(request.getType())
                 .amount(request.getAmount())
                 .status("ACTIVE")
@@ -256,8 +274,10 @@ public class GiftCardService {
     /**
      * Get all gift cards for admin view
      */
-    public List<GiftCard> getAllGiftCards() {
-        return giftCardRepository.findAll();
+    public CursorPage<GiftCard> getAllGiftCards(String cursor, int limit) {
+        return cursorPaginationService.findPage(null, GiftCard.class,
+                "createdAt", Sort.Direction.DESC, GiftCard::getCreatedAt, GiftCard::getId,
+                cursor, limit);
     }
 
     public GiftCard getGiftCardByPaymentIntent(String paymentIntentId) {
@@ -316,17 +336,62 @@ public class GiftCardService {
     }
 
     private Optional<GiftCard> findGiftCardByCode(String code) {
-        List<GiftCard> activeCards = giftCardRepository.findActiveUnlockedGiftCards();
+        if (code == null || code.isEmpty()) {
+            return Optional.empty();
+        }
+
+        // Keyed lookup: one indexed query, then a single BCrypt verification
+        String lookupKey = giftCardCodeHasher.lookupKey(code);
+        Optional<GiftCard> keyedCard = giftCardRepository.findByCodeLookupKey(lookupKey)
+                .filter(card -> "ACTIVE".equals(card.getStatus()) && !Boolean.TRUE.equals(card.getIsLocked()));
+        if (keyedCard.isPresent()) {
+            return passwordEncoder.matches(code, keyedCard.get().getCodeHash()) ? keyedCard : Optional.empty();
+        }
 
-        for (GiftCard card : activeCards) {
+        if (!legacyLookupEnabled || legacyCardsWithoutLookupKey.get() == 0) {
+            return Optional.empty();
+        }
+
+        // Legacy cards without a lookup key: scan only those and backfill the key on match
+        List<GiftCard> legacyCards = giftCardRepository.findActiveUnlockedGiftCardsWithoutLookupKey();
+        legacyCardsWithoutLookupKey.set(legacyCards.size());
+        for (GiftCard card : legacyCards) {
             if (passwordEncoder.matches(code, card.getCodeHash())) {
-                return Optional.of(card);
+                card.setCodeLookupKey(lookupKey);
+                legacyCardsWithoutLookupKey.decrementAndGet();
+                log.info("Backfilled lookup key for legacy gift card: {}", card.getId());
+                return Optional.of(giftCardRepository.save(card));
             }
         }
 
         return Optional.empty();
     }
 
+    /**
+     * Sets the lookup key on every card that still has its raw pending code and counts the active
+     * cards left without one. Those only carry a BCrypt hash, so their key can only be derived when
+     * their code is next used; once none remain, wrong codes no longer trigger the legacy scan.
+     */
+    @Transactional
+    public Map<String, Object> backfillLookupKeys() {
+        List<GiftCard> pendingCards = giftCardRepository.findGiftCardsWithPendingCodeWithoutLookupKey();
+        for (GiftCard card : pendingCards) {
+            card.setCodeLookupKey(giftCardCodeHasher.lookupKey(card.getPendingCode()));
+            giftCardRepository.save(card);
+        }
+
+        long remaining = giftCardRepository.countActiveUnlockedGiftCardsWithoutLookupKey();
+        legacyCardsWithoutLookupKey.set(remaining);
+        log.info("Backfilled lookup keys for {} pending gift cards, {} active legacy cards remain",
+                pendingCards.size(), remaining);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("backfilled", pendingCards.size());
+        result.put("legacyCardsRemaining", remaining);
+        result.put("legacyLookupEnabled", legacyLookupEnabled);
+        return result;
+    }
+
     private void validateRedemption(GiftCard giftCard, String userId, String ipAddress) {
         // Check if card is active
         if (!"ACTIVE".equals(giftCard.getStatus())) {
@@ -399,6 +464,7 @@ public class GiftCardService {
         // Create pending gift card
         GiftCard giftCard = GiftCard.builder()
                 .codeHash(codeHash)
+                .codeLookupKey(giftCardCodeHasher.lookupKey(rawCode))
                 .pendingCode(rawCode)  // Store temporarily until emails are sent
                 .type(request.getType())
                 .amount(request.getAmount())
@@ -428,9 +494,9 @@ public class GiftCardService {
     public GiftCard completeGiftCardPurchase(String sessionId) {
         // Get the Stripe session to retrieve gift card ID from metadata
         try {
-            com.stripe.model.checkout.Session session = com.stripe.model.checkout.Session.retrieve(sessionId);
+            PaymentState session = paymentStateService.getCheckoutSession(sessionId);
 
-            if (!"paid".equals(session.getPaymentStatus())) {
+            if (!PaymentStateService.PAID.equals(session.getStatus())) {
                 throw new BadRequestException("Payment not completed");
             }
 
@@ -450,9 +516,14 @@ public class GiftCardService {
             // Get the stored code before clearing
             String code = giftCard.getPendingCode();
 
+            // Pending cards created before lookup keys existed still carry their raw code
+            if (giftCard.getCodeLookupKey() == null && code != null) {
+                giftCard.setCodeLookupKey(giftCardCodeHasher.lookupKey(code));
+            }
+
             // Activate the gift card and clear pending code
             giftCard.setStatus("ACTIVE");
-            giftCard.setPaymentIntentId(session.getPaymentIntent());
+            giftCard.setPaymentIntentId(session.getPaymentIntentId());
             giftCard.setPendingCode(null);  // Clear it from database for security
             giftCard = giftCardRepository.save(giftCard);
 
@@ -0,0 +1,104 @@
+package com.slimbahael.beauty_center.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Single-node {@link SharedStateStore}: a map of counters with expiry, purged periodically.
+ */
+@Component
+@ConditionalOnProperty(name = "shared-state.backend", havingValue = "memory", matchIfMissing = true)
+public class InMemorySharedStateStore implements SharedStateStore {
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final LongSupplier clock;
+
+    public InMemorySharedStateStore() {
+        this(System::currentTimeMillis);
+    }
+
+    InMemorySharedStateStore(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public long increment(String key, long delta, Duration ttl) {
+        long now = clock.getAsLong();
+        long expiresAt = now + ttl.toMillis();
+        return entries.compute(key, (k, entry) -> {
+            if (entry == null || entry.expiresAt <= now) {
+                return new Entry(delta, expiresAt);
+            }
+            entry.value += delta;
+            entry.expiresAt = expiresAt;
+            return entry;
+        }).value;
+    }
+
+    @Override
+    public long get(String key) {
+        Entry entry = entries.get(key);
+        return entry == null || entry.expiresAt <= clock.getAsLong() ? 0 : entry.value;
+    }
+
+    @Override
+    public long incrementNearCached(String key, long delta, Duration ttl) {
+        return increment(key, delta, ttl);
+    }
+
+    @Override
+    public long getNearCached(String key) {
+        return get(key);
+    }
+
+    @Override
+    public void delete(String key) {
+        entries.remove(key);
+    }
+
+    @Override
+    public void putFlag(String key, Duration ttl) {
+        entries.put(key, new Entry(1, clock.getAsLong() + ttl.toMillis()));
+    }
+
+    @Override
+    public boolean hasFlag(String key) {
+        return get(key) > 0;
+    }
+
+    @Override
+    public boolean isShared() {
+        return false;
+    }
+
+    @Scheduled(fixedDelayString = "${shared-state.memory.purge-ms:60000}")
+    public void purgeExpired() {
+        long now = clock.getAsLong();
+        entries.values().removeIf(entry -> entry.expiresAt <= now);
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("backend", "memory");
+        stats.put("entries", entries.size());
+        return stats;
+    }
+
+    private static final class Entry {
+        private volatile long value;
+        private volatile long expiresAt;
+
+        Entry(long value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.slimbahael.beauty_center.service;
+
+import com.slimbahael.beauty_center.exception.IntegrationUnavailableException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Bulkhead and circuit breaker per third-party integration. At most {@code max-concurrent} calls
+ * run at once, so a slow provider cannot take every request thread. After
+ * {@code failure-threshold} consecutive failures the circuit opens and calls fail fast for
+ * {@code open-ms}; then a single probe call decides whether it closes again. Calls slower than
+ * {@code time-limit-ms} count as failures; the clients' own timeouts bound how long they run.
+ * Settings are read from {@code resilience.<integration>.*}, falling back to {@code resilience.*}.
+ */
+@Component
+@Slf4j
+public class IntegrationGuard {
+
+    public static final String STRIPE = "stripe";
+    public static final String BREVO = "brevo";
+    public static final String CLOUDINARY = "cloudinary";
+    public static final String SERPAPI = "serpapi";
+    public static final String RECAPTCHA = "recaptcha";
+
+    @FunctionalInterface
+    public interface GuardedCall<T, E extends Exception> {
+        T call() throws E;
+    }
+
+    private final Environment environment;
+    private final Map<String, Guard> guards = new ConcurrentHashMap<>();
+
+    public IntegrationGuard(Environment environment) {
+        this.environment = environment;
+    }
+
+    public <T, E extends Exception> T execute(String integration, GuardedCall<T, E> call) throws E {
+        return execute(integration, call, e -> true);
+    }
+
+    /**
+     * Runs the call inside the integration's bulkhead and circuit breaker. Exceptions for which
+     * {@code countsAsFailure} is false (e.g. a declined card) are rethrown without affecting the
+     * circuit. Throws {@link IntegrationUnavailableException} when the call is not attempted.
+     */
+    public <T, E extends Exception> T execute(String integration, GuardedCall<T, E> call,
+                                              Predicate<Exception> countsAsFailure) throws E {
+        Guard guard = guards.computeIfAbsent(integration, Guard::new);
+        guard.acquire();
+        long start = System.nanoTime();
+        try {
+            T result = call.call();
+            guard.onCompleted(System.nanoTime() - start, false);
+            return result;
+        } catch (Exception e) {
+            guard.onCompleted(System.nanoTime() - start, countsAsFailure.test(e));
+            throw e;
+        } finally {
+            guard.release();
+        }
+    }
+
+    /**
+     * Failure classifier for REST integrations: 4xx responses mean the provider is up.
+     */
+    public static boolean isServerOrIoError(Exception e) {
+        return !(e instanceof HttpClientErrorException);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new TreeMap<>();
+        guards.forEach((integration, guard) -> stats.put(integration, guard.snapshot()));
+        return stats;
+    }
+
+    private long setting(String integration, String key, long fallback) {
+        long shared = environment.getProperty("resilience." + key, Long.class, fallback);
+        return environment.getProperty("resilience." + integration + "." + key, Long.class, shared);
+    }
+
+    private enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final class Guard {
+        private final String integration;
+        private final int maxConcurrent;
+        private final long maxWaitMs;
+        private final long failureThreshold;
+        private final long openMs;
+        private final long timeLimitNanos;
+        private final Semaphore bulkhead;
+
+        private State state = State.CLOSED;
+        private int consecutiveFailures;
+        private long openUntil;
+        private boolean probeInFlight;
+        private long calls;
+        private long failures;
+        private long slowCalls;
+        private long rejectedOpen;
+        private long rejectedFull;
+
+        private Guard(String integration) {
+            this.integration = integration;
+            this.maxConcurrent = (int) setting(integration, "max-concurrent", 10);
+            this.maxWaitMs = setting(integration, "max-wait-ms", 100);
+            this.failureThreshold = setting(integration, "failure-threshold", 5);
+            this.openMs = setting(integration, "open-ms", 30000);
+            this.timeLimitNanos = TimeUnit.MILLISECONDS.toNanos(setting(integration, "time-limit-ms", 10000));
+            this.bulkhead = new Semaphore(maxConcurrent);
+        }
+
+        void acquire() {
+            boolean probe;
+            synchronized (this) {
+                if (state == State.OPEN && System.currentTimeMillis() >= openUntil) {
+                    state = State.HALF_OPEN;
+                }
+                if (state == State.OPEN || (state == State.HALF_OPEN && probeInFlight)) {
+                    rejectedOpen++;
+                    throw new IntegrationUnavailableException(integration + " is temporarily unavailable, please retry shortly");
+                }
+                probe = state == State.HALF_OPEN;
+                probeInFlight = probe;
+            }
+
+            boolean permitted;
+            try {
+                permitted = bulkhead.tryAcquire(maxWaitMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                permitted = false;
+            }
+            if (!permitted) {
+                synchronized (this) {
+                    rejectedFull++;
+                    if (probe) {
+                        probeInFlight = false;
+                    }
+                }
+                throw new IntegrationUnavailableException(integration + " is busy, please retry shortly");
+            }
+        }
+
+        void release() {
+            bulkhead.release();
+        }
+
+        synchronized void onCompleted(long elapsedNanos, boolean failed) {
+            calls++;
+            boolean slow = elapsedNanos > timeLimitNanos;
+            if (slow) {
+                slowCalls++;
+            }
+            if (!failed && !slow) {
+                if (state == State.HALF_OPEN) {
+                    log.info("Circuit for {} closed after a successful probe", integration);
+                }
+                state = State.CLOSED;
+                consecutiveFailures = 0;
+                probeInFlight = false;
+                return;
+            }
+
+            failures++;
+            consecutiveFailures++;
+            if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+                state = State.OPEN;
+                openUntil = System.currentTimeMillis() + openMs;
+                probeInFlight = false;
+                log.warn("Circuit for {} opened for {} ms after {} consecutive failures",
+                        integration, openMs, consecutiveFailures);
+            }
+        }
+
+        synchronized Map<String, Object> snapshot() {
+            Map<String, Object> snapshot = new LinkedHashMap<>();
+            snapshot.put("state", state == State.OPEN && System.currentTimeMillis() >= openUntil
+                    ? State.HALF_OPEN.name() : state.name());
+            snapshot.put("inFlight", maxConcurrent - bulkhead.availablePermits());
+            snapshot.put("maxConcurrent", maxConcurrent);
+            snapshot.put("consecutiveFailures", consecutiveFailures);
+            snapshot.put("calls", calls);
+            snapshot.put("failures", failures);
+            snapshot.put("slowCalls", slowCalls);
+            snapshot.put("rejectedOpen", rejectedOpen);
+            snapshot.put("rejectedFull", rejectedFull);
+            snapshot.put("openUntil", state == State.OPEN ? new Date(openUntil) : null);
+            return snapshot;
+        }
+    }
+}
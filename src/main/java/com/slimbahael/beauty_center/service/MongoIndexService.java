@@ -0,0 +1,350 @@
+package com.slimbahael.beauty_center.service;
+
+import com.slimbahael.beauty_center.dto.IndexReportResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MongoIndexService {
+
+    private static final String ID_INDEX_NAME = "_id_";
+    public static final String STAFF_SLOT_INDEX = "staff_slot_unique";
+    private static final List<String> ACTIVE_RESERVATION_STATUSES = List.of("PENDING", "CONFIRMED", "COMPLETED");
+
+    private final MongoTemplate mongoTemplate;
+    private final Set<String> enforcedUniqueIndexes = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Single source of truth for the indexes each collection must have.
+     * Indexes are matched against the server by key pattern, so indexes created
+     * from {@code @Indexed} annotations (which use different names) are recognised.
+     */
+    public Map<String, List<Index>> getRequiredIndexes() {
+        Map<String, List<Index>> indexes = new LinkedHashMap<>();
+
+        indexes.put("users", List.of(
+                new Index().on("email", Sort.Direction.ASC).unique(),
+                new Index().on("role", Sort.Direction.ASC)));
+
+        indexes.put("products", List.of(
+                new Index().on("name", Sort.Direction.ASC),
+                new Index().on("category", Sort.Direction.ASC)));
+
+        indexes.put("services", List.of(
+                new Index().on("name", Sort.Direction.ASC),
+                new Index().on("category", Sort.Direction.ASC)));
+
+        indexes.put("serviceAddons", List.of(
+                new Index().on("name", Sort.Direction.ASC)));
+
+        indexes.put("reservations", List.of(
+                new Index().on("customerId", Sort.Direction.ASC),
+                new Index().on("staffId", Sort.Direction.ASC),
+                new Index().on("reservationDate", Sort.Direction.ASC),
+                // Cursor pagination: sort key plus _id tie-breaker
+                new Index().on("reservationDate", Sort.Direction.ASC).on("_id", Sort.Direction.ASC),
+                new Index().on("customerId", Sort.Direction.ASC).on("reservationDate", Sort.Direction.ASC).on("_id", Sort.Direction.ASC),
+                new Index().on("staffId", Sort.Direction.ASC).on("reservationDate", Sort.Direction.ASC).on("_id", Sort.Direction.ASC),
+                // One active reservation per staff slot; cancelled ones free the slot ($in filter needs MongoDB 6.0+)
+                new Index()
+                        .on("staffId", Sort.Direction.ASC)
+                        .on("reservationDate", Sort.Direction.ASC)
+                        .on("timeSlot", Sort.Direction.ASC)
+                        .named(STAFF_SLOT_INDEX)
+                        .unique()
+                        .partial(PartialIndexFilter.of(Criteria.where("status").in(ACTIVE_RESERVATION_STATUSES)))));
+
+        indexes.put("orders", List.of(
+                new Index().on("customerId", Sort.Direction.ASC),
+                new Index().on("orderStatus", Sort.Direction.ASC),
+                new Index().on("paymentStatus", Sort.Direction.ASC),
+                new Index().on("createdAt", Sort.Direction.DESC),
+                new Index().on("createdAt", Sort.Direction.DESC).on("_id", Sort.Direction.DESC),
+                new Index().on("customerId", Sort.Direction.ASC).on("createdAt", Sort.Direction.DESC).on("_id", Sort.Direction.DESC),
+                // Stripe lookups in OrderRepository
+                new Index().on("stripePaymentIntentId", Sort.Direction.ASC).named("stripePaymentIntentId").unique().sparse(),
+                new Index().on("stripeChargeId", Sort.Direction.ASC).named("stripeChargeId").unique().sparse()));
+
+        indexes.put("carts", List.of(
+                new Index().on("customerId", Sort.Direction.ASC).unique()));
+
+        indexes.put("balance_transactions", List.of(
+                new Index().on("userId", Sort.Direction.ASC),
+                new Index().on("transactionType", Sort.Direction.ASC),
+                new Index().on("status", Sort.Direction.ASC),
+                new Index().on("createdAt", Sort.Direction.ASC),
+                new Index().on("userId", Sort.Direction.ASC).on("createdAt", Sort.Direction.DESC).on("_id", Sort.Direction.DESC)));
+
+        indexes.put("gift_cards", List.of(
+                new Index().on("codeHash", Sort.Direction.ASC).unique(),
+                new Index().on("codeLookupKey", Sort.Direction.ASC).named("codeLookupKey").unique().sparse(),
+                new Index().on("type", Sort.Direction.ASC),
+                new Index().on("status", Sort.Direction.ASC),
+                new Index().on("createdAt", Sort.Direction.ASC),
+                new Index().on("createdAt", Sort.Direction.ASC).on("_id", Sort.Direction.ASC),
+                new Index().on("expirationDate", Sort.Direction.ASC)));
+
+        indexes.put("ratings", List.of(
+                new Index().on("productId", Sort.Direction.ASC),
+                new Index().on("customerId", Sort.Direction.ASC)));
+
+        indexes.put("reviews", List.of(
+                new Index().on("reviewId", Sort.Direction.ASC).unique()));
+
+        indexes.put("email_verification_tokens", List.of(
+                new Index().on("tokenHash", Sort.Direction.ASC).unique()));
+
+        indexes.put("notification_outbox", List.of(
+                // Claiming due entries, see NotificationOutboxRepositoryImpl
+                new Index().on("status", Sort.Direction.ASC).on("nextAttemptAt", Sort.Direction.ASC),
+                // Sent entries are kept for a week, then removed by the TTL monitor
+                new Index().on("sentAt", Sort.Direction.ASC).expire(Duration.ofDays(7))));
+
+        indexes.put("stripe_events", List.of(
+                // Deduplication is on _id (the Stripe event ID); received events are kept for replay for 90 days
+                new Index().on("receivedAt", Sort.Direction.ASC).expire(Duration.ofDays(90))));
+
+        indexes.put("shared_state", List.of(
+                // Each document carries its own expiry, see MongoSharedStateStore
+                new Index().on("expiresAt", Sort.Direction.ASC).expire(Duration.ZERO)));
+
+        return indexes;
+    }
+
+    /**
+     * Creates every declared index that is missing and logs existing indexes that are not declared.
+     * Afterwards records which declared unique indexes are in force, see {@link #isUniqueIndexEnforced}.
+     */
+    public void ensureIndexes() {
+        getRequiredIndexes().forEach((collection, declared) -> {
+            List<Document> existing = listIndexes(collection);
+            Map<String, Document> existingByKeys = existing.stream()
+                    .collect(Collectors.toMap(index -> keySignature(index.get("key", Document.class)),
+                            index -> index, (first, second) -> first));
+            Set<String> declaredKeys = new HashSet<>();
+
+            for (Index index : declared) {
+                String signature = keySignature(index.getIndexKeys());
+                declaredKeys.add(signature);
+                Document current = existingByKeys.get(signature);
+                if (current != null && sameConstraints(index, current)) {
+                    continue;
+                }
+                try {
+                    if (current != null) {
+                        rebuildIndex(collection, index, current);
+                    } else {
+                        String name = mongoTemplate.indexOps(collection).createIndex(index.background());
+                        log.info("Created missing index {} on collection {}", name, collection);
+                    }
+                } catch (Exception e) {
+                    log.error("Failed to create index {} on collection {}: {}", signature, collection, e.getMessage());
+                }
+            }
+
+            for (Document index : existing) {
+                String name = index.getString("name");
+                if (!ID_INDEX_NAME.equals(name) && !declaredKeys.contains(keySignature(index.get("key", Document.class)))) {
+                    log.warn("Undeclared index {} ({}) found on collection {}",
+                            name, keySignature(index.get("key", Document.class)), collection);
+                }
+            }
+
+            verifyUniqueIndexes(collection, declared);
+        });
+    }
+
+    /**
+     * Whether the declared unique index {@code indexName} exists on {@code collection} with its
+     * declared options, as of the last {@link #ensureIndexes} run. Callers relying on the index for
+     * correctness must check for themselves while this is false (before the first run completes,
+     * or when the build failed).
+     */
+    public boolean isUniqueIndexEnforced(String collection, String indexName) {
+        return enforcedUniqueIndexes.contains(collection + "." + indexName);
+    }
+
+    /**
+     * Size and usage of every index on the declared collections, based on {@code $indexStats}
+     * and {@code $collStats}. Indexes with no recorded accesses are candidates for removal;
+     * hot queries without a matching index show up as missing entries here.
+     */
+    public List<IndexReportResponse> getIndexReport() {
+        List<IndexReportResponse> report = new ArrayList<>();
+
+        getRequiredIndexes().forEach((collection, declared) -> {
+            Set<String> declaredKeys = declared.stream()
+                    .map(index -> keySignature(index.getIndexKeys()))
+                    .collect(Collectors.toSet());
+            Map<String, Long> sizes = indexSizes(collection);
+            Map<String, Document> usage = indexUsage(collection);
+
+            for (Document index : listIndexes(collection)) {
+                String name = index.getString("name");
+                String keys = keySignature(index.get("key", Document.class));
+                Document accesses = usage.getOrDefault(name, new Document());
+
+                report.add(IndexReportResponse.builder()
+                        .collection(collection)
+                        .indexName(name)
+                        .keys(keys)
+                        .declared(ID_INDEX_NAME.equals(name) || declaredKeys.contains(keys))
+                        .unique(index.getBoolean("unique", false))
+                        .sizeBytes(sizes.get(name))
+                        .accessCount(accesses.get("ops") instanceof Number ops ? ops.longValue() : null)
+                        .accessesSince(accesses.get("since", Date.class))
+                        .build());
+            }
+        });
+
+        return report;
+    }
+
+    private List<Document> listIndexes(String collection) {
+        if (!mongoTemplate.collectionExists(collection)) {
+            return Collections.emptyList();
+        }
+        return mongoTemplate.getCollection(collection).listIndexes().into(new ArrayList<>());
+    }
+
+    private Map<String, Document> indexUsage(String collection) {
+        Map<String, Document> usage = new HashMap<>();
+        try {
+            for (Document stats : mongoTemplate.getCollection(collection)
+                    .aggregate(List.of(new Document("$indexStats", new Document())))) {
+                Document accesses = stats.get("accesses", Document.class);
+                usage.put(stats.getString("name"), accesses != null ? accesses : new Document());
+            }
+        } catch (Exception e) {
+            log.warn("Unable to read $indexStats for collection {}: {}", collection, e.getMessage());
+        }
+        return usage;
+    }
+
+    private Map<String, Long> indexSizes(String collection) {
+        Map<String, Long> sizes = new HashMap<>();
+        try {
+            for (Document stats : mongoTemplate.getCollection(collection)
+                    .aggregate(List.of(new Document("$collStats",
+                            new Document("storageStats", new Document()))))) {
+                Document storageStats = stats.get("storageStats", Document.class);
+                Document indexSizes = storageStats != null ? storageStats.get("indexSizes", Document.class) : null;
+                if (indexSizes != null) {
+                    indexSizes.forEach((name, size) ->
+                            sizes.merge(name, ((Number) size).longValue(), Long::sum));
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Unable to read $collStats for collection {}: {}", collection, e.getMessage());
+        }
+        return sizes;
+    }
+
+    // Builds the replacement before dropping the old index, so a failed build never leaves the keys unindexed
+    private void rebuildIndex(String collection, Index index, Document current) {
+        String currentName = current.getString("name");
+        IndexOperations indexOps = mongoTemplate.indexOps(collection);
+        try {
+            String name = indexOps.createIndex(index.background());
+            indexOps.dropIndex(currentName);
+            log.warn("Replaced index {} on collection {} with {} using the declared options", currentName, collection, name);
+            return;
+        } catch (DataAccessException e) {
+            // MongoDB allows two indexes on the same keys only when their partial filters differ
+            log.warn("Cannot build index on collection {} next to {}, replacing it in place: {}",
+                    collection, currentName, e.getMessage());
+        }
+
+        indexOps.dropIndex(currentName);
+        try {
+            String name = indexOps.createIndex(index);
+            log.warn("Recreated index {} on collection {} with the declared options", name, collection);
+        } catch (RuntimeException e) {
+            restoreIndex(collection, current);
+            throw e;
+        }
+    }
+
+    private void restoreIndex(String collection, Document spec) {
+        Document restored = new Document(spec);
+        restored.remove("v");
+        restored.remove("ns");
+        try {
+            mongoTemplate.getDb().runCommand(new Document("createIndexes", collection).append("indexes", List.of(restored)));
+            log.warn("Restored previous index {} on collection {}", spec.getString("name"), collection);
+        } catch (RuntimeException e) {
+            log.error("Failed to restore index {} on collection {}: {}", spec.getString("name"), collection, e.getMessage());
+        }
+    }
+
+    private void verifyUniqueIndexes(String collection, List<Index> declared) {
+        Map<String, Document> existingByKeys = listIndexes(collection).stream()
+                .collect(Collectors.toMap(index -> keySignature(index.get("key", Document.class)),
+                        index -> index, (first, second) -> first));
+        for (Index index : declared) {
+            Document options = index.getIndexOptions();
+            String name = options.getString("name");
+            if (name == null || !options.getBoolean("unique", false)) {
+                continue;
+            }
+            Document current = existingByKeys.get(keySignature(index.getIndexKeys()));
+            if (current != null && sameConstraints(index, current)) {
+                enforcedUniqueIndexes.add(collection + "." + name);
+            } else {
+                enforcedUniqueIndexes.remove(collection + "." + name);
+                log.error("Unique index {} on collection {} is not in force; duplicates are not prevented by the database",
+                        name, collection);
+            }
+        }
+    }
+
+    private boolean sameConstraints(Index declared, Document existing) {
+        Document options = declared.getIndexOptions();
+        return options.getBoolean("unique", false) == existing.getBoolean("unique", false)
+                && options.getBoolean("sparse", false) == existing.getBoolean("sparse", false)
+                && Objects.equals(expireAfterSeconds(options), expireAfterSeconds(existing))
+                && Objects.equals(options.get("partialFilterExpression"), existing.get("partialFilterExpression"));
+    }
+
+    // The server may report the TTL as an int, long or double
+    private Long expireAfterSeconds(Document options) {
+        return options.get("expireAfterSeconds") instanceof Number number ? number.longValue() : null;
+    }
+
+    // Order-sensitive representation of an index key pattern, e.g. "staffId:1,reservationDate:1"
+    private String keySignature(Document keys) {
+        if (keys == null) {
+            return "";
+        }
+        return keys.entrySet().stream()
+                .map(entry -> entry.getKey() + ":" + (entry.getValue() instanceof Number number
+                        ? String.valueOf(number.intValue())
+                        : String.valueOf(entry.getValue())))
+                .collect(Collectors.joining(","));
+    }
+}
@@ -0,0 +1,203 @@
+package com.slimbahael.beauty_center.service;
+
+import com.slimbahael.beauty_center.repository.SharedStateRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * {@link SharedStateStore} on the {@code shared_state} collection, for deployments with more than
+ * one instance. Documents carry an {@code expiresAt} served by a TTL index, and counters are
+ * updated with atomic {@code $inc} upserts.
+ * <p>
+ * Two near-caches keep per-request paths off the network. Near-cached counters add to a local
+ * pending delta that is flushed every {@code shared-state.mongo.flush-ms}, and each flush brings
+ * back the global value. Flags seen as present are cached until they expire; flags seen as absent
+ * are re-checked after {@code shared-state.mongo.negative-cache-ms}.
+ */
+@Component
+@ConditionalOnProperty(name = "shared-state.backend", havingValue = "mongo")
+@Slf4j
+public class MongoSharedStateStore implements SharedStateStore {
+
+    private final SharedStateRepository sharedStateRepository;
+    private final long negativeCacheMs;
+    private final int maxNearCacheEntries;
+    private final LongSupplier clock;
+
+    private final Map<String, NearCounter> nearCounters = new ConcurrentHashMap<>();
+    private final Map<String, Long> presentFlags = new ConcurrentHashMap<>();
+    private final Map<String, Long> absentFlags = new ConcurrentHashMap<>();
+
+    private final LongAdder remoteReads = new LongAdder();
+    private final LongAdder remoteWrites = new LongAdder();
+    private final LongAdder nearCacheHits = new LongAdder();
+
+    @Autowired
+    public MongoSharedStateStore(SharedStateRepository sharedStateRepository,
+                                 @Value("${shared-state.mongo.negative-cache-ms:1000}") long negativeCacheMs,
+                                 @Value("${shared-state.mongo.max-near-cache-entries:100000}") int maxNearCacheEntries) {
+        this(sharedStateRepository, negativeCacheMs, maxNearCacheEntries, System::currentTimeMillis);
+    }
+
+    MongoSharedStateStore(SharedStateRepository sharedStateRepository, long negativeCacheMs,
+                          int maxNearCacheEntries, LongSupplier clock) {
+        this.sharedStateRepository = sharedStateRepository;
+        this.negativeCacheMs = negativeCacheMs;
+        this.maxNearCacheEntries = maxNearCacheEntries;
+        this.clock = clock;
+    }
+
+    @Override
+    public long increment(String key, long delta, Duration ttl) {
+        long now = clock.getAsLong();
+        remoteWrites.increment();
+        return sharedStateRepository.increment(key, delta, new Date(now), new Date(now + ttl.toMillis()));
+    }
+
+    @Override
+    public long get(String key) {
+        remoteReads.increment();
+        return sharedStateRepository.findLiveValue(key, new Date(clock.getAsLong())).orElse(0L);
+    }
+
+    @Override
+    public long incrementNearCached(String key, long delta, Duration ttl) {
+        NearCounter counter = nearCounters.get(key);
+        if (counter == null && nearCounters.size() >= maxNearCacheEntries) {
+            // Near-cache full (e.g. a flood of new clients): count remotely rather than grow
+            return increment(key, delta, ttl);
+        }
+        long now = clock.getAsLong();
+        if (counter == null) {
+            counter = nearCounters.computeIfAbsent(key, k -> new NearCounter(ttl.toMillis()));
+        }
+        counter.expiresAt = now + ttl.toMillis();
+        nearCacheHits.increment();
+        return counter.remote + counter.pending.addAndGet(delta);
+    }
+
+    @Override
+    public long getNearCached(String key) {
+        NearCounter counter = nearCounters.get(key);
+        if (counter == null) {
+            // Not counted on this instance yet; the next flush of the key will bring the global value
+            return 0;
+        }
+        nearCacheHits.increment();
+        return counter.remote + counter.pending.get();
+    }
+
+    @Override
+    public void delete(String key) {
+        nearCounters.remove(key);
+        presentFlags.remove(key);
+        absentFlags.remove(key);
+        sharedStateRepository.deleteById(key);
+    }
+
+    @Override
+    public void putFlag(String key, Duration ttl) {
+        long expiresAt = clock.getAsLong() + ttl.toMillis();
+        sharedStateRepository.putFlag(key, new Date(expiresAt));
+        remoteWrites.increment();
+        absentFlags.remove(key);
+        presentFlags.put(key, expiresAt);
+    }
+
+    @Override
+    public boolean hasFlag(String key) {
+        long now = clock.getAsLong();
+        Long presentUntil = presentFlags.get(key);
+        if (presentUntil != null && presentUntil > now) {
+            nearCacheHits.increment();
+            return true;
+        }
+        Long absentSince = absentFlags.get(key);
+        if (absentSince != null && now - absentSince < negativeCacheMs) {
+            nearCacheHits.increment();
+            return false;
+        }
+
+        remoteReads.increment();
+        boolean present = sharedStateRepository.findById(key)
+                .filter(entry -> entry.getExpiresAt().getTime() > now)
+                .map(entry -> {
+                    presentFlags.put(key, entry.getExpiresAt().getTime());
+                    return true;
+                })
+                .orElse(false);
+        if (present) {
+            absentFlags.remove(key);
+        } else if (absentFlags.size() < maxNearCacheEntries) {
+            absentFlags.put(key, now);
+        }
+        return present;
+    }
+
+    @Override
+    public boolean isShared() {
+        return true;
+    }
+
+    /**
+     * Publishes pending near-cached deltas, picks up the global values in return and drops
+     * expired near-cache entries.
+     */
+    @Scheduled(fixedDelayString = "${shared-state.mongo.flush-ms:500}")
+    public void flush() {
+        long now = clock.getAsLong();
+        nearCounters.forEach((key, counter) -> {
+            long delta = counter.pending.getAndSet(0);
+            if (delta != 0) {
+                try {
+                    remoteWrites.increment();
+                    counter.remote = sharedStateRepository.increment(
+                            key, delta, new Date(now), new Date(now + counter.ttlMs));
+                } catch (RuntimeException e) {
+                    counter.pending.addAndGet(delta);
+                    log.warn("Failed to flush shared counter {}: {}", key, e.getMessage());
+                }
+            } else if (counter.expiresAt <= now) {
+                nearCounters.remove(key, counter);
+            }
+        });
+        presentFlags.values().removeIf(expiresAt -> expiresAt <= now);
+        absentFlags.values().removeIf(checkedAt -> now - checkedAt >= negativeCacheMs);
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("backend", "mongo");
+        stats.put("nearCounters", nearCounters.size());
+        stats.put("cachedFlags", presentFlags.size() + absentFlags.size());
+        stats.put("nearCacheHits", nearCacheHits.sum());
+        stats.put("remoteReads", remoteReads.sum());
+        stats.put("remoteWrites", remoteWrites.sum());
+        return stats;
+    }
+
+    private static final class NearCounter {
+        private final long ttlMs;
+        private final AtomicLong pending = new AtomicLong();
+        private volatile long remote;
+        private volatile long expiresAt;
+
+        NearCounter(long ttlMs) {
+            this.ttlMs = ttlMs;
+        }
+    }
+}
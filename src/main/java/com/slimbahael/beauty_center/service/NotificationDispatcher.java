@@ -0,0 +1,166 @@
+package com.slimbahael.beauty_center.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs email and SMS sends on a dedicated worker pool fed by a bounded queue, so request threads
+ * only pay for an enqueue. Failed sends are retried with exponential backoff; a notification that
+ * exhausts its attempts, or that arrives while the queue is full, is logged as a dead letter.
+ */
+@Component
+@Slf4j
+public class NotificationDispatcher {
+
+    private static final int DEAD_LETTERS_KEPT = 50;
+
+    private final ThreadPoolExecutor workers;
+    private final ScheduledThreadPoolExecutor retryScheduler;
+    private final int queueCapacity;
+    private final int maxAttempts;
+    private final long initialBackoffMs;
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder deadLettered = new LongAdder();
+    private final Deque<Map<String, Object>> recentDeadLetters = new ArrayDeque<>();
+
+    public NotificationDispatcher(@Value("${notifications.queue-capacity:1000}") int queueCapacity,
+                                  @Value("${notifications.workers:4}") int workerCount,
+                                  @Value("${notifications.max-attempts:3}") int maxAttempts,
+                                  @Value("${notifications.initial-backoff-ms:2000}") long initialBackoffMs) {
+        this.queueCapacity = queueCapacity;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMs = initialBackoffMs;
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), daemonThreads("notification-"));
+        this.retryScheduler = new ScheduledThreadPoolExecutor(1, daemonThreads("notification-retry-"));
+    }
+
+    /**
+     * Queues a notification and returns immediately. Returns false, and dead-letters the
+     * notification, when the queue is full.
+     */
+    public boolean dispatch(String description, Runnable send) {
+        enqueued.increment();
+        return submit(new Notification(description, send, 1));
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queueDepth", workers.getQueue().size());
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("activeWorkers", workers.getActiveCount());
+        stats.put("pendingRetries", retryScheduler.getQueue().size());
+        stats.put("enqueued", enqueued.sum());
+        stats.put("delivered", delivered.sum());
+        stats.put("retried", retried.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("deadLettered", deadLettered.sum());
+        synchronized (recentDeadLetters) {
+            stats.put("recentDeadLetters", new ArrayList<>(recentDeadLetters));
+        }
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        retryScheduler.shutdownNow();
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(10, TimeUnit.SECONDS)) {
+                List<Runnable> dropped = workers.shutdownNow();
+                log.warn("Notification dispatcher stopped with {} notifications still queued", dropped.size());
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean submit(Notification notification) {
+        try {
+            workers.execute(() -> deliver(notification));
+            return true;
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            deadLetter(notification, "queue full");
+            return false;
+        }
+    }
+
+    private void deliver(Notification notification) {
+        try {
+            notification.send().run();
+            delivered.increment();
+        } catch (Exception e) {
+            if (notification.attempt() >= maxAttempts) {
+                deadLetter(notification, e.getMessage());
+                return;
+            }
+            long backoffMs = initialBackoffMs << (notification.attempt() - 1);
+            log.warn("Notification '{}' failed on attempt {}, retrying in {} ms: {}",
+                    notification.description(), notification.attempt(), backoffMs, e.getMessage());
+            retried.increment();
+            try {
+                retryScheduler.schedule(() -> submit(notification.nextAttempt()), backoffMs, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException shuttingDown) {
+                deadLetter(notification, "dispatcher shutting down");
+            }
+        }
+    }
+
+    private void deadLetter(Notification notification, String reason) {
+        deadLettered.increment();
+        log.error("Notification dead-lettered after {} attempt(s): {} ({})",
+                notification.attempt(), notification.description(), reason);
+
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("description", notification.description());
+        entry.put("attempts", notification.attempt());
+        entry.put("reason", reason);
+        entry.put("at", new Date());
+        synchronized (recentDeadLetters) {
+            if (recentDeadLetters.size() >= DEAD_LETTERS_KEPT) {
+                recentDeadLetters.removeFirst();
+            }
+            recentDeadLetters.addLast(entry);
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private record Notification(String description, Runnable send, int attempt) {
+
+        Notification nextAttempt() {
+            return new Notification(description, send, attempt + 1);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.slimbahael.beauty_center.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.slimbahael.beauty_center.model.NotificationOutboxEntry;
+import com.slimbahael.beauty_center.repository.NotificationOutboxRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Durable delivery for notifications that must not be lost when the machine stops right after
+ * responding. Entries are stored in Mongo, sent straight away through the
+ * {@link NotificationDispatcher} and otherwise picked up by the outbox poller, on this boot or
+ * the next one. Delivery is at-least-once.
+ */
+@Service
+@Slf4j
+public class NotificationOutboxService {
+
+    public static final String ORDER_CONFIRMATION = "ORDER_CONFIRMATION";
+    public static final String ADMIN_NEW_ORDER = "ADMIN_NEW_ORDER";
+    public static final String RESERVATION_CONFIRMATION = "RESERVATION_CONFIRMATION";
+    public static final String ADMIN_NEW_RESERVATION = "ADMIN_NEW_RESERVATION";
+    public static final String GIFT_CARD_PURCHASE_CONFIRMATION = "GIFT_CARD_PURCHASE_CONFIRMATION";
+    public static final String GIFT_CARD_RECEIVED = "GIFT_CARD_RECEIVED";
+    public static final String ADMIN_SERVICE_GIFT_CARD = "ADMIN_SERVICE_GIFT_CARD";
+
+    private static final String PENDING = "PENDING";
+
+    private final NotificationOutboxRepository outboxRepository;
+    private final NotificationDispatcher notificationDispatcher;
+    private final ObjectMapper objectMapper;
+    private final int maxAttempts;
+    private final long leaseMs;
+    private final long initialBackoffMs;
+    private final int batchSize;
+
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Map<String, Consumer<NotificationOutboxEntry>> handlers = new ConcurrentHashMap<>();
+
+    public NotificationOutboxService(NotificationOutboxRepository outboxRepository,
+                                     NotificationDispatcher notificationDispatcher,
+                                     ObjectMapper objectMapper,
+                                     @Value("${notifications.outbox.max-attempts:8}") int maxAttempts,
+                                     @Value("${notifications.outbox.lease-ms:120000}") long leaseMs,
+                                     @Value("${notifications.outbox.initial-backoff-ms:30000}") long initialBackoffMs,
+                                     @Value("${notifications.outbox.batch-size:20}") int batchSize) {
+        this.outboxRepository = outboxRepository;
+        this.notificationDispatcher = notificationDispatcher;
+        this.objectMapper = objectMapper;
+        this.maxAttempts = maxAttempts;
+        this.leaseMs = leaseMs;
+        this.initialBackoffMs = initialBackoffMs;
+        this.batchSize = batchSize;
+    }
+
+    public void registerHandler(String type, Consumer<NotificationOutboxEntry> handler) {
+        handlers.put(type, handler);
+    }
+
+    /**
+     * Stores the notification and schedules an immediate send attempt. Call right after the
+     * business write it belongs to, so the entry exists before the response is returned.
+     */
+    public NotificationOutboxEntry enqueue(String type, String recipient, String aggregateId, Object payload) {
+        Date now = new Date();
+        NotificationOutboxEntry saved = outboxRepository.save(NotificationOutboxEntry.builder()
+                .type(type)
+                .recipient(recipient)
+                .aggregateId(aggregateId)
+                .payload(writePayload(payload))
+                .status(PENDING)
+                .attempts(0)
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .build());
+
+        notificationDispatcher.dispatch(type + " to " + recipient, () -> deliverNow(saved.getId()));
+        return saved;
+    }
+
+    public <T> T readPayload(NotificationOutboxEntry entry, Class<T> payloadType) {
+        try {
+            return objectMapper.readValue(entry.getPayload(), payloadType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable payload for outbox entry " + entry.getId(), e);
+        }
+    }
+
+    /**
+     * Sends one entry if no other instance has claimed it in the meantime.
+     */
+    public void deliverNow(String entryId) {
+        Date now = new Date();
+        outboxRepository.claimById(entryId, instanceId, now, new Date(now.getTime() + leaseMs))
+                .ifPresent(this::deliver);
+    }
+
+    /**
+     * Claims and sends due entries in batches until none are left. Returns the number processed.
+     */
+    public int processDueEntries() {
+        int processed = 0;
+        List<NotificationOutboxEntry> batch;
+        do {
+            Date now = new Date();
+            batch = outboxRepository.claimDue(instanceId, now, new Date(now.getTime() + leaseMs), batchSize);
+            batch.forEach(this::deliver);
+            processed += batch.size();
+        } while (batch.size() == batchSize);
+        return processed;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("pending", outboxRepository.countByStatus(PENDING));
+        stats.put("failed", outboxRepository.countByStatus("FAILED"));
+        return stats;
+    }
+
+    private void deliver(NotificationOutboxEntry entry) {
+        Consumer<NotificationOutboxEntry> handler = handlers.get(entry.getType());
+        if (handler == null) {
+            log.error("No handler for outbox entry {} of type {}", entry.getId(), entry.getType());
+            outboxRepository.markFailed(entry.getId(), instanceId, "No handler for type " + entry.getType());
+            return;
+        }
+
+        try {
+            handler.accept(entry);
+            if (!outboxRepository.markSent(entry.getId(), instanceId, new Date())) {
+                log.warn("Lease on outbox entry {} expired before it was marked sent", entry.getId());
+            }
+        } catch (Exception e) {
+            if (entry.getAttempts() >= maxAttempts) {
+                log.error("Outbox entry {} ({} to {}) failed after {} attempts: {}",
+                        entry.getId(), entry.getType(), entry.getRecipient(), entry.getAttempts(), e.getMessage());
+                outboxRepository.markFailed(entry.getId(), instanceId, e.getMessage());
+                return;
+            }
+            long backoffMs = initialBackoffMs << Math.min(entry.getAttempts() - 1, 10);
+            log.warn("Outbox entry {} ({} to {}) failed on attempt {}, retrying in {} ms: {}",
+                    entry.getId(), entry.getType(), entry.getRecipient(), entry.getAttempts(), backoffMs, e.getMessage());
+            outboxRepository.markRetry(entry.getId(), instanceId, new Date(System.currentTimeMillis() + backoffMs), e.getMessage());
+        }
+    }
+
+    private String writePayload(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Notification payload cannot be serialized", e);
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.lowagie.text.Document;
 import com.lowagie.text.Paragraph;
 import com.lowagie.text.pdf.PdfWriter;
 import com.slimbahael.beauty_center.dto.CheckoutRequest;
+import com.slimbahael.beauty_center.dto.CursorPage;
 import com.slimbahael.beauty_center.dto.OrderResponse;
 import com.slimbahael.beauty_center.exception.BadRequestException;
 import com.slimbahael.beauty_center.exception.ResourceNotFoundException;
@@ -13,9 +14,11 @@ import com.slimbahael.beauty_center.model.Product;
 import com.slimbahael.beauty_center.model.User;
 import com.slimbahael.beauty_center.model.BalanceTransaction;
 import com.slimbahael.beauty_center.repository.*;
+import com.slimbahael.beauty_center.security.CurrentUserResolver;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,7 +28,11 @@ import java.math.RoundingMode;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
@@ -39,12 +46,15 @@ public class OrderService {
     private final CartRepository cartRepository;
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
+    private final CurrentUserResolver currentUserResolver;
     private final BalanceTransactionRepository balanceTransactionRepository;
     private final CartService cartService;
     private final SmsService smsService;
     private final EmailService emailService;
-    private final StripeService stripeService;
+    private final PaymentStateService paymentStateService;
     private final BalanceService balanceService;
+    private final CursorPaginationService cursorPaginationService;
+    private final ProductCatalogCache catalogCache;
 
     private static final BigDecimal TAX_RATE = new BigDecimal("0.0"); // 10% tax
     private static final BigDecimal SHIPPING_COST = new BigDecimal("5.00"); // $5 shipping
@@ -53,12 +63,7 @@ public class OrderService {
     private static final Logger log = LoggerFactory.getLogger(OrderService.class);
 
     public byte[] generateInvoice(String orderId) {
-        // Get current authenticated user
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        User user = currentUserResolver.getCurrentUser();
 
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
@@ -139,34 +144,25 @@ public class OrderService {
         }
     }
 
-    public List<OrderResponse> getAllOrders() {
-        return orderRepository.findAll()
-                .stream()
-                .map(this::mapOrderToResponse)
-                .collect(Collectors.toList());
+    public CursorPage<OrderResponse> getAllOrders(String cursor, int limit) {
+        return cursorPaginationService.findPage(null, Order.class,
+                        "createdAt", Sort.Direction.DESC, Order::getCreatedAt, Order::getId,
+                        cursor, limit)
+                .map(this::mapOrdersToResponses);
     }
 
-    public List<OrderResponse> getCustomerOrders() {
-        // Get current authenticated user
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
+    public CursorPage<OrderResponse> getCustomerOrders(String cursor, int limit) {
+        User customer = currentUserResolver.getCurrentUser();
 
-        User customer = userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
-
-        return orderRepository.findByCustomerId(customer.getId())
-                .stream()
-                .map(this::mapOrderToResponse)
-                .collect(Collectors.toList());
+        // Most recent first
+        return cursorPaginationService.findPage(Criteria.where("customerId").is(customer.getId()), Order.class,
+                        "createdAt", Sort.Direction.DESC, Order::getCreatedAt, Order::getId,
+                        cursor, limit)
+                .map(this::mapOrdersToResponses);
     }
 
     public OrderResponse getOrderById(String id) {
-        // Get current authenticated user
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        User user = currentUserResolver.getCurrentUser();
 
         Order order = orderRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
@@ -181,12 +177,7 @@ public class OrderService {
 
     @Transactional
     public OrderResponse checkout(CheckoutRequest request) {
-        // Get current authenticated user
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-
-        User customer = userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        User customer = currentUserResolver.getCurrentUser();
 
         // Get cart
         Cart cart = cartRepository.findByCustomerId(customer.getId())
@@ -220,20 +211,35 @@ public class OrderService {
                     balanceService.getUserBalance(customer.getId()) + ", Required: €" + total);
         }
 
+        // Reserve stock before charging so a stock failure never leaves a debited balance
+        Order order = createOrderFromCart(cart, request, customer, subtotal, tax, shippingCost, total, "PAID");
+
         // Process balance payment
-        BalanceTransaction transaction = balanceService.processBalancePayment(
-                customer.getId(),
-                total,
-                "Payment pour une commande",
-                null // Will be updated with order ID after creation
-        );
+        BalanceTransaction transaction;
+        try {
+            transaction = balanceService.processBalancePayment(
+                    customer.getId(),
+                    total,
+                    "Payment pour une commande",
+                    null // Will be updated with order ID after creation
+            );
+        } catch (RuntimeException e) {
+            releaseStock(order.getItems());
+            throw e;
+        }
 
         // Create order with balance payment
-        Order order = createOrderFromCart(cart, request, customer, subtotal, tax, shippingCost, total, "PAID");
         order.setPaymentMethod("BALANCE");
         order.setStripePaymentIntentId(transaction.getId()); // Store transaction ID
 
-        Order savedOrder = orderRepository.save(order);
+        Order savedOrder;
+        try {
+            savedOrder = orderRepository.save(order);
+        } catch (RuntimeException e) {
+            refundUnsavedOrder(customer.getId(), total, transaction);
+            releaseStock(order.getItems());
+            throw e;
+        }
 
         // Update transaction with order ID
         transaction.setOrderId(savedOrder.getId());
@@ -285,8 +291,8 @@ public class OrderService {
                 throw new BadRequestException("Payment intent ID is required for card payments");
             }
 
-            // Verify payment intent was successful
-            if (stripeService.isPaymentSucceeded(request.getPaymentIntentId())) {
+            // Verify payment intent was successful, from webhook state when Stripe already reported it
+            if (PaymentStateService.SUCCEEDED.equals(paymentStateService.getPaymentStatus(request.getPaymentIntentId()))) {
                 paymentStatus = "PAID";
                 log.info("Payment verified successfully for payment intent: {}", request.getPaymentIntentId());
             } else {
@@ -304,7 +310,18 @@ public class OrderService {
         order.setStripePaymentIntentId(request.getPaymentIntentId());
         order.setStripePaymentMethodId(request.getPaymentMethodId());
 
-        Order savedOrder = orderRepository.save(order);
+        Order savedOrder;
+        try {
+            savedOrder = orderRepository.save(order);
+        } catch (DuplicateKeyException e) {
+            // The unique stripePaymentIntentId index: this intent already paid for another order
+            releaseStock(order.getItems());
+            log.warn("Rejected checkout reusing payment intent {}", request.getPaymentIntentId());
+            throw new BadRequestException("An order already exists for this payment");
+        } catch (RuntimeException e) {
+            releaseStock(order.getItems());
+            throw e;
+        }
 
         // Clear cart after successful order
         cartService.clearCart();
@@ -344,31 +361,29 @@ public class OrderService {
     private Order createOrderFromCart(Cart cart, CheckoutRequest request, User customer,
                                       BigDecimal subtotal, BigDecimal tax, BigDecimal shippingCost,
                                       BigDecimal total, String paymentStatus) {
-        // Create order items and update product stock
+        // Reserve stock with atomic conditional decrements, releasing earlier items if a later one fails
         List<Order.OrderItem> orderItems = new ArrayList<>();
-        for (Cart.CartItem cartItem : cart.getItems()) {
-            Product product = productRepository.findById(cartItem.getProductId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Product not found: " + cartItem.getProductId()));
-
-            // Check stock
-            if (product.getStockQuantity() < cartItem.getQuantity()) {
-                throw new BadRequestException("Not enough stock for product: " + product.getName());
+        try {
+            for (Cart.CartItem cartItem : cart.getItems()) {
+                Product product = productRepository.decrementStockIfAvailable(cartItem.getProductId(), cartItem.getQuantity())
+                        .orElseThrow(() -> stockUnavailable(cartItem));
+                catalogCache.invalidateProduct(product.getId());
+
+                // Create order item
+                Order.OrderItem orderItem = Order.OrderItem.builder()
+                        .productId(product.getId())
+                        .productName(product.getName())
+                        .quantity(cartItem.getQuantity())
+                        .unitPrice(product.getPrice())
+                        .totalPrice(product.getPrice().multiply(BigDecimal.valueOf(cartItem.getQuantity())))
+                        .imageUrl(firstImageUrl(product))
+                        .build();
+
+                orderItems.add(orderItem);
             }
-
-            // Update product stock
-            product.setStockQuantity(product.getStockQuantity() - cartItem.getQuantity());
-            productRepository.save(product);
-
-            // Create order item
-            Order.OrderItem orderItem = Order.OrderItem.builder()
-                    .productId(product.getId())
-                    .productName(product.getName())
-                    .quantity(cartItem.getQuantity())
-                    .unitPrice(product.getPrice())
-                    .totalPrice(product.getPrice().multiply(BigDecimal.valueOf(cartItem.getQuantity())))
-                    .build();
-
-            orderItems.add(orderItem);
+        } catch (RuntimeException e) {
+            releaseStock(orderItems);
+            throw e;
         }
 
         // Create shipping address
@@ -399,6 +414,35 @@ public class OrderService {
                 .build();
     }
 
+    private RuntimeException stockUnavailable(Cart.CartItem cartItem) {
+        if (!productRepository.existsById(cartItem.getProductId())) {
+            return new ResourceNotFoundException("Product not found: " + cartItem.getProductId());
+        }
+        return new BadRequestException("Not enough stock for product: " + cartItem.getProductName());
+    }
+
+    // Credits back a balance payment whose order could not be saved; a failed refund is logged, not rethrown,
+    // so the stock is still released and the caller sees the original error
+    private void refundUnsavedOrder(String customerId, BigDecimal total, BalanceTransaction transaction) {
+        try {
+            balanceService.refundToBalance(customerId, total, "Remboursement d'une commande non enregistrée", null);
+        } catch (RuntimeException e) {
+            log.error("Failed to refund balance payment {} of €{} for customer {} after order save failed: {}",
+                    transaction.getId(), total, customerId, e.getMessage());
+        }
+    }
+
+    // Compensating increments for stock reserved by an order that could not be completed
+    private void releaseStock(List<Order.OrderItem> items) {
+        for (Order.OrderItem item : items) {
+            if (!productRepository.incrementStock(item.getProductId(), item.getQuantity())) {
+                log.warn("Could not restore {} units of stock for missing product {}", item.getQuantity(), item.getProductId());
+            }
+            // After the write, so a read between the two cannot cache the old stock
+            catalogCache.invalidateProduct(item.getProductId());
+        }
+    }
+
     @Transactional
     public OrderResponse updateOrderStatus(String id, String status) {
         // Validate status
@@ -409,11 +453,7 @@ public class OrderService {
         Order order = orderRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
 
-        // Only admin can update order status
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        User user = currentUserResolver.getCurrentUser();
 
         if (!user.getRole().equals("ADMIN")) {
             throw new BadRequestException("You are not authorized to update order status");
@@ -422,13 +462,7 @@ public class OrderService {
         // If cancelling an order, restore product stock and handle refund
         if (status.equals("CANCELLED") && !order.getOrderStatus().equals("CANCELLED")) {
             // Restore product stock
-            for (Order.OrderItem item : order.getItems()) {
-                Product product = productRepository.findById(item.getProductId())
-                        .orElseThrow(() -> new ResourceNotFoundException("Product not found: " + item.getProductId()));
-
-                product.setStockQuantity(product.getStockQuantity() + item.getQuantity());
-                productRepository.save(product);
-            }
+            releaseStock(order.getItems());
 
             // If payment was made via Stripe, initiate refund
             if (order.getStripePaymentIntentId() != null && "PAID".equals(order.getPaymentStatus())) {
@@ -479,25 +513,60 @@ public class OrderService {
 
     // Helper method to map Order entity to OrderResponse DTO
     private OrderResponse mapOrderToResponse(Order order) {
+        return mapOrdersToResponses(List.of(order)).get(0);
+    }
+
+    // Maps a batch of orders with one user query and at most one product query
+    private List<OrderResponse> mapOrdersToResponses(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Set<String> customerIds = new HashSet<>();
+        Set<String> productIds = new HashSet<>();
+        for (Order order : orders) {
+            customerIds.add(order.getCustomerId());
+            for (Order.OrderItem item : order.getItems()) {
+                // Orders placed before image snapshots were stored still need the product
+                if (item.getImageUrl() == null) {
+                    productIds.add(item.getProductId());
+                }
+            }
+        }
+
+        Map<String, User> customersById = userRepository.findAllById(customerIds).stream()
+                .collect(Collectors.toMap(User::getId, user -> user));
+        Map<String, String> imageUrlsByProductId = new HashMap<>();
+        if (!productIds.isEmpty()) {
+            for (Product product : productRepository.findAllById(productIds)) {
+                imageUrlsByProductId.put(product.getId(), firstImageUrl(product));
+            }
+        }
+
+        return orders.stream()
+                .map(order -> buildOrderResponse(order, customersById, imageUrlsByProductId))
+                .collect(Collectors.toList());
+    }
+
+    private OrderResponse buildOrderResponse(Order order, Map<String, User> customersById,
+                                             Map<String, String> imageUrlsByProductId) {
         List<OrderResponse.OrderItemDto> itemDtos = order.getItems().stream()
-                .map(item -> {
-                    Product product = productRepository.findById(item.getProductId())
-                            .orElseThrow(() -> new ResourceNotFoundException("Product not found"));
-
-                    return OrderResponse.OrderItemDto.builder()
-                            .productId(item.getProductId())
-                            .productName(item.getProductName())
-                            .quantity(item.getQuantity())
-                            .unitPrice(item.getUnitPrice())
-                            .totalPrice(item.getTotalPrice())
-                            .imageUrl(product.getImageUrls() != null && !product.getImageUrls().isEmpty() ?
-                                    product.getImageUrls().get(0) : null)
-                            .build();
-                })
+                .map(item -> OrderResponse.OrderItemDto.builder()
+                        .productId(item.getProductId())
+                        .productName(item.getProductName())
+                        .quantity(item.getQuantity())
+                        .unitPrice(item.getUnitPrice())
+                        .totalPrice(item.getTotalPrice())
+                        .imageUrl(item.getImageUrl() != null
+                                ? item.getImageUrl()
+                                : imageUrlsByProductId.get(item.getProductId()))
+                        .build())
                 .collect(Collectors.toList());
 
-        User customer = userRepository.findById(order.getCustomerId())
-                .orElseThrow(() -> new ResourceNotFoundException("Customer not found"));
+        User customer = customersById.get(order.getCustomerId());
+        if (customer == null) {
+            throw new ResourceNotFoundException("Customer not found");
+        }
 
         // Calculate estimated delivery date (e.g., 5 days from creation)
         Calendar calendar = Calendar.getInstance();
@@ -533,4 +602,10 @@ public class OrderService {
                 .estimatedDeliveryDate(estimatedDeliveryDate)
                 .build();
     }
+
+    private String firstImageUrl(Product product) {
+        return product.getImageUrls() != null && !product.getImageUrls().isEmpty()
+                ? product.getImageUrls().get(0)
+                : null;
+    }
 }
\ No newline at end of file
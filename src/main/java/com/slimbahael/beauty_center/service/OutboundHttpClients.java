@@ -0,0 +1,139 @@
+package com.slimbahael.beauty_center.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * One {@link RestTemplate} per outbound integration (Brevo, reCAPTCHA, SerpAPI...), each backed by
+ * its own JDK {@link HttpClient} so connections are pooled and kept alive per integration, with
+ * connect and read timeouts from {@code http.client.<integration>.*} and per-host latency and
+ * error counters.
+ */
+@Component
+@Slf4j
+public class OutboundHttpClients {
+
+    public static final String DEFAULT = "default";
+    public static final String BREVO = "brevo";
+    public static final String RECAPTCHA = "recaptcha";
+    public static final String SERPAPI = "serpapi";
+
+    private final Environment environment;
+    private final Map<String, RestTemplate> restTemplates = new ConcurrentHashMap<>();
+    private final Map<String, HostMetrics> metricsByHost = new ConcurrentHashMap<>();
+
+    public OutboundHttpClients(Environment environment) {
+        this.environment = environment;
+    }
+
+    public RestTemplate forIntegration(String integration) {
+        return restTemplates.computeIfAbsent(integration, this::createRestTemplate);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new TreeMap<>();
+        metricsByHost.forEach((host, metrics) -> stats.put(host, metrics.snapshot()));
+        return stats;
+    }
+
+    private RestTemplate createRestTemplate(String integration) {
+        Duration connectTimeout = Duration.ofMillis(setting(integration, "connect-timeout-ms", 3000L));
+        Duration readTimeout = Duration.ofMillis(setting(integration, "read-timeout-ms", 10000L));
+        boolean http2 = setting(integration, "http2", true);
+
+        // HTTP/2 is negotiated over TLS and falls back to HTTP/1.1 keep-alive connections
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(http2 ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .connectTimeout(connectTimeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(readTimeout);
+
+        RestTemplate restTemplate = new RestTemplate(requestFactory);
+        restTemplate.getInterceptors().add(new MetricsInterceptor());
+
+        log.info("Outbound HTTP client '{}' created (connect timeout {}, read timeout {}, HTTP/2 {})",
+                integration, connectTimeout, readTimeout, http2);
+        return restTemplate;
+    }
+
+    // Integration-specific value, falling back to the shared http.client.* default
+    private <T> T setting(String integration, String key, T fallback) {
+        @SuppressWarnings("unchecked")
+        Class<T> type = (Class<T>) fallback.getClass();
+        T shared = environment.getProperty("http.client." + key, type, fallback);
+        return environment.getProperty("http.client." + integration + "." + key, type, shared);
+    }
+
+    private class MetricsInterceptor implements ClientHttpRequestInterceptor {
+
+        @Override
+        public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+                throws IOException {
+            HostMetrics metrics = metricsByHost.computeIfAbsent(request.getURI().getHost(), host -> new HostMetrics());
+            long start = System.nanoTime();
+            try {
+                ClientHttpResponse response = execution.execute(request, body);
+                metrics.record(System.nanoTime() - start, response.getStatusCode().is5xxServerError());
+                return response;
+            } catch (CancellationException e) {
+                // The JDK client's read timeout can surface as a bare cancellation; report it as the timeout it is
+                metrics.record(System.nanoTime() - start, true);
+                HttpTimeoutException timeout = new HttpTimeoutException("Request timed out");
+                timeout.initCause(e);
+                throw timeout;
+            } catch (IOException | RuntimeException e) {
+                metrics.record(System.nanoTime() - start, true);
+                throw e;
+            }
+        }
+    }
+
+    private static final class HostMetrics {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0);
+
+        void record(long elapsedNanos, boolean error) {
+            requests.increment();
+            totalNanos.add(elapsedNanos);
+            maxNanos.accumulate(elapsedNanos);
+            if (error) {
+                errors.increment();
+            }
+        }
+
+        Map<String, Object> snapshot() {
+            long count = requests.sum();
+            Map<String, Object> snapshot = new LinkedHashMap<>();
+            snapshot.put("requests", count);
+            snapshot.put("errors", errors.sum());
+            snapshot.put("avgLatencyMs", count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalNanos.sum() / count));
+            snapshot.put("maxLatencyMs", TimeUnit.NANOSECONDS.toMillis(maxNanos.get()));
+            return snapshot;
+        }
+    }
+}
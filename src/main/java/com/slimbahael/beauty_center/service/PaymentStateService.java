@@ -0,0 +1,136 @@
+package com.slimbahael.beauty_center.service;
+
+import com.slimbahael.beauty_center.exception.BadRequestException;
+import com.slimbahael.beauty_center.model.PaymentState;
+import com.slimbahael.beauty_center.repository.PaymentStateRepository;
+import com.stripe.exception.StripeException;
+import com.stripe.model.PaymentIntent;
+import com.stripe.model.checkout.Session;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Local view of Stripe payment state, fed by webhook events. Checkout paths read it first and
+ * only ask Stripe when no final state has been received yet; what Stripe returns is stored too.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentStateService {
+
+    public static final String SUCCEEDED = "succeeded";
+    public static final String PAID = "paid";
+
+    // States after which Stripe sends no further transitions we act on
+    private static final Set<String> FINAL_STATUSES = Set.of(SUCCEEDED, "canceled", PAID, "no_payment_required");
+
+    private final PaymentStateRepository paymentStateRepository;
+    private final StripeService stripeService;
+
+    private final LongAdder localHits = new LongAdder();
+    private final LongAdder stripeFallbacks = new LongAdder();
+
+    public boolean recordPaymentIntent(PaymentIntent paymentIntent, Date asOf, String sourceEventId) {
+        return save(PaymentState.builder()
+                .id(paymentIntent.getId())
+                .objectType(PaymentState.PAYMENT_INTENT)
+                .status(paymentIntent.getStatus())
+                .amount(paymentIntent.getAmount())
+                .amountReceived(paymentIntent.getAmountReceived())
+                .currency(paymentIntent.getCurrency())
+                .metadata(paymentIntent.getMetadata())
+                .sourceEventId(sourceEventId)
+                .stateAsOf(asOf)
+                .build());
+    }
+
+    public boolean recordCheckoutSession(Session session, Date asOf, String sourceEventId) {
+        return save(PaymentState.builder()
+                .id(session.getId())
+                .objectType(PaymentState.CHECKOUT_SESSION)
+                .status(session.getPaymentStatus())
+                .amount(session.getAmountTotal())
+                .currency(session.getCurrency())
+                .paymentIntentId(session.getPaymentIntent())
+                .metadata(session.getMetadata())
+                .sourceEventId(sourceEventId)
+                .stateAsOf(asOf)
+                .build());
+    }
+
+    /**
+     * Returns the PaymentIntent state, calling Stripe only if it is not known locally to be final.
+     * Throws {@link BadRequestException} if Stripe cannot be reached or does not know the intent.
+     */
+    public PaymentState getPaymentIntent(String paymentIntentId) {
+        Optional<PaymentState> local = findFinal(paymentIntentId);
+        if (local.isPresent()) {
+            return local.get();
+        }
+
+        stripeFallbacks.increment();
+        PaymentIntent paymentIntent = stripeService.getPaymentIntent(paymentIntentId);
+        recordPaymentIntent(paymentIntent, new Date(), null);
+        return paymentStateRepository.findById(paymentIntentId)
+                .orElseThrow(() -> new BadRequestException("Failed to retrieve payment intent: " + paymentIntentId));
+    }
+
+    /**
+     * Status of the PaymentIntent, or "unknown" when it cannot be determined.
+     */
+    public String getPaymentStatus(String paymentIntentId) {
+        try {
+            return getPaymentIntent(paymentIntentId).getStatus();
+        } catch (BadRequestException e) {
+            log.error("Failed to get payment status for {}: {}", paymentIntentId, e.getMessage());
+            return "unknown";
+        }
+    }
+
+    /**
+     * Returns the Checkout Session state, calling Stripe only if it is not known locally to be paid.
+     */
+    public PaymentState getCheckoutSession(String sessionId) throws StripeException {
+        Optional<PaymentState> local = findFinal(sessionId);
+        if (local.isPresent()) {
+            return local.get();
+        }
+
+        stripeFallbacks.increment();
+        Session session = stripeService.retrieveCheckoutSession(sessionId);
+        recordCheckoutSession(session, new Date(), null);
+        return paymentStateRepository.findById(sessionId)
+                .orElseThrow(() -> new BadRequestException("Failed to retrieve checkout session: " + sessionId));
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("localHits", localHits.sum());
+        stats.put("stripeFallbacks", stripeFallbacks.sum());
+        return stats;
+    }
+
+    private Optional<PaymentState> findFinal(String id) {
+        Optional<PaymentState> local = paymentStateRepository.findById(id)
+                .filter(state -> FINAL_STATUSES.contains(state.getStatus()));
+        local.ifPresent(state -> localHits.increment());
+        return local;
+    }
+
+    private boolean save(PaymentState state) {
+        state.setUpdatedAt(new Date());
+        boolean applied = paymentStateRepository.saveIfNewer(state, FINAL_STATUSES);
+        if (!applied) {
+            log.info("Ignored stale {} state for {} as of {}", state.getObjectType(), state.getId(), state.getStateAsOf());
+        }
+        return applied;
+    }
+}
@@ -0,0 +1,224 @@
+package com.slimbahael.beauty_center.service;
+
+import com.slimbahael.beauty_center.dto.ProductResponse;
+import com.slimbahael.beauty_center.model.Product;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Size-bounded, in-process cache of the public catalog responses (single products and the
+ * active/featured/category listings). Entries are invalidated by the writes that change them, and
+ * an entry whose discount window opens or closes is treated as stale from that instant so
+ * {@code finalPrice} flips on time. Writes made by other instances are only picked up by expiry,
+ * so no entry is served for longer than {@code catalog.cache.max-staleness-ms}.
+ */
+@Component
+public class ProductCatalogCache {
+
+    private static final String ACTIVE_KEY = "active";
+    private static final String FEATURED_KEY = "featured";
+    private static final String PRODUCT_KEY_PREFIX = "product:";
+    private static final String CATEGORY_KEY_PREFIX = "category:";
+
+    private final int maxEntries;
+    private final long maxStalenessMs;
+    private final LongSupplier clock;
+    private final Map<String, CachedEntry> entries = new ConcurrentHashMap<>();
+    // Bumped on every invalidation so a load that raced with a write is not cached
+    private final AtomicLong generation = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @Autowired
+    public ProductCatalogCache(@Value("${catalog.cache.max-entries:500}") int maxEntries,
+                               @Value("${catalog.cache.max-staleness-ms:60000}") long maxStalenessMs) {
+        this(maxEntries, maxStalenessMs, System::currentTimeMillis);
+    }
+
+    ProductCatalogCache(int maxEntries, long maxStalenessMs, LongSupplier clock) {
+        this.maxEntries = maxEntries;
+        this.maxStalenessMs = maxStalenessMs;
+        this.clock = clock;
+    }
+
+    public ProductResponse getProduct(String productId, Supplier<ProductResponse> loader) {
+        return get(PRODUCT_KEY_PREFIX + productId, () -> List.of(loader.get())).get(0);
+    }
+
+    public List<ProductResponse> getActiveProducts(Supplier<List<ProductResponse>> loader) {
+        return get(ACTIVE_KEY, loader);
+    }
+
+    public List<ProductResponse> getFeaturedProducts(Supplier<List<ProductResponse>> loader) {
+        return get(FEATURED_KEY, loader);
+    }
+
+    public List<ProductResponse> getProductsByCategory(String category, Supplier<List<ProductResponse>> loader) {
+        return get(CATEGORY_KEY_PREFIX + category, loader);
+    }
+
+    /**
+     * Evicts the product and every cached listing that contains it. Enough for changes that
+     * do not move the product between listings, such as stock or rating updates.
+     */
+    public void invalidateProduct(String productId) {
+        generation.incrementAndGet();
+        entries.remove(PRODUCT_KEY_PREFIX + productId);
+        entries.values().removeIf(entry -> entry.productIds().contains(productId));
+    }
+
+    /**
+     * Evicts the product, every listing that contains it, and every listing it now belongs to.
+     * Used after create and update, where the product may join the active, featured or a category listing.
+     */
+    public void invalidateProduct(Product product) {
+        invalidateProduct(product.getId());
+        entries.remove(CATEGORY_KEY_PREFIX + product.getCategory());
+        if (product.isActive()) {
+            entries.remove(ACTIVE_KEY);
+        }
+        if (product.isFeatured()) {
+            entries.remove(FEATURED_KEY);
+        }
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+    /**
+     * Drops expired entries so they stop holding memory and room under {@code maxEntries}.
+     */
+    @Scheduled(fixedDelayString = "${catalog.cache.max-staleness-ms:60000}")
+    public void purgeExpired() {
+        long now = clock.getAsLong();
+        entries.values().removeIf(entry -> now >= entry.validUntil());
+    }
+
+    public Map<String, Object> getStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long requests = hitCount + missCount;
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", entries.size());
+        stats.put("maxEntries", maxEntries);
+        stats.put("maxStalenessMs", maxStalenessMs);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRate", requests == 0 ? 0.0 : (double) hitCount / requests);
+        stats.put("evictions", evictions.sum());
+        return stats;
+    }
+
+    private List<ProductResponse> get(String key, Supplier<List<ProductResponse>> loader) {
+        long now = clock.getAsLong();
+        CachedEntry cached = entries.get(key);
+        if (cached != null && now < cached.validUntil()) {
+            cached.touch(now);
+            hits.increment();
+            return cached.responses();
+        }
+
+        misses.increment();
+        long loadGeneration = generation.get();
+        List<ProductResponse> responses = List.copyOf(loader.get());
+
+        if (generation.get() == loadGeneration) {
+            if (entries.size() >= maxEntries) {
+                evictLeastRecentlyUsed();
+            }
+            long validUntil = Math.min(now + maxStalenessMs, nextPriceChange(responses, now));
+            entries.put(key, new CachedEntry(responses, productIdsOf(responses), validUntil, now));
+        }
+        return responses;
+    }
+
+    // Drops the least recently used tenth of the cache in one pass, so overflow is not paid on every put
+    private void evictLeastRecentlyUsed() {
+        int toEvict = Math.max(1, maxEntries / 10);
+        entries.entrySet().stream()
+                .sorted(Comparator.comparingLong(entry -> entry.getValue().lastAccess()))
+                .limit(toEvict)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList())
+                .forEach(key -> {
+                    if (entries.remove(key) != null) {
+                        evictions.increment();
+                    }
+                });
+    }
+
+    private Set<String> productIdsOf(List<ProductResponse> responses) {
+        return responses.stream()
+                .map(ProductResponse::getId)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    // Earliest future discount start or end across the responses; the entry is stale from then on
+    private long nextPriceChange(List<ProductResponse> responses, long now) {
+        long next = Long.MAX_VALUE;
+        for (ProductResponse response : responses) {
+            if (response.getDiscountPercentage() == null) {
+                continue;
+            }
+            for (Date boundary : new Date[]{response.getDiscountStartDate(), response.getDiscountEndDate()}) {
+                if (boundary != null && boundary.getTime() > now) {
+                    next = Math.min(next, boundary.getTime());
+                }
+            }
+        }
+        return next;
+    }
+
+    private static final class CachedEntry {
+        private final List<ProductResponse> responses;
+        private final Set<String> productIds;
+        private final long validUntil;
+        private volatile long lastAccess;
+
+        private CachedEntry(List<ProductResponse> responses, Set<String> productIds, long validUntil, long lastAccess) {
+            this.responses = responses;
+            this.productIds = productIds;
+            this.validUntil = validUntil;
+            this.lastAccess = lastAccess;
+        }
+
+        List<ProductResponse> responses() {
+            return responses;
+        }
+
+        Set<String> productIds() {
+            return productIds;
+        }
+
+        long validUntil() {
+            return validUntil;
+        }
+
+        long lastAccess() {
+            return lastAccess;
+        }
+
+        void touch(long now) {
+            lastAccess = now;
+        }
+    }
+}
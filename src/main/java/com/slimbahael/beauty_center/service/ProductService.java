@@ -1,6 +1,6 @@
 package com.slimbahael.beauty_center.service;
 
-import com.slimbahael.beauty_center.service.RatingService;
+import com.slimbahael.beauty_center.dto.CursorPage;
 import com.slimbahael.beauty_center.dto.ProductRequest;
 import com.slimbahael.beauty_center.dto.ProductResponse;
 import com.slimbahael.beauty_center.exception.ResourceNotFoundException;
@@ -8,6 +8,7 @@ import com.slimbahael.beauty_center.model.Product;
 import com.slimbahael.beauty_center.repository.ProductRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
@@ -15,6 +16,7 @@ import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,35 +26,34 @@ public class ProductService {
 
     private final ProductRepository productRepository;
     private final EmailService emailService;
-    private final RatingService ratingService;
     private final CloudinaryService cloudinaryService;
+    private final CursorPaginationService cursorPaginationService;
+    private final ProductCatalogCache catalogCache;
 
-    public List<ProductResponse> getAllProducts() {
-        return productRepository.findAll()
-                .stream()
-                .map(this::mapProductToResponse)
-                .collect(Collectors.toList());
+    public CursorPage<ProductResponse> getAllProducts(String cursor, int limit) {
+        return cursorPaginationService.findPage(null, Product.class, Sort.Direction.ASC, Product::getId, cursor, limit)
+                .mapItems(this::mapProductToResponse);
     }
 
     public List<ProductResponse> getActiveProducts() {
-        return productRepository.findByActiveIsTrue()
+        return catalogCache.getActiveProducts(() -> productRepository.findByActiveIsTrue()
                 .stream()
                 .map(this::mapProductToResponse)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
     }
 
     public List<ProductResponse> getFeaturedProducts() {
-        return productRepository.findByFeaturedIsTrue()
+        return catalogCache.getFeaturedProducts(() -> productRepository.findByFeaturedIsTrue()
                 .stream()
                 .map(this::mapProductToResponse)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
     }
 
     public List<ProductResponse> getProductsByCategory(String category) {
-        return productRepository.findByCategory(category)
+        return catalogCache.getProductsByCategory(category, () -> productRepository.findByCategory(category)
                 .stream()
                 .map(this::mapProductToResponse)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
     }
 
     public List<ProductResponse> searchProducts(String keyword) {
@@ -63,9 +64,8 @@ public class ProductService {
     }
 
     public ProductResponse getProductById(String id) {
-        Product product = productRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
-        return mapProductToResponse(product);
+        return catalogCache.getProduct(id, () -> mapProductToResponse(productRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id))));
     }
 
     public ProductResponse createProduct(ProductRequest productRequest) {
@@ -102,6 +102,7 @@ public class ProductService {
         }
 
         Product savedProduct = productRepository.save(product);
+        catalogCache.invalidateProduct(savedProduct);
         ProductResponse productResponse = mapProductToResponse(savedProduct);
 
         // 🔥 NEW: Send admin notification
@@ -151,6 +152,9 @@ public class ProductService {
             }
         }
 
+        // Stock is only written when the admin changed it, so checkout decrements since the read are kept
+        boolean stockEdited = !Objects.equals(existingProduct.getStockQuantity(), productRequest.getStockQuantity());
+
         existingProduct.setName(productRequest.getName());
         existingProduct.setDescription(productRequest.getDescription());
         existingProduct.setCategory(productRequest.getCategory());
@@ -180,7 +184,10 @@ public class ProductService {
             existingProduct.setSpecifications(new ArrayList<>());
         }
 
-        Product updatedProduct = productRepository.save(existingProduct);
+        // Targeted $set: a full save would write back the rating summary and stock read above
+        Product updatedProduct = productRepository.updateDetails(id, existingProduct, stockEdited)
+                .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
+        catalogCache.invalidateProduct(updatedProduct);
         ProductResponse productResponse = mapProductToResponse(updatedProduct);
 
         // 🔥 NEW: Check for low stock and notify admin
@@ -217,6 +224,7 @@ public class ProductService {
         }
 
         productRepository.deleteById(id);
+        catalogCache.invalidateProduct(id);
         log.info("Successfully deleted product: {}", product.getName());
     }
 
@@ -266,9 +274,10 @@ public class ProductService {
                     .collect(Collectors.toList());
         }
 
-        // Get rating information
-        Double averageRating = ratingService.getProductAverageRating(product.getId());
-        Long totalRatings = ratingService.getProductRatingCount(product.getId());
+        // Rating information is denormalized on the product, so no extra query is needed
+        Product.RatingSummary ratingSummary = product.getRatingSummary();
+        Double averageRating = ratingSummary != null ? ratingSummary.average() : 0.0;
+        Long totalRatings = ratingSummary != null ? ratingSummary.getCount() : 0L;
 
         return ProductResponse.builder()
                 .id(product.getId())
@@ -1,31 +1,268 @@
 package com.slimbahael.beauty_center.service;
 
 import com.slimbahael.beauty_center.exception.BadRequestException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
-import java.time.Instant;
-import java.util.Deque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
 
+/**
+ * Approximate sliding-window limits per key. Each key counts into fixed buckets of one window; the
+ * count for the sliding window is the current bucket plus the previous one weighted by how much of
+ * it the window still covers. A key costs two counters whatever its traffic, and keys idle for two
+ * windows are evicted.
+ * <p>
+ * Named policies are configured with {@code rate-limiter.<policy>.limit} and
+ * {@code rate-limiter.<policy>.window-seconds}, falling back to {@code rate-limiter.limit} and
+ * {@code rate-limiter.window-seconds}. When {@link SharedStateStore} is shared the decision is taken
+ * on its counters, so limits hold across instances; the local windows then only feed the hot-key
+ * report and stop admitting new keys once {@code rate-limiter.report-max-keys} are tracked.
+ */
 @Service
 public class RateLimiterService {
 
-    private final ConcurrentHashMap<String, Deque<Instant>> requestLog = new ConcurrentHashMap<>();
+    private final SharedStateStore sharedStateStore;
+    private final Environment environment;
+    private final LongSupplier clock;
+    private final int reportMaxKeys;
+
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+    private final Map<String, Policy> policies = new ConcurrentHashMap<>();
+
+    private final LongAdder rejections = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder untracked = new LongAdder();
+
+    @Autowired
+    public RateLimiterService(SharedStateStore sharedStateStore, Environment environment) {
+        this(sharedStateStore, environment, System::currentTimeMillis);
+    }
+
+    RateLimiterService(SharedStateStore sharedStateStore, Environment environment, LongSupplier clock) {
+        this.sharedStateStore = sharedStateStore;
+        this.environment = environment;
+        this.clock = clock;
+        this.reportMaxKeys = environment.getProperty("rate-limiter.report-max-keys", Integer.class, 10_000);
+    }
+
+    /**
+     * Counts one request by {@code subject} under the named policy, throwing if it is over the limit.
+     */
+    public void ensureAllowed(String policyName, String subject, String message) {
+        Policy policy = policies.computeIfAbsent(policyName, this::loadPolicy);
+        if (tryAcquire(policyName + ":" + subject, policy.limit(), policy.windowMs(), false) > 0) {
+            throw new BadRequestException(message);
+        }
+    }
 
     public void ensureAllowed(String key, int maxRequests, Duration window, String message) {
-        Instant now = Instant.now();
-        Deque<Instant> deque = requestLog.computeIfAbsent(key, k -> new ConcurrentLinkedDeque<>());
-        synchronized (deque) {
-            Instant cutoff = now.minus(window);
-            while (!deque.isEmpty() && deque.peekFirst().isBefore(cutoff)) {
-                deque.pollFirst();
+        if (tryAcquire(key, maxRequests, window.toMillis(), false) > 0) {
+            throw new BadRequestException(message);
+        }
+    }
+
+    /**
+     * Counts one request for {@code key}. Returns 0 if it is allowed, otherwise an estimate of the
+     * milliseconds until it would be. Rejected requests are not counted. With {@code nearCached}
+     * a shared store may answer from counts that lag other instances by its flush interval, keeping
+     * per-request callers off the network.
+     */
+    public long tryAcquire(String key, int maxRequests, long windowMs, boolean nearCached) {
+        long now = clock.getAsLong();
+        boolean shared = sharedStateStore.isShared();
+        long retryAfterMs;
+        if (!shared) {
+            retryAfterMs = acquireLocal(key, maxRequests, windowMs, now);
+        } else {
+            retryAfterMs = acquireShared(key, maxRequests, windowMs, nearCached, now);
+            // The local counts only feed the report here, so a spray of new keys must not grow them without bound
+            if (retryAfterMs == 0) {
+                if (windows.containsKey(key) || windows.size() < reportMaxKeys) {
+                    acquireLocal(key, Integer.MAX_VALUE, windowMs, now);
+                } else {
+                    untracked.increment();
+                }
+            }
+        }
+        if (retryAfterMs > 0) {
+            rejections.increment();
+        }
+        return retryAfterMs;
+    }
+
+    /**
+     * True when counts are shared between instances, so a limit here is a cluster-wide limit.
+     */
+    public boolean isShared() {
+        return sharedStateStore.isShared();
+    }
+
+    /**
+     * Drops keys that have seen no request for two windows, when both buckets have stopped counting.
+     */
+    @Scheduled(fixedDelayString = "${rate-limiter.evict-ms:60000}")
+    public void evictIdle() {
+        long now = clock.getAsLong();
+        windows.forEach((key, window) -> {
+            if (window.isIdle(now) && windows.remove(key, window)) {
+                evictions.increment();
+            }
+        });
+    }
+
+    /**
+     * The {@code limit} keys with the highest sliding-window counts seen by this instance, highest first.
+     */
+    public List<Map<String, Object>> getHottestKeys(int limit) {
+        long now = clock.getAsLong();
+        PriorityQueue<Map.Entry<String, Double>> top = new PriorityQueue<>(Map.Entry.comparingByValue());
+        windows.forEach((key, window) -> {
+            double estimate = window.estimate(now);
+            if (estimate <= 0) {
+                return;
             }
-            if (deque.size() >= maxRequests) {
-                throw new BadRequestException(message);
+            top.offer(Map.entry(key, estimate));
+            if (top.size() > limit) {
+                top.poll();
             }
-            deque.offerLast(now);
+        });
+
+        List<Map.Entry<String, Double>> hottest = new ArrayList<>(top);
+        hottest.sort(Map.Entry.comparingByValue(Comparator.reverseOrder()));
+        List<Map<String, Object>> report = new ArrayList<>();
+        for (Map.Entry<String, Double> entry : hottest) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("key", entry.getKey());
+            row.put("requestsInWindow", Math.round(entry.getValue()));
+            report.add(row);
+        }
+        return report;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("shared", sharedStateStore.isShared());
+        stats.put("trackedKeys", windows.size());
+        stats.put("rejections", rejections.sum());
+        stats.put("evictions", evictions.sum());
+        stats.put("untrackedRequests", untracked.sum());
+        Map<String, Object> configured = new LinkedHashMap<>();
+        policies.forEach((name, policy) -> configured.put(name,
+                Map.of("limit", policy.limit(), "windowMs", policy.windowMs())));
+        stats.put("policies", configured);
+        return stats;
+    }
+
+    private long acquireLocal(String key, int maxRequests, long windowMs, long now) {
+        long[] retryAfterMs = new long[1];
+        windows.compute(key, (k, window) -> {
+            if (window == null) {
+                window = new Window(windowMs);
+            }
+            window.roll(now);
+            double elapsed = (double) (now % window.windowMs) / window.windowMs;
+            if (window.previous * (1 - elapsed) + window.current + 1 <= maxRequests) {
+                window.current++;
+            } else {
+                retryAfterMs[0] = retryAfterMs(window.previous, window.current, maxRequests, elapsed, window.windowMs);
+            }
+            window.lastSeen = now;
+            return window;
+        });
+        return retryAfterMs[0];
+    }
+
+    private long acquireShared(String key, int maxRequests, long windowMs, boolean nearCached, long now) {
+        long bucket = now / windowMs;
+        double elapsed = (double) (now % windowMs) / windowMs;
+        String currentKey = "rate:" + key + ":" + bucket;
+        Duration ttl = Duration.ofMillis(2 * windowMs);
+
+        long previous = nearCached
+                ? sharedStateStore.getNearCached("rate:" + key + ":" + (bucket - 1))
+                : sharedStateStore.get("rate:" + key + ":" + (bucket - 1));
+        long current = nearCached
+                ? sharedStateStore.incrementNearCached(currentKey, 1, ttl)
+                : sharedStateStore.increment(currentKey, 1, ttl);
+
+        if (previous * (1 - elapsed) + current <= maxRequests) {
+            return 0;
+        }
+
+        if (nearCached) {
+            sharedStateStore.incrementNearCached(currentKey, -1, ttl);
+        } else {
+            sharedStateStore.increment(currentKey, -1, ttl);
+        }
+        return retryAfterMs(previous, current - 1, maxRequests, elapsed, windowMs);
+    }
+
+    // Time until previous * (1 - elapsed) + current + 1 fits in maxRequests, moving into the next bucket if needed
+    private static long retryAfterMs(long previous, long current, int maxRequests, double elapsed, long windowMs) {
+        if (current + 1 <= maxRequests && previous > 0) {
+            double needed = 1 - (double) (maxRequests - current - 1) / previous;
+            return Math.max(1, (long) Math.ceil((needed - elapsed) * windowMs));
+        }
+        double neededNext = current == 0 ? 0 : Math.max(0, 1 - (double) (maxRequests - 1) / current);
+        return Math.max(1, (long) Math.ceil((1 - elapsed + neededNext) * windowMs));
+    }
+
+    private Policy loadPolicy(String name) {
+        int sharedLimit = environment.getProperty("rate-limiter.limit", Integer.class, 10);
+        long sharedWindowSeconds = environment.getProperty("rate-limiter.window-seconds", Long.class, 60L);
+        int limit = environment.getProperty("rate-limiter." + name + ".limit", Integer.class, sharedLimit);
+        long windowSeconds = environment.getProperty(
+                "rate-limiter." + name + ".window-seconds", Long.class, sharedWindowSeconds);
+        return new Policy(limit, Duration.ofSeconds(windowSeconds).toMillis());
+    }
+
+    private record Policy(int limit, long windowMs) {
+    }
+
+    // Mutated only inside windows.compute; volatile so reports and eviction read whole values
+    private static final class Window {
+        private final long windowMs;
+        private volatile long bucket;
+        private volatile long previous;
+        private volatile long current;
+        private volatile long lastSeen;
+
+        Window(long windowMs) {
+            this.windowMs = windowMs;
+        }
+
+        void roll(long now) {
+            long nowBucket = now / windowMs;
+            if (nowBucket == bucket) {
+                return;
+            }
+            previous = nowBucket == bucket + 1 ? current : 0;
+            current = 0;
+            bucket = nowBucket;
+        }
+
+        double estimate(long now) {
+            long nowBucket = now / windowMs;
+            double elapsed = (double) (now % windowMs) / windowMs;
+            if (nowBucket == bucket) {
+                return previous * (1 - elapsed) + current;
+            }
+            return nowBucket == bucket + 1 ? current * (1 - elapsed) : 0;
+        }
+
+        boolean isIdle(long now) {
+            return now - lastSeen >= 2 * windowMs;
         }
     }
 }
@@ -11,15 +11,14 @@ import com.slimbahael.beauty_center.model.User;
 import com.slimbahael.beauty_center.repository.OrderRepository;
 import com.slimbahael.beauty_center.repository.ProductRepository;
 import com.slimbahael.beauty_center.repository.RatingRepository;
-import com.slimbahael.beauty_center.repository.UserRepository;
+import com.slimbahael.beauty_center.security.CurrentUserResolver;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -30,8 +29,9 @@ public class RatingService {
 
     private final RatingRepository ratingRepository;
     private final ProductRepository productRepository;
-    private final UserRepository userRepository;
+    private final CurrentUserResolver currentUserResolver;
     private final OrderRepository orderRepository;
+    private final ProductCatalogCache catalogCache;
 
     public List<RatingResponse> getProductRatings(String productId) {
         return ratingRepository.findByProductIdOrderByCreatedAtDesc(productId)
@@ -41,12 +41,7 @@ public class RatingService {
     }
 
     public RatingResponse createOrUpdateRating(RatingRequest request) {
-        // Get current authenticated user
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-
-        User customer = userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        User customer = currentUserResolver.getCurrentUser();
 
         // Verify product exists
         Product product = productRepository.findById(request.getProductId())
@@ -57,9 +52,11 @@ public class RatingService {
                 request.getProductId(), customer.getId());
 
         Rating rating;
+        Integer previousStars = null;
         if (existingRating.isPresent()) {
             // Update existing rating
             rating = existingRating.get();
+            previousStars = rating.getRating();
             rating.setRating(request.getRating());
             rating.setComment(request.getComment());
             rating.setUpdatedAt(new Date());
@@ -82,16 +79,13 @@ public class RatingService {
         }
 
         Rating savedRating = ratingRepository.save(rating);
+        productRepository.applyRatingChange(product.getId(), previousStars, savedRating.getRating());
+        catalogCache.invalidateProduct(product.getId());
         return mapRatingToResponse(savedRating);
     }
 
     public void deleteRating(String ratingId) {
-        // Get current authenticated user
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        User user = currentUserResolver.getCurrentUser();
 
         Rating rating = ratingRepository.findById(ratingId)
                 .orElseThrow(() -> new ResourceNotFoundException("Rating not found"));
@@ -102,25 +96,37 @@ public class RatingService {
         }
 
         ratingRepository.delete(rating);
+        productRepository.applyRatingChange(rating.getProductId(), rating.getRating(), null);
+        catalogCache.invalidateProduct(rating.getProductId());
         log.info("Rating {} deleted by user {}", ratingId, user.getId());
     }
 
     public Double getProductAverageRating(String productId) {
-        List<Rating> ratings = ratingRepository.findByProductId(productId);
-        if (ratings.isEmpty()) {
-            return 0.0;
-        }
+        Product.RatingSummary summary = getProductRatingSummary(productId);
+        return summary != null ? summary.average() : 0.0;
+    }
 
-        double average = ratings.stream()
-                .mapToInt(Rating::getRating)
-                .average()
-                .orElse(0.0);
+    public long getProductRatingCount(String productId) {
+        Product.RatingSummary summary = getProductRatingSummary(productId);
+        return summary != null ? summary.getCount() : 0L;
+    }
 
-        return Math.round(average * 10.0) / 10.0; // Round to 1 decimal place
+    /**
+     * Recomputes every product's rating summary from the ratings collection, correcting any drift
+     * from the incremental updates (e.g. a product saved concurrently with a rating change).
+     */
+    public long rebuildRatingSummaries() {
+        Map<String, Product.RatingSummary> summaries = ratingRepository.summarizeRatingsByProduct();
+        long updated = productRepository.replaceRatingSummaries(summaries);
+        catalogCache.invalidateAll();
+        log.info("Rebuilt rating summaries: {} rated products, {} products updated", summaries.size(), updated);
+        return updated;
     }
 
-    public long getProductRatingCount(String productId) {
-        return ratingRepository.countByProductId(productId);
+    private Product.RatingSummary getProductRatingSummary(String productId) {
+        return productRepository.findById(productId)
+                .map(Product::getRatingSummary)
+                .orElse(null);
     }
 
     // Check if customer has purchased this product (for verified reviews)
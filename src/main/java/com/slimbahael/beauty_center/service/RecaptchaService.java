@@ -9,14 +9,14 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
-import org.springframework.web.client.RestTemplate;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class RecaptchaService {
 
-    private final RestTemplate restTemplate;
+    private final OutboundHttpClients outboundHttpClients;
+    private final IntegrationGuard integrationGuard;
 
     @Value("${recaptcha.secret.key}")
     private String recaptchaSecretKey;
@@ -37,7 +37,9 @@ public class RecaptchaService {
 
         HttpEntity<MultiValueMap<String, String>> request = new HttpEntity<>(params, headers);
         try {
-            ResponseEntity<String> response = restTemplate.postForEntity(VERIFY_URL, request, String.class);
+            ResponseEntity<String> response = integrationGuard.execute(IntegrationGuard.RECAPTCHA, () ->
+                    outboundHttpClients.forIntegration(OutboundHttpClients.RECAPTCHA).postForEntity(VERIFY_URL, request, String.class),
+                    IntegrationGuard::isServerOrIoError);
             String body = response.getBody();
             return body != null && body.contains("\"success\": true");
         } catch (Exception e) {
@@ -8,14 +8,14 @@ import com.slimbahael.beauty_center.model.Service;
 import com.slimbahael.beauty_center.model.ServiceAddon;
 import com.slimbahael.beauty_center.model.User;
 import com.slimbahael.beauty_center.repository.ReservationRepository;
-import com.slimbahael.beauty_center.repository.ServiceAddonRepository;
-import com.slimbahael.beauty_center.repository.ServiceRepository;
 import com.slimbahael.beauty_center.repository.UserRepository;
+import com.slimbahael.beauty_center.security.CurrentUserResolver;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
 
 import java.math.BigDecimal;
 import java.text.SimpleDateFormat;
@@ -28,57 +28,48 @@ public class ReservationService {
 
     private final ReservationRepository reservationRepository;
     private final UserRepository userRepository;
-    private final ServiceRepository serviceRepository;
-    private final ServiceAddonRepository serviceAddonRepository;
+    private final CurrentUserResolver currentUserResolver;
     private final SmsService smsService;
     private final EmailService emailService;
+    private final CursorPaginationService cursorPaginationService;
+    private final ServiceCatalogCache serviceCatalogCache;
+    private final AvailabilityService availabilityService;
+    private final MongoIndexService mongoIndexService;
 
     private static final Logger log = LoggerFactory.getLogger(ReservationService.class);
 
-    public List<ReservationResponse> getAllReservations() {
-        return reservationRepository.findAll()
-                .stream()
-                .map(this::mapReservationToResponse)
-                .collect(Collectors.toList());
+    public CursorPage<ReservationResponse> getAllReservations(String cursor, int limit) {
+        return cursorPaginationService.findPage(null, Reservation.class,
+                        "reservationDate", Sort.Direction.DESC, Reservation::getReservationDate, Reservation::getId,
+                        cursor, limit)
+                .map(this::mapReservationsToResponses);
     }
 
-    public List<ReservationResponse> getReservationsByCustomer() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-
-        User customer = userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+    public CursorPage<ReservationResponse> getReservationsByCustomer(String cursor, int limit) {
+        User customer = currentUserResolver.getCurrentUser();
 
-        return reservationRepository.findByCustomerId(customer.getId())
-                .stream()
-                .map(this::mapReservationToResponse)
-                .sorted(Comparator.comparing(ReservationResponse::getReservationDate).reversed())
-                .collect(Collectors.toList());
+        // Most recent first
+        return cursorPaginationService.findPage(Criteria.where("customerId").is(customer.getId()), Reservation.class,
+                        "reservationDate", Sort.Direction.DESC, Reservation::getReservationDate, Reservation::getId,
+                        cursor, limit)
+                .map(this::mapReservationsToResponses);
     }
 
-    public List<ReservationResponse> getReservationsByStaff() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
+    public CursorPage<ReservationResponse> getReservationsByStaff(String cursor, int limit) {
+        User staff = currentUserResolver.getCurrentUser();
 
-        User staff = userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
-
-        return reservationRepository.findByStaffId(staff.getId())
-                .stream()
-                .map(this::mapReservationToResponse)
-                .sorted(Comparator.comparing(ReservationResponse::getReservationDate))
-                .collect(Collectors.toList());
+        // Upcoming first
+        return cursorPaginationService.findPage(Criteria.where("staffId").is(staff.getId()), Reservation.class,
+                        "reservationDate", Sort.Direction.ASC, Reservation::getReservationDate, Reservation::getId,
+                        cursor, limit)
+                .map(this::mapReservationsToResponses);
     }
 
     public ReservationResponse getReservationById(String id) {
         Reservation reservation = reservationRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Reservation not found"));
 
-        // Check if user is authorized to view this reservation
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        User user = currentUserResolver.getCurrentUser();
 
         // Admin can see all reservations, staff can see their assigned ones,
         // customers can see only their own reservations
@@ -92,15 +83,11 @@ public class ReservationService {
     }
 
     public ReservationResponse createReservation(CreateReservationRequest request) {
-        // Get authenticated user (customer)
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-
-        User customer = userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        User customer = currentUserResolver.getCurrentUser();
+        ServiceCatalogSnapshot catalog = serviceCatalogCache.snapshot();
 
         // Validate service exists
-        Service service = serviceRepository.findById(request.getServiceId())
+        Service service = catalog.findService(request.getServiceId())
                 .orElseThrow(() -> new ResourceNotFoundException("Service not found"));
 
         // Validate staff exists and is assigned to this service
@@ -111,7 +98,7 @@ public class ReservationService {
             throw new BadRequestException("Selected user is not a staff member");
         }
 
-        if (service.getAssignedStaffIds() == null || !service.getAssignedStaffIds().contains(staff.getId())) {
+        if (!catalog.isStaffAssigned(service.getId(), staff.getId())) {
             throw new BadRequestException("Selected staff is not assigned to this service");
         }
 
@@ -144,17 +131,6 @@ public class ReservationService {
             throw new BadRequestException("Staff does not work on the selected day");
         }
 
-        // Check if staff is already booked in the selected time slot
-        List<Reservation> existingReservations = reservationRepository
-                .findByStaffIdAndReservationDateAndTimeSlot(
-                        request.getStaffId(),
-                        request.getReservationDate(),
-                        request.getTimeSlot());
-
-        if (!existingReservations.isEmpty()) {
-            throw new BadRequestException("Staff is already booked for the selected time slot");
-        }
-
         // Calculate total price
         BigDecimal totalAmount = service.getPrice();
 
@@ -162,12 +138,11 @@ public class ReservationService {
         List<String> addonIds = request.getAddonIds();
         if (addonIds != null && !addonIds.isEmpty()) {
             for (String addonId : addonIds) {
-                ServiceAddon addon = serviceAddonRepository.findById(addonId)
+                ServiceAddon addon = catalog.findAddon(addonId)
                         .orElseThrow(() -> new ResourceNotFoundException("Service addon not found"));
 
                 // Validate addon is compatible with the selected service
-                if (addon.getCompatibleServiceIds() == null ||
-                        !addon.getCompatibleServiceIds().contains(service.getId())) {
+                if (!catalog.isAddonCompatible(service.getId(), addonId)) {
                     throw new BadRequestException("Selected addon is not compatible with the service");
                 }
 
@@ -191,7 +166,9 @@ public class ReservationService {
                 .smsReminderSent(false)
                 .build();
 
-        Reservation savedReservation = reservationRepository.save(reservation);
+        // The unique slot index rejects a second active reservation for the same staff, date and slot
+        Reservation savedReservation = saveClaimingSlot(reservation);
+        ReservationResponse reservationResponse = mapReservationToResponse(savedReservation);
 
         // Send SMS notification to staff
         try {
@@ -214,13 +191,13 @@ public class ReservationService {
         try {
             emailService.sendReservationConfirmationEmail(
                 customer.getEmail(),
-                mapReservationToResponse(savedReservation)
+                reservationResponse
             );
         } catch (Exception e) {
             log.error("Failed to send reservation confirmation email for reservation {}: {}", savedReservation.getId(), e.getMessage());
         }
 
-        return mapReservationToResponse(savedReservation);
+        return reservationResponse;
     }
 
     public ReservationResponse updateReservationStatus(String id, String status) {
@@ -232,11 +209,7 @@ public class ReservationService {
         Reservation reservation = reservationRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Reservation not found"));
 
-        // Check authorization
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        User user = currentUserResolver.getCurrentUser();
 
         // Only admin, assigned staff, or the customer can update status
         if (!user.getRole().equals("ADMIN") &&
@@ -253,7 +226,8 @@ public class ReservationService {
         reservation.setStatus(status);
         reservation.setUpdatedAt(new Date());
 
-        Reservation updatedReservation = reservationRepository.save(reservation);
+        // Re-activating a cancelled reservation can collide with a newer booking of the same slot
+        Reservation updatedReservation = saveClaimingSlot(reservation);
 
         // Send notification when reservation is cancelled or completed
         if (status.equals("CANCELLED") || status.equals("COMPLETED")) {
@@ -263,7 +237,7 @@ public class ReservationService {
             User staff = userRepository.findById(reservation.getStaffId())
                     .orElseThrow(() -> new ResourceNotFoundException("Staff not found"));
 
-            Service service = serviceRepository.findById(reservation.getServiceId())
+            Service service = serviceCatalogCache.snapshot().findService(reservation.getServiceId())
                     .orElseThrow(() -> new ResourceNotFoundException("Service not found"));
 
             // Notify staff about cancellation
@@ -293,113 +267,86 @@ public class ReservationService {
     }
 
     public AvailabilityResponse checkAvailability(AvailabilityRequest request) {
-        // Validate service
-        Service service = serviceRepository.findById(request.getServiceId())
-                .orElseThrow(() -> new ResourceNotFoundException("Service not found"));
-
-        // Get assigned staff for the service
-        List<String> assignedStaffIds = service.getAssignedStaffIds();
-        if (assignedStaffIds == null || assignedStaffIds.isEmpty()) {
-            throw new BadRequestException("No staff assigned to this service");
-        }
-
-        // Get day of week for the requested date
-        Calendar calendar = Calendar.getInstance();
-        calendar.setTime(request.getDate());
-        int dayOfWeek = calendar.get(Calendar.DAY_OF_WEEK);
-        String[] daysOfWeek = {"", "SUNDAY", "MONDAY", "TUESDAY", "WEDNESDAY", "THURSDAY", "FRIDAY", "SATURDAY"};
-        String dayOfWeekString = daysOfWeek[dayOfWeek];
+        return availabilityService.getAvailability(request);
+    }
 
-        // Check which staff are available on this day
-        List<User> assignedStaff = userRepository.findAllById(assignedStaffIds);
-        List<User> availableStaff = assignedStaff.stream()
-                .filter(staff -> staff.getWorkDays() != null && staff.getWorkDays().contains(dayOfWeekString))
-                .collect(Collectors.toList());
+    public AvailabilityRangeResponse checkAvailabilityRange(AvailabilityRangeRequest request) {
+        return availabilityService.getAvailability(request);
+    }
 
-        if (availableStaff.isEmpty()) {
-            return AvailabilityResponse.builder()
-                    .date(request.getDate())
-                    .morningAvailable(false)
-                    .eveningAvailable(false)
-                    .availableStaff(new ArrayList<>())
-                    .build();
+    // Saves a reservation, turning a unique slot index violation into the "already booked" error
+    private Reservation saveClaimingSlot(Reservation reservation) {
+        if (!"CANCELLED".equals(reservation.getStatus())
+                && !mongoIndexService.isUniqueIndexEnforced("reservations", MongoIndexService.STAFF_SLOT_INDEX)) {
+            // Until the unique index is verified (or if it could not be built), fall back to checking the slot first
+            boolean slotTaken = reservationRepository
+                    .findByStaffIdAndReservationDateAndTimeSlot(
+                            reservation.getStaffId(), reservation.getReservationDate(), reservation.getTimeSlot())
+                    .stream()
+                    .anyMatch(existing -> !"CANCELLED".equals(existing.getStatus())
+                            && !existing.getId().equals(reservation.getId()));
+            if (slotTaken) {
+                throw new BadRequestException("Staff is already booked for the selected time slot");
+            }
         }
-
-        // Check existing reservations for this date
-        List<Reservation> existingReservations = reservationRepository.findByReservationDate(request.getDate());
-
-        // Prepare staff availability map for morning
-        Map<String, Boolean> staffMorningAvailability = new HashMap<>();
-        for (User staff : availableStaff) {
-            boolean isAvailableMorning = service.isAvailableMorning() &&
-                    staff.getMorningShift() != null && staff.getMorningShift().equals("YES");
-            staffMorningAvailability.put(staff.getId(), isAvailableMorning);
+        try {
+            return reservationRepository.save(reservation);
+        } catch (DuplicateKeyException e) {
+            throw new BadRequestException("Staff is already booked for the selected time slot");
         }
+    }
 
-        // Prepare staff availability map for evening
-        Map<String, Boolean> staffEveningAvailability = new HashMap<>();
-        for (User staff : availableStaff) {
-            boolean isAvailableEvening = service.isAvailableEvening() &&
-                    staff.getEveningShift() != null && staff.getEveningShift().equals("YES");
-            staffEveningAvailability.put(staff.getId(), isAvailableEvening);
-        }
+    // Helper method to map Reservation entity to ReservationResponse DTO
+    private ReservationResponse mapReservationToResponse(Reservation reservation) {
+        return mapReservationsToResponses(List.of(reservation)).get(0);
+    }
 
-        // Update availability based on existing reservations
-        for (Reservation existingReservation : existingReservations) {
-            if (existingReservation.getTimeSlot().equals("MORNING")) {
-                staffMorningAvailability.put(existingReservation.getStaffId(), false);
-            } else if (existingReservation.getTimeSlot().equals("EVENING")) {
-                staffEveningAvailability.put(existingReservation.getStaffId(), false);
-            }
+    // Maps a batch of reservations with one user query; services and addons come from the catalog snapshot.
+    private List<ReservationResponse> mapReservationsToResponses(List<Reservation> reservations) {
+        if (reservations.isEmpty()) {
+            return new ArrayList<>();
         }
 
-        // Build staff availability response list
-        List<AvailabilityResponse.StaffAvailability> staffAvailabilities = new ArrayList<>();
-        for (User staff : availableStaff) {
-            boolean availableMorning = staffMorningAvailability.getOrDefault(staff.getId(), false);
-            boolean availableEvening = staffEveningAvailability.getOrDefault(staff.getId(), false);
-
-            if (availableMorning || availableEvening) {
-                staffAvailabilities.add(AvailabilityResponse.StaffAvailability.builder()
-                        .staffId(staff.getId())
-                        .staffName(staff.getFirstName() + " " + staff.getLastName())
-                        .staffImage(staff.getProfileImage())
-                        .availableMorning(availableMorning)
-                        .availableEvening(availableEvening)
-                        .build());
-            }
+        Set<String> userIds = new HashSet<>();
+        for (Reservation reservation : reservations) {
+            userIds.add(reservation.getCustomerId());
+            userIds.add(reservation.getStaffId());
         }
 
-        boolean morningAvailable = staffAvailabilities.stream().anyMatch(AvailabilityResponse.StaffAvailability::isAvailableMorning);
-        boolean eveningAvailable = staffAvailabilities.stream().anyMatch(AvailabilityResponse.StaffAvailability::isAvailableEvening);
+        Map<String, User> usersById = userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getId, user -> user));
+        ServiceCatalogSnapshot catalog = serviceCatalogCache.snapshot();
 
-        return AvailabilityResponse.builder()
-                .date(request.getDate())
-                .morningAvailable(morningAvailable)
-                .eveningAvailable(eveningAvailable)
-                .availableStaff(staffAvailabilities)
-                .build();
+        return reservations.stream()
+                .map(reservation -> buildReservationResponse(reservation, usersById, catalog))
+                .collect(Collectors.toList());
     }
 
-    // Helper method to map Reservation entity to ReservationResponse DTO
-    private ReservationResponse mapReservationToResponse(Reservation reservation) {
+    private ReservationResponse buildReservationResponse(Reservation reservation,
+                                                         Map<String, User> usersById,
+                                                         ServiceCatalogSnapshot catalog) {
         // Get customer info
-        User customer = userRepository.findById(reservation.getCustomerId())
-                .orElseThrow(() -> new ResourceNotFoundException("Customer not found"));
+        User customer = usersById.get(reservation.getCustomerId());
+        if (customer == null) {
+            throw new ResourceNotFoundException("Customer not found");
+        }
 
         // Get staff info
-        User staff = userRepository.findById(reservation.getStaffId())
-                .orElseThrow(() -> new ResourceNotFoundException("Staff not found"));
+        User staff = usersById.get(reservation.getStaffId());
+        if (staff == null) {
+            throw new ResourceNotFoundException("Staff not found");
+        }
 
         // Get service info
-        Service service = serviceRepository.findById(reservation.getServiceId())
+        Service service = catalog.findService(reservation.getServiceId())
                 .orElseThrow(() -> new ResourceNotFoundException("Service not found"));
 
         // Get addon info if any
         List<ReservationResponse.ServiceAddonInfo> addonInfoList = new ArrayList<>();
-        if (reservation.getAddonIds() != null && !reservation.getAddonIds().isEmpty()) {
-            List<ServiceAddon> addons = serviceAddonRepository.findAllById(reservation.getAddonIds());
-            addonInfoList = addons.stream()
+        if (reservation.getAddonIds() != null) {
+            addonInfoList = reservation.getAddonIds().stream()
+                    .map(catalog::findAddon)
+                    .flatMap(Optional::stream)
                     .map(addon -> ReservationResponse.ServiceAddonInfo.builder()
                             .id(addon.getId())
                             .name(addon.getName())
@@ -426,4 +373,4 @@ public class ReservationService {
                 .smsReminderSent(reservation.isSmsReminderSent())
                 .build();
     }
-}
\ No newline at end of file
+}
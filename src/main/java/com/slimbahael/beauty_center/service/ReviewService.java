@@ -10,7 +10,6 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 import org.springframework.web.client.HttpClientErrorException;
 
 import java.time.LocalDateTime;
@@ -27,7 +26,8 @@ import java.util.regex.Pattern;
 public class ReviewService {
 
     private final ReviewRepository reviewRepository;
-    private final RestTemplate restTemplate;
+    private final OutboundHttpClients outboundHttpClients;
+    private final IntegrationGuard integrationGuard;
 
     @Value("${serpapi.api.key}")
     private String serpApiKey;
@@ -50,7 +50,9 @@ public class ReviewService {
                 String url = buildSerpApiUrl(nextPageToken);
                 log.info("Fetching page {} from SerpAPI: {}", page, url);
 
-                SerpApiResponse response = restTemplate.getForObject(url, SerpApiResponse.class);
+                SerpApiResponse response = integrationGuard.execute(IntegrationGuard.SERPAPI, () ->
+                        outboundHttpClients.forIntegration(OutboundHttpClients.SERPAPI).getForObject(url, SerpApiResponse.class),
+                        IntegrationGuard::isServerOrIoError);
 
                 if (response == null || response.getReviews() == null || response.getReviews().isEmpty()) {
                     log.info("No more reviews found. Ending fetch.");
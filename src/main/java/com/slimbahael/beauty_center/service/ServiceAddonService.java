@@ -18,30 +18,32 @@ public class ServiceAddonService {
 
     private final ServiceAddonRepository serviceAddonRepository;
     private final ServiceRepository serviceRepository;
+    private final ServiceCatalogCache serviceCatalogCache;
 
     public List<ServiceAddonResponse> getAllServiceAddons() {
-        return serviceAddonRepository.findAll()
+        return serviceCatalogCache.snapshot().getAddons()
                 .stream()
                 .map(this::mapServiceAddonToResponse)
                 .collect(Collectors.toList());
     }
 
     public List<ServiceAddonResponse> getActiveServiceAddons() {
-        return serviceAddonRepository.findByActiveIsTrue()
+        return serviceCatalogCache.snapshot().getAddons()
                 .stream()
+                .filter(ServiceAddon::isActive)
                 .map(this::mapServiceAddonToResponse)
                 .collect(Collectors.toList());
     }
 
     public List<ServiceAddonResponse> getServiceAddonsByServiceId(String serviceId) {
-        return serviceAddonRepository.findByCompatibleServiceIdsContaining(serviceId)
+        return serviceCatalogCache.snapshot().getCompatibleAddons(serviceId)
                 .stream()
                 .map(this::mapServiceAddonToResponse)
                 .collect(Collectors.toList());
     }
 
     public ServiceAddonResponse getServiceAddonById(String id) {
-        ServiceAddon serviceAddon = serviceAddonRepository.findById(id)
+        ServiceAddon serviceAddon = serviceCatalogCache.snapshot().findAddon(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Service addon not found with id: " + id));
         return mapServiceAddonToResponse(serviceAddon);
     }
@@ -60,6 +62,7 @@ public class ServiceAddonService {
                 .build();
 
         ServiceAddon savedServiceAddon = serviceAddonRepository.save(serviceAddon);
+        serviceCatalogCache.refresh();
         return mapServiceAddonToResponse(savedServiceAddon);
     }
 
@@ -78,6 +81,7 @@ public class ServiceAddonService {
         existingServiceAddon.setActive(request.isActive());
 
         ServiceAddon updatedServiceAddon = serviceAddonRepository.save(existingServiceAddon);
+        serviceCatalogCache.refresh();
         return mapServiceAddonToResponse(updatedServiceAddon);
     }
 
@@ -86,6 +90,7 @@ public class ServiceAddonService {
             throw new ResourceNotFoundException("Service addon not found with id: " + id);
         }
         serviceAddonRepository.deleteById(id);
+        serviceCatalogCache.refresh();
     }
 
     // Helper method to validate service IDs
@@ -0,0 +1,63 @@
+package com.slimbahael.beauty_center.service;
+
+import com.slimbahael.beauty_center.repository.ServiceAddonRepository;
+import com.slimbahael.beauty_center.repository.ServiceRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the current {@link ServiceCatalogSnapshot}. Services and addons are read on every catalog
+ * page, booking and availability check but only change through admin writes, which call
+ * {@link #refresh()} to swap in a rebuilt snapshot. The periodic refresh picks up writes made
+ * by other instances.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ServiceCatalogCache {
+
+    private final ServiceRepository serviceRepository;
+    private final ServiceAddonRepository serviceAddonRepository;
+
+    private final AtomicReference<ServiceCatalogSnapshot> current = new AtomicReference<>();
+    // Bumped by every refresh so an older, slower rebuild never replaces a newer one
+    private final AtomicLong version = new AtomicLong();
+    private long installedVersion = -1;
+
+    public ServiceCatalogSnapshot snapshot() {
+        ServiceCatalogSnapshot snapshot = current.get();
+        return snapshot != null ? snapshot : refresh();
+    }
+
+    /**
+     * Reloads all services and addons and atomically replaces the snapshot.
+     */
+    public ServiceCatalogSnapshot refresh() {
+        long refreshVersion = version.incrementAndGet();
+        ServiceCatalogSnapshot rebuilt = ServiceCatalogSnapshot.of(
+                serviceRepository.findAll(), serviceAddonRepository.findAll());
+
+        synchronized (this) {
+            if (refreshVersion > installedVersion) {
+                installedVersion = refreshVersion;
+                current.set(rebuilt);
+            }
+            return current.get();
+        }
+    }
+
+    // Refresh every minute
+    @Scheduled(fixedDelayString = "${catalog.services.refresh-ms:60000}")
+    public void scheduledRefresh() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            log.error("Service catalog refresh failed, keeping the previous snapshot: {}", e.getMessage());
+        }
+    }
+}
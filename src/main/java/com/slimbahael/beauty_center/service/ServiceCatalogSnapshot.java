@@ -0,0 +1,97 @@
+package com.slimbahael.beauty_center.service;
+
+import com.slimbahael.beauty_center.model.Service;
+import com.slimbahael.beauty_center.model.ServiceAddon;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Immutable view of every service and addon, with the lookups booking needs precomputed:
+ * services and addons by id, compatible addons per service and assigned staff per service.
+ * The contained entities are shared between requests and must be treated as read-only.
+ */
+public final class ServiceCatalogSnapshot {
+
+    private static final ServiceCatalogSnapshot EMPTY = of(List.of(), List.of());
+
+    private final List<Service> services;
+    private final List<ServiceAddon> addons;
+    private final Map<String, Service> servicesById;
+    private final Map<String, ServiceAddon> addonsById;
+    private final Map<String, Map<String, ServiceAddon>> compatibleAddonsByServiceId;
+    private final Map<String, Set<String>> staffIdsByServiceId;
+
+    private ServiceCatalogSnapshot(List<Service> services, List<ServiceAddon> addons) {
+        this.services = List.copyOf(services);
+        this.addons = List.copyOf(addons);
+
+        Map<String, Service> serviceIndex = new LinkedHashMap<>();
+        Map<String, Set<String>> staffIndex = new LinkedHashMap<>();
+        for (Service service : services) {
+            serviceIndex.put(service.getId(), service);
+            staffIndex.put(service.getId(), service.getAssignedStaffIds() != null
+                    ? Set.copyOf(service.getAssignedStaffIds())
+                    : Set.of());
+        }
+
+        Map<String, ServiceAddon> addonIndex = new LinkedHashMap<>();
+        Map<String, Map<String, ServiceAddon>> compatibleIndex = new LinkedHashMap<>();
+        for (ServiceAddon addon : addons) {
+            addonIndex.put(addon.getId(), addon);
+            if (addon.getCompatibleServiceIds() != null) {
+                for (String serviceId : addon.getCompatibleServiceIds()) {
+                    compatibleIndex.computeIfAbsent(serviceId, id -> new LinkedHashMap<>())
+                            .put(addon.getId(), addon);
+                }
+            }
+        }
+        compatibleIndex.replaceAll((serviceId, compatible) -> Collections.unmodifiableMap(compatible));
+
+        this.servicesById = Collections.unmodifiableMap(serviceIndex);
+        this.addonsById = Collections.unmodifiableMap(addonIndex);
+        this.compatibleAddonsByServiceId = Collections.unmodifiableMap(compatibleIndex);
+        this.staffIdsByServiceId = Collections.unmodifiableMap(staffIndex);
+    }
+
+    public static ServiceCatalogSnapshot of(List<Service> services, List<ServiceAddon> addons) {
+        return new ServiceCatalogSnapshot(services, addons);
+    }
+
+    public static ServiceCatalogSnapshot empty() {
+        return EMPTY;
+    }
+
+    public List<Service> getServices() {
+        return services;
+    }
+
+    public List<ServiceAddon> getAddons() {
+        return addons;
+    }
+
+    public Optional<Service> findService(String serviceId) {
+        return Optional.ofNullable(servicesById.get(serviceId));
+    }
+
+    public Optional<ServiceAddon> findAddon(String addonId) {
+        return Optional.ofNullable(addonsById.get(addonId));
+    }
+
+    public Collection<ServiceAddon> getCompatibleAddons(String serviceId) {
+        return compatibleAddonsByServiceId.getOrDefault(serviceId, Map.of()).values();
+    }
+
+    public boolean isAddonCompatible(String serviceId, String addonId) {
+        return compatibleAddonsByServiceId.getOrDefault(serviceId, Map.of()).containsKey(addonId);
+    }
+
+    public boolean isStaffAssigned(String serviceId, String staffId) {
+        return staffIdsByServiceId.getOrDefault(serviceId, Set.of()).contains(staffId);
+    }
+}
@@ -0,0 +1,53 @@
+package com.slimbahael.beauty_center.service;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Counters and flags that every instance of the application must agree on: rate-limit windows,
+ * login lockouts and revoked tokens. Entries expire {@code ttl} after their last write. The
+ * backend is chosen with {@code shared-state.backend}: {@code memory} (default, single node) or
+ * {@code mongo}.
+ */
+public interface SharedStateStore {
+
+    /**
+     * Atomically adds {@code delta} and returns the new value. On a shared backend this is one
+     * round trip; use it where exact counts matter.
+     */
+    long increment(String key, long delta, Duration ttl);
+
+    /**
+     * Current value of a counter, 0 if absent or expired.
+     */
+    long get(String key);
+
+    /**
+     * Like {@link #increment} but may count locally and publish in the background, returning an
+     * estimate that lags other instances by at most the backend's flush interval. For per-request
+     * hot paths.
+     */
+    long incrementNearCached(String key, long delta, Duration ttl);
+
+    /**
+     * Estimate of a counter written through {@link #incrementNearCached}.
+     */
+    long getNearCached(String key);
+
+    void delete(String key);
+
+    void putFlag(String key, Duration ttl);
+
+    /**
+     * Whether a live flag exists. Shared backends may answer from a near-cache: flags set on this
+     * instance are seen at once, flags set elsewhere after a short delay.
+     */
+    boolean hasFlag(String key);
+
+    /**
+     * True when state is shared between instances, i.e. per-node limits are not enough.
+     */
+    boolean isShared();
+
+    Map<String, Object> getStats();
+}
@@ -1,17 +1,23 @@
 package com.slimbahael.beauty_center.service;
 
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 @Service
+@RequiredArgsConstructor
 @Slf4j
 public class SmsService {
 
+    private final NotificationDispatcher notificationDispatcher;
+
     public void sendSms(String phoneNumber, String message) {
-        // For now, we'll just log the SMS since we're implementing a mock
-        log.info("Sending SMS to {}: {}", phoneNumber, message);
+        notificationDispatcher.dispatch("SMS to " + phoneNumber, () -> {
+            // For now, we'll just log the SMS since we're implementing a mock
+            log.info("Sending SMS to {}: {}", phoneNumber, message);
 
-        // In a real implementation, you would integrate with an SMS service
-        // like Twilio, Vonage (formerly Nexmo), or any other SMS provider
+            // In a real implementation, you would integrate with an SMS service
+            // like Twilio, Vonage (formerly Nexmo), or any other SMS provider
+        });
     }
 }
\ No newline at end of file
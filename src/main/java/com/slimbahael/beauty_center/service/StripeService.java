@@ -23,6 +23,8 @@ import java.util.Map;
 @Slf4j
 public class StripeService {
 
+    private final IntegrationGuard integrationGuard;
+
     @Value("${app.frontend.url:https://succar-banat-fe.vercel.app}")
     private String frontendUrl;
 
@@ -59,7 +61,7 @@ public class StripeService {
                     .putMetadata("customer_email", customerEmail)
                     .build();
 
-            Session session = Session.create(params);
+            Session session = integrationGuard.execute(IntegrationGuard.STRIPE, () -> Session.create(params), StripeService::isOutage);
             log.info("Created Stripe Checkout Session: {} for reservation: {}", session.getId(), reservationId);
 
             return session;
@@ -103,7 +105,7 @@ public class StripeService {
                     .putMetadata("customer_email", customerEmail)
                     .build();
 
-            Session session = Session.create(params);
+            Session session = integrationGuard.execute(IntegrationGuard.STRIPE, () -> Session.create(params), StripeService::isOutage);
             log.info("Created Stripe Checkout Session: {} for gift card: {}", session.getId(), giftCardId);
 
             return session;
@@ -151,7 +153,7 @@ public class StripeService {
             }
 
             PaymentIntentCreateParams params = paramsBuilder.build();
-            PaymentIntent paymentIntent = PaymentIntent.create(params);
+            PaymentIntent paymentIntent = integrationGuard.execute(IntegrationGuard.STRIPE, () -> PaymentIntent.create(params), StripeService::isOutage);
 
             log.info("Created payment intent: {} for amount: €{}", paymentIntent.getId(), request.getAmount());
 
@@ -175,7 +177,7 @@ public class StripeService {
      */
     public PaymentIntent getPaymentIntent(String paymentIntentId) {
         try {
-            return PaymentIntent.retrieve(paymentIntentId);
+            return retrievePaymentIntent(paymentIntentId);
         } catch (StripeException e) {
             log.error("Failed to retrieve payment intent {}: {}", paymentIntentId, e.getMessage());
             throw new BadRequestException("Failed to retrieve payment intent: " + e.getMessage());
@@ -187,13 +189,13 @@ public class StripeService {
      */
     public PaymentIntent confirmPaymentIntent(String paymentIntentId, String paymentMethodId) {
         try {
-            PaymentIntent paymentIntent = PaymentIntent.retrieve(paymentIntentId);
+            PaymentIntent paymentIntent = retrievePaymentIntent(paymentIntentId);
 
             PaymentIntentConfirmParams params = PaymentIntentConfirmParams.builder()
                     .setPaymentMethod(paymentMethodId)
                     .build();
 
-            return paymentIntent.confirm(params);
+            return integrationGuard.execute(IntegrationGuard.STRIPE, () -> paymentIntent.confirm(params), StripeService::isOutage);
         } catch (StripeException e) {
             log.error("Failed to confirm payment intent {}: {}", paymentIntentId, e.getMessage());
             throw new BadRequestException("Failed to confirm payment: " + e.getMessage());
@@ -205,8 +207,8 @@ public class StripeService {
      */
     public PaymentIntent cancelPaymentIntent(String paymentIntentId) {
         try {
-            PaymentIntent paymentIntent = PaymentIntent.retrieve(paymentIntentId);
-            return paymentIntent.cancel();
+            PaymentIntent paymentIntent = retrievePaymentIntent(paymentIntentId);
+            return integrationGuard.execute(IntegrationGuard.STRIPE, paymentIntent::cancel, StripeService::isOutage);
         } catch (StripeException e) {
             log.error("Failed to cancel payment intent {}: {}", paymentIntentId, e.getMessage());
             throw new BadRequestException("Failed to cancel payment: " + e.getMessage());
@@ -218,7 +220,7 @@ public class StripeService {
      */
     public boolean isPaymentSucceeded(String paymentIntentId) {
         try {
-            PaymentIntent paymentIntent = PaymentIntent.retrieve(paymentIntentId);
+            PaymentIntent paymentIntent = retrievePaymentIntent(paymentIntentId);
             return "succeeded".equals(paymentIntent.getStatus());
         } catch (StripeException e) {
             log.error("Failed to check payment status for {}: {}", paymentIntentId, e.getMessage());
@@ -231,11 +233,31 @@ public class StripeService {
      */
     public String getPaymentStatus(String paymentIntentId) {
         try {
-            PaymentIntent paymentIntent = PaymentIntent.retrieve(paymentIntentId);
+            PaymentIntent paymentIntent = retrievePaymentIntent(paymentIntentId);
             return paymentIntent.getStatus();
         } catch (StripeException e) {
             log.error("Failed to get payment status for {}: {}", paymentIntentId, e.getMessage());
             return "unknown";
         }
     }
-}
+
+    /**
+     * Retrieve a Checkout Session by ID
+     */
+    public Session retrieveCheckoutSession(String sessionId) throws StripeException {
+        return integrationGuard.execute(IntegrationGuard.STRIPE, () -> Session.retrieve(sessionId), StripeService::isOutage);
+    }
+
+    private PaymentIntent retrievePaymentIntent(String paymentIntentId) throws StripeException {
+        return integrationGuard.execute(IntegrationGuard.STRIPE, () -> PaymentIntent.retrieve(paymentIntentId), StripeService::isOutage);
+    }
+
+    // Declines and invalid requests (4xx) are answers from a healthy Stripe, not outages
+    private static boolean isOutage(Exception e) {
+        if (e instanceof StripeException stripeException && stripeException.getStatusCode() != null) {
+            int status = stripeException.getStatusCode();
+            return status >= 500 || status == 429;
+        }
+        return true;
+    }
+}
\ No newline at end of file
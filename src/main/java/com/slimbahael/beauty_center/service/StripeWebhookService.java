@@ -0,0 +1,146 @@
+package com.slimbahael.beauty_center.service;
+
+import com.slimbahael.beauty_center.exception.BadRequestException;
+import com.slimbahael.beauty_center.model.StripeEventRecord;
+import com.slimbahael.beauty_center.repository.StripeEventRepository;
+import com.stripe.exception.EventDataObjectDeserializationException;
+import com.stripe.exception.SignatureVerificationException;
+import com.stripe.model.Event;
+import com.stripe.model.EventDataObjectDeserializer;
+import com.stripe.model.HasId;
+import com.stripe.model.PaymentIntent;
+import com.stripe.model.StripeObject;
+import com.stripe.model.checkout.Session;
+import com.stripe.net.Webhook;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Verifies Stripe webhook signatures, stores every event once in {@code stripe_events} and feeds
+ * PaymentIntent and Checkout Session events into the local payment state. A redelivered event
+ * that was already processed is acknowledged without being applied again; one whose processing
+ * failed is applied again, so Stripe's retries double as the replay mechanism.
+ */
+@Service
+@Slf4j
+public class StripeWebhookService {
+
+    private static final String RECEIVED = "RECEIVED";
+    private static final String PROCESSED = "PROCESSED";
+    private static final String FAILED = "FAILED";
+
+    private final StripeEventRepository stripeEventRepository;
+    private final PaymentStateService paymentStateService;
+    private final String webhookSecret;
+    private final long toleranceSeconds;
+
+    public StripeWebhookService(StripeEventRepository stripeEventRepository,
+                                PaymentStateService paymentStateService,
+                                @Value("${stripe.webhook.secret:}") String webhookSecret,
+                                @Value("${stripe.webhook.tolerance-seconds:300}") long toleranceSeconds) {
+        this.stripeEventRepository = stripeEventRepository;
+        this.paymentStateService = paymentStateService;
+        this.webhookSecret = webhookSecret;
+        this.toleranceSeconds = toleranceSeconds;
+    }
+
+    /**
+     * Verifies and ingests one webhook delivery. Returns false for an already processed event.
+     */
+    public boolean handle(String payload, String signatureHeader) {
+        if (webhookSecret == null || webhookSecret.isBlank()) {
+            throw new IllegalStateException("stripe.webhook.secret is not configured");
+        }
+        if (signatureHeader == null || signatureHeader.isBlank()) {
+            throw new BadRequestException("Missing Stripe-Signature header");
+        }
+
+        Event event;
+        try {
+            event = Webhook.constructEvent(payload, signatureHeader, webhookSecret, toleranceSeconds);
+        } catch (SignatureVerificationException e) {
+            log.warn("Rejected Stripe webhook with invalid signature: {}", e.getMessage());
+            throw new BadRequestException("Invalid Stripe signature");
+        }
+        return ingest(event, payload);
+    }
+
+    private boolean ingest(Event event, String payload) {
+        StripeObject object = deserialize(event);
+        Date eventCreatedAt = new Date(event.getCreated() * 1000);
+
+        StripeEventRecord record;
+        try {
+            record = stripeEventRepository.insert(StripeEventRecord.builder()
+                    .id(event.getId())
+                    .type(event.getType())
+                    .objectId(object instanceof HasId hasId ? hasId.getId() : null)
+                    .eventCreatedAt(eventCreatedAt)
+                    .payload(payload)
+                    .status(RECEIVED)
+                    .receivedAt(new Date())
+                    .build());
+        } catch (DuplicateKeyException e) {
+            record = stripeEventRepository.findById(event.getId()).orElseThrow(() -> e);
+            if (PROCESSED.equals(record.getStatus())) {
+                log.info("Stripe event {} ({}) already processed, skipping", event.getId(), event.getType());
+                return false;
+            }
+        }
+
+        record.setAttempts(record.getAttempts() + 1);
+        try {
+            apply(event, object, eventCreatedAt);
+            record.setStatus(PROCESSED);
+            record.setProcessedAt(new Date());
+            record.setLastError(null);
+            stripeEventRepository.save(record);
+            return true;
+        } catch (RuntimeException e) {
+            log.error("Failed to process Stripe event {} ({}): {}", event.getId(), event.getType(), e.getMessage(), e);
+            record.setStatus(FAILED);
+            record.setLastError(e.getMessage());
+            stripeEventRepository.save(record);
+            throw e;
+        }
+    }
+
+    private void apply(Event event, StripeObject object, Date eventCreatedAt) {
+        if (object instanceof PaymentIntent paymentIntent) {
+            paymentStateService.recordPaymentIntent(paymentIntent, eventCreatedAt, event.getId());
+            log.info("Stripe event {}: payment intent {} is now {}", event.getType(), paymentIntent.getId(), paymentIntent.getStatus());
+        } else if (object instanceof Session session) {
+            paymentStateService.recordCheckoutSession(session, eventCreatedAt, event.getId());
+            log.info("Stripe event {}: checkout session {} is now {}", event.getType(), session.getId(), session.getPaymentStatus());
+        } else {
+            log.debug("Ignoring Stripe event {} of type {}", event.getId(), event.getType());
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("processed", stripeEventRepository.countByStatus(PROCESSED));
+        stats.put("failed", stripeEventRepository.countByStatus(FAILED));
+        stats.put("paymentState", paymentStateService.getStats());
+        return stats;
+    }
+
+    // Events from an endpoint pinned to another API version only deserialize unsafely
+    private StripeObject deserialize(Event event) {
+        EventDataObjectDeserializer deserializer = event.getDataObjectDeserializer();
+        if (deserializer.getObject().isPresent()) {
+            return deserializer.getObject().get();
+        }
+        try {
+            return deserializer.deserializeUnsafe();
+        } catch (EventDataObjectDeserializationException e) {
+            throw new BadRequestException("Unreadable Stripe event " + event.getId() + ": " + e.getMessage());
+        }
+    }
+}
@@ -1,13 +1,16 @@
 package com.slimbahael.beauty_center.service;
 
 import com.slimbahael.beauty_center.dto.CreateUserRequest;
+import com.slimbahael.beauty_center.dto.CursorPage;
 import com.slimbahael.beauty_center.dto.UpdateUserRequest;
 import com.slimbahael.beauty_center.dto.UserResponse;
 import com.slimbahael.beauty_center.exception.ResourceAlreadyExistsException;
 import com.slimbahael.beauty_center.exception.ResourceNotFoundException;
 import com.slimbahael.beauty_center.model.User;
 import com.slimbahael.beauty_center.repository.UserRepository;
+import com.slimbahael.beauty_center.security.UserCache;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -20,12 +23,12 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final UserCache userCache;
+    private final CursorPaginationService cursorPaginationService;
 
-    public List<UserResponse> getAllUsers() {
-        return userRepository.findAll()
-                .stream()
-                .map(this::mapUserToUserResponse)
-                .collect(Collectors.toList());
+    public CursorPage<UserResponse> getAllUsers(String cursor, int limit) {
+        return cursorPaginationService.findPage(null, User.class, Sort.Direction.ASC, User::getId, cursor, limit)
+                .mapItems(this::mapUserToUserResponse);
     }
 
     public List<UserResponse> getUsersByRole(String role) {
@@ -69,6 +72,8 @@ public class UserService {
         User existingUser = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
 
+        String previousEmail = existingUser.getEmail();
+
         // Check if email is taken by another user
         if (!existingUser.getEmail().equals(request.getEmail()) &&
                 userRepository.existsByEmail(request.getEmail())) {
@@ -93,7 +98,11 @@ public class UserService {
         existingUser.setEveningShift(request.getEveningShift());
         existingUser.setEnabled(request.isEnabled());
 
-        User updatedUser = userRepository.save(existingUser);
+        // Only the edited fields are written; a full save would revert concurrent balance updates
+        User updatedUser = userRepository.updateProfile(id, existingUser)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
+        userCache.evict(previousEmail);
+        userCache.evict(updatedUser.getEmail());
         return mapUserToUserResponse(updatedUser);
     }
 
@@ -102,6 +111,7 @@ public class UserService {
             throw new ResourceNotFoundException("User not found with id: " + id);
         }
         userRepository.deleteById(id);
+        userCache.evictById(id);
     }
 
     // Helper method to map User entity to UserResponse DTO
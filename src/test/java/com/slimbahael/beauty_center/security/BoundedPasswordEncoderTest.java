@@ -0,0 +1,154 @@
+package com.slimbahael.beauty_center.security;
+
+import com.slimbahael.beauty_center.exception.ServiceOverloadedException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BoundedPasswordEncoderTest {
+
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        encoder.shutdown();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void hashesAndVerifiesOnThePoolAndRecordsLatency() {
+        encoder = new BoundedPasswordEncoder(4, 1, 4);
+
+        String hash = encoder.encode("S3cret!pass");
+
+        assertThat(encoder.matches("S3cret!pass", hash)).isTrue();
+        assertThat(encoder.matches("wrong", hash)).isFalse();
+        Map<String, Object> stats = encoder.getStats();
+        assertThat((Map<String, Object>) stats.get("encode")).containsEntry("operations", 1L);
+        assertThat((Map<String, Object>) stats.get("matches")).containsEntry("operations", 2L);
+        assertThat(stats).containsEntry("rejected", 0L);
+    }
+
+    @Test
+    void hashesWithAnotherCostAreMarkedForRehash() {
+        encoder = new BoundedPasswordEncoder(5, 1, 4);
+
+        assertThat(encoder.upgradeEncoding(encoder.encode("S3cret!pass"))).isFalse();
+        assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("S3cret!pass"))).isTrue();
+        assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("S3cret!pass"))).isTrue();
+        assertThat(encoder.upgradeEncoding("plain-text")).isFalse();
+        assertThat(encoder.upgradeEncoding(null)).isFalse();
+    }
+
+    @Test
+    void failsFastOnceTheQueueIsFull() throws Exception {
+        encoder = new BoundedPasswordEncoder(12, 1, 1);
+        String hash = new BCryptPasswordEncoder(12).encode("S3cret!pass");
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger verified = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> callers = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Thread caller = new Thread(() -> {
+                try {
+                    start.await();
+                    encoder.matches("S3cret!pass", hash);
+                    verified.incrementAndGet();
+                } catch (ServiceOverloadedException e) {
+                    rejected.incrementAndGet();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            caller.start();
+            callers.add(caller);
+        }
+
+        start.countDown();
+        for (Thread caller : callers) {
+            caller.join();
+        }
+
+        // One hash running and one queued at a time; the rest are turned away at once
+        assertThat(rejected.get()).isGreaterThan(0);
+        assertThat(rejected.get() + verified.get()).isEqualTo(8);
+        assertThat(encoder.getStats()).containsEntry("rejected", (long) rejected.get());
+    }
+
+    @Test
+    void catalogLatencyHoldsDuringALoginStorm() throws Exception {
+        encoder = new BoundedPasswordEncoder(8, 1, 16);
+        String hash = new BCryptPasswordEncoder(8).encode("S3cret!pass");
+        AtomicBoolean storming = new AtomicBoolean(true);
+        LongAdder logins = new LongAdder();
+        AtomicInteger maxActiveHashers = new AtomicInteger();
+
+        List<Thread> storm = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            Thread login = new Thread(() -> {
+                while (storming.get()) {
+                    try {
+                        encoder.matches("S3cret!pass", hash);
+                        logins.increment();
+                    } catch (ServiceOverloadedException e) {
+                        // Turned-away clients retry shortly, as a 503 with Retry-After asks them to
+                        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+                    }
+                }
+            });
+            login.start();
+            storm.add(login);
+        }
+
+        // Stand-in for catalog requests: light CPU work on other request threads, timed individually
+        int catalogThreads = 4;
+        int requestsPerThread = 500;
+        long[][] latencies = new long[catalogThreads][requestsPerThread];
+        List<Thread> catalog = new ArrayList<>();
+        for (int t = 0; t < catalogThreads; t++) {
+            long[] samples = latencies[t];
+            Thread requests = new Thread(() -> {
+                for (int i = 0; i < requestsPerThread; i++) {
+                    long start = System.nanoTime();
+                    int[] products = new int[2_000];
+                    for (int p = 0; p < products.length; p++) {
+                        products[p] = (p * 7919) % 2_000;
+                    }
+                    Arrays.sort(products);
+                    samples[i] = System.nanoTime() - start;
+                    maxActiveHashers.accumulateAndGet((Integer) encoder.getStats().get("activeHashers"), Math::max);
+                }
+            });
+            requests.start();
+            catalog.add(requests);
+        }
+        for (Thread requests : catalog) {
+            requests.join();
+        }
+        storming.set(false);
+        for (Thread login : storm) {
+            login.join();
+        }
+
+        long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+        long p99Ms = TimeUnit.NANOSECONDS.toMillis(all[(int) (all.length * 0.99) - 1]);
+
+        assertThat(maxActiveHashers.get()).isLessThanOrEqualTo(1);
+        assertThat(logins.sum()).isGreaterThan(0L);
+        // Coarse guard: hashing confined to one thread leaves the other cores to request threads
+        assertThat(p99Ms).isLessThan(100L);
+    }
+}
@@ -0,0 +1,156 @@
+package com.slimbahael.beauty_center.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GcraRateLimiterTest {
+
+    private static final long MINUTE = 60_000;
+
+    private final AtomicLong now = new AtomicLong(1_700_000_000_000L);
+
+    @Test
+    void allowsBurstUpToLimitThenOneRequestPerEmissionInterval() {
+        GcraRateLimiter limiter = new GcraRateLimiter(1024, now::get);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.tryAcquire("10.0.0.1", 5, MINUTE)).isZero();
+        }
+        // Sixth request must wait one emission interval (60s / 5)
+        assertThat(limiter.tryAcquire("10.0.0.1", 5, MINUTE)).isEqualTo(12_000L);
+
+        now.addAndGet(12_000);
+        assertThat(limiter.tryAcquire("10.0.0.1", 5, MINUTE)).isZero();
+        assertThat(limiter.tryAcquire("10.0.0.1", 5, MINUTE)).isGreaterThan(0L);
+    }
+
+    @Test
+    void noDoubleBurstAcrossWindowBoundaries() {
+        GcraRateLimiter limiter = new GcraRateLimiter(1024, now::get);
+
+        now.addAndGet(59_000);
+        int allowed = 0;
+        for (int i = 0; i < 10; i++) {
+            allowed += limiter.tryAcquire("10.0.0.1", 5, MINUTE) == 0 ? 1 : 0;
+        }
+        // A fixed window would reset here and allow another full burst
+        now.addAndGet(2_000);
+        for (int i = 0; i < 10; i++) {
+            allowed += limiter.tryAcquire("10.0.0.1", 5, MINUTE) == 0 ? 1 : 0;
+        }
+
+        assertThat(allowed).isEqualTo(5);
+    }
+
+    @Test
+    void keysAreLimitedIndependently() {
+        GcraRateLimiter limiter = new GcraRateLimiter(1024, now::get);
+
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire("10.0.0.1", 5, MINUTE);
+        }
+
+        assertThat(limiter.tryAcquire("10.0.0.1", 5, MINUTE)).isGreaterThan(0L);
+        assertThat(limiter.tryAcquire("10.0.0.2", 5, MINUTE)).isZero();
+        assertThat(limiter.trackedKeys()).isEqualTo(2);
+    }
+
+    @Test
+    void concurrentRequestsNeverExceedTheLimit() throws Exception {
+        GcraRateLimiter limiter = new GcraRateLimiter(1024, now::get);
+        LongAdder allowed = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < 10_000; i++) {
+                    if (limiter.tryAcquire("10.0.0.1", 1000, MINUTE) == 0) {
+                        allowed.increment();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(allowed.sum()).isEqualTo(1000L);
+    }
+
+    @Test
+    void millionSyntheticIpsStayWithinTheFixedTable() {
+        GcraRateLimiter limiter = new GcraRateLimiter(65536, now::get);
+        // A client that has used up its budget before the flood
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire("203.0.113.7", 5, MINUTE);
+        }
+
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long usedBefore = runtime.totalMemory() - runtime.freeMemory();
+
+        for (int i = 0; i < 1_000_000; i++) {
+            String ip = "10." + (i >>> 16 & 0xFF) + "." + (i >>> 8 & 0xFF) + "." + (i & 0xFF);
+            assertThat(limiter.tryAcquire(ip, 5, MINUTE)).isZero();
+        }
+
+        System.gc();
+        long retainedGrowth = runtime.totalMemory() - runtime.freeMemory() - usedBefore;
+
+        assertThat(limiter.capacity()).isEqualTo(65536);
+        assertThat(limiter.trackedKeys()).isLessThanOrEqualTo(65536);
+        assertThat(retainedGrowth).isLessThan(16L * 1024 * 1024);
+        assertThat((Long) limiter.getStats().get("evictions")).isGreaterThan(0L);
+        // Fresh keys are evicted before the client with the most outstanding use
+        assertThat(limiter.tryAcquire("203.0.113.7", 5, MINUTE)).isGreaterThan(0L);
+    }
+
+    @Test
+    void throughputUnderContentionAcrossManyKeys() throws Exception {
+        GcraRateLimiter limiter = new GcraRateLimiter(65536);
+        String[] keys = new String[4096];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = "192.168." + (i >>> 8) + "." + (i & 0xFF);
+        }
+        int threadCount = 8;
+        int perThread = 500_000;
+        List<Thread> threads = new ArrayList<>();
+
+        long start = System.nanoTime();
+        for (int t = 0; t < threadCount; t++) {
+            int offset = t;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    limiter.tryAcquire(keys[(i + offset * 31) & (keys.length - 1)], 100, MINUTE);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        // Coarse guard against regressions such as lock contention; 4M decisions take well under a second
+        assertThat(elapsedMs).isLessThan(10_000L);
+        assertThat(limiter.trackedKeys()).isEqualTo(keys.length);
+    }
+}
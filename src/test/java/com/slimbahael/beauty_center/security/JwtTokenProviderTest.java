@@ -0,0 +1,53 @@
+package com.slimbahael.beauty_center.security;
+
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtTokenProviderTest {
+
+    private static final String SECRET = "test-secret-key-change-me-and-keep-it-long-enough-for-hs512-signing-1234567890";
+
+    private JwtTokenProvider tokenProvider;
+
+    @BeforeEach
+    void setUp() {
+        tokenProvider = new JwtTokenProvider(SECRET, 3600000, "beauty-center", 100);
+    }
+
+    @Test
+    void getVerifiedClaimsReturnsCachedClaimsForRepeatedToken() {
+        String token = tokenProvider.generateToken(new UsernamePasswordAuthenticationToken(
+                "user@example.com", null, List.of(new SimpleGrantedAuthority("ROLE_CUSTOMER"))));
+
+        Claims first = tokenProvider.getVerifiedClaims(token);
+        Claims second = tokenProvider.getVerifiedClaims(token);
+
+        assertThat(first).isNotNull();
+        assertThat(first.getSubject()).isEqualTo("user@example.com");
+        assertThat(second).isSameAs(first);
+        assertThat(tokenProvider.getUsernameFromToken(token)).isEqualTo("user@example.com");
+        assertThat(tokenProvider.isTokenExpired(token)).isFalse();
+    }
+
+    @Test
+    void getVerifiedClaimsRejectsTamperedAndExpiredTokens() {
+        String token = tokenProvider.generateToken(new UsernamePasswordAuthenticationToken(
+                "user@example.com", null, List.of()));
+        String tampered = token.substring(0, token.length() - 4) + "abcd";
+
+        JwtTokenProvider expiringProvider = new JwtTokenProvider(SECRET, -1000, "beauty-center", 100);
+        String expired = expiringProvider.generateToken(new UsernamePasswordAuthenticationToken(
+                "user@example.com", null, List.of()));
+
+        assertThat(tokenProvider.getVerifiedClaims(tampered)).isNull();
+        assertThat(tokenProvider.validateToken(expired)).isFalse();
+        assertThat(tokenProvider.getVerifiedClaims(null)).isNull();
+    }
+}
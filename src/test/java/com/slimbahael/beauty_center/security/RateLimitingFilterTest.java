@@ -0,0 +1,66 @@
+package com.slimbahael.beauty_center.security;
+
+import com.slimbahael.beauty_center.service.InMemorySharedStateStore;
+import com.slimbahael.beauty_center.service.RateLimiterService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitingFilterTest {
+
+    private RateLimitingFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("test", Map.of(
+                "rate-limit.login.limit", "3",
+                "rate-limit.max-tracked-keys", "1024")));
+        filter = new RateLimitingFilter(environment, new RateLimiterService(new InMemorySharedStateStore(), environment));
+    }
+
+    @Test
+    void routesAreMatchedByMethodAndPathPattern() {
+        assertThat(filter.determinePolicy(request("POST", "/api/auth/login")).name()).isEqualTo("login");
+        assertThat(filter.determinePolicy(request("GET", "/api/auth/login")).name()).isEqualTo("general");
+        assertThat(filter.determinePolicy(request("POST", "/api/files/upload/product-image")).name()).isEqualTo("upload");
+        // Substring matches no longer pick the login policy
+        assertThat(filter.determinePolicy(request("POST", "/api/public/api/auth/login-help")).name()).isEqualTo("general");
+    }
+
+    @Test
+    void loginBudgetIsSeparateFromGeneralTraffic() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            assertThat(send("GET", "/api/public/services").getStatus()).isEqualTo(200);
+        }
+        for (int i = 0; i < 3; i++) {
+            assertThat(send("POST", "/api/auth/login").getStatus()).isEqualTo(200);
+        }
+
+        MockHttpServletResponse limited = send("POST", "/api/auth/login");
+
+        assertThat(limited.getStatus()).isEqualTo(429);
+        assertThat(limited.getHeader("Retry-After")).isEqualTo("20");
+        assertThat(limited.getContentAsString()).contains("Rate limit exceeded");
+    }
+
+    private MockHttpServletResponse send(String method, String uri) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(method, uri), response, new MockFilterChain());
+        return response;
+    }
+
+    private MockHttpServletRequest request(String method, String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.setRemoteAddr("198.51.100.4");
+        return request;
+    }
+}
@@ -0,0 +1,71 @@
+package com.slimbahael.beauty_center.security;
+
+import com.slimbahael.beauty_center.service.InMemorySharedStateStore;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBlacklistServiceTest {
+
+    private final AtomicLong now = new AtomicLong(1_700_000_000_000L);
+    private final TokenBlacklistService tokenBlacklistService =
+            new TokenBlacklistService(new InMemorySharedStateStore(), 4096, now::get);
+
+    @Test
+    void revokedTokenIsRejectedExactlyUntilItExpires() {
+        tokenBlacklistService.revoke("jti-1", new Date(now.get() + 60_000));
+
+        assertThat(tokenBlacklistService.isRevoked("jti-1")).isTrue();
+        assertThat(tokenBlacklistService.isRevoked("jti-2")).isFalse();
+
+        now.addAndGet(59_999);
+        assertThat(tokenBlacklistService.isRevoked("jti-1")).isTrue();
+        now.addAndGet(1);
+        assertThat(tokenBlacklistService.isRevoked("jti-1")).isFalse();
+    }
+
+    @Test
+    void expiredTokensAreNeverStored() {
+        tokenBlacklistService.revoke("jti-1", new Date(now.get()));
+        tokenBlacklistService.revoke("jti-2", new Date(now.get() - 1_000));
+        tokenBlacklistService.revoke(null, new Date(now.get() + 60_000));
+
+        assertThat(tokenBlacklistService.isRevoked("jti-1")).isFalse();
+        assertThat(tokenBlacklistService.getStats()).containsEntry("revokedTokens", 0);
+    }
+
+    @Test
+    void purgeDropsExpiredRevocationsInExpiryOrderAndKeepsTheRest() {
+        tokenBlacklistService.revoke("jti-short", new Date(now.get() + 10_000));
+        tokenBlacklistService.revoke("jti-long", new Date(now.get() + 3_600_000));
+
+        now.addAndGet(10_000);
+        tokenBlacklistService.purgeExpired();
+
+        assertThat(tokenBlacklistService.getStats())
+                .containsEntry("revokedTokens", 1)
+                .containsEntry("purged", 1L);
+        // The rebuilt Bloom filter still holds the live revocation
+        assertThat(tokenBlacklistService.isRevoked("jti-long")).isTrue();
+        assertThat(tokenBlacklistService.isRevoked("jti-short")).isFalse();
+    }
+
+    @Test
+    void unrevokedTokensAreAnsweredByTheBloomFilter() {
+        for (int i = 0; i < 100; i++) {
+            tokenBlacklistService.revoke("revoked-" + i, new Date(now.get() + 60_000));
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            falsePositives += tokenBlacklistService.isRevoked("live-" + i) ? 1 : 0;
+        }
+
+        // The map confirms every Bloom hit, so a false positive never rejects a live token
+        assertThat(falsePositives).isZero();
+        assertThat((Long) tokenBlacklistService.getStats().get("bloomNegatives")).isGreaterThan(9_900L);
+    }
+}
@@ -0,0 +1,54 @@
+package com.slimbahael.beauty_center.security;
+
+import com.slimbahael.beauty_center.model.User;
+import com.slimbahael.beauty_center.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UserCacheTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private UserCache userCache;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        userCache = new UserCache(userRepository, 60, 100);
+        user = User.builder().id("user-1").email("user@example.com").role("CUSTOMER").build();
+    }
+
+    @Test
+    void findByEmailHitsRepositoryOnceUntilEvicted() {
+        when(userRepository.findByEmail("user@example.com")).thenReturn(Optional.of(user));
+
+        assertThat(userCache.findByEmail("user@example.com")).contains(user);
+        assertThat(userCache.findByEmail("user@example.com")).contains(user);
+        verify(userRepository, times(1)).findByEmail("user@example.com");
+
+        userCache.evictById("user-1");
+        assertThat(userCache.findByEmail("user@example.com")).contains(user);
+        verify(userRepository, times(2)).findByEmail("user@example.com");
+    }
+
+    @Test
+    void findByEmailDoesNotCacheMissingUsers() {
+        when(userRepository.findByEmail("missing@example.com")).thenReturn(Optional.empty());
+
+        assertThat(userCache.findByEmail("missing@example.com")).isEmpty();
+        assertThat(userCache.findByEmail("missing@example.com")).isEmpty();
+        verify(userRepository, times(2)).findByEmail("missing@example.com");
+    }
+}
@@ -0,0 +1,229 @@
+package com.slimbahael.beauty_center.service;
+
+import com.slimbahael.beauty_center.dto.AvailabilityRangeRequest;
+import com.slimbahael.beauty_center.dto.AvailabilityRangeResponse;
+import com.slimbahael.beauty_center.dto.AvailabilityRequest;
+import com.slimbahael.beauty_center.dto.AvailabilityResponse;
+import com.slimbahael.beauty_center.exception.BadRequestException;
+import com.slimbahael.beauty_center.model.Reservation;
+import com.slimbahael.beauty_center.model.Service;
+import com.slimbahael.beauty_center.model.User;
+import com.slimbahael.beauty_center.repository.ReservationRepository;
+import com.slimbahael.beauty_center.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AvailabilityServiceTest {
+
+    private static final LocalDate MONTH_START = LocalDate.of(2025, 3, 1);
+    private static final LocalDate MONTH_END = LocalDate.of(2025, 3, 31);
+    private static final List<String> WEEKDAYS = List.of("MONDAY", "TUESDAY", "WEDNESDAY", "THURSDAY", "FRIDAY");
+    private static final List<String> TUESDAY_TO_SATURDAY = List.of("TUESDAY", "WEDNESDAY", "THURSDAY", "FRIDAY", "SATURDAY");
+
+    @Mock
+    private ReservationRepository reservationRepository;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private ServiceCatalogCache serviceCatalogCache;
+
+    @InjectMocks
+    private AvailabilityService availabilityService;
+
+    private final ZoneId zone = ZoneId.systemDefault();
+    private List<User> staff;
+    private List<Reservation> reservations;
+    private Service service;
+
+    @BeforeEach
+    void setUp() {
+        // Seeded busy calendar: 12 staff, roughly three quarters of their slots booked in March
+        Random random = new Random(42);
+        staff = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            staff.add(User.builder()
+                    .id("staff-" + i)
+                    .firstName("Staff")
+                    .lastName(String.valueOf(i))
+                    .role("STAFF")
+                    .workDays(i % 2 == 0 ? WEEKDAYS : TUESDAY_TO_SATURDAY)
+                    .morningShift(i % 3 == 2 ? "NO" : "YES")
+                    .eveningShift("YES")
+                    .build());
+        }
+
+        reservations = new ArrayList<>();
+        // Bookings of staff outside the service and just outside the month must be ignored
+        for (LocalDate date = MONTH_START.minusDays(3); !date.isAfter(MONTH_END.plusDays(3)); date = date.plusDays(1)) {
+            for (User member : staff) {
+                for (String slot : List.of("MORNING", "EVENING")) {
+                    if (random.nextInt(4) != 0) {
+                        reservations.add(reservation(member.getId(), date, slot,
+                                random.nextInt(10) == 0 ? "CANCELLED" : "CONFIRMED"));
+                    }
+                }
+            }
+            reservations.add(reservation("other-staff", date, "MORNING", "CONFIRMED"));
+        }
+
+        service = Service.builder()
+                .id("svc-1")
+                .name("Facial Treatment")
+                .price(new BigDecimal("80.00"))
+                .assignedStaffIds(staff.stream().map(User::getId).toList())
+                .availableMorning(true)
+                .availableEvening(true)
+                .build();
+    }
+
+    @Test
+    void monthAvailabilityUsesOneReservationQueryAndMatchesPerDayComputation() {
+        stubCatalogAndStaff();
+        stubReservationQuery();
+
+        AvailabilityRangeResponse month = availabilityService.getAvailability(rangeRequest(MONTH_START, MONTH_END));
+
+        assertThat(month.getDays()).hasSize(31);
+        verify(reservationRepository, times(1)).findActiveSlotsForStaffBetween(any(), any(), any());
+        verify(reservationRepository, never()).findByReservationDate(any());
+        verify(userRepository, times(1)).findAllById(any());
+
+        for (AvailabilityRangeResponse.DayAvailability day : month.getDays()) {
+            for (User member : staff) {
+                boolean works = member.getWorkDays().contains(day.getDate().getDayOfWeek().name());
+                boolean morningFree = works && "YES".equals(member.getMorningShift())
+                        && !isBooked(member.getId(), day.getDate(), "MORNING");
+                boolean eveningFree = works && "YES".equals(member.getEveningShift())
+                        && !isBooked(member.getId(), day.getDate(), "EVENING");
+
+                var slots = day.getAvailableStaff().stream()
+                        .filter(s -> s.getStaffId().equals(member.getId()))
+                        .findFirst();
+                assertThat(slots.isPresent()).isEqualTo(morningFree || eveningFree);
+                slots.ifPresent(s -> {
+                    assertThat(s.isAvailableMorning()).isEqualTo(morningFree);
+                    assertThat(s.isAvailableEvening()).isEqualTo(eveningFree);
+                });
+            }
+            assertThat(day.isMorningAvailable()).isEqualTo(
+                    day.getAvailableStaff().stream().anyMatch(AvailabilityRangeResponse.StaffSlots::isAvailableMorning));
+        }
+    }
+
+    @Test
+    void dayByDayRenderingOfTheSameMonthIssuesOneQueryPerDay() {
+        stubCatalogAndStaff();
+        stubReservationQuery();
+
+        AvailabilityRangeResponse month = availabilityService.getAvailability(rangeRequest(MONTH_START, MONTH_END));
+        for (int day = 0; day < 31; day++) {
+            AvailabilityRequest request = new AvailabilityRequest();
+            request.setServiceId("svc-1");
+            request.setDate(Date.from(MONTH_START.plusDays(day).atStartOfDay(zone).toInstant()));
+
+            AvailabilityResponse single = availabilityService.getAvailability(request);
+
+            AvailabilityRangeResponse.DayAvailability expected = month.getDays().get(day);
+            assertThat(single.isMorningAvailable()).isEqualTo(expected.isMorningAvailable());
+            assertThat(single.isEveningAvailable()).isEqualTo(expected.isEveningAvailable());
+            assertThat(single.getAvailableStaff()).extracting(AvailabilityResponse.StaffAvailability::getStaffId)
+                    .containsExactlyElementsOf(expected.getAvailableStaff().stream()
+                            .map(AvailabilityRangeResponse.StaffSlots::getStaffId)
+                            .toList());
+        }
+
+        // 1 query for the month view versus 31 for the day-by-day calls
+        verify(reservationRepository, times(32)).findActiveSlotsForStaffBetween(any(), any(), any());
+    }
+
+    @Test
+    void workDaysMatchOnlyTheExactNamesThatBookingAccepts() {
+        staff.get(0).setWorkDays(List.of("monday", " TUESDAY ", "Wednesday", "THURSDAY"));
+        stubCatalogAndStaff();
+        stubReservationQuery();
+
+        AvailabilityRangeResponse month = availabilityService.getAvailability(rangeRequest(MONTH_START, MONTH_END));
+
+        for (AvailabilityRangeResponse.DayAvailability day : month.getDays()) {
+            boolean listed = day.getAvailableStaff().stream().anyMatch(s -> s.getStaffId().equals("staff-0"));
+            if (listed) {
+                assertThat(day.getDate().getDayOfWeek()).isEqualTo(DayOfWeek.THURSDAY);
+            }
+        }
+    }
+
+    @Test
+    void rangeLongerThanLimitIsRejected() {
+        assertThrows(BadRequestException.class, () -> availabilityService.getAvailability(
+                rangeRequest(MONTH_START, MONTH_START.plusDays(AvailabilityService.MAX_RANGE_DAYS))));
+
+        verify(reservationRepository, never()).findActiveSlotsForStaffBetween(any(), any(), any());
+    }
+
+    private void stubCatalogAndStaff() {
+        when(serviceCatalogCache.snapshot()).thenReturn(ServiceCatalogSnapshot.of(List.of(service), List.of()));
+        when(userRepository.findAllById(any())).thenReturn(staff);
+    }
+
+    // Emulates the Mongo query: staffId $in, reservationDate in [from, to), status != CANCELLED
+    private void stubReservationQuery() {
+        when(reservationRepository.findActiveSlotsForStaffBetween(any(), any(), any())).thenAnswer(invocation -> {
+            Collection<String> staffIds = invocation.getArgument(0);
+            Date from = invocation.getArgument(1);
+            Date to = invocation.getArgument(2);
+            return reservations.stream()
+                    .filter(r -> staffIds.contains(r.getStaffId()))
+                    .filter(r -> !r.getReservationDate().before(from) && r.getReservationDate().before(to))
+                    .filter(r -> !"CANCELLED".equals(r.getStatus()))
+                    .toList();
+        });
+    }
+
+    private boolean isBooked(String staffId, LocalDate date, String slot) {
+        Date day = Date.from(date.atStartOfDay(zone).toInstant());
+        return reservations.stream().anyMatch(r -> r.getStaffId().equals(staffId)
+                && r.getReservationDate().equals(day)
+                && r.getTimeSlot().equals(slot)
+                && !"CANCELLED".equals(r.getStatus()));
+    }
+
+    private Reservation reservation(String staffId, LocalDate date, String slot, String status) {
+        return Reservation.builder()
+                .staffId(staffId)
+                .reservationDate(Date.from(date.atStartOfDay(zone).toInstant()))
+                .timeSlot(slot)
+                .status(status)
+                .build();
+    }
+
+    private AvailabilityRangeRequest rangeRequest(LocalDate start, LocalDate end) {
+        AvailabilityRangeRequest request = new AvailabilityRangeRequest();
+        request.setServiceId("svc-1");
+        request.setStartDate(start);
+        request.setEndDate(end);
+        return request;
+    }
+}
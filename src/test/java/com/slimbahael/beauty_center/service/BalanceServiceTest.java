@@ -15,13 +15,24 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -50,9 +61,9 @@ class BalanceServiceTest {
     }
 
     @Test
-    void creditBalancePersistsUpdatedUserAndTransaction() {
-        when(userRepository.findById("user-1")).thenReturn(Optional.of(user));
-        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    void creditBalanceIncrementsAtomicallyAndRecordsTransaction() {
+        when(userRepository.incrementBalance("user-1", new BigDecimal("20.00")))
+                .thenReturn(Optional.of(balanceOnly(new BigDecimal("70.00"))));
         when(balanceTransactionRepository.save(any(BalanceTransaction.class)))
                 .thenAnswer(invocation -> invocation.getArgument(0));
 
@@ -63,11 +74,7 @@ class BalanceServiceTest {
                 "CREDIT",
                 "ref-1");
 
-        ArgumentCaptor<User> userCaptor = ArgumentCaptor.forClass(User.class);
-        verify(userRepository).save(userCaptor.capture());
-        User savedUser = userCaptor.getValue();
-        assertThat(savedUser.getBalance()).isEqualByComparingTo("70.00");
-        assertThat(savedUser.getLastBalanceUpdate()).isNotNull();
+        verify(userRepository, never()).save(any(User.class));
 
         ArgumentCaptor<BalanceTransaction> txCaptor = ArgumentCaptor.forClass(BalanceTransaction.class);
         verify(balanceTransactionRepository).save(txCaptor.capture());
@@ -82,8 +89,8 @@ class BalanceServiceTest {
 
     @Test
     void debitBalanceReducesUserBalance() {
-        when(userRepository.findById("user-1")).thenReturn(Optional.of(user));
-        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(userRepository.decrementBalanceIfSufficient("user-1", new BigDecimal("15.00")))
+                .thenReturn(Optional.of(balanceOnly(new BigDecimal("35.00"))));
         when(balanceTransactionRepository.save(any(BalanceTransaction.class)))
                 .thenAnswer(invocation -> invocation.getArgument(0));
 
@@ -94,9 +101,7 @@ class BalanceServiceTest {
                 "DEBIT",
                 "order-7");
 
-        ArgumentCaptor<User> userCaptor = ArgumentCaptor.forClass(User.class);
-        verify(userRepository).save(userCaptor.capture());
-        assertThat(userCaptor.getValue().getBalance()).isEqualByComparingTo("35.00");
+        verify(userRepository, never()).save(any(User.class));
 
         ArgumentCaptor<BalanceTransaction> txCaptor = ArgumentCaptor.forClass(BalanceTransaction.class);
         verify(balanceTransactionRepository).save(txCaptor.capture());
@@ -116,6 +121,7 @@ class BalanceServiceTest {
 
     @Test
     void debitBalanceThrowsForInsufficientFunds() {
+        when(userRepository.decrementBalanceIfSufficient("user-1", new BigDecimal("80.00"))).thenReturn(Optional.empty());
         when(userRepository.findById("user-1")).thenReturn(Optional.of(user));
 
         assertThrows(BadRequestException.class, () -> balanceService.debitBalance(
@@ -128,6 +134,7 @@ class BalanceServiceTest {
 
     @Test
     void debitBalanceThrowsWhenUserMissing() {
+        when(userRepository.decrementBalanceIfSufficient("user-1", new BigDecimal("10.00"))).thenReturn(Optional.empty());
         when(userRepository.findById("user-1")).thenReturn(Optional.empty());
 
         assertThrows(ResourceNotFoundException.class, () -> balanceService.debitBalance(
@@ -137,4 +144,77 @@ class BalanceServiceTest {
                 "DEBIT",
                 null));
     }
+
+    @Test
+    void concurrentCreditsAndDebitsNeverLoseUpdatesOrOverdraw() throws Exception {
+        // Emulates the server-side $inc and the guarded decrement on a single shared balance
+        AtomicReference<BigDecimal> balance = new AtomicReference<>(new BigDecimal("50.00"));
+        when(userRepository.incrementBalance(eq("user-1"), any(BigDecimal.class))).thenAnswer(invocation -> {
+            BigDecimal amount = invocation.getArgument(1);
+            return Optional.of(balanceOnly(balance.accumulateAndGet(amount, BigDecimal::add)));
+        });
+        when(userRepository.decrementBalanceIfSufficient(eq("user-1"), any(BigDecimal.class))).thenAnswer(invocation -> {
+            BigDecimal amount = invocation.getArgument(1);
+            while (true) {
+                BigDecimal current = balance.get();
+                if (current.compareTo(amount) < 0) {
+                    return Optional.empty();
+                }
+                if (balance.compareAndSet(current, current.subtract(amount))) {
+                    return Optional.of(balanceOnly(current.subtract(amount)));
+                }
+            }
+        });
+        when(userRepository.findById("user-1")).thenReturn(Optional.of(user));
+        when(balanceTransactionRepository.save(any(BalanceTransaction.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        int credits = 300;
+        int debits = 400;
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger successfulDebits = new AtomicInteger();
+        List<BalanceTransaction> transactions = Collections.synchronizedList(new ArrayList<>());
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < credits + debits; i++) {
+            boolean credit = i < credits;
+            futures.add(executor.submit(() -> {
+                start.await();
+                if (credit) {
+                    transactions.add(balanceService.creditBalance("user-1", BigDecimal.ONE, "Top up", "CREDIT", null));
+                } else {
+                    try {
+                        transactions.add(balanceService.debitBalance("user-1", BigDecimal.ONE, "Purchase", "DEBIT", null));
+                        successfulDebits.incrementAndGet();
+                    } catch (BadRequestException e) {
+                        // insufficient balance at that moment
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        BigDecimal expected = new BigDecimal("50.00")
+                .add(BigDecimal.valueOf(credits))
+                .subtract(BigDecimal.valueOf(successfulDebits.get()));
+        assertThat(balance.get()).isEqualByComparingTo(expected);
+        assertThat(balance.get()).isGreaterThanOrEqualTo(BigDecimal.ZERO);
+        assertThat(transactions).hasSize(credits + successfulDebits.get());
+        assertThat(transactions).allSatisfy(tx -> {
+            assertThat(tx.getBalanceAfter()).isGreaterThanOrEqualTo(BigDecimal.ZERO);
+            assertThat(tx.getBalanceAfter().subtract(tx.getBalanceBefore()).abs()).isEqualByComparingTo(BigDecimal.ONE);
+        });
+    }
+
+    private User balanceOnly(BigDecimal balance) {
+        User updated = new User();
+        updated.setId("user-1");
+        updated.setBalance(balance);
+        return updated;
+    }
 }
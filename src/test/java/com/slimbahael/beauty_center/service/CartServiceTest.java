@@ -0,0 +1,81 @@
+package com.slimbahael.beauty_center.service;
+
+import com.slimbahael.beauty_center.dto.CartResponse;
+import com.slimbahael.beauty_center.model.Cart;
+import com.slimbahael.beauty_center.model.Product;
+import com.slimbahael.beauty_center.model.User;
+import com.slimbahael.beauty_center.repository.CartRepository;
+import com.slimbahael.beauty_center.repository.ProductRepository;
+import com.slimbahael.beauty_center.security.CurrentUserResolver;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CartServiceTest {
+
+    @Mock
+    private CartRepository cartRepository;
+    @Mock
+    private ProductRepository productRepository;
+    @Mock
+    private CurrentUserResolver currentUserResolver;
+
+    @InjectMocks
+    private CartService cartService;
+
+    @Test
+    void getCartLoadsAllItemProductsInOneQuery() {
+        User customer = User.builder().id("cust-1").email("customer@example.com").build();
+
+        List<Product> products = new ArrayList<>();
+        List<Cart.CartItem> items = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            products.add(Product.builder()
+                    .id("prod-" + i)
+                    .name("Product " + i)
+                    .price(new BigDecimal("10.00"))
+                    .imageUrls(List.of("http://img/" + i))
+                    .build());
+            items.add(Cart.CartItem.builder()
+                    .productId("prod-" + i)
+                    .productName("Product " + i)
+                    .quantity(2)
+                    .unitPrice(new BigDecimal("10.00"))
+                    .totalPrice(new BigDecimal("20.00"))
+                    .build());
+        }
+        Cart cart = Cart.builder()
+                .id("cart-1")
+                .customerId(customer.getId())
+                .items(items)
+                .subtotal(new BigDecimal("240.00"))
+                .build();
+
+        when(currentUserResolver.getCurrentUser()).thenReturn(customer);
+        when(cartRepository.findByCustomerId(customer.getId())).thenReturn(Optional.of(cart));
+        when(productRepository.findAllById(any())).thenReturn(products);
+
+        CartResponse response = cartService.getCart();
+
+        assertThat(response.getItemCount()).isEqualTo(12);
+        assertThat(response.getSubtotal()).isEqualByComparingTo("240.00");
+        assertThat(response.getItems().get(11).getImageUrl()).isEqualTo("http://img/11");
+        verify(productRepository, times(1)).findAllById(any());
+        verify(productRepository, never()).findById(any());
+    }
+}
@@ -0,0 +1,71 @@
+package com.slimbahael.beauty_center.service;
+
+import com.cloudinary.Cloudinary;
+import com.cloudinary.Uploader;
+import com.slimbahael.beauty_center.exception.BadRequestException;
+import com.slimbahael.beauty_center.exception.IntegrationUnavailableException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CloudinaryServiceTest {
+
+    private final Uploader uploader = mock(Uploader.class);
+    private final MockMultipartFile file = new MockMultipartFile("file", "photo.jpg", "image/jpeg", new byte[]{1, 2, 3});
+    private IntegrationGuard integrationGuard;
+    private CloudinaryService cloudinaryService;
+
+    @BeforeEach
+    void setUp() {
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("test", Map.of(
+                "resilience.failure-threshold", "3",
+                "resilience.open-ms", "60000")));
+        integrationGuard = new IntegrationGuard(environment);
+
+        Cloudinary cloudinary = mock(Cloudinary.class);
+        when(cloudinary.uploader()).thenReturn(uploader);
+        cloudinaryService = new CloudinaryService(cloudinary, integrationGuard);
+    }
+
+    @Test
+    void rejectedUploadsAreBadRequestsAndLeaveTheCircuitClosed() throws Exception {
+        when(uploader.upload(any(), anyMap())).thenReturn(errorResult(400, "Invalid image file"));
+
+        for (int i = 0; i < 5; i++) {
+            BadRequestException rejected = assertThrows(BadRequestException.class,
+                    () -> cloudinaryService.uploadImage(file, "beauty-center/products"));
+            assertThat(rejected.getMessage()).contains("Invalid image file");
+        }
+
+        when(uploader.upload(any(), anyMap())).thenReturn(Map.of("secure_url", "https://res.cloudinary.com/x.jpg"));
+        assertThat(cloudinaryService.uploadImage(file, "beauty-center/products")).isEqualTo("https://res.cloudinary.com/x.jpg");
+    }
+
+    @Test
+    void serverErrorsOpenTheCircuit() throws Exception {
+        when(uploader.upload(any(), anyMap())).thenReturn(errorResult(500, "Internal error"));
+
+        for (int i = 0; i < 3; i++) {
+            assertThrows(IllegalStateException.class, () -> cloudinaryService.uploadImage(file, "beauty-center/products"));
+        }
+
+        assertThrows(IntegrationUnavailableException.class,
+                () -> cloudinaryService.uploadImage(file, "beauty-center/products"));
+    }
+
+    private static Map<String, Object> errorResult(int status, String message) {
+        return Map.of("error", Map.of("http_code", status, "message", message));
+    }
+}
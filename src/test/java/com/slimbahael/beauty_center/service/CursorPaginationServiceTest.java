@@ -0,0 +1,194 @@
+package com.slimbahael.beauty_center.service;
+
+import com.slimbahael.beauty_center.dto.CursorPage;
+import com.slimbahael.beauty_center.exception.BadRequestException;
+import com.slimbahael.beauty_center.model.Order;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CursorPaginationServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private CursorPaginationService cursorPaginationService;
+
+    private final List<Order> orders = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        // 25 orders over 5 timestamps, so most pages end in the middle of a run of equal createdAt values
+        for (int i = 0; i < 25; i++) {
+            orders.add(Order.builder()
+                    .id(String.format("order-%02d", (i * 7) % 25))
+                    .createdAt(new Date(1_700_000_000_000L + (i % 5) * 60_000L))
+                    .build());
+        }
+    }
+
+    @Test
+    void pagesThroughEqualSortValuesWithoutGapsOrDuplicates() {
+        stubFindWithMongoSemantics();
+
+        List<String> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            CursorPage<Order> page = cursorPaginationService.findPage(null, Order.class,
+                    "createdAt", Sort.Direction.DESC, Order::getCreatedAt, Order::getId, cursor, 4);
+            page.getItems().forEach(order -> seen.add(order.getId()));
+            cursor = page.getNextCursor();
+            assertThat(page.isHasMore()).isEqualTo(cursor != null);
+            pages++;
+        } while (cursor != null);
+
+        List<String> expected = orders.stream()
+                .sorted(Comparator.comparing(Order::getCreatedAt).thenComparing(Order::getId).reversed())
+                .map(Order::getId)
+                .toList();
+        assertThat(seen).containsExactlyElementsOf(expected);
+        assertThat(pages).isEqualTo(7);
+    }
+
+    @Test
+    void pagesByIdAloneWhenThereIsNoSortField() {
+        stubFindWithMongoSemantics();
+
+        CursorPage<Order> first = cursorPaginationService.findPage(null, Order.class, Sort.Direction.ASC,
+                Order::getId, null, 10);
+        CursorPage<Order> second = cursorPaginationService.findPage(null, Order.class, Sort.Direction.ASC,
+                Order::getId, first.getNextCursor(), 10);
+
+        assertThat(first.getItems()).extracting(Order::getId).last().isEqualTo("order-09");
+        assertThat(second.getItems()).extracting(Order::getId).first().isEqualTo("order-10");
+    }
+
+    @Test
+    void limitIsClampedAndOneExtraDocumentIsFetched() {
+        when(mongoTemplate.find(any(Query.class), eq(Order.class))).thenReturn(List.of());
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+
+        CursorPage<Order> tooLarge = cursorPaginationService.findPage(null, Order.class, Sort.Direction.ASC,
+                Order::getId, null, 10_000);
+        CursorPage<Order> tooSmall = cursorPaginationService.findPage(null, Order.class, Sort.Direction.ASC,
+                Order::getId, null, 0);
+
+        verify(mongoTemplate, times(2)).find(query.capture(), eq(Order.class));
+        assertThat(tooLarge.getLimit()).isEqualTo(CursorPaginationService.MAX_LIMIT);
+        assertThat(query.getAllValues().get(0).getLimit()).isEqualTo(CursorPaginationService.MAX_LIMIT + 1);
+        assertThat(tooSmall.getLimit()).isEqualTo(1);
+        assertThat(query.getAllValues().get(1).getLimit()).isEqualTo(2);
+        assertThat(tooSmall.isHasMore()).isFalse();
+        assertThat(tooSmall.getNextCursor()).isNull();
+    }
+
+    @Test
+    void malformedCursorsAreRejectedBeforeQuerying() {
+        for (String cursor : List.of("not base64!", encode("no-separator"), encode("123|"), encode("yesterday|order-01"))) {
+            assertThrows(BadRequestException.class, () -> cursorPaginationService.findPage(null, Order.class,
+                    "createdAt", Sort.Direction.DESC, Order::getCreatedAt, Order::getId, cursor, 10));
+        }
+
+        verify(mongoTemplate, never()).find(any(Query.class), any());
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Applies the filter, sort and limit of the query to the in-memory orders
+    private void stubFindWithMongoSemantics() {
+        when(mongoTemplate.find(any(Query.class), eq(Order.class))).thenAnswer(invocation -> {
+            Query query = invocation.getArgument(0);
+            Comparator<Order> order = null;
+            for (Map.Entry<String, Object> sort : query.getSortObject().entrySet()) {
+                Comparator<Order> field = (a, b) -> compare(value(a, sort.getKey()), value(b, sort.getKey()));
+                if (((Number) sort.getValue()).intValue() < 0) {
+                    field = field.reversed();
+                }
+                order = order == null ? field : order.thenComparing(field);
+            }
+            return orders.stream()
+                    .filter(o -> matches(o, query.getQueryObject()))
+                    .sorted(order)
+                    .limit(query.getLimit())
+                    .toList();
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static boolean matches(Order order, Document filter) {
+        for (Map.Entry<String, Object> clause : filter.entrySet()) {
+            boolean matched = switch (clause.getKey()) {
+                case "$or" -> ((List<Document>) clause.getValue()).stream().anyMatch(d -> matches(order, d));
+                case "$and" -> ((List<Document>) clause.getValue()).stream().allMatch(d -> matches(order, d));
+                default -> matchesField(value(order, clause.getKey()), clause.getValue());
+            };
+            if (!matched) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compare(Comparable left, Object right) {
+        return left.compareTo(right);
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static boolean matchesField(Comparable actual, Object condition) {
+        if (!(condition instanceof Document operators)) {
+            return actual.equals(condition);
+        }
+        for (Map.Entry<String, Object> operator : operators.entrySet()) {
+            int comparison = compare(actual, operator.getValue());
+            boolean matched = switch (operator.getKey()) {
+                case "$gt" -> comparison > 0;
+                case "$lt" -> comparison < 0;
+                default -> throw new IllegalArgumentException("Unsupported operator " + operator.getKey());
+            };
+            if (!matched) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static Comparable value(Order order, String field) {
+        return switch (field) {
+            case "_id" -> order.getId();
+            case "createdAt" -> order.getCreatedAt();
+            default -> throw new IllegalArgumentException("Unsupported field " + field);
+        };
+    }
+}
@@ -4,10 +4,11 @@ import com.slimbahael.beauty_center.dto.GiftCardPurchaseRequest;
 import com.slimbahael.beauty_center.exception.BadRequestException;
 import com.slimbahael.beauty_center.model.BalanceTransaction;
 import com.slimbahael.beauty_center.model.GiftCard;
+import com.slimbahael.beauty_center.model.PaymentState;
 import com.slimbahael.beauty_center.model.User;
 import com.slimbahael.beauty_center.repository.GiftCardRepository;
 import com.slimbahael.beauty_center.repository.UserRepository;
-import com.stripe.model.PaymentIntent;
+import com.slimbahael.beauty_center.security.GiftCardCodeHasher;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -37,8 +38,9 @@ class GiftCardServiceTest {
     @Mock private UserRepository userRepository;
     @Mock private BalanceService balanceService;
     @Mock private EmailService emailService;
-    @Mock private StripeService stripeService;
+    @Mock private PaymentStateService paymentStateService;
     @Mock private PasswordEncoder passwordEncoder;
+    @Mock private GiftCardCodeHasher giftCardCodeHasher;
 
     @InjectMocks
     private GiftCardService giftCardService;
@@ -61,12 +63,14 @@ class GiftCardServiceTest {
 
     @Test
     void createGiftCardPersistsEntityAndSendsEmails() {
-        when(stripeService.isPaymentSucceeded("pi_123")).thenReturn(true);
-        PaymentIntent paymentIntent = mock(PaymentIntent.class);
-        when(paymentIntent.getAmount()).thenReturn(5000L); // cents
-        when(stripeService.getPaymentIntent("pi_123")).thenReturn(paymentIntent);
+        when(paymentStateService.getPaymentIntent("pi_123")).thenReturn(PaymentState.builder()
+                .id("pi_123")
+                .status("succeeded")
+                .amount(5000L) // cents
+                .build());
         when(giftCardRepository.findByPaymentIntentId("pi_123")).thenReturn(Collections.emptyList());
         when(passwordEncoder.encode(anyString())).thenReturn("hashed-code");
+        when(giftCardCodeHasher.lookupKey(anyString())).thenReturn("lookup-key");
         when(giftCardRepository.save(any(GiftCard.class))).thenAnswer(invocation -> {
             GiftCard saved = invocation.getArgument(0);
             saved.setId("gc_12345678");
@@ -84,6 +88,7 @@ class GiftCardServiceTest {
         assertThat(savedCard.getAmount()).isEqualByComparingTo("50.00");
         assertThat(savedCard.getPaymentIntentId()).isEqualTo("pi_123");
         assertThat(savedCard.getCodeHash()).isEqualTo("hashed-code");
+        assertThat(savedCard.getCodeLookupKey()).isEqualTo("lookup-key");
 
         verify(balanceService).addTransaction(
                 argThat(user -> "buyer-id".equals(user.getId())),
@@ -115,7 +120,8 @@ class GiftCardServiceTest {
                 .recipientEmail("friend@example.com")
                 .build();
 
-        when(giftCardRepository.findActiveUnlockedGiftCards()).thenReturn(List.of(giftCard));
+        when(giftCardCodeHasher.lookupKey("SECRET")).thenReturn("key");
+        when(giftCardRepository.findByCodeLookupKey("key")).thenReturn(Optional.of(giftCard));
         when(passwordEncoder.matches("SECRET", "hashed")).thenReturn(true);
         when(userRepository.findById("user-1")).thenReturn(Optional.of(User.builder().id("user-1").email("u@example.com").phoneNumber("+1000000000").build()));
         BalanceTransaction transaction = BalanceTransaction.builder().id("txn-1").build();
@@ -136,6 +142,71 @@ class GiftCardServiceTest {
 
         verify(emailService).sendGiftCardRedemptionConfirmation(eq("u@example.com"), eq(updated));
         verify(emailService).sendGiftCardRedeemedNotification(eq("buyer@example.com"), eq(updated));
+        verify(passwordEncoder, times(1)).matches(anyString(), anyString());
+        verify(giftCardRepository, never()).findActiveUnlockedGiftCardsWithoutLookupKey();
+    }
+
+    @Test
+    void redeemGiftCardFallsBackToLegacyScanAndBackfillsLookupKey() {
+        GiftCard other = GiftCard.builder().id("gc_other").codeHash("other-hash").build();
+        GiftCard legacy = GiftCard.builder()
+                .id("gc_legacy")
+                .codeHash("hashed")
+                .type("BALANCE")
+                .amount(new BigDecimal("20.00"))
+                .status("ACTIVE")
+                .expirationDate(Date.from(Instant.now().plus(30, ChronoUnit.DAYS)))
+                .redemptionAttempts(0)
+                .isLocked(false)
+                .build();
+
+        when(giftCardCodeHasher.lookupKey("SECRET")).thenReturn("key");
+        when(giftCardRepository.findByCodeLookupKey("key")).thenReturn(Optional.empty());
+        when(giftCardRepository.findActiveUnlockedGiftCardsWithoutLookupKey()).thenReturn(List.of(other, legacy));
+        when(passwordEncoder.matches("SECRET", "other-hash")).thenReturn(false);
+        when(passwordEncoder.matches("SECRET", "hashed")).thenReturn(true);
+        when(giftCardRepository.save(any(GiftCard.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(userRepository.findById("user-1")).thenReturn(Optional.of(User.builder().id("user-1").email("u@example.com").build()));
+        when(balanceService.creditBalance(eq("user-1"), eq(new BigDecimal("20.00")), anyString(), eq("GIFT_CARD_REDEEM"), eq("gc_legacy")))
+                .thenReturn(BalanceTransaction.builder().id("txn-2").build());
+
+        giftCardService.redeemGiftCard("SECRET", "user-1", "127.0.0.1");
+
+        assertThat(legacy.getCodeLookupKey()).isEqualTo("key");
+        assertThat(legacy.getStatus()).isEqualTo("REDEEMED");
+        verify(giftCardRepository, never()).findActiveUnlockedGiftCards();
+    }
+
+    @Test
+    void wrongCodesStopScanningLegacyCardsOnceNoneRemain() {
+        when(giftCardCodeHasher.lookupKey("WRONG")).thenReturn("wrong-key");
+        when(giftCardRepository.findByCodeLookupKey("wrong-key")).thenReturn(Optional.empty());
+        when(giftCardRepository.findActiveUnlockedGiftCardsWithoutLookupKey()).thenReturn(Collections.emptyList());
+
+        assertThrows(BadRequestException.class, () -> giftCardService.redeemGiftCard("WRONG", "user-1", "127.0.0.1"));
+        assertThrows(BadRequestException.class, () -> giftCardService.redeemGiftCard("WRONG", "user-1", "127.0.0.1"));
+
+        verify(giftCardRepository, times(1)).findActiveUnlockedGiftCardsWithoutLookupKey();
+        verify(passwordEncoder, never()).matches(anyString(), anyString());
+    }
+
+    @Test
+    void backfillLookupKeysKeysPendingCardsAndDisablesScanWhenNoLegacyCardsRemain() {
+        GiftCard pending = GiftCard.builder().id("gc_pending").codeHash("hashed").pendingCode("RAW").status("PENDING").build();
+        when(giftCardRepository.findGiftCardsWithPendingCodeWithoutLookupKey()).thenReturn(List.of(pending));
+        when(giftCardCodeHasher.lookupKey("RAW")).thenReturn("raw-key");
+        when(giftCardRepository.countActiveUnlockedGiftCardsWithoutLookupKey()).thenReturn(0L);
+
+        var result = giftCardService.backfillLookupKeys();
+
+        assertThat(pending.getCodeLookupKey()).isEqualTo("raw-key");
+        verify(giftCardRepository).save(pending);
+        assertThat(result).containsEntry("backfilled", 1).containsEntry("legacyCardsRemaining", 0L);
+
+        when(giftCardCodeHasher.lookupKey("WRONG")).thenReturn("wrong-key");
+        when(giftCardRepository.findByCodeLookupKey("wrong-key")).thenReturn(Optional.empty());
+        assertThrows(BadRequestException.class, () -> giftCardService.redeemGiftCard("WRONG", "user-1", "127.0.0.1"));
+        verify(giftCardRepository, never()).findActiveUnlockedGiftCardsWithoutLookupKey();
     }
 
     @Test
@@ -151,7 +222,8 @@ class GiftCardServiceTest {
                 .isLocked(false)
                 .build();
 
-        when(giftCardRepository.findActiveUnlockedGiftCards()).thenReturn(List.of(giftCard));
+        when(giftCardCodeHasher.lookupKey("SECRET")).thenReturn("key");
+        when(giftCardRepository.findByCodeLookupKey("key")).thenReturn(Optional.of(giftCard));
         when(passwordEncoder.matches("SECRET", "hashed")).thenReturn(true);
 
         assertThrows(BadRequestException.class,
@@ -0,0 +1,147 @@
+package com.slimbahael.beauty_center.service;
+
+import com.slimbahael.beauty_center.exception.IntegrationUnavailableException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class IntegrationGuardTest {
+
+    private static final String STUB = "stub";
+
+    private IntegrationGuard integrationGuard;
+    private final AtomicInteger providerCalls = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("test", Map.of(
+                "resilience.failure-threshold", "3",
+                "resilience.open-ms", "200",
+                "resilience.max-wait-ms", "10",
+                "resilience.stub.max-concurrent", "2",
+                "resilience.stub.time-limit-ms", "50")));
+        integrationGuard = new IntegrationGuard(environment);
+    }
+
+    @Test
+    void circuitOpensAfterConsecutiveFailuresAndFailsFast() {
+        for (int i = 0; i < 3; i++) {
+            assertThrows(IOException.class, () -> integrationGuard.execute(STUB, this::failingProvider));
+        }
+
+        assertThrows(IntegrationUnavailableException.class, () -> integrationGuard.execute(STUB, this::healthyProvider));
+        assertThat(providerCalls).hasValue(3);
+        assertThat(stats()).containsEntry("state", "OPEN").containsEntry("rejectedOpen", 1L);
+    }
+
+    @Test
+    void successfulProbeClosesCircuit() throws Exception {
+        openCircuit();
+        Thread.sleep(250);
+
+        assertThat(integrationGuard.execute(STUB, this::healthyProvider)).isEqualTo("ok");
+        assertThat(integrationGuard.execute(STUB, this::healthyProvider)).isEqualTo("ok");
+        assertThat(stats()).containsEntry("state", "CLOSED").containsEntry("consecutiveFailures", 0);
+    }
+
+    @Test
+    void failedProbeReopensCircuitImmediately() throws Exception {
+        openCircuit();
+        Thread.sleep(250);
+
+        assertThrows(IOException.class, () -> integrationGuard.execute(STUB, this::failingProvider));
+
+        assertThrows(IntegrationUnavailableException.class, () -> integrationGuard.execute(STUB, this::healthyProvider));
+        assertThat(stats()).containsEntry("state", "OPEN");
+    }
+
+    @Test
+    void clientErrorsDoNotTripTheBreaker() {
+        for (int i = 0; i < 5; i++) {
+            assertThrows(IllegalArgumentException.class, () -> integrationGuard.execute(STUB, () -> {
+                providerCalls.incrementAndGet();
+                throw new IllegalArgumentException("card declined");
+            }, e -> !(e instanceof IllegalArgumentException)));
+        }
+
+        assertThat(providerCalls).hasValue(5);
+        assertThat(stats()).containsEntry("state", "CLOSED").containsEntry("failures", 0L);
+    }
+
+    @Test
+    void slowCallsCountAsFailures() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            integrationGuard.execute(STUB, () -> {
+                Thread.sleep(80);
+                return "late";
+            });
+        }
+
+        assertThat(stats()).containsEntry("state", "OPEN").containsEntry("slowCalls", 3L);
+        assertThrows(IntegrationUnavailableException.class, () -> integrationGuard.execute(STUB, this::healthyProvider));
+    }
+
+    @Test
+    void bulkheadRejectsCallsBeyondItsCapacity() throws Exception {
+        CountDownLatch started = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> first = callers.submit(() -> integrationGuard.execute(STUB, () -> hangingProvider(started, release)));
+            Future<String> second = callers.submit(() -> integrationGuard.execute(STUB, () -> hangingProvider(started, release)));
+            assertThat(started.await(1, TimeUnit.SECONDS)).isTrue();
+
+            assertThrows(IntegrationUnavailableException.class, () -> integrationGuard.execute(STUB, this::healthyProvider));
+            assertThat(stats()).containsEntry("inFlight", 2).containsEntry("rejectedFull", 1L);
+
+            release.countDown();
+            assertThat(first.get(1, TimeUnit.SECONDS)).isEqualTo("released");
+            assertThat(second.get(1, TimeUnit.SECONDS)).isEqualTo("released");
+            assertThat(integrationGuard.execute(STUB, this::healthyProvider)).isEqualTo("ok");
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    private void openCircuit() {
+        for (int i = 0; i < 3; i++) {
+            assertThrows(IOException.class, () -> integrationGuard.execute(STUB, this::failingProvider));
+        }
+        assertThat(stats()).containsEntry("state", "OPEN");
+    }
+
+    private String healthyProvider() {
+        providerCalls.incrementAndGet();
+        return "ok";
+    }
+
+    private String failingProvider() throws IOException {
+        providerCalls.incrementAndGet();
+        throw new IOException("connection reset");
+    }
+
+    private String hangingProvider(CountDownLatch started, CountDownLatch release) throws InterruptedException {
+        started.countDown();
+        release.await(1, TimeUnit.SECONDS);
+        return "released";
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> stats() {
+        return (Map<String, Object>) integrationGuard.getStats().get(STUB);
+    }
+}
@@ -0,0 +1,124 @@
+package com.slimbahael.beauty_center.service;
+
+import com.slimbahael.beauty_center.model.SharedStateEntry;
+import com.slimbahael.beauty_center.repository.SharedStateRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class MongoSharedStateStoreTest {
+
+    private static final Duration TTL = Duration.ofMinutes(2);
+
+    @Mock
+    private SharedStateRepository sharedStateRepository;
+
+    private final AtomicLong now = new AtomicLong(1_700_000_000_000L);
+    private MongoSharedStateStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new MongoSharedStateStore(sharedStateRepository, 1000, 100, now::get);
+    }
+
+    @Test
+    void nearCachedCountsStayLocalUntilFlushedThenPickUpTheGlobalValue() {
+        assertThat(store.incrementNearCached("rate:general:10.0.0.1:1", 1, TTL)).isEqualTo(1);
+        assertThat(store.incrementNearCached("rate:general:10.0.0.1:1", 1, TTL)).isEqualTo(2);
+        assertThat(store.incrementNearCached("rate:general:10.0.0.1:1", 1, TTL)).isEqualTo(3);
+        verifyNoInteractions(sharedStateRepository);
+
+        // Other instances have counted 7 more
+        when(sharedStateRepository.increment(eq("rate:general:10.0.0.1:1"), eq(3L), any(Date.class), any(Date.class)))
+                .thenReturn(10L);
+        store.flush();
+
+        assertThat(store.getNearCached("rate:general:10.0.0.1:1")).isEqualTo(10);
+        assertThat(store.incrementNearCached("rate:general:10.0.0.1:1", 1, TTL)).isEqualTo(11);
+    }
+
+    @Test
+    void failedFlushKeepsThePendingDeltaForTheNextOne() {
+        store.incrementNearCached("rate:login:10.0.0.1:1", 2, TTL);
+        when(sharedStateRepository.increment(eq("rate:login:10.0.0.1:1"), eq(2L), any(Date.class), any(Date.class)))
+                .thenThrow(new RuntimeException("not primary"))
+                .thenReturn(2L);
+
+        store.flush();
+        store.flush();
+
+        verify(sharedStateRepository, times(2))
+                .increment(eq("rate:login:10.0.0.1:1"), eq(2L), any(Date.class), any(Date.class));
+        assertThat(store.getNearCached("rate:login:10.0.0.1:1")).isEqualTo(2);
+    }
+
+    @Test
+    void fullNearCacheFallsBackToRemoteCounting() {
+        store = new MongoSharedStateStore(sharedStateRepository, 1000, 1, now::get);
+        store.incrementNearCached("rate:general:10.0.0.1:1", 1, TTL);
+        when(sharedStateRepository.increment(eq("rate:general:10.0.0.2:1"), eq(1L), any(Date.class), any(Date.class)))
+                .thenReturn(4L);
+
+        assertThat(store.incrementNearCached("rate:general:10.0.0.2:1", 1, TTL)).isEqualTo(4);
+        assertThat(store.getStats()).containsEntry("nearCounters", 1);
+    }
+
+    @Test
+    void flagsSetHereAreSeenWithoutARoundTrip() {
+        store.putFlag("revoked-token:abc", Duration.ofHours(24));
+
+        assertThat(store.hasFlag("revoked-token:abc")).isTrue();
+        verify(sharedStateRepository).putFlag(eq("revoked-token:abc"), any(Date.class));
+        verify(sharedStateRepository, never()).findById(anyString());
+    }
+
+    @Test
+    void flagsSetElsewhereAreSeenOnceTheNegativeCacheExpires() {
+        when(sharedStateRepository.findById("revoked-token:abc"))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(flag("revoked-token:abc", now.get() + 60_000)));
+
+        assertThat(store.hasFlag("revoked-token:abc")).isFalse();
+        assertThat(store.hasFlag("revoked-token:abc")).isFalse();
+        verify(sharedStateRepository, times(1)).findById("revoked-token:abc");
+
+        now.addAndGet(1000);
+        assertThat(store.hasFlag("revoked-token:abc")).isTrue();
+        assertThat(store.hasFlag("revoked-token:abc")).isTrue();
+        verify(sharedStateRepository, times(2)).findById("revoked-token:abc");
+    }
+
+    @Test
+    void expiredFlagDocumentsCountAsAbsent() {
+        when(sharedStateRepository.findById("revoked-token:abc"))
+                .thenReturn(Optional.of(flag("revoked-token:abc", now.get() - 1)));
+
+        assertThat(store.hasFlag("revoked-token:abc")).isFalse();
+    }
+
+    private SharedStateEntry flag(String key, long expiresAt) {
+        return SharedStateEntry.builder()
+                .id(key)
+                .value(1)
+                .expiresAt(new Date(expiresAt))
+                .build();
+    }
+}
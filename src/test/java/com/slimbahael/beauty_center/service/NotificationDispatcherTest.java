@@ -0,0 +1,117 @@
+package com.slimbahael.beauty_center.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NotificationDispatcherTest {
+
+    private NotificationDispatcher dispatcher;
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void dispatchReturnsBeforeTheSendRuns() throws InterruptedException {
+        dispatcher = new NotificationDispatcher(10, 1, 3, 10);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch sent = new CountDownLatch(1);
+
+        boolean queued = dispatcher.dispatch("slow email", () -> {
+            awaitQuietly(release);
+            sent.countDown();
+        });
+
+        assertThat(queued).isTrue();
+        assertThat(sent.getCount()).isEqualTo(1);
+        release.countDown();
+        assertThat(sent.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void failedSendIsRetriedUntilItSucceeds() throws InterruptedException {
+        dispatcher = new NotificationDispatcher(10, 1, 3, 10);
+        AtomicInteger attempts = new AtomicInteger();
+        CountDownLatch sent = new CountDownLatch(1);
+
+        dispatcher.dispatch("flaky email", () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new RuntimeException("provider unavailable");
+            }
+            sent.countDown();
+        });
+
+        assertThat(sent.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(attempts.get()).isEqualTo(3);
+        awaitStat("delivered", 1L);
+        assertThat(dispatcher.getStats()).containsEntry("retried", 2L).containsEntry("deadLettered", 0L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void sendThatKeepsFailingIsDeadLetteredAfterMaxAttempts() throws InterruptedException {
+        dispatcher = new NotificationDispatcher(10, 1, 2, 10);
+        AtomicInteger attempts = new AtomicInteger();
+
+        dispatcher.dispatch("broken email", () -> {
+            attempts.incrementAndGet();
+            throw new RuntimeException("invalid recipient");
+        });
+
+        awaitStat("deadLettered", 1L);
+        assertThat(attempts.get()).isEqualTo(2);
+        List<Map<String, Object>> deadLetters =
+                (List<Map<String, Object>>) dispatcher.getStats().get("recentDeadLetters");
+        assertThat(deadLetters).hasSize(1);
+        assertThat(deadLetters.get(0)).containsEntry("description", "broken email")
+                .containsEntry("reason", "invalid recipient");
+    }
+
+    @Test
+    void fullQueueRejectsInsteadOfBlockingTheCaller() throws InterruptedException {
+        dispatcher = new NotificationDispatcher(1, 1, 3, 10);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+
+        dispatcher.dispatch("busy worker", () -> {
+            started.countDown();
+            awaitQuietly(release);
+        });
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(dispatcher.dispatch("queued", () -> { })).isTrue();
+        assertThat(dispatcher.dispatch("overflow", () -> { })).isFalse();
+        assertThat(dispatcher.getStats()).containsEntry("queueDepth", 1)
+                .containsEntry("rejected", 1L)
+                .containsEntry("deadLettered", 1L);
+
+        release.countDown();
+        awaitStat("delivered", 2L);
+    }
+
+    private void awaitStat(String name, long expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!Long.valueOf(expected).equals(dispatcher.getStats().get(name))
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(dispatcher.getStats()).containsEntry(name, expected);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
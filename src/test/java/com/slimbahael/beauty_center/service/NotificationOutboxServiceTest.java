@@ -0,0 +1,149 @@
+package com.slimbahael.beauty_center.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.slimbahael.beauty_center.dto.OrderResponse;
+import com.slimbahael.beauty_center.model.NotificationOutboxEntry;
+import com.slimbahael.beauty_center.repository.NotificationOutboxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationOutboxServiceTest {
+
+    private static final long INITIAL_BACKOFF_MS = 30_000;
+
+    @Mock
+    private NotificationOutboxRepository outboxRepository;
+    @Mock
+    private NotificationDispatcher notificationDispatcher;
+
+    private NotificationOutboxService outboxService;
+    private final List<OrderResponse> delivered = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        outboxService = new NotificationOutboxService(outboxRepository, notificationDispatcher, new ObjectMapper(),
+                3, 120_000, INITIAL_BACKOFF_MS, 2);
+        outboxService.registerHandler(NotificationOutboxService.ORDER_CONFIRMATION, entry -> {
+            OrderResponse order = outboxService.readPayload(entry, OrderResponse.class);
+            if (order.getId().startsWith("broken")) {
+                throw new RuntimeException("provider unavailable");
+            }
+            delivered.add(order);
+        });
+    }
+
+    @Test
+    void enqueueStoresPendingEntryBeforeTryingToSend() {
+        when(outboxRepository.save(any(NotificationOutboxEntry.class))).thenAnswer(invocation -> {
+            NotificationOutboxEntry entry = invocation.getArgument(0);
+            entry.setId("entry-1");
+            return entry;
+        });
+
+        outboxService.enqueue(NotificationOutboxService.ORDER_CONFIRMATION, "customer@example.com", "order-1", order("order-1"));
+
+        ArgumentCaptor<NotificationOutboxEntry> captor = ArgumentCaptor.forClass(NotificationOutboxEntry.class);
+        verify(outboxRepository).save(captor.capture());
+        NotificationOutboxEntry saved = captor.getValue();
+        assertThat(saved.getStatus()).isEqualTo("PENDING");
+        assertThat(saved.getAttempts()).isZero();
+        assertThat(saved.getNextAttemptAt()).isNotNull();
+        assertThat(saved.getAggregateId()).isEqualTo("order-1");
+        assertThat(outboxService.readPayload(saved, OrderResponse.class).getTotal()).isEqualByComparingTo("42.00");
+        verify(notificationDispatcher).dispatch(anyString(), any(Runnable.class));
+    }
+
+    @Test
+    void dueEntriesAreClaimedInBatchesUntilDrained() {
+        when(outboxRepository.claimDue(anyString(), any(Date.class), any(Date.class), eq(2)))
+                .thenReturn(List.of(entry("e1", order("order-1"), 1), entry("e2", order("order-2"), 1)))
+                .thenReturn(List.of(entry("e3", order("order-3"), 1)));
+        when(outboxRepository.markSent(anyString(), anyString(), any(Date.class))).thenReturn(true);
+
+        int processed = outboxService.processDueEntries();
+
+        assertThat(processed).isEqualTo(3);
+        assertThat(delivered).extracting(OrderResponse::getId).containsExactly("order-1", "order-2", "order-3");
+        verify(outboxRepository).markSent(eq("e1"), anyString(), any(Date.class));
+        verify(outboxRepository).markSent(eq("e3"), anyString(), any(Date.class));
+    }
+
+    @Test
+    void failedDeliveryIsRescheduledWithBackoff() {
+        when(outboxRepository.claimDue(anyString(), any(Date.class), any(Date.class), anyInt()))
+                .thenReturn(List.of(entry("e1", order("broken-1"), 2)));
+
+        long before = System.currentTimeMillis();
+        outboxService.processDueEntries();
+
+        ArgumentCaptor<Date> nextAttempt = ArgumentCaptor.forClass(Date.class);
+        verify(outboxRepository).markRetry(eq("e1"), anyString(), nextAttempt.capture(), eq("provider unavailable"));
+        // Second attempt waits twice the initial backoff
+        assertThat(nextAttempt.getValue().getTime()).isGreaterThanOrEqualTo(before + 2 * INITIAL_BACKOFF_MS);
+        verify(outboxRepository, never()).markSent(anyString(), anyString(), any(Date.class));
+    }
+
+    @Test
+    void deliveryFailingOnLastAttemptIsMarkedFailed() {
+        when(outboxRepository.claimDue(anyString(), any(Date.class), any(Date.class), anyInt()))
+                .thenReturn(List.of(entry("e1", order("broken-1"), 3)));
+
+        outboxService.processDueEntries();
+
+        verify(outboxRepository).markFailed(eq("e1"), anyString(), eq("provider unavailable"));
+        verify(outboxRepository, never()).markRetry(anyString(), anyString(), any(Date.class), anyString());
+    }
+
+    @Test
+    void deliverNowSkipsEntryClaimedByAnotherInstance() {
+        when(outboxRepository.claimById(eq("e1"), anyString(), any(Date.class), any(Date.class))).thenReturn(Optional.empty());
+
+        outboxService.deliverNow("e1");
+
+        assertThat(delivered).isEmpty();
+        verify(outboxRepository, never()).markSent(anyString(), anyString(), any(Date.class));
+    }
+
+    private NotificationOutboxEntry entry(String id, OrderResponse order, int attempts) {
+        try {
+            return NotificationOutboxEntry.builder()
+                    .id(id)
+                    .type(NotificationOutboxService.ORDER_CONFIRMATION)
+                    .recipient("customer@example.com")
+                    .aggregateId(order.getId())
+                    .payload(new ObjectMapper().writeValueAsString(order))
+                    .status("PENDING")
+                    .attempts(attempts)
+                    .build();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private OrderResponse order(String id) {
+        return OrderResponse.builder()
+                .id(id)
+                .total(new BigDecimal("42.00"))
+                .build();
+    }
+}
@@ -1,6 +1,7 @@
 package com.slimbahael.beauty_center.service;
 
 import com.slimbahael.beauty_center.dto.CheckoutRequest;
+import com.slimbahael.beauty_center.dto.CursorPage;
 import com.slimbahael.beauty_center.exception.BadRequestException;
 import com.slimbahael.beauty_center.model.BalanceTransaction;
 import com.slimbahael.beauty_center.model.Cart;
@@ -8,19 +9,30 @@ import com.slimbahael.beauty_center.model.Order;
 import com.slimbahael.beauty_center.model.Product;
 import com.slimbahael.beauty_center.model.User;
 import com.slimbahael.beauty_center.repository.*;
+import com.slimbahael.beauty_center.security.CurrentUserResolver;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.authentication.TestingAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -40,8 +52,11 @@ class OrderServiceTest {
     @Mock private CartService cartService;
     @Mock private SmsService smsService;
     @Mock private EmailService emailService;
-    @Mock private StripeService stripeService;
+    @Mock private PaymentStateService paymentStateService;
     @Mock private BalanceService balanceService;
+    @Mock private CurrentUserResolver currentUserResolver;
+    @Mock private ProductCatalogCache catalogCache;
+    @Mock private CursorPaginationService cursorPaginationService;
 
     @InjectMocks
     private OrderService orderService;
@@ -112,9 +127,8 @@ class OrderServiceTest {
         when(balanceService.processBalancePayment(eq(customer.getId()), eq(total), any(), isNull()))
                 .thenReturn(transaction);
 
-        when(productRepository.findById("prod-1")).thenReturn(Optional.of(product));
-        when(productRepository.save(any(Product.class))).thenAnswer(invocation -> invocation.getArgument(0));
-        when(userRepository.findById(customer.getId())).thenReturn(Optional.of(customer));
+        when(productRepository.decrementStockIfAvailable("prod-1", 2)).thenReturn(Optional.of(product));
+        when(userRepository.findAllById(any())).thenReturn(List.of(customer));
         when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
             Order order = invocation.getArgument(0);
             order.setId("order-1");
@@ -131,6 +145,9 @@ class OrderServiceTest {
         assertThat(response.getId()).isEqualTo("order-1");
         assertThat(response.getTotal()).isEqualByComparingTo(total);
         assertThat(response.getPaymentMethod()).isEqualTo("BALANCE");
+        assertThat(response.getItems().get(0).getImageUrl()).isEqualTo("http://img");
+        verify(orderRepository).save(argThat(order -> "http://img".equals(order.getItems().get(0).getImageUrl())));
+        verify(productRepository, never()).findAllById(any());
 
         verify(balanceService).processBalancePayment(customer.getId(), total, "Payment pour une commande", null);
         verify(balanceTransactionRepository).save(argThat(tx -> "order-1".equals(tx.getOrderId())));
@@ -154,6 +171,78 @@ class OrderServiceTest {
         verify(orderRepository, never()).save(any());
     }
 
+    @Test
+    void checkoutWithBalanceRefundsAndReleasesStockWhenOrderSaveFails() {
+        BigDecimal total = new BigDecimal("45.00");
+        BalanceTransaction transaction = BalanceTransaction.builder()
+                .id("txn-1")
+                .userId(customer.getId())
+                .build();
+
+        when(balanceService.hasInsufficientBalance(customer.getId(), total)).thenReturn(false);
+        when(balanceService.processBalancePayment(eq(customer.getId()), eq(total), any(), isNull()))
+                .thenReturn(transaction);
+        when(productRepository.decrementStockIfAvailable("prod-1", 2)).thenReturn(Optional.of(product));
+        when(orderRepository.save(any(Order.class))).thenThrow(new IllegalStateException("write failed"));
+        when(productRepository.incrementStock("prod-1", 2)).thenReturn(true);
+
+        assertThrows(IllegalStateException.class, () -> orderService.checkoutWithBalance(
+                checkoutRequest, customer, cart,
+                cart.getSubtotal(), BigDecimal.ZERO,
+                new BigDecimal("5.00"), total));
+
+        verify(balanceService).refundToBalance(eq(customer.getId()), eq(total), any(), isNull());
+        verify(productRepository).incrementStock("prod-1", 2);
+        verify(balanceTransactionRepository, never()).save(any());
+        verify(cartService, never()).clearCart();
+    }
+
+    @Test
+    void regularCheckoutReleasesStockWhenOrderSaveFails() {
+        checkoutRequest.setPaymentMethod("BANK_TRANSFER");
+        when(productRepository.decrementStockIfAvailable("prod-1", 2)).thenReturn(Optional.of(product));
+        when(orderRepository.save(any(Order.class))).thenThrow(new IllegalStateException("write failed"));
+        when(productRepository.incrementStock("prod-1", 2)).thenReturn(true);
+
+        assertThrows(IllegalStateException.class, () -> orderService.processRegularCheckout(
+                checkoutRequest, customer, cart,
+                cart.getSubtotal(), BigDecimal.ZERO,
+                new BigDecimal("5.00"), new BigDecimal("45.00")));
+
+        verify(productRepository).incrementStock("prod-1", 2);
+        verify(cartService, never()).clearCart();
+    }
+
+    @Test
+    void checkoutTwiceWithTheSamePaymentIntentIsRejectedAndReleasesStock() {
+        checkoutRequest.setPaymentMethod("STRIPE");
+        checkoutRequest.setPaymentIntentId("pi_123");
+        when(paymentStateService.getPaymentStatus("pi_123")).thenReturn(PaymentStateService.SUCCEEDED);
+        when(productRepository.decrementStockIfAvailable("prod-1", 2)).thenReturn(Optional.of(product));
+        when(userRepository.findAllById(any())).thenReturn(List.of(customer));
+        // The unique sparse stripePaymentIntentId index lets the first order in and rejects the second
+        when(orderRepository.save(any(Order.class)))
+                .thenAnswer(invocation -> {
+                    Order order = invocation.getArgument(0);
+                    order.setId("order-1");
+                    return order;
+                })
+                .thenThrow(new DuplicateKeyException("E11000 duplicate key error index: stripePaymentIntentId"));
+        when(productRepository.incrementStock("prod-1", 2)).thenReturn(true);
+
+        var first = orderService.processRegularCheckout(checkoutRequest, customer, cart,
+                cart.getSubtotal(), BigDecimal.ZERO, new BigDecimal("5.00"), new BigDecimal("45.00"));
+        BadRequestException duplicate = assertThrows(BadRequestException.class, () -> orderService.processRegularCheckout(
+                checkoutRequest, customer, cart,
+                cart.getSubtotal(), BigDecimal.ZERO, new BigDecimal("5.00"), new BigDecimal("45.00")));
+
+        assertThat(first.getId()).isEqualTo("order-1");
+        assertThat(duplicate.getMessage()).isEqualTo("An order already exists for this payment");
+        verify(productRepository, times(2)).decrementStockIfAvailable("prod-1", 2);
+        verify(productRepository, times(1)).incrementStock("prod-1", 2);
+        verify(cartService, times(1)).clearCart();
+    }
+
     @Test
     void updateOrderStatusCancelsOrderRestoresStockAndNotifies() {
         Order order = Order.builder()
@@ -192,18 +281,202 @@ class OrderServiceTest {
                 new TestingAuthenticationToken(admin.getEmail(), null));
 
         when(orderRepository.findById("order-2")).thenReturn(Optional.of(order));
-        when(userRepository.findByEmail(admin.getEmail())).thenReturn(Optional.of(admin));
+        when(currentUserResolver.getCurrentUser()).thenReturn(admin);
         when(userRepository.findById(customer.getId())).thenReturn(Optional.of(customer));
-        when(productRepository.findById("prod-1")).thenReturn(Optional.of(product));
-        when(productRepository.save(any(Product.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(userRepository.findAllById(any())).thenReturn(List.of(customer));
+        when(productRepository.findAllById(any())).thenReturn(List.of(product)); // item has no image snapshot
+        when(productRepository.incrementStock("prod-1", 1)).thenReturn(true);
         when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         var response = orderService.updateOrderStatus("order-2", "CANCELLED");
 
         assertThat(response.getOrderStatus()).isEqualTo("CANCELLED");
-        assertThat(product.getStockQuantity()).isEqualTo(6); // restored
+        verify(productRepository).incrementStock("prod-1", 1); // restored
 
         verify(smsService).sendSms(eq(customer.getPhoneNumber()), any());
         verify(emailService).sendCancelledOrderNotificationToAdmin(any(), eq("Commande annulée par l'administrateur"));
     }
+
+    @Test
+    void checkoutWithBalanceReleasesReservedStockWhenLaterItemIsOutOfStock() {
+        BigDecimal total = new BigDecimal("65.00");
+        Cart twoItemCart = Cart.builder()
+                .customerId(customer.getId())
+                .items(List.of(
+                        cart.getItems().get(0),
+                        Cart.CartItem.builder()
+                                .productId("prod-2")
+                                .productName("Cream")
+                                .quantity(1)
+                                .unitPrice(new BigDecimal("20.00"))
+                                .totalPrice(new BigDecimal("20.00"))
+                                .build()))
+                .subtotal(new BigDecimal("60.00"))
+                .build();
+
+        when(balanceService.hasInsufficientBalance(customer.getId(), total)).thenReturn(false);
+        when(productRepository.decrementStockIfAvailable("prod-1", 2)).thenReturn(Optional.of(product));
+        when(productRepository.decrementStockIfAvailable("prod-2", 1)).thenReturn(Optional.empty());
+        when(productRepository.existsById("prod-2")).thenReturn(true);
+        when(productRepository.incrementStock("prod-1", 2)).thenReturn(true);
+
+        assertThrows(BadRequestException.class, () -> orderService.checkoutWithBalance(
+                checkoutRequest, customer, twoItemCart,
+                twoItemCart.getSubtotal(), BigDecimal.ZERO,
+                new BigDecimal("5.00"), total));
+
+        verify(productRepository).incrementStock("prod-1", 2);
+        verify(catalogCache, times(2)).invalidateProduct("prod-1"); // reserved, then released
+        InOrder release = inOrder(productRepository, catalogCache);
+        release.verify(productRepository).incrementStock("prod-1", 2);
+        release.verify(catalogCache).invalidateProduct("prod-1"); // released stock is not re-cached stale
+        verify(balanceService, never()).processBalancePayment(any(), any(), any(), any());
+        verify(orderRepository, never()).save(any());
+    }
+
+    @Test
+    void concurrentCheckoutsNeverOversellStock() throws Exception {
+        int initialStock = 5;
+        int checkouts = 40;
+        BigDecimal total = new BigDecimal("25.00");
+        AtomicInteger stock = new AtomicInteger(initialStock);
+        Cart singleItemCart = Cart.builder()
+                .customerId(customer.getId())
+                .items(List.of(Cart.CartItem.builder()
+                        .productId("prod-1")
+                        .productName("Serum")
+                        .quantity(1)
+                        .unitPrice(new BigDecimal("20.00"))
+                        .totalPrice(new BigDecimal("20.00"))
+                        .build()))
+                .subtotal(new BigDecimal("20.00"))
+                .build();
+
+        // Emulates the conditional update: decrement only while enough stock remains
+        when(productRepository.decrementStockIfAvailable("prod-1", 1)).thenAnswer(invocation -> {
+            int current;
+            do {
+                current = stock.get();
+                if (current < 1) {
+                    return Optional.empty();
+                }
+            } while (!stock.compareAndSet(current, current - 1));
+            return Optional.of(product);
+        });
+        when(productRepository.existsById("prod-1")).thenReturn(true);
+        when(balanceService.hasInsufficientBalance(customer.getId(), total)).thenReturn(false);
+        when(balanceService.processBalancePayment(eq(customer.getId()), eq(total), any(), isNull()))
+                .thenAnswer(invocation -> BalanceTransaction.builder().id("txn").build());
+        when(userRepository.findAllById(any())).thenReturn(List.of(customer));
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(balanceTransactionRepository.save(any(BalanceTransaction.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < checkouts; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    orderService.checkoutWithBalance(checkoutRequest, customer, singleItemCart,
+                            singleItemCart.getSubtotal(), BigDecimal.ZERO, new BigDecimal("5.00"), total);
+                    succeeded.incrementAndGet();
+                } catch (BadRequestException e) {
+                    rejected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertThat(succeeded.get()).isEqualTo(initialStock);
+        assertThat(rejected.get()).isEqualTo(checkouts - initialStock);
+        assertThat(stock.get()).isZero();
+        verify(balanceService, times(initialStock)).processBalancePayment(any(), any(), any(), any());
+    }
+
+    @Test
+    void customerOrderHistoryLoadsProductsOnceForAllItems() {
+        List<Product> products = new ArrayList<>();
+        for (int p = 0; p < 4; p++) {
+            products.add(Product.builder()
+                    .id("prod-" + p)
+                    .name("Product " + p)
+                    .imageUrls(List.of("http://img/" + p))
+                    .build());
+        }
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            orders.add(historicalOrder("order-" + i, products, false));
+        }
+
+        when(currentUserResolver.getCurrentUser()).thenReturn(customer);
+        stubCustomerOrderPage(orders);
+        when(userRepository.findAllById(any())).thenReturn(List.of(customer));
+        when(productRepository.findAllById(any())).thenReturn(products);
+
+        var responses = orderService.getCustomerOrders(null, 50).getItems();
+
+        assertThat(responses).hasSize(30);
+        assertThat(responses.get(29).getItems()).extracting(item -> item.getImageUrl())
+                .containsExactly("http://img/0", "http://img/1", "http://img/2", "http://img/3");
+        verify(productRepository, times(1)).findAllById(any());
+        verify(productRepository, never()).findById(any());
+        verify(userRepository, times(1)).findAllById(any());
+        verify(userRepository, never()).findById(any());
+    }
+
+    @Test
+    void ordersWithImageSnapshotsNeedNoProductLookup() {
+        List<Product> products = List.of(product);
+        List<Order> orders = List.of(
+                historicalOrder("order-1", products, true),
+                historicalOrder("order-2", products, true));
+
+        when(currentUserResolver.getCurrentUser()).thenReturn(customer);
+        stubCustomerOrderPage(orders);
+        when(userRepository.findAllById(any())).thenReturn(List.of(customer));
+
+        var responses = orderService.getCustomerOrders(null, 50).getItems();
+
+        assertThat(responses).allSatisfy(response ->
+                assertThat(response.getItems().get(0).getImageUrl()).isEqualTo("http://img"));
+        verifyNoInteractions(productRepository);
+    }
+
+    private void stubCustomerOrderPage(List<Order> orders) {
+        when(cursorPaginationService.findPage(any(), eq(Order.class), eq("createdAt"), eq(Sort.Direction.DESC),
+                any(), any(), isNull(), eq(50)))
+                .thenReturn(CursorPage.<Order>builder().items(orders).limit(50).build());
+    }
+
+    private Order historicalOrder(String id, List<Product> products, boolean withImageSnapshot) {
+        List<Order.OrderItem> items = new ArrayList<>();
+        for (Product itemProduct : products) {
+            items.add(Order.OrderItem.builder()
+                    .productId(itemProduct.getId())
+                    .productName(itemProduct.getName())
+                    .quantity(1)
+                    .unitPrice(new BigDecimal("10.00"))
+                    .totalPrice(new BigDecimal("10.00"))
+                    .imageUrl(withImageSnapshot ? itemProduct.getImageUrls().get(0) : null)
+                    .build());
+        }
+        return Order.builder()
+                .id(id)
+                .customerId(customer.getId())
+                .items(items)
+                .shippingAddress(Order.ShippingAddress.builder().fullName("Jane Doe").build())
+                .orderStatus("DELIVERED")
+                .paymentStatus("PAID")
+                .createdAt(new java.util.Date())
+                .build();
+    }
 }
@@ -0,0 +1,102 @@
+package com.slimbahael.beauty_center.service;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OutboundHttpClientsTest {
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+    private OutboundHttpClients outboundHttpClients;
+    private String baseUrl;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        // Local stub server recording the client port of every request it serves
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/ok", exchange -> {
+            clientPorts.add(exchange.getRemoteAddress().getPort());
+            byte[] body = "ok".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.createContext("/slow", exchange -> {
+            try {
+                Thread.sleep(500);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("test", Map.of(
+                "http.client.http2", "false",
+                "http.client.stub-slow.read-timeout-ms", "200")));
+        outboundHttpClients = new OutboundHttpClients(environment);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    void consecutiveRequestsReuseOneKeepAliveConnection() {
+        for (int i = 0; i < 5; i++) {
+            assertThat(outboundHttpClients.forIntegration("stub").getForObject(baseUrl + "/ok", String.class))
+                    .isEqualTo("ok");
+        }
+
+        assertThat(clientPorts).hasSize(1);
+        assertThat(outboundHttpClients.getStats()).containsKey("127.0.0.1");
+    }
+
+    @Test
+    void integrationsUseSeparateConnectionPools() {
+        outboundHttpClients.forIntegration("stub").getForObject(baseUrl + "/ok", String.class);
+        outboundHttpClients.forIntegration("other").getForObject(baseUrl + "/ok", String.class);
+        outboundHttpClients.forIntegration("stub").getForObject(baseUrl + "/ok", String.class);
+
+        assertThat(outboundHttpClients.forIntegration("stub")).isSameAs(outboundHttpClients.forIntegration("stub"));
+        assertThat(clientPorts).hasSize(2);
+    }
+
+    @Test
+    void hungProviderTimesOutAndCountsAsError() {
+        // Only this integration has the short read timeout; the others keep the default
+        assertThrows(ResourceAccessException.class,
+                () -> outboundHttpClients.forIntegration("stub-slow").getForObject(baseUrl + "/slow", String.class));
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> host = (Map<String, Object>) outboundHttpClients.getStats().get("127.0.0.1");
+        assertThat(host).containsEntry("requests", 1L).containsEntry("errors", 1L);
+    }
+}
@@ -0,0 +1,104 @@
+package com.slimbahael.beauty_center.service;
+
+import com.slimbahael.beauty_center.exception.BadRequestException;
+import com.slimbahael.beauty_center.model.PaymentState;
+import com.slimbahael.beauty_center.repository.PaymentStateRepository;
+import com.stripe.model.PaymentIntent;
+import com.stripe.model.checkout.Session;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentStateServiceTest {
+
+    @Mock
+    private PaymentStateRepository paymentStateRepository;
+    @Mock
+    private StripeService stripeService;
+
+    @InjectMocks
+    private PaymentStateService paymentStateService;
+
+    @Test
+    void succeededStateFromWebhookIsServedWithoutCallingStripe() {
+        when(paymentStateRepository.findById("pi_1")).thenReturn(Optional.of(state("pi_1", "succeeded")));
+
+        assertThat(paymentStateService.getPaymentStatus("pi_1")).isEqualTo("succeeded");
+
+        verifyNoInteractions(stripeService);
+        assertThat(paymentStateService.getStats()).containsEntry("localHits", 1L).containsEntry("stripeFallbacks", 0L);
+    }
+
+    @Test
+    void pendingStateFallsBackToStripeOnceAndStoresTheAnswer() {
+        when(paymentStateRepository.findById("pi_1"))
+                .thenReturn(Optional.of(state("pi_1", "processing")))
+                .thenReturn(Optional.of(state("pi_1", "succeeded")));
+        PaymentIntent paymentIntent = mock(PaymentIntent.class);
+        when(paymentIntent.getId()).thenReturn("pi_1");
+        when(paymentIntent.getStatus()).thenReturn("succeeded");
+        when(paymentIntent.getAmount()).thenReturn(5000L);
+        when(stripeService.getPaymentIntent("pi_1")).thenReturn(paymentIntent);
+        when(paymentStateRepository.saveIfNewer(any(PaymentState.class), anyCollection())).thenReturn(true);
+
+        PaymentState state = paymentStateService.getPaymentIntent("pi_1");
+
+        assertThat(state.getStatus()).isEqualTo("succeeded");
+        ArgumentCaptor<PaymentState> saved = ArgumentCaptor.forClass(PaymentState.class);
+        verify(paymentStateRepository).saveIfNewer(saved.capture(), anyCollection());
+        assertThat(saved.getValue().getAmount()).isEqualTo(5000L);
+        assertThat(saved.getValue().getSourceEventId()).isNull();
+        assertThat(saved.getValue().getStateAsOf()).isNotNull();
+        assertThat(paymentStateService.getStats()).containsEntry("stripeFallbacks", 1L);
+    }
+
+    @Test
+    void unknownCheckoutSessionIsFetchedFromStripe() throws Exception {
+        when(paymentStateRepository.findById("cs_1"))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(PaymentState.builder().id("cs_1").status("paid").paymentIntentId("pi_9")
+                        .metadata(Map.of("gift_card_id", "gc-1")).build()));
+        Session session = mock(Session.class);
+        when(session.getId()).thenReturn("cs_1");
+        when(session.getPaymentStatus()).thenReturn("paid");
+        when(stripeService.retrieveCheckoutSession("cs_1")).thenReturn(session);
+        when(paymentStateRepository.saveIfNewer(any(PaymentState.class), anyCollection())).thenReturn(true);
+
+        PaymentState state = paymentStateService.getCheckoutSession("cs_1");
+
+        assertThat(state.getPaymentIntentId()).isEqualTo("pi_9");
+        assertThat(state.getMetadata()).containsEntry("gift_card_id", "gc-1");
+    }
+
+    @Test
+    void statusIsUnknownWhenStripeCannotAnswer() {
+        when(paymentStateRepository.findById("pi_missing")).thenReturn(Optional.empty());
+        when(stripeService.getPaymentIntent("pi_missing")).thenThrow(new BadRequestException("No such payment_intent"));
+
+        assertThat(paymentStateService.getPaymentStatus("pi_missing")).isEqualTo("unknown");
+    }
+
+    private PaymentState state(String id, String status) {
+        return PaymentState.builder()
+                .id(id)
+                .objectType(PaymentState.PAYMENT_INTENT)
+                .status(status)
+                .amount(5000L)
+                .build();
+    }
+}
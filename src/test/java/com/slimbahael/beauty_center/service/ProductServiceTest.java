@@ -5,6 +5,8 @@ import com.slimbahael.beauty_center.dto.ProductResponse;
 import com.slimbahael.beauty_center.exception.ResourceNotFoundException;
 import com.slimbahael.beauty_center.model.Product;
 import com.slimbahael.beauty_center.repository.ProductRepository;
+import com.slimbahael.beauty_center.repository.ProductRepositoryImpl;
+import org.bson.Document;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,7 +14,12 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.security.authentication.TestingAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 
@@ -21,16 +28,23 @@ import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -42,8 +56,8 @@ class ProductServiceTest {
     @Mock
     private EmailService emailService;
 
-    @Mock
-    private RatingService ratingService;
+    @Spy
+    private ProductCatalogCache catalogCache = new ProductCatalogCache(100, 60_000);
 
     @InjectMocks
     private ProductService productService;
@@ -82,11 +96,14 @@ class ProductServiceTest {
                         .name("size")
                         .value("30ml")
                         .build()))
+                .ratingSummary(Product.RatingSummary.builder()
+                        .count(12)
+                        .sum(54)
+                        .histogram(Map.of("5", 6L, "4", 6L))
+                        .build())
                 .build();
 
         when(productRepository.findById("prod-1")).thenReturn(Optional.of(product));
-        when(ratingService.getProductAverageRating("prod-1")).thenReturn(4.5);
-        when(ratingService.getProductRatingCount("prod-1")).thenReturn(12L);
 
         ProductResponse response = productService.getProductById("prod-1");
 
@@ -96,9 +113,9 @@ class ProductServiceTest {
         assertEquals(12L, response.getTotalRatings());
         assertThat(response.getSpecifications()).hasSize(1);
 
+        // Ratings come from the denormalized summary, not from extra queries
         verify(productRepository).findById("prod-1");
-        verify(ratingService).getProductAverageRating("prod-1");
-        verify(ratingService).getProductRatingCount("prod-1");
+        verifyNoMoreInteractions(productRepository);
     }
 
     @Test
@@ -116,8 +133,6 @@ class ProductServiceTest {
             saved.setId("generated-id");
             return saved;
         });
-        doReturn(0.0).when(ratingService).getProductAverageRating("generated-id");
-        doReturn(0L).when(ratingService).getProductRatingCount("generated-id");
 
         TestingAuthenticationToken authentication = new TestingAuthenticationToken("admin@example.com", null);
         SecurityContextHolder.getContext().setAuthentication(authentication);
@@ -149,9 +164,8 @@ class ProductServiceTest {
                 .build();
 
         when(productRepository.findById("prod-low")).thenReturn(Optional.of(existingProduct));
-        when(productRepository.save(any(Product.class))).thenAnswer(invocation -> invocation.getArgument(0));
-        doReturn(0.0).when(ratingService).getProductAverageRating("prod-low");
-        doReturn(0L).when(ratingService).getProductRatingCount("prod-low");
+        when(productRepository.updateDetails(any(), any(Product.class), anyBoolean()))
+                .thenAnswer(invocation -> Optional.of(invocation.getArgument(1)));
 
         ProductRequest request = buildProductRequest();
         request.setStockQuantity(3);
@@ -159,7 +173,7 @@ class ProductServiceTest {
 
         ProductResponse response = productService.updateProduct("prod-low", request);
 
-        verify(productRepository).save(existingProduct);
+        verify(productRepository).updateDetails("prod-low", existingProduct, true);
         assertEquals(3, existingProduct.getStockQuantity());
         verify(emailService).sendLowStockNotificationToAdmin(response);
     }
@@ -176,9 +190,8 @@ class ProductServiceTest {
                 .build();
 
         when(productRepository.findById("prod-ok")).thenReturn(Optional.of(existingProduct));
-        when(productRepository.save(any(Product.class))).thenAnswer(invocation -> invocation.getArgument(0));
-        doReturn(0.0).when(ratingService).getProductAverageRating("prod-ok");
-        doReturn(0L).when(ratingService).getProductRatingCount("prod-ok");
+        when(productRepository.updateDetails(any(), any(Product.class), anyBoolean()))
+                .thenAnswer(invocation -> Optional.of(invocation.getArgument(1)));
 
         ProductRequest request = buildProductRequest();
         request.setStockQuantity(8);
@@ -188,6 +201,151 @@ class ProductServiceTest {
         verify(emailService, never()).sendLowStockNotificationToAdmin(any(ProductResponse.class));
     }
 
+    @Test
+    void updateProductKeepsRatingsRecordedAfterTheRead() {
+        Product read = Product.builder()
+                .id("prod-1")
+                .name("Night Cream")
+                .category("skincare")
+                .price(new BigDecimal("70.00"))
+                .stockQuantity(10)
+                .active(true)
+                .ratingSummary(Product.RatingSummary.builder().count(1).sum(4).histogram(Map.of("4", 1L)).build())
+                .build();
+        // What the database holds by the time the update is written: a 2-star rating was added meanwhile
+        Product stored = Product.builder()
+                .id("prod-1")
+                .name("Night Cream")
+                .stockQuantity(10)
+                .ratingSummary(Product.RatingSummary.builder().count(2).sum(6).histogram(Map.of("4", 1L, "2", 1L)).build())
+                .build();
+
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Product.class)))
+                .thenAnswer(invocation -> {
+                    stored.setName(read.getName());
+                    stored.setPrice(read.getPrice());
+                    return stored;
+                });
+        ProductRepositoryImpl repositoryImpl = new ProductRepositoryImpl(mongoTemplate);
+        when(productRepository.findById("prod-1")).thenReturn(Optional.of(read));
+        when(productRepository.updateDetails(any(), any(Product.class), anyBoolean()))
+                .thenAnswer(invocation -> repositoryImpl.updateDetails(
+                        invocation.getArgument(0), invocation.getArgument(1), invocation.getArgument(2)));
+
+        ProductRequest request = buildProductRequest();
+        request.setStockQuantity(10);
+        ProductResponse response = productService.updateProduct("prod-1", request);
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).findAndModify(any(Query.class), update.capture(), any(FindAndModifyOptions.class), eq(Product.class));
+        Document set = update.getValue().getUpdateObject().get("$set", Document.class);
+        assertThat(set).doesNotContainKey("ratingSummary").doesNotContainKey("stockQuantity");
+        assertThat(update.getValue().getUpdateObject()).containsOnlyKeys("$set");
+        assertEquals(2L, response.getTotalRatings());
+        assertEquals(3.0, response.getAverageRating());
+        verify(productRepository, never()).save(any(Product.class));
+    }
+
+    @Test
+    void repeatedCatalogReadsAreServedFromCache() {
+        Product product = Product.builder()
+                .id("prod-1")
+                .name("Hydrating Serum")
+                .category("skincare")
+                .price(new BigDecimal("100.00"))
+                .stockQuantity(12)
+                .active(true)
+                .build();
+        when(productRepository.findById("prod-1")).thenReturn(Optional.of(product));
+        when(productRepository.findByCategory("skincare")).thenReturn(List.of(product));
+
+        for (int i = 0; i < 5; i++) {
+            productService.getProductById("prod-1");
+            productService.getProductsByCategory("skincare");
+        }
+
+        verify(productRepository, times(1)).findById("prod-1");
+        verify(productRepository, times(1)).findByCategory("skincare");
+        assertEquals(8L, catalogCache.getStats().get("hits"));
+        assertEquals(2L, catalogCache.getStats().get("misses"));
+    }
+
+    @Test
+    void updateProductInvalidatesCachedProductAndListings() {
+        Product product = Product.builder()
+                .id("prod-1")
+                .name("Night Cream")
+                .category("skincare")
+                .price(new BigDecimal("70.00"))
+                .stockQuantity(10)
+                .active(true)
+                .build();
+        when(productRepository.findById("prod-1")).thenReturn(Optional.of(product));
+        when(productRepository.findByActiveIsTrue()).thenReturn(List.of(product));
+        when(productRepository.updateDetails(any(), any(Product.class), anyBoolean()))
+                .thenAnswer(invocation -> Optional.of(invocation.getArgument(1)));
+
+        assertEquals(10, productService.getActiveProducts().get(0).getStockQuantity());
+
+        ProductRequest request = buildProductRequest();
+        request.setStockQuantity(8);
+        request.setActive(true);
+        productService.updateProduct("prod-1", request);
+
+        assertEquals(8, productService.getActiveProducts().get(0).getStockQuantity());
+        assertEquals(8, productService.getProductById("prod-1").getStockQuantity());
+        verify(productRepository, times(2)).findByActiveIsTrue();
+    }
+
+    @Test
+    void cachedProductFlipsFinalPriceWhenDiscountWindowOpens() throws InterruptedException {
+        Product product = Product.builder()
+                .id("prod-1")
+                .name("Hydrating Serum")
+                .category("skincare")
+                .price(new BigDecimal("100.00"))
+                .stockQuantity(12)
+                .active(true)
+                .discountPercentage(new BigDecimal("10"))
+                .discountStartDate(Date.from(Instant.now().plusMillis(200)))
+                .discountEndDate(Date.from(Instant.now().plus(1, ChronoUnit.DAYS)))
+                .build();
+        when(productRepository.findById("prod-1")).thenReturn(Optional.of(product));
+
+        assertEquals(0, new BigDecimal("100.00").compareTo(productService.getProductById("prod-1").getFinalPrice()));
+        assertEquals(0, new BigDecimal("100.00").compareTo(productService.getProductById("prod-1").getFinalPrice()));
+
+        Thread.sleep(300);
+
+        assertEquals(0, new BigDecimal("90.00").compareTo(productService.getProductById("prod-1").getFinalPrice()));
+        verify(productRepository, times(2)).findById("prod-1");
+    }
+
+    @Test
+    void cachedListingIsReloadedOnceMaxStalenessPasses() {
+        AtomicLong now = new AtomicLong(1_000_000L);
+        ProductCatalogCache cache = new ProductCatalogCache(100, 60_000, now::get);
+        AtomicInteger loads = new AtomicInteger();
+        Supplier<List<ProductResponse>> loader = () -> {
+            loads.incrementAndGet();
+            return List.of(ProductResponse.builder().id("prod-1").build());
+        };
+
+        cache.getActiveProducts(loader);
+        now.addAndGet(59_999);
+        cache.getActiveProducts(loader);
+        assertEquals(1, loads.get());
+
+        now.addAndGet(1);
+        cache.getActiveProducts(loader);
+        assertEquals(2, loads.get());
+
+        now.addAndGet(60_000);
+        cache.purgeExpired();
+        assertEquals(0, cache.getStats().get("size"));
+    }
+
     private ProductRequest buildProductRequest() {
         ProductRequest request = new ProductRequest();
         request.setName("Glow Mask");
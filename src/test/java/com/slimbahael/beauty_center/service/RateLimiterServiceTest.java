@@ -0,0 +1,148 @@
+package com.slimbahael.beauty_center.service;
+
+import com.slimbahael.beauty_center.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RateLimiterServiceTest {
+
+    private static final long MINUTE = 60_000;
+
+    // Start of a one-minute bucket
+    private final AtomicLong now = new AtomicLong(1_700_000_040_000L);
+    private final StandardEnvironment environment = new StandardEnvironment();
+    private final RateLimiterService rateLimiterService =
+            new RateLimiterService(new InMemorySharedStateStore(now::get), environment, now::get);
+
+    @Test
+    void rejectsOnceTheWindowIsFullAndDoesNotCountRejections() {
+        for (int i = 0; i < 5; i++) {
+            rateLimiterService.ensureAllowed("reset:a@example.com", 5, Duration.ofMinutes(1), "Too many requests");
+        }
+
+        assertThatThrownBy(() -> rateLimiterService.ensureAllowed(
+                "reset:a@example.com", 5, Duration.ofMinutes(1), "Too many requests"))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Too many requests");
+        // The previous bucket decays linearly: 5 * (1 - 0.2) + 1 fits at 72s
+        assertThat(rateLimiterService.tryAcquire("reset:a@example.com", 5, MINUTE, false)).isEqualTo(72_000L);
+
+        now.addAndGet(72_000);
+        assertThat(rateLimiterService.tryAcquire("reset:a@example.com", 5, MINUTE, false)).isZero();
+        assertThat(rateLimiterService.tryAcquire("reset:a@example.com", 5, MINUTE, false)).isGreaterThan(0L);
+    }
+
+    @Test
+    void noDoubleBurstAcrossBucketBoundaries() {
+        now.addAndGet(59_000);
+        for (int i = 0; i < 5; i++) {
+            assertThat(rateLimiterService.tryAcquire("10.0.0.1", 5, MINUTE, false)).isZero();
+        }
+
+        // A fixed window would reset here and allow another full burst
+        now.addAndGet(2_000);
+        assertThat(rateLimiterService.tryAcquire("10.0.0.1", 5, MINUTE, false)).isGreaterThan(0L);
+
+        // Halfway through the next bucket half of the earlier burst still counts
+        now.addAndGet(29_000);
+        int allowed = 0;
+        for (int i = 0; i < 5; i++) {
+            allowed += rateLimiterService.tryAcquire("10.0.0.1", 5, MINUTE, true) == 0 ? 1 : 0;
+        }
+        assertThat(allowed).isEqualTo(2);
+    }
+
+    @Test
+    void keysAreLimitedIndependentlyAndIdleKeysAreEvicted() {
+        for (int i = 0; i < 5; i++) {
+            rateLimiterService.tryAcquire("10.0.0.1", 5, MINUTE, false);
+        }
+
+        assertThat(rateLimiterService.tryAcquire("10.0.0.2", 5, MINUTE, false)).isZero();
+        assertThat(rateLimiterService.getStats()).containsEntry("trackedKeys", 2);
+
+        now.addAndGet(MINUTE);
+        rateLimiterService.tryAcquire("10.0.0.2", 5, MINUTE, false);
+        now.addAndGet(MINUTE);
+        rateLimiterService.evictIdle();
+
+        // Only the key with a request in the last two windows is kept
+        assertThat(rateLimiterService.getStats())
+                .containsEntry("trackedKeys", 1)
+                .containsEntry("evictions", 1L);
+    }
+
+    @Test
+    void namedPoliciesComeFromPropertiesWithSharedDefaults() {
+        environment.getPropertySources().addFirst(new MapPropertySource("test", Map.of(
+                "rate-limiter.limit", "2",
+                "rate-limiter.password-reset.limit", "3",
+                "rate-limiter.password-reset.window-seconds", "900")));
+
+        for (int i = 0; i < 3; i++) {
+            rateLimiterService.ensureAllowed("password-reset", "a@example.com", "Too many requests");
+        }
+        assertThatThrownBy(() -> rateLimiterService.ensureAllowed("password-reset", "a@example.com", "Too many requests"))
+                .isInstanceOf(BadRequestException.class);
+
+        rateLimiterService.ensureAllowed("contact-form", "a@example.com", "Too many requests");
+        rateLimiterService.ensureAllowed("contact-form", "a@example.com", "Too many requests");
+        assertThatThrownBy(() -> rateLimiterService.ensureAllowed("contact-form", "a@example.com", "Too many requests"))
+                .isInstanceOf(BadRequestException.class);
+
+        assertThat(rateLimiterService.getStats()).containsEntry("rejections", 2L);
+    }
+
+    @Test
+    void reportsTheHottestKeysFirst() {
+        for (int i = 0; i < 3; i++) {
+            rateLimiterService.tryAcquire("10.0.0.1", 100, MINUTE, false);
+        }
+        for (int i = 0; i < 7; i++) {
+            rateLimiterService.tryAcquire("10.0.0.2", 100, MINUTE, false);
+        }
+        rateLimiterService.tryAcquire("10.0.0.3", 100, MINUTE, false);
+
+        List<Map<String, Object>> hottest = rateLimiterService.getHottestKeys(2);
+
+        assertThat(hottest).hasSize(2);
+        assertThat(hottest.get(0)).containsEntry("key", "10.0.0.2").containsEntry("requestsInWindow", 7L);
+        assertThat(hottest.get(1)).containsEntry("key", "10.0.0.1").containsEntry("requestsInWindow", 3L);
+        assertThat(rateLimiterService.isShared()).isFalse();
+    }
+
+    @Test
+    void sharedModeCapsTheKeysTrackedForTheReport() {
+        environment.getPropertySources().addFirst(new MapPropertySource("test", Map.of(
+                "rate-limiter.report-max-keys", "2")));
+        InMemorySharedStateStore sharedStore = new InMemorySharedStateStore(now::get) {
+            @Override
+            public boolean isShared() {
+                return true;
+            }
+        };
+        RateLimiterService sharedLimiter = new RateLimiterService(sharedStore, environment, now::get);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(sharedLimiter.tryAcquire("10.0.0." + i, 5, MINUTE, false)).isZero();
+        }
+        assertThat(sharedLimiter.tryAcquire("10.0.0.0", 5, MINUTE, false)).isZero();
+
+        // Keys already tracked keep counting; new ones are decided by the shared store only
+        assertThat(sharedLimiter.getStats())
+                .containsEntry("trackedKeys", 2)
+                .containsEntry("untrackedRequests", 3L);
+        assertThat(sharedLimiter.getHottestKeys(1).get(0))
+                .containsEntry("key", "10.0.0.0")
+                .containsEntry("requestsInWindow", 2L);
+    }
+}
@@ -0,0 +1,144 @@
+package com.slimbahael.beauty_center.service;
+
+import com.slimbahael.beauty_center.dto.RatingRequest;
+import com.slimbahael.beauty_center.model.Product;
+import com.slimbahael.beauty_center.model.Rating;
+import com.slimbahael.beauty_center.model.User;
+import com.slimbahael.beauty_center.repository.OrderRepository;
+import com.slimbahael.beauty_center.repository.ProductRepository;
+import com.slimbahael.beauty_center.repository.RatingRepository;
+import com.slimbahael.beauty_center.security.CurrentUserResolver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RatingServiceTest {
+
+    @Mock
+    private RatingRepository ratingRepository;
+    @Mock
+    private ProductRepository productRepository;
+    @Mock
+    private CurrentUserResolver currentUserResolver;
+    @Mock
+    private OrderRepository orderRepository;
+    @Mock
+    private ProductCatalogCache catalogCache;
+
+    @InjectMocks
+    private RatingService ratingService;
+
+    private User customer;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        customer = User.builder()
+                .id("cust-1")
+                .firstName("Jane")
+                .lastName("Doe")
+                .role("CUSTOMER")
+                .build();
+        product = Product.builder().id("prod-1").name("Serum").build();
+    }
+
+    @Test
+    void newRatingIncrementsProductSummary() {
+        when(currentUserResolver.getCurrentUser()).thenReturn(customer);
+        when(productRepository.findById("prod-1")).thenReturn(Optional.of(product));
+        when(ratingRepository.findByProductIdAndCustomerId("prod-1", "cust-1")).thenReturn(Optional.empty());
+        when(orderRepository.findByCustomerId("cust-1")).thenReturn(List.of());
+        when(ratingRepository.save(any(Rating.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        ratingService.createOrUpdateRating(ratingRequest(4));
+
+        verify(productRepository).applyRatingChange(eq("prod-1"), isNull(), eq(4));
+    }
+
+    @Test
+    void changedRatingMovesSummaryFromOldToNewStars() {
+        Rating existing = Rating.builder()
+                .id("rating-1")
+                .productId("prod-1")
+                .customerId("cust-1")
+                .rating(2)
+                .build();
+        when(currentUserResolver.getCurrentUser()).thenReturn(customer);
+        when(productRepository.findById("prod-1")).thenReturn(Optional.of(product));
+        when(ratingRepository.findByProductIdAndCustomerId("prod-1", "cust-1")).thenReturn(Optional.of(existing));
+        when(ratingRepository.save(any(Rating.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        ratingService.createOrUpdateRating(ratingRequest(5));
+
+        verify(productRepository).applyRatingChange("prod-1", 2, 5);
+        verify(catalogCache).invalidateProduct("prod-1");
+    }
+
+    @Test
+    void deletedRatingDecrementsProductSummary() {
+        Rating existing = Rating.builder()
+                .id("rating-1")
+                .productId("prod-1")
+                .customerId("cust-1")
+                .rating(3)
+                .build();
+        when(currentUserResolver.getCurrentUser()).thenReturn(customer);
+        when(ratingRepository.findById("rating-1")).thenReturn(Optional.of(existing));
+
+        ratingService.deleteRating("rating-1");
+
+        verify(ratingRepository).delete(existing);
+        verify(productRepository).applyRatingChange("prod-1", 3, null);
+        verify(catalogCache).invalidateProduct("prod-1");
+    }
+
+    @Test
+    void averageAndCountAreReadFromProductSummary() {
+        product.setRatingSummary(Product.RatingSummary.builder()
+                .count(3)
+                .sum(13)
+                .histogram(Map.of("5", 2L, "3", 1L))
+                .build());
+        when(productRepository.findById("prod-1")).thenReturn(Optional.of(product));
+
+        assertThat(ratingService.getProductAverageRating("prod-1")).isEqualTo(4.3);
+        assertThat(ratingService.getProductRatingCount("prod-1")).isEqualTo(3L);
+    }
+
+    @Test
+    void rebuildReplacesSummariesWithAggregatedValues() {
+        Map<String, Product.RatingSummary> summaries = Map.of("prod-1", Product.RatingSummary.builder()
+                .count(2)
+                .sum(9)
+                .histogram(Map.of("5", 1L, "4", 1L))
+                .build());
+        when(ratingRepository.summarizeRatingsByProduct()).thenReturn(summaries);
+        when(productRepository.replaceRatingSummaries(summaries)).thenReturn(1L);
+
+        assertThat(ratingService.rebuildRatingSummaries()).isEqualTo(1L);
+        verify(catalogCache).invalidateAll();
+    }
+
+    private RatingRequest ratingRequest(int stars) {
+        RatingRequest request = new RatingRequest();
+        request.setProductId("prod-1");
+        request.setRating(stars);
+        request.setComment("Nice");
+        return request;
+    }
+}
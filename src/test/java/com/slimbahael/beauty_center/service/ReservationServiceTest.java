@@ -1,38 +1,53 @@
 package com.slimbahael.beauty_center.service;
 
 import com.slimbahael.beauty_center.dto.CreateReservationRequest;
+import com.slimbahael.beauty_center.dto.CursorPage;
+import com.slimbahael.beauty_center.dto.ReservationResponse;
 import com.slimbahael.beauty_center.exception.BadRequestException;
 import com.slimbahael.beauty_center.model.Reservation;
 import com.slimbahael.beauty_center.model.Service;
+import com.slimbahael.beauty_center.model.ServiceAddon;
 import com.slimbahael.beauty_center.model.User;
 import com.slimbahael.beauty_center.repository.ReservationRepository;
-import com.slimbahael.beauty_center.repository.ServiceAddonRepository;
-import com.slimbahael.beauty_center.repository.ServiceRepository;
 import com.slimbahael.beauty_center.repository.UserRepository;
+import com.slimbahael.beauty_center.security.CurrentUserResolver;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.security.authentication.TestingAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -44,13 +59,17 @@ class ReservationServiceTest {
     @Mock
     private UserRepository userRepository;
     @Mock
-    private ServiceRepository serviceRepository;
-    @Mock
-    private ServiceAddonRepository serviceAddonRepository;
+    private ServiceCatalogCache serviceCatalogCache;
     @Mock
     private SmsService smsService;
     @Mock
     private EmailService emailService;
+    @Mock
+    private CurrentUserResolver currentUserResolver;
+    @Mock
+    private CursorPaginationService cursorPaginationService;
+    @Mock
+    private MongoIndexService mongoIndexService;
 
     @InjectMocks
     private ReservationService reservationService;
@@ -116,19 +135,16 @@ class ReservationServiceTest {
         SecurityContextHolder.getContext().setAuthentication(
                 new TestingAuthenticationToken(customer.getEmail(), null));
 
-        when(userRepository.findByEmail(customer.getEmail())).thenReturn(Optional.of(customer));
-        when(serviceRepository.findById("svc-1")).thenReturn(Optional.of(service));
+        when(currentUserResolver.getCurrentUser()).thenReturn(customer);
+        when(serviceCatalogCache.snapshot()).thenReturn(ServiceCatalogSnapshot.of(List.of(service), List.of()));
         when(userRepository.findById("staff-1")).thenReturn(Optional.of(staff));
-        when(reservationRepository.findByStaffIdAndReservationDateAndTimeSlot(
-                "staff-1", reservationDate, "MORNING")).thenReturn(Collections.emptyList());
         when(reservationRepository.save(any(Reservation.class))).thenAnswer(invocation -> {
             Reservation saved = invocation.getArgument(0);
             saved.setId("resv-1");
             return saved;
         });
-        // mapReservationToResponse re-fetches users/services
-        when(userRepository.findById("cust-1")).thenReturn(Optional.of(customer));
-        when(serviceRepository.findById("svc-1")).thenReturn(Optional.of(service));
+        // mapReservationToResponse batch-loads users; the service comes from the catalog snapshot
+        when(userRepository.findAllById(any())).thenReturn(List.of(customer, staff));
 
         var response = reservationService.createReservation(request);
 
@@ -161,8 +177,8 @@ class ReservationServiceTest {
         SecurityContextHolder.getContext().setAuthentication(
                 new TestingAuthenticationToken(customer.getEmail(), null));
 
-        when(userRepository.findByEmail(customer.getEmail())).thenReturn(Optional.of(customer));
-        when(serviceRepository.findById("svc-1")).thenReturn(Optional.of(service));
+        when(currentUserResolver.getCurrentUser()).thenReturn(customer);
+        when(serviceCatalogCache.snapshot()).thenReturn(ServiceCatalogSnapshot.of(List.of(service), List.of()));
         when(userRepository.findById("staff-1")).thenReturn(Optional.of(staff));
 
         assertThrows(BadRequestException.class, () -> reservationService.createReservation(request));
@@ -171,4 +187,173 @@ class ReservationServiceTest {
         verify(smsService, never()).sendSms(any(), any());
         verify(emailService, never()).sendReservationConfirmationEmail(any(), any());
     }
+
+    @Test
+    void createReservationChecksAddonCompatibilityAgainstCatalogSnapshot() {
+        ServiceAddon compatible = ServiceAddon.builder()
+                .id("addon-1")
+                .name("Aromatherapy")
+                .price(new BigDecimal("15.00"))
+                .compatibleServiceIds(List.of("svc-1"))
+                .build();
+        ServiceAddon incompatible = ServiceAddon.builder()
+                .id("addon-2")
+                .name("Gel polish")
+                .price(new BigDecimal("10.00"))
+                .compatibleServiceIds(List.of("svc-nails"))
+                .build();
+
+        CreateReservationRequest request = new CreateReservationRequest();
+        request.setStaffId("staff-1");
+        request.setServiceId("svc-1");
+        request.setTimeSlot("MORNING");
+        request.setReservationDate(reservationDate);
+        request.setAddonIds(List.of("addon-1", "addon-2"));
+
+        when(currentUserResolver.getCurrentUser()).thenReturn(customer);
+        when(serviceCatalogCache.snapshot())
+                .thenReturn(ServiceCatalogSnapshot.of(List.of(service), List.of(compatible, incompatible)));
+        when(userRepository.findById("staff-1")).thenReturn(Optional.of(staff));
+
+        BadRequestException error = assertThrows(BadRequestException.class,
+                () -> reservationService.createReservation(request));
+
+        assertThat(error.getMessage()).isEqualTo("Selected addon is not compatible with the service");
+        verify(reservationRepository, never()).save(any());
+    }
+
+    @Test
+    void createReservationChecksTheSlotWhileTheUniqueIndexIsNotInForce() {
+        CreateReservationRequest request = new CreateReservationRequest();
+        request.setStaffId("staff-1");
+        request.setServiceId("svc-1");
+        request.setTimeSlot("MORNING");
+        request.setReservationDate(reservationDate);
+
+        when(currentUserResolver.getCurrentUser()).thenReturn(customer);
+        when(serviceCatalogCache.snapshot()).thenReturn(ServiceCatalogSnapshot.of(List.of(service), List.of()));
+        when(userRepository.findById("staff-1")).thenReturn(Optional.of(staff));
+        when(mongoIndexService.isUniqueIndexEnforced("reservations", MongoIndexService.STAFF_SLOT_INDEX)).thenReturn(false);
+        when(reservationRepository.findByStaffIdAndReservationDateAndTimeSlot("staff-1", reservationDate, "MORNING"))
+                .thenReturn(List.of(Reservation.builder().id("resv-0").status("CONFIRMED").build()));
+
+        BadRequestException error = assertThrows(BadRequestException.class,
+                () -> reservationService.createReservation(request));
+        assertThat(error.getMessage()).isEqualTo("Staff is already booked for the selected time slot");
+        verify(reservationRepository, never()).save(any());
+    }
+
+    @Test
+    void concurrentBookingsOfSameSlotHaveExactlyOneWinnerAgainstStubbedUniqueIndex() throws Exception {
+        CreateReservationRequest request = new CreateReservationRequest();
+        request.setStaffId("staff-1");
+        request.setServiceId("svc-1");
+        request.setTimeSlot("MORNING");
+        request.setReservationDate(reservationDate);
+
+        // Emulates the unique (staffId, reservationDate, timeSlot) index with a set; the real index is not exercised here
+        Set<String> claimedSlots = ConcurrentHashMap.newKeySet();
+        when(mongoIndexService.isUniqueIndexEnforced("reservations", MongoIndexService.STAFF_SLOT_INDEX)).thenReturn(true);
+        when(currentUserResolver.getCurrentUser()).thenReturn(customer);
+        when(serviceCatalogCache.snapshot()).thenReturn(ServiceCatalogSnapshot.of(List.of(service), List.of()));
+        when(userRepository.findById("staff-1")).thenReturn(Optional.of(staff));
+        when(reservationRepository.save(any(Reservation.class))).thenAnswer(invocation -> {
+            Reservation reservation = invocation.getArgument(0);
+            String slot = reservation.getStaffId() + "|" + reservation.getReservationDate().getTime() + "|" + reservation.getTimeSlot();
+            if (!claimedSlots.add(slot)) {
+                throw new DuplicateKeyException("E11000 duplicate key error collection: reservations index: staff_slot_unique");
+            }
+            reservation.setId("resv-winner");
+            return reservation;
+        });
+        when(userRepository.findAllById(any())).thenReturn(List.of(customer, staff));
+
+        int attempts = 20;
+        ExecutorService executor = Executors.newFixedThreadPool(attempts);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger booked = new AtomicInteger();
+        AtomicInteger alreadyBooked = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < attempts; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    reservationService.createReservation(request);
+                    booked.incrementAndGet();
+                } catch (BadRequestException e) {
+                    assertThat(e.getMessage()).isEqualTo("Staff is already booked for the selected time slot");
+                    alreadyBooked.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertThat(booked.get()).isEqualTo(1);
+        assertThat(alreadyBooked.get()).isEqualTo(attempts - 1);
+        verify(reservationRepository, never()).findByStaffIdAndReservationDateAndTimeSlot(any(), any(), any());
+        verify(emailService, times(1)).sendReservationConfirmationEmail(eq(customer.getEmail()), any());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {20, 200})
+    void getAllReservationsIssuesConstantNumberOfQueriesRegardlessOfSize(int size) {
+        // Every reservation has its own customer, staff member, service and addon
+        List<Reservation> reservations = new ArrayList<>();
+        List<Service> services = new ArrayList<>();
+        List<ServiceAddon> addons = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            services.add(Service.builder().id("svc-" + i).name("Service " + i).price(new BigDecimal("80.00")).build());
+            addons.add(ServiceAddon.builder().id("addon-" + i).name("Addon " + i).price(new BigDecimal("15.00")).build());
+            reservations.add(Reservation.builder()
+                    .id("resv-" + i)
+                    .customerId("cust-" + i)
+                    .staffId("staff-" + i)
+                    .serviceId("svc-" + i)
+                    .addonIds(List.of("addon-" + i))
+                    .reservationDate(reservationDate)
+                    .timeSlot(i % 2 == 0 ? "MORNING" : "EVENING")
+                    .status("CONFIRMED")
+                    .totalAmount(new BigDecimal("95.00"))
+                    .build());
+        }
+
+        when(cursorPaginationService.findPage(any(), eq(Reservation.class), eq("reservationDate"), any(),
+                any(), any(), any(), eq(size)))
+                .thenReturn(CursorPage.<Reservation>builder()
+                        .items(reservations)
+                        .hasMore(false)
+                        .limit(size)
+                        .build());
+        when(userRepository.findAllById(any())).thenAnswer(invocation -> {
+            List<User> users = new ArrayList<>();
+            for (String id : invocation.<Iterable<String>>getArgument(0)) {
+                users.add(User.builder().id(id).firstName("User").lastName(id).build());
+            }
+            return users;
+        });
+        when(serviceCatalogCache.snapshot()).thenReturn(ServiceCatalogSnapshot.of(services, addons));
+
+        List<ReservationResponse> responses = reservationService.getAllReservations(null, size).getItems();
+
+        assertThat(responses).hasSize(size);
+        ReservationResponse last = responses.get(size - 1);
+        assertThat(last.getCustomerName()).isEqualTo("User cust-" + (size - 1));
+        assertThat(last.getStaffName()).isEqualTo("User staff-" + (size - 1));
+        assertThat(last.getServiceName()).isEqualTo("Service " + (size - 1));
+        assertThat(last.getAddons()).extracting(ReservationResponse.ServiceAddonInfo::getName)
+                .containsExactly("Addon " + (size - 1));
+
+        // One batched user lookup covering every distinct id, and one catalog read, at any size
+        ArgumentCaptor<Iterable<String>> userIds = ArgumentCaptor.forClass(Iterable.class);
+        verify(userRepository, times(1)).findAllById(userIds.capture());
+        assertThat(userIds.getValue()).hasSize(2 * size);
+        verify(userRepository, never()).findById(any());
+        verify(serviceCatalogCache, times(1)).snapshot();
+        verify(reservationRepository, never()).findById(any());
+    }
 }
@@ -0,0 +1,165 @@
+package com.slimbahael.beauty_center.service;
+
+import com.slimbahael.beauty_center.exception.BadRequestException;
+import com.slimbahael.beauty_center.model.StripeEventRecord;
+import com.slimbahael.beauty_center.repository.StripeEventRepository;
+import com.stripe.model.PaymentIntent;
+import com.stripe.model.checkout.Session;
+import com.stripe.net.Webhook;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class StripeWebhookServiceTest {
+
+    private static final String SECRET = "whsec_test_secret";
+
+    @Mock
+    private StripeEventRepository stripeEventRepository;
+    @Mock
+    private PaymentStateService paymentStateService;
+
+    private StripeWebhookService webhookService;
+
+    @BeforeEach
+    void setUp() {
+        webhookService = new StripeWebhookService(stripeEventRepository, paymentStateService, SECRET, 300);
+    }
+
+    @Test
+    void replayedPaymentIntentEventsFeedPaymentState() throws Exception {
+        when(stripeEventRepository.insert(any(StripeEventRecord.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        assertThat(deliver("payment_intent.processing")).isTrue();
+        assertThat(deliver("payment_intent.succeeded")).isTrue();
+
+        ArgumentCaptor<PaymentIntent> intents = ArgumentCaptor.forClass(PaymentIntent.class);
+        ArgumentCaptor<Date> asOf = ArgumentCaptor.forClass(Date.class);
+        verify(paymentStateService, times(2)).recordPaymentIntent(intents.capture(), asOf.capture(), anyString());
+        assertThat(intents.getAllValues()).extracting(PaymentIntent::getStatus).containsExactly("processing", "succeeded");
+        PaymentIntent succeeded = intents.getAllValues().get(1);
+        assertThat(succeeded.getId()).isEqualTo("pi_3PpI1aKx2Lw0Ylbd1abcDEF0");
+        assertThat(succeeded.getAmount()).isEqualTo(5000L);
+        assertThat(succeeded.getMetadata()).containsEntry("user_id", "user-1");
+        assertThat(asOf.getAllValues().get(1)).isEqualTo(new Date(1723716004000L));
+
+        ArgumentCaptor<StripeEventRecord> saved = ArgumentCaptor.forClass(StripeEventRecord.class);
+        verify(stripeEventRepository, times(2)).save(saved.capture());
+        assertThat(saved.getAllValues()).allSatisfy(record -> {
+            assertThat(record.getStatus()).isEqualTo("PROCESSED");
+            assertThat(record.getObjectId()).isEqualTo("pi_3PpI1aKx2Lw0Ylbd1abcDEF0");
+            assertThat(record.getPayload()).contains("\"object\": \"event\"");
+        });
+    }
+
+    @Test
+    void checkoutSessionCompletedRecordsSessionState() throws Exception {
+        when(stripeEventRepository.insert(any(StripeEventRecord.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        deliver("checkout.session.completed");
+
+        ArgumentCaptor<Session> session = ArgumentCaptor.forClass(Session.class);
+        verify(paymentStateService).recordCheckoutSession(session.capture(), any(Date.class), eq("evt_1PpI2bKx2Lw0YlbdSessionDone"));
+        assertThat(session.getValue().getPaymentStatus()).isEqualTo("paid");
+        assertThat(session.getValue().getPaymentIntent()).isEqualTo("pi_3PpI2bKx2Lw0Ylbd1ghiJKL0");
+        assertThat(session.getValue().getMetadata()).containsEntry("gift_card_id", "gc-42");
+    }
+
+    @Test
+    void redeliveredProcessedEventIsNotAppliedAgain() throws Exception {
+        when(stripeEventRepository.insert(any(StripeEventRecord.class))).thenThrow(new DuplicateKeyException("evt"));
+        when(stripeEventRepository.findById("evt_3PpI1aKx2Lw0Ylbd0succeeded"))
+                .thenReturn(Optional.of(StripeEventRecord.builder().id("evt_3PpI1aKx2Lw0Ylbd0succeeded").status("PROCESSED").attempts(1).build()));
+
+        assertThat(deliver("payment_intent.succeeded")).isFalse();
+
+        verifyNoInteractions(paymentStateService);
+        verify(stripeEventRepository, never()).save(any(StripeEventRecord.class));
+    }
+
+    @Test
+    void failedEventIsMarkedFailedAndAppliedAgainOnRedelivery() throws Exception {
+        when(stripeEventRepository.insert(any(StripeEventRecord.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(paymentStateService.recordPaymentIntent(any(PaymentIntent.class), any(Date.class), anyString()))
+                .thenThrow(new IllegalStateException("mongo unavailable"))
+                .thenReturn(true);
+
+        assertThrows(IllegalStateException.class, () -> deliver("payment_intent.succeeded"));
+
+        ArgumentCaptor<StripeEventRecord> saved = ArgumentCaptor.forClass(StripeEventRecord.class);
+        verify(stripeEventRepository).save(saved.capture());
+        StripeEventRecord failed = saved.getValue();
+        assertThat(failed.getStatus()).isEqualTo("FAILED");
+        assertThat(failed.getLastError()).isEqualTo("mongo unavailable");
+
+        // Stripe retries the delivery; the stored record is picked up again
+        when(stripeEventRepository.insert(any(StripeEventRecord.class))).thenThrow(new DuplicateKeyException("evt"));
+        when(stripeEventRepository.findById(failed.getId())).thenReturn(Optional.of(failed));
+
+        assertThat(deliver("payment_intent.succeeded")).isTrue();
+        assertThat(failed.getStatus()).isEqualTo("PROCESSED");
+        assertThat(failed.getAttempts()).isEqualTo(2);
+        assertThat(failed.getLastError()).isNull();
+    }
+
+    @Test
+    void invalidSignatureIsRejectedBeforeAnythingIsStored() throws Exception {
+        String payload = fixture("payment_intent.succeeded");
+
+        assertThrows(BadRequestException.class,
+                () -> webhookService.handle(payload, signatureHeader(payload, "whsec_someone_else")));
+        assertThrows(BadRequestException.class, () -> webhookService.handle(payload, null));
+
+        verifyNoInteractions(stripeEventRepository, paymentStateService);
+    }
+
+    @Test
+    void unrelatedEventsAreStoredButIgnored() throws Exception {
+        when(stripeEventRepository.insert(any(StripeEventRecord.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        assertThat(deliver("customer.created")).isTrue();
+
+        verifyNoInteractions(paymentStateService);
+        verify(stripeEventRepository).save(any(StripeEventRecord.class));
+    }
+
+    private boolean deliver(String fixtureName) throws Exception {
+        String payload = fixture(fixtureName);
+        return webhookService.handle(payload, signatureHeader(payload, SECRET));
+    }
+
+    // Same scheme as Stripe: HMAC-SHA256 over "<timestamp>.<payload>"
+    private String signatureHeader(String payload, String secret) throws Exception {
+        long timestamp = Webhook.Util.getTimeNow();
+        String signature = Webhook.Util.computeHmacSha256(secret, timestamp + "." + payload);
+        return "t=" + timestamp + ",v1=" + signature;
+    }
+
+    private String fixture(String name) throws IOException {
+        try (InputStream in = getClass().getResourceAsStream("/stripe/events/" + name + ".json")) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}